@@ -0,0 +1,104 @@
+#!/usr/bin/env sh
+# Smoke test for the native executable, compared against the JVM build.
+#
+# Starts each build in turn, waits for /api/health/ready, exercises the REST and gRPC
+# endpoints, then reports startup time and resident set size (RSS).
+#
+# Usage:
+#   mvn -DskipTests package && mvn -Pnative -DskipTests native:compile
+#   scripts/native-smoke-test.sh
+#
+# Requires curl and grpcurl on the PATH. The database settings are taken from the
+# usual SPRING_DATASOURCE_* environment variables.
+
+set -eu
+
+HTTP_PORT="${HTTP_PORT:-8081}"
+GRPC_PORT="${GRPC_PORT:-9090}"
+JAR="${JAR:-$(ls target/user-*.jar | head -n 1)}"
+NATIVE="${NATIVE:-target/user-service}"
+TIMEOUT_MS="${TIMEOUT_MS:-120000}"
+BASE="http://localhost:$HTTP_PORT/api/user-info"
+
+now_ms() {
+    date +%s%3N
+}
+
+uuid() {
+    cat /proc/sys/kernel/random/uuid
+}
+
+fail() {
+    echo "FAIL: $*" >&2
+    exit 1
+}
+
+wait_ready() {
+    start="$1"
+    while ! curl -fsS "http://localhost:$HTTP_PORT/api/health/ready" >/dev/null 2>&1; do
+        [ $(( $(now_ms) - start )) -gt "$TIMEOUT_MS" ] && fail "service not ready after ${TIMEOUT_MS}ms"
+        sleep 0.05
+    done
+    echo $(( $(now_ms) - start ))
+}
+
+json_field() {
+    sed -n "s/.*\"$1\" *: *\"\([^\"]*\)\".*/\1/p"
+}
+
+expect_status() {
+    expected="$1"; shift
+    actual=$(curl -s -o /tmp/smoke-body -w '%{http_code}' "$@")
+    [ "$actual" = "$expected" ] || fail "expected HTTP $expected, got $actual for $*"
+}
+
+grpc() {
+    grpcurl -plaintext -d "$2" "localhost:$GRPC_PORT" "userinfo.UserInfoService/$1"
+}
+
+exercise_rest() {
+    user=$(uuid)
+    expect_status 201 -X POST -H "X-User-Id: $user" "$BASE/empty"
+    id=$(json_field id </tmp/smoke-body)
+    expect_status 200 -H "X-User-Id: $user" "$BASE/by-user-id"
+    expect_status 200 -X PATCH -H "X-User-Id: $user" -H 'Content-Type: application/json' \
+        -d '{"fullName":"Smoke Test"}' "$BASE"
+    json_field fullName </tmp/smoke-body | grep -q "Smoke Test" || fail "patch not applied"
+    expect_status 204 -X DELETE "$BASE/$id"
+    expect_status 404 -H "X-User-Id: $user" "$BASE/by-user-id"
+}
+
+exercise_grpc() {
+    user=$(uuid)
+    id=$(grpc CreateEmptyUserInfo "{\"user_id\":\"$user\"}" | json_field id)
+    [ -n "$id" ] || fail "gRPC CreateEmptyUserInfo returned no id"
+    grpc PatchUserInfo "{\"id\":\"$id\",\"full_name\":\"Smoke Test\"}" >/dev/null
+    grpc GetUserInfoById "{\"id\":\"$user\"}" | grep -q "Smoke Test" || fail "gRPC GetUserInfoById"
+    grpc BlogUserInfo "{\"id\":\"$user\"}" | grep -q "Smoke Test" || fail "gRPC BlogUserInfo"
+    grpc DeleteUserInfo "{\"id\":\"$id\"}" | grep -q "true" || fail "gRPC DeleteUserInfo"
+}
+
+rss_kb() {
+    awk '/VmRSS/ {print $2}' "/proc/$1/status"
+}
+
+run() {
+    name="$1"; shift
+    t0=$(now_ms)
+    "$@" >"/tmp/smoke-$name.log" 2>&1 &
+    pid=$!
+    ready_ms=$(wait_ready "$t0")
+    exercise_rest
+    exercise_grpc
+    rss=$(rss_kb "$pid")
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+    printf '%-8s %10s %10s\n' "$name" "$ready_ms" "$rss"
+}
+
+[ -x "$NATIVE" ] || fail "native executable $NATIVE not found (mvn -Pnative native:compile)"
+
+printf '%-8s %10s %10s\n' "build" "ready_ms" "rss_kb"
+run jvm java ${JAVA_OPTS:--Xmx512m -Xms256m} -jar "$JAR"
+run native "$NATIVE"
+echo "OK"
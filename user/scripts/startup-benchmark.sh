@@ -0,0 +1,90 @@
+#!/usr/bin/env sh
+# Startup-time benchmark for the user service.
+#
+# Measures, for each run, the wall-clock time from process start to
+#   1. the first 200 from GET /api/health/ready
+#   2. the first answered gRPC call (GetUserInfoById for a random id; NOT_FOUND counts as answered)
+#
+# Usage:
+#   scripts/startup-benchmark.sh jar    [runs]   # java -jar target/*.jar (plain JVM)
+#   scripts/startup-benchmark.sh docker [runs]   # docker run of $IMAGE (AOT + AOT cache)
+#
+# Requires curl and grpcurl on the PATH. The database settings are taken from the
+# usual SPRING_DATASOURCE_* environment variables.
+
+set -eu
+
+MODE="${1:-jar}"
+RUNS="${2:-5}"
+HTTP_PORT="${HTTP_PORT:-8081}"
+GRPC_PORT="${GRPC_PORT:-9090}"
+IMAGE="${IMAGE:-user-service:latest}"
+JAR="${JAR:-$(ls target/user-*.jar | head -n 1)}"
+TIMEOUT_MS="${TIMEOUT_MS:-120000}"
+
+now_ms() {
+    date +%s%3N
+}
+
+start_service() {
+    case "$MODE" in
+        jar)
+            java ${JAVA_OPTS:-} -jar "$JAR" >/tmp/startup-benchmark.log 2>&1 &
+            echo $!
+            ;;
+        docker)
+            docker run -d --rm -p "$HTTP_PORT:8081" -p "$GRPC_PORT:9090" \
+                -e SPRING_DATASOURCE_URL -e SPRING_DATASOURCE_USERNAME -e SPRING_DATASOURCE_PASSWORD \
+                "$IMAGE"
+            ;;
+        *)
+            echo "unknown mode: $MODE (expected jar or docker)" >&2
+            exit 2
+            ;;
+    esac
+}
+
+stop_service() {
+    case "$MODE" in
+        jar) kill "$1" 2>/dev/null; wait "$1" 2>/dev/null || true ;;
+        docker) docker stop "$1" >/dev/null ;;
+    esac
+}
+
+wait_until() {
+    start="$1"; shift
+    while :; do
+        if "$@" >/dev/null 2>&1; then
+            echo $(( $(now_ms) - start ))
+            return 0
+        fi
+        if [ $(( $(now_ms) - start )) -gt "$TIMEOUT_MS" ]; then
+            echo "timeout"
+            return 1
+        fi
+        sleep 0.05
+    done
+}
+
+ready_probe() {
+    curl -fsS "http://localhost:$HTTP_PORT/api/health/ready"
+}
+
+grpc_probe() {
+    out=$(grpcurl -plaintext -d "{\"id\":\"$(cat /proc/sys/kernel/random/uuid)\"}" \
+        "localhost:$GRPC_PORT" userinfo.UserInfoService/GetUserInfoById 2>&1) && return 0
+    echo "$out" | grep -q "NotFound"
+}
+
+echo "mode=$MODE runs=$RUNS"
+echo "run,ready_ms,first_grpc_ms"
+i=1
+while [ "$i" -le "$RUNS" ]; do
+    t0=$(now_ms)
+    handle=$(start_service)
+    ready=$(wait_until "$t0" ready_probe || true)
+    grpc=$(wait_until "$t0" grpc_probe || true)
+    echo "$i,$ready,$grpc"
+    stop_service "$handle"
+    i=$((i + 1))
+done
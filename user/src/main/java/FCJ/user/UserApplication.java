@@ -2,8 +2,11 @@ package FCJ.user;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
 
-@SpringBootApplication
+// The R2DBC pool is built by R2dbcLookupConfig; an auto-configured ConnectionFactory bean would
+// make the JDBC DataSource auto-configuration back off
+@SpringBootApplication(exclude = R2dbcAutoConfiguration.class)
 public class UserApplication {
 
 	public static void main(String[] args) {
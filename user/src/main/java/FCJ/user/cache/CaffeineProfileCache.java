@@ -0,0 +1,86 @@
+package FCJ.user.cache;
+
+import FCJ.user.dto.UserInfoDTO;
+import FCJ.user.store.UserInfoRecordCodec;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Policy;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Heap {@link ProfileCache} on Caffeine (W-TinyLFU eviction), bounded by entry count.
+ */
+public class CaffeineProfileCache implements ProfileCache, MeterBinder {
+
+    private final Cache<UUID, byte[]> cache;
+    private final Policy.VarExpiration<UUID, byte[]> expiration;
+    private final Duration timeToLive;
+
+    public CaffeineProfileCache(long maximumSize, Duration timeToLive) {
+        this.timeToLive = timeToLive;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(Expiry.<UUID, byte[]>writing((userId, record) -> timeToLive))
+                .recordStats()
+                .build();
+        this.expiration = cache.policy().expireVariably().orElseThrow();
+    }
+
+    @Override
+    public Optional<UserInfoDTO> get(UUID userId) {
+        byte[] record = cache.getIfPresent(userId);
+        return record == null ? Optional.empty() : Optional.of(UserInfoRecordCodec.read(ByteBuffer.wrap(record)));
+    }
+
+    @Override
+    public void put(UserInfoDTO userInfo) {
+        if (userInfo.getUserId() != null) {
+            cache.put(userInfo.getUserId(), UserInfoRecordCodec.encode(userInfo));
+        }
+    }
+
+    @Override
+    public void evict(UUID userId) {
+        cache.invalidate(userId);
+    }
+
+    @Override
+    public void warm(UUID userId, byte[] record, Duration age) {
+        Duration remaining = timeToLive.minus(age);
+        if (!remaining.isNegative() && !remaining.isZero()) {
+            expiration.putIfAbsent(userId, record, remaining);
+        }
+    }
+
+    @Override
+    public List<byte[]> hottest(int limit) {
+        return new ArrayList<>(cache.policy().eviction()
+                .map(eviction -> eviction.hottest(limit).values())
+                .orElseGet(() -> cache.asMap().values()));
+    }
+
+    @Override
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    @Override
+    public Duration timeToLive() {
+        return timeToLive;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "user.profile");
+    }
+}
@@ -0,0 +1,48 @@
+package FCJ.user.cache;
+
+import FCJ.user.dto.UserInfoDTO;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+final class DisabledProfileCache implements ProfileCache {
+
+    static final DisabledProfileCache INSTANCE = new DisabledProfileCache();
+
+    private DisabledProfileCache() {
+    }
+
+    @Override
+    public Optional<UserInfoDTO> get(UUID userId) {
+        return Optional.empty();
+    }
+
+    @Override
+    public void put(UserInfoDTO userInfo) {
+    }
+
+    @Override
+    public void evict(UUID userId) {
+    }
+
+    @Override
+    public void warm(UUID userId, byte[] record, Duration age) {
+    }
+
+    @Override
+    public List<byte[]> hottest(int limit) {
+        return List.of();
+    }
+
+    @Override
+    public long size() {
+        return 0;
+    }
+
+    @Override
+    public Duration timeToLive() {
+        return Duration.ZERO;
+    }
+}
@@ -0,0 +1,83 @@
+package FCJ.user.cache;
+
+import FCJ.user.dto.UserInfoDTO;
+import FCJ.user.store.UserInfoRecordCodec;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * The last copy of each profile read from or written to the database, kept for
+ * {@code user.db-resilience.stale-window} so lookups can still be answered while the database is
+ * unavailable. Unlike the {@link ProfileCache}, it is never consulted while the database answers.
+ * Copies handed out are marked {@link UserInfoDTO#isStale() stale}.
+ */
+public class LastKnownProfiles implements MeterBinder {
+
+    private static final LastKnownProfiles DISABLED = new LastKnownProfiles(null);
+
+    private final Cache<UUID, byte[]> copies;
+    private volatile Counter served;
+
+    public LastKnownProfiles(long maximumSize, Duration staleWindow) {
+        this(Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(staleWindow)
+                .build());
+    }
+
+    private LastKnownProfiles(Cache<UUID, byte[]> copies) {
+        this.copies = copies;
+    }
+
+    public static LastKnownProfiles disabled() {
+        return DISABLED;
+    }
+
+    public void record(UserInfoDTO userInfo) {
+        if (copies != null && userInfo.getUserId() != null && !userInfo.isStale()) {
+            copies.put(userInfo.getUserId(), UserInfoRecordCodec.encode(userInfo));
+        }
+    }
+
+    public Optional<UserInfoDTO> get(UUID userId) {
+        byte[] record = copies == null ? null : copies.getIfPresent(userId);
+        if (record == null) {
+            return Optional.empty();
+        }
+        UserInfoDTO userInfo = UserInfoRecordCodec.read(ByteBuffer.wrap(record));
+        userInfo.setStale(true);
+        Counter counter = served;
+        if (counter != null) {
+            counter.increment();
+        }
+        return Optional.of(userInfo);
+    }
+
+    public void evict(UUID userId) {
+        if (copies != null) {
+            copies.invalidate(userId);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (copies == null) {
+            return;
+        }
+        Gauge.builder("user.profile.last_known.size", copies, Cache::estimatedSize)
+                .description("Profiles with a last-known copy for database outages")
+                .register(registry);
+        served = Counter.builder("user.profile.last_known.served")
+                .description("Lookups answered with a stale copy because the database was unavailable")
+                .register(registry);
+    }
+}
@@ -0,0 +1,570 @@
+package FCJ.user.cache;
+
+import FCJ.user.dto.UserInfoDTO;
+import FCJ.user.store.UserInfoRecordCodec;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * {@link ProfileCache} that keeps everything outside the Java heap, so millions of entries cost the
+ * GC next to nothing.
+ * <p>
+ * The cache is split into shards, each with its own lock. A shard has an open-addressing
+ * (linear probing, backward-shift deletion) index in a native segment, 32 bytes per slot: the two
+ * longs of the UUID key, a reference to the record and its expiry time. Records are stored in
+ * {@link UserInfoRecordCodec} form in slab pages with power-of-two size classes and free lists, and
+ * are only decoded when hit. When a shard is full, a CLOCK hand evicts entries that were not read
+ * since its last pass.
+ * <p>
+ * Pages are taken from the memory budget once and never returned to the operating system, but a
+ * page whose last record is removed goes back to a pool shared by all shards and size classes.
+ * When the budget is used up and a record's size class has no free slot, the shard evicts one
+ * entry of that class if it has any; otherwise it empties its least-used page of another class and
+ * reuses it. If neither is possible, the record is not cached rather than the shard being emptied.
+ */
+public class OffHeapProfileCache implements ProfileCache, MeterBinder, AutoCloseable {
+
+    private static final int SHARD_BITS = 4;
+    private static final int SLOT_BYTES = 32;
+    private static final long KEY_HIGH = 0;
+    private static final long KEY_LOW = 8;
+    private static final long REF = 16;
+    private static final long EXPIRES_AT = 24;
+
+    private static final int MIN_CLASS_SHIFT = 6;   // 64-byte records
+    private static final int MAX_CLASS_SHIFT = 12;  // 4 KiB records; larger ones are not cached
+    private static final int PAGE_SHIFT = 16;
+    private static final long PAGE_BYTES = 1L << PAGE_SHIFT;
+    private static final long REFERENCED = 1L << 62;
+
+    private final Arena arena = Arena.ofShared();
+    private final Shard[] shards = new Shard[1 << SHARD_BITS];
+    private final Duration timeToLive;
+    private final long maxMemoryBytes;
+    private final AtomicLong reservedBytes = new AtomicLong();
+    // Empty pages released by any shard; still counted in reservedBytes
+    private final Queue<MemorySegment> sparePages = new ConcurrentLinkedQueue<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public OffHeapProfileCache(long maximumSize, long maxMemoryBytes, Duration timeToLive) {
+        this.timeToLive = timeToLive;
+        this.maxMemoryBytes = maxMemoryBytes;
+        int perShard = (int) Math.max(16, (maximumSize + shards.length - 1) / shards.length);
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new Shard(perShard);
+        }
+        if (reservedBytes.get() > maxMemoryBytes / 2) {
+            arena.close();
+            throw new IllegalArgumentException("Off-heap cache memory of " + maxMemoryBytes
+                    + " bytes is too small for an index of " + maximumSize + " entries");
+        }
+    }
+
+    @Override
+    public Optional<UserInfoDTO> get(UUID userId) {
+        long high = userId.getMostSignificantBits();
+        long low = userId.getLeastSignificantBits();
+        long hash = hash(high, low);
+        Shard shard = shardFor(hash);
+        UserInfoDTO dto = shard.read(high, low, hash, System.currentTimeMillis());
+        if (dto == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(dto);
+    }
+
+    @Override
+    public void put(UserInfoDTO userInfo) {
+        if (userInfo.getUserId() != null) {
+            write(userInfo.getUserId(), UserInfoRecordCodec.encode(userInfo), timeToLive.toMillis(), true);
+        }
+    }
+
+    @Override
+    public void evict(UUID userId) {
+        long high = userId.getMostSignificantBits();
+        long low = userId.getLeastSignificantBits();
+        long hash = hash(high, low);
+        shardFor(hash).remove(high, low, hash);
+    }
+
+    @Override
+    public void warm(UUID userId, byte[] record, Duration age) {
+        long remaining = timeToLive.minus(age).toMillis();
+        if (remaining > 0) {
+            write(userId, record, remaining, false);
+        }
+    }
+
+    @Override
+    public List<byte[]> hottest(int limit) {
+        List<byte[]> referenced = new ArrayList<>();
+        List<byte[]> others = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        for (Shard shard : shards) {
+            shard.collect(referenced, others, now, limit);
+        }
+        referenced.addAll(others);
+        return referenced.size() > limit ? new ArrayList<>(referenced.subList(0, limit)) : referenced;
+    }
+
+    @Override
+    public long size() {
+        long size = 0;
+        for (Shard shard : shards) {
+            size += shard.size;
+        }
+        return size;
+    }
+
+    @Override
+    public Duration timeToLive() {
+        return timeToLive;
+    }
+
+    long reservedBytes() {
+        return reservedBytes.get();
+    }
+
+    @Override
+    public void close() {
+        for (Shard shard : shards) {
+            shard.lock.writeLock().lock();
+        }
+        try {
+            arena.close();
+        } finally {
+            for (Shard shard : shards) {
+                shard.lock.writeLock().unlock();
+            }
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("cache.gets", hits, LongAdder::sum)
+                .tags("cache", "user.profile", "result", "hit").register(registry);
+        FunctionCounter.builder("cache.gets", misses, LongAdder::sum)
+                .tags("cache", "user.profile", "result", "miss").register(registry);
+        FunctionCounter.builder("cache.evictions", evictions, LongAdder::sum)
+                .tags("cache", "user.profile").register(registry);
+        Gauge.builder("cache.size", this, OffHeapProfileCache::size)
+                .tags("cache", "user.profile").register(registry);
+        Gauge.builder("user.profile.cache.off_heap.bytes", reservedBytes, AtomicLong::get)
+                .description("Native memory reserved by the off-heap profile cache")
+                .baseUnit("bytes").register(registry);
+    }
+
+    private void write(UUID userId, byte[] record, long ttlMillis, boolean replace) {
+        int sizeClass = sizeClass(Integer.BYTES + record.length);
+        if (sizeClass < 0) {
+            // Oversized records are simply not cached; drop any previous version
+            evict(userId);
+            return;
+        }
+        long high = userId.getMostSignificantBits();
+        long low = userId.getLeastSignificantBits();
+        long hash = hash(high, low);
+        shardFor(hash).write(high, low, hash, record, sizeClass, System.currentTimeMillis() + ttlMillis, replace);
+    }
+
+    private Shard shardFor(long hash) {
+        return shards[(int) (hash >>> (64 - SHARD_BITS))];
+    }
+
+    private static long hash(long high, long low) {
+        long h = high ^ Long.rotateLeft(low, 32);
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static int sizeClass(int bytes) {
+        int shift = Math.max(MIN_CLASS_SHIFT, 32 - Integer.numberOfLeadingZeros(bytes - 1));
+        return shift > MAX_CLASS_SHIFT ? -1 : shift - MIN_CLASS_SHIFT;
+    }
+
+    private final class Shard {
+        final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        final MemorySegment table;
+        final int mask;
+        final int maxEntries;
+        final Slabs slabs = new Slabs();
+        int size;
+        int hand;
+
+        Shard(int maxEntries) {
+            int capacity = Integer.highestOneBit(Math.max(16, (int) (maxEntries / 0.7)) - 1) << 1;
+            this.table = arena.allocate((long) capacity * SLOT_BYTES, 8);
+            this.mask = capacity - 1;
+            this.maxEntries = maxEntries;
+            reservedBytes.addAndGet(table.byteSize());
+        }
+
+        UserInfoDTO read(long high, long low, long hash, long now) {
+            lock.readLock().lock();
+            try {
+                int slot = find(high, low, hash);
+                if (slot < 0 || expiresAt(slot) <= now) {
+                    return null;
+                }
+                long ref = ref(slot);
+                if ((ref & REFERENCED) == 0) {
+                    // Benign race: concurrent readers can only set the same bit
+                    table.set(ValueLayout.JAVA_LONG, offset(slot) + REF, ref | REFERENCED);
+                }
+                return UserInfoRecordCodec.read(slabs.view(ref & ~REFERENCED));
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        void write(long high, long low, long hash, byte[] record, int sizeClass, long expiresAt, boolean replace) {
+            lock.writeLock().lock();
+            try {
+                int slot = find(high, low, hash);
+                if (slot >= 0) {
+                    if (!replace) {
+                        return;
+                    }
+                    removeAt(slot);
+                }
+                while (size >= maxEntries) {
+                    evictOne(-1);
+                }
+                long ref = slabs.allocate(sizeClass);
+                if (ref < 0) {
+                    ref = reclaim(sizeClass);
+                }
+                if (ref < 0) {
+                    return;
+                }
+                slabs.store(ref, record);
+                slot = (int) hash & mask;
+                while (ref(slot) != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                long base = offset(slot);
+                table.set(ValueLayout.JAVA_LONG, base + KEY_HIGH, high);
+                table.set(ValueLayout.JAVA_LONG, base + KEY_LOW, low);
+                table.set(ValueLayout.JAVA_LONG, base + REF, ref);
+                table.set(ValueLayout.JAVA_LONG, base + EXPIRES_AT, expiresAt);
+                size++;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void remove(long high, long low, long hash) {
+            lock.writeLock().lock();
+            try {
+                int slot = find(high, low, hash);
+                if (slot >= 0) {
+                    removeAt(slot);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void collect(List<byte[]> referenced, List<byte[]> others, long now, int limit) {
+            lock.readLock().lock();
+            try {
+                for (int slot = 0; slot <= mask && referenced.size() < limit; slot++) {
+                    long ref = ref(slot);
+                    if (ref == 0 || expiresAt(slot) <= now) {
+                        continue;
+                    }
+                    byte[] bytes = slabs.copy(ref & ~REFERENCED);
+                    if ((ref & REFERENCED) != 0) {
+                        referenced.add(bytes);
+                    } else if (others.size() < limit) {
+                        others.add(bytes);
+                    }
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        /**
+         * Frees room for a record of {@code sizeClass} once the memory budget is used up: one entry
+         * of the same class if the shard has any, otherwise every entry on its least-used page of
+         * another class, whose page is then reused. Returns -1 if that is not possible.
+         */
+        private long reclaim(int sizeClass) {
+            if (slabs.hasPages(sizeClass)) {
+                evictOne(sizeClass);
+                return slabs.allocate(sizeClass);
+            }
+            long victim = slabs.leastUsedPage();
+            if (victim < 0) {
+                return -1;
+            }
+            int victimClass = (int) (victim >>> 32);
+            int victimPage = (int) victim;
+            for (int slot = 0; slot <= mask; ) {
+                long ref = ref(slot) & ~REFERENCED;
+                if (ref != 0 && Slabs.sizeClassOf(ref) == victimClass && Slabs.pageOf(ref) == victimPage) {
+                    removeAt(slot);
+                    evictions.increment();
+                    // Backward shift may have moved another entry into this slot
+                    continue;
+                }
+                slot++;
+            }
+            // The page went to the shared pool with its last record; another shard may have taken it
+            return slabs.allocate(sizeClass);
+        }
+
+        // CLOCK: clear reference bits until an unreferenced or expired entry comes under the hand.
+        // With sizeClass >= 0 only entries of that class are considered; the shard must hold one.
+        private void evictOne(int sizeClass) {
+            long now = System.currentTimeMillis();
+            while (true) {
+                hand = (hand + 1) & mask;
+                long ref = ref(hand);
+                if (ref == 0 || (sizeClass >= 0 && Slabs.sizeClassOf(ref & ~REFERENCED) != sizeClass)) {
+                    continue;
+                }
+                if ((ref & REFERENCED) != 0 && expiresAt(hand) > now) {
+                    table.set(ValueLayout.JAVA_LONG, offset(hand) + REF, ref & ~REFERENCED);
+                    continue;
+                }
+                removeAt(hand);
+                evictions.increment();
+                // Backward shift may have moved another entry under the hand; look at it again next
+                hand = (hand - 1) & mask;
+                return;
+            }
+        }
+
+        private int find(long high, long low, long hash) {
+            int slot = (int) hash & mask;
+            while (true) {
+                long ref = ref(slot);
+                if (ref == 0) {
+                    return -1;
+                }
+                long base = offset(slot);
+                if (table.get(ValueLayout.JAVA_LONG, base + KEY_HIGH) == high
+                        && table.get(ValueLayout.JAVA_LONG, base + KEY_LOW) == low) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+        }
+
+        private void removeAt(int slot) {
+            slabs.free(ref(slot) & ~REFERENCED);
+            size--;
+            int hole = slot;
+            int next = slot;
+            while (true) {
+                next = (next + 1) & mask;
+                if (ref(next) == 0) {
+                    break;
+                }
+                long base = offset(next);
+                int home = (int) hash(table.get(ValueLayout.JAVA_LONG, base + KEY_HIGH),
+                        table.get(ValueLayout.JAVA_LONG, base + KEY_LOW)) & mask;
+                // Move the entry back unless its home slot lies cyclically in (hole, next]
+                boolean stays = hole <= next
+                        ? home > hole && home <= next
+                        : home > hole || home <= next;
+                if (!stays) {
+                    MemorySegment.copy(table, base, table, offset(hole), SLOT_BYTES);
+                    hole = next;
+                }
+            }
+            table.asSlice(offset(hole), SLOT_BYTES).fill((byte) 0);
+        }
+
+        private long ref(int slot) {
+            return table.get(ValueLayout.JAVA_LONG, offset(slot) + REF);
+        }
+
+        private long expiresAt(int slot) {
+            return table.get(ValueLayout.JAVA_LONG, offset(slot) + EXPIRES_AT);
+        }
+
+        private long offset(int slot) {
+            return (long) slot * SLOT_BYTES;
+        }
+    }
+
+    /**
+     * Slab pages per size class with a free list of slot numbers. A record reference is
+     * {@code (sizeClass << 48) | (page << 16) | slot}, plus one so that zero means "empty". Each page
+     * counts its live records; a page that becomes empty leaves the free list and goes to the shared
+     * pool, and its page number is reused by the next page of that class.
+     */
+    private final class Slabs {
+        private final List<List<MemorySegment>> pages = new ArrayList<>();
+        private final int[][] live = new int[MAX_CLASS_SHIFT - MIN_CLASS_SHIFT + 1][];
+        private final int[] pageCount = new int[live.length];
+        private final long[][] free = new long[live.length][];
+        private final int[] freeCount = new int[live.length];
+
+        Slabs() {
+            for (int i = 0; i < free.length; i++) {
+                pages.add(new ArrayList<>());
+                live[i] = new int[4];
+                free[i] = new long[16];
+            }
+        }
+
+        long allocate(int sizeClass) {
+            if (freeCount[sizeClass] == 0 && !addPage(sizeClass)) {
+                return -1;
+            }
+            long ref = free[sizeClass][--freeCount[sizeClass]];
+            live[sizeClass][pageOf(ref)]++;
+            return ref;
+        }
+
+        void free(long ref) {
+            int sizeClass = sizeClassOf(ref);
+            int page = pageOf(ref);
+            if (--live[sizeClass][page] == 0) {
+                release(sizeClass, page);
+                return;
+            }
+            if (freeCount[sizeClass] == free[sizeClass].length) {
+                free[sizeClass] = Arrays.copyOf(free[sizeClass], free[sizeClass].length * 2);
+            }
+            free[sizeClass][freeCount[sizeClass]++] = ref;
+        }
+
+        boolean hasPages(int sizeClass) {
+            return pageCount[sizeClass] > 0;
+        }
+
+        /**
+         * {@code (sizeClass << 32) | page} of the page with the fewest live records, or -1 if the
+         * shard has no pages.
+         */
+        long leastUsedPage() {
+            long victim = -1;
+            int fewest = Integer.MAX_VALUE;
+            for (int sizeClass = 0; sizeClass < live.length; sizeClass++) {
+                List<MemorySegment> classPages = pages.get(sizeClass);
+                for (int page = 0; page < classPages.size(); page++) {
+                    if (classPages.get(page) != null && live[sizeClass][page] < fewest) {
+                        fewest = live[sizeClass][page];
+                        victim = ((long) sizeClass << 32) | page;
+                    }
+                }
+            }
+            return victim;
+        }
+
+        void store(long ref, byte[] record) {
+            MemorySegment page = page(ref);
+            long offset = slotOffset(ref);
+            page.set(ValueLayout.JAVA_INT, offset, record.length);
+            MemorySegment.copy(record, 0, page, ValueLayout.JAVA_BYTE, offset + Integer.BYTES, record.length);
+        }
+
+        ByteBuffer view(long ref) {
+            MemorySegment page = page(ref);
+            long offset = slotOffset(ref);
+            int length = page.get(ValueLayout.JAVA_INT, offset);
+            return page.asSlice(offset + Integer.BYTES, length).asByteBuffer();
+        }
+
+        byte[] copy(long ref) {
+            MemorySegment page = page(ref);
+            long offset = slotOffset(ref);
+            int length = page.get(ValueLayout.JAVA_INT, offset);
+            return page.asSlice(offset + Integer.BYTES, length).toArray(ValueLayout.JAVA_BYTE);
+        }
+
+        private boolean addPage(int sizeClass) {
+            MemorySegment segment = sparePages.poll();
+            if (segment == null) {
+                if (reservedBytes.addAndGet(PAGE_BYTES) > maxMemoryBytes) {
+                    reservedBytes.addAndGet(-PAGE_BYTES);
+                    return false;
+                }
+                segment = arena.allocate(PAGE_BYTES, 8);
+            }
+            List<MemorySegment> classPages = pages.get(sizeClass);
+            int page = classPages.indexOf(null);
+            if (page < 0) {
+                page = classPages.size();
+                classPages.add(segment);
+                if (live[sizeClass].length == page) {
+                    live[sizeClass] = Arrays.copyOf(live[sizeClass], page * 2);
+                }
+            } else {
+                classPages.set(page, segment);
+            }
+            pageCount[sizeClass]++;
+            int slots = (int) (PAGE_BYTES >>> (sizeClass + MIN_CLASS_SHIFT));
+            if (free[sizeClass].length < freeCount[sizeClass] + slots) {
+                free[sizeClass] = Arrays.copyOf(free[sizeClass], freeCount[sizeClass] + slots);
+            }
+            // Push in reverse so slots are handed out in address order
+            for (int slot = slots - 1; slot >= 0; slot--) {
+                free[sizeClass][freeCount[sizeClass]++] = (((long) sizeClass << 48) | ((long) page << PAGE_SHIFT) | slot) + 1;
+            }
+            return true;
+        }
+
+        private void release(int sizeClass, int page) {
+            long[] classFree = free[sizeClass];
+            int kept = 0;
+            for (int i = 0; i < freeCount[sizeClass]; i++) {
+                if (pageOf(classFree[i]) != page) {
+                    classFree[kept++] = classFree[i];
+                }
+            }
+            freeCount[sizeClass] = kept;
+            sparePages.offer(pages.get(sizeClass).set(page, null));
+            pageCount[sizeClass]--;
+        }
+
+        private MemorySegment page(long ref) {
+            return pages.get(sizeClassOf(ref)).get(pageOf(ref));
+        }
+
+        private long slotOffset(long ref) {
+            long raw = ref - 1;
+            return (raw & ((1L << PAGE_SHIFT) - 1)) << (sizeClassOf(ref) + MIN_CLASS_SHIFT);
+        }
+
+        static int sizeClassOf(long ref) {
+            return (int) ((ref - 1) >>> 48);
+        }
+
+        static int pageOf(long ref) {
+            return (int) (((ref - 1) >>> PAGE_SHIFT) & 0xFFFFFFFFL);
+        }
+    }
+}
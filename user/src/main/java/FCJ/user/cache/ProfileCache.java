@@ -0,0 +1,50 @@
+package FCJ.user.cache;
+
+import FCJ.user.dto.UserInfoDTO;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Read-through cache of UserInfo records keyed by {@code userId}, the key used by the hot
+ * {@code getUserInfoByUserId} and {@code blogUserInfo} lookups. Entries are held in
+ * {@link FCJ.user.store.UserInfoRecordCodec} form so they can be snapshotted without re-encoding,
+ * and every {@link #get} returns a fresh copy.
+ */
+public interface ProfileCache {
+
+    Optional<UserInfoDTO> get(UUID userId);
+
+    void put(UserInfoDTO userInfo);
+
+    /**
+     * Caches a record this instance has just written. A cache shared between instances also tells
+     * the other instances to drop their copies; a purely local cache treats it as {@link #put}.
+     */
+    default void putWritten(UserInfoDTO userInfo) {
+        put(userInfo);
+    }
+
+    void evict(UUID userId);
+
+    /**
+     * Inserts an already encoded record that is {@code age} old, e.g. from a warm-start snapshot.
+     * It expires after whatever is left of the normal time-to-live.
+     */
+    void warm(UUID userId, byte[] record, Duration age);
+
+    /**
+     * Encoded records of up to {@code limit} entries, most frequently used first.
+     */
+    List<byte[]> hottest(int limit);
+
+    long size();
+
+    Duration timeToLive();
+
+    static ProfileCache disabled() {
+        return DisabledProfileCache.INSTANCE;
+    }
+}
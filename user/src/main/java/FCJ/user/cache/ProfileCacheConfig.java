@@ -0,0 +1,60 @@
+package FCJ.user.cache;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import java.time.Duration;
+
+@Configuration
+@EnableConfigurationProperties(ProfileCacheProperties.class)
+public class ProfileCacheConfig {
+
+    @Bean
+    public ProfileCache profileCache(ProfileCacheProperties properties, ObjectProvider<SharedProfileTier> sharedTier,
+                                     ObjectProvider<ResponseBytesCache> responseBytesCache) {
+        if (!properties.isEnabled()) {
+            return ProfileCache.disabled();
+        }
+        ResponseBytesCache responses = responseBytesCache.getIfAvailable();
+        SharedProfileTier shared = sharedTier.getIfAvailable();
+        if (shared == null) {
+            return localCache(properties, responses);
+        }
+        ProfileCacheProperties.Shared sharedProperties = properties.getShared();
+        return new TwoLevelProfileCache(localCache(properties, responses),
+                shared, properties.getExpireAfterWrite(), sharedProperties.getErrorBackoff());
+    }
+
+    /**
+     * Only with the JPA service: the in-memory store does not write through the profile cache, so
+     * nothing would invalidate the responses.
+     */
+    @Bean
+    @Profile("!in-memory")
+    @ConditionalOnProperty(prefix = "user.cache", name = {"enabled", "responses.enabled"}, havingValue = "true", matchIfMissing = true)
+    public ResponseBytesCache responseBytesCache(ProfileCacheProperties properties) {
+        return new ResponseBytesCache(properties.getResponses().getMaximumSize(), localTimeToLive(properties));
+    }
+
+    private static ProfileCache localCache(ProfileCacheProperties properties, ResponseBytesCache responses) {
+        Duration timeToLive = localTimeToLive(properties);
+        ProfileCache local;
+        if (properties.getEngine() == ProfileCacheProperties.Engine.OFF_HEAP) {
+            local = new OffHeapProfileCache(properties.getMaximumSize(),
+                    properties.getOffHeap().getMaxMemory().toBytes(), timeToLive);
+        } else {
+            local = new CaffeineProfileCache(properties.getMaximumSize(), timeToLive);
+        }
+        return responses != null ? new ResponseInvalidatingProfileCache(local, responses) : local;
+    }
+
+    private static Duration localTimeToLive(ProfileCacheProperties properties) {
+        return properties.getShared().isEnabled()
+                ? properties.getShared().getNearExpireAfterWrite()
+                : properties.getExpireAfterWrite();
+    }
+}
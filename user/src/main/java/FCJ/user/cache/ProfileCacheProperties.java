@@ -0,0 +1,71 @@
+package FCJ.user.cache;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "user.cache")
+public class ProfileCacheProperties {
+
+    // Off by default: without the shared tier, other instances serve a profile up to expireAfterWrite old
+    private boolean enabled = false;
+    // heap: Caffeine on the Java heap; off-heap: serialized records in native memory (near-zero GC cost)
+    private Engine engine = Engine.HEAP;
+    private long maximumSize = 100_000;
+    // Upper bound on how stale a cached profile may be: writes made on other instances are not seen before
+    private Duration expireAfterWrite = Duration.ofMinutes(2);
+    private final Snapshot snapshot = new Snapshot();
+    private final OffHeap offHeap = new OffHeap();
+    private final Shared shared = new Shared();
+    private final Responses responses = new Responses();
+
+    public enum Engine {
+        HEAP,
+        OFF_HEAP
+    }
+
+    @Getter
+    @Setter
+    public static class OffHeap {
+        // Native memory for the index and record slabs, on top of the JVM heap
+        private DataSize maxMemory = DataSize.ofMegabytes(256);
+    }
+
+    @Getter
+    @Setter
+    public static class Shared {
+        // Redis tier shared by all replicas; the local cache above becomes a near-cache in front of it
+        private boolean enabled = false;
+        private String keyPrefix = "user:profile:";
+        // Pub/sub channel carrying invalidations from writes on other replicas
+        private String channel = "user:profile:invalidations";
+        // Near-cache lifetime; bounds staleness when an invalidation message is lost (pub/sub is at-most-once)
+        private Duration nearExpireAfterWrite = Duration.ofSeconds(30);
+        // After a Redis error the shared tier is skipped for this long and the near-cache serves alone
+        private Duration errorBackoff = Duration.ofSeconds(5);
+    }
+
+    @Getter
+    @Setter
+    public static class Responses {
+        // Encoded GetUserInfoById/BlogUserInfo responses served without building or encoding a message
+        private boolean enabled = true;
+        private long maximumSize = 50_000;
+    }
+
+    @Getter
+    @Setter
+    public static class Snapshot {
+        // Snapshot file written by this instance; warm start is disabled when empty
+        private String path = "";
+        private Duration interval = Duration.ofSeconds(60);
+        // Snapshots older than this are ignored at startup, e.g. after a long outage
+        private Duration maxAge = Duration.ofMinutes(2);
+        private int maxEntries = 50_000;
+    }
+}
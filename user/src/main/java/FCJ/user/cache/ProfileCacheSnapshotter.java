@@ -0,0 +1,113 @@
+package FCJ.user.cache;
+
+import FCJ.user.store.UserInfoRecordCodec;
+import FCJ.user.store.UserInfoSnapshotFile;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Warm start for the {@link ProfileCache}. Each instance periodically writes its hottest entries to
+ * a local snapshot file; at startup the file is memory-mapped, checksum-verified and loaded into the
+ * cache. Application runners finish before readiness switches to ACCEPTING_TRAFFIC, so a new pod
+ * does not take traffic with a cold cache. Snapshots older than {@code user.cache.snapshot.max-age}
+ * are ignored, and loaded entries only live for what is left of the cache time-to-live.
+ */
+@Component
+public class ProfileCacheSnapshotter implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProfileCacheSnapshotter.class);
+
+    private final ProfileCache profileCache;
+    private final ProfileCacheProperties.Snapshot properties;
+    private final Path path;
+    private final Clock clock;
+
+    @Autowired
+    public ProfileCacheSnapshotter(ProfileCache profileCache, ProfileCacheProperties properties) {
+        this(profileCache, properties, Clock.systemUTC());
+    }
+
+    ProfileCacheSnapshotter(ProfileCache profileCache, ProfileCacheProperties properties, Clock clock) {
+        this.profileCache = profileCache;
+        this.properties = properties.getSnapshot();
+        this.path = this.properties.getPath().isBlank() ? null : Path.of(this.properties.getPath());
+        this.clock = clock;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        load();
+    }
+
+    /**
+     * @return number of entries loaded into the cache
+     */
+    int load() {
+        if (path == null || !Files.exists(path)) {
+            return 0;
+        }
+        long start = System.nanoTime();
+        try {
+            Instant now = clock.instant();
+            Duration age = Duration.between(UserInfoSnapshotFile.readCreatedAt(path), now);
+            if (age.isNegative()) {
+                age = Duration.ZERO;
+            }
+            if (age.compareTo(properties.getMaxAge()) > 0 || age.compareTo(profileCache.timeToLive()) >= 0) {
+                logger.info("Skipping profile cache snapshot {}: {} s old", path, age.toSeconds());
+                return 0;
+            }
+            Duration entryAge = age;
+            int[] loaded = {0};
+            UserInfoSnapshotFile.scan(path, record -> {
+                UUID userId = UserInfoRecordCodec.peekUserId(record);
+                if (userId != null) {
+                    byte[] bytes = new byte[record.remaining()];
+                    record.get(bytes);
+                    profileCache.warm(userId, bytes, entryAge);
+                    loaded[0]++;
+                }
+            });
+            logger.info("Warmed profile cache with {} entries from {} ({} s old) in {} ms",
+                    loaded[0], path, age.toSeconds(), (System.nanoTime() - start) / 1_000_000);
+            return loaded[0];
+        } catch (IOException e) {
+            logger.warn("Ignoring profile cache snapshot {}: {}", path, e.getMessage());
+            return 0;
+        }
+    }
+
+    @Scheduled(initialDelayString = "${user.cache.snapshot.interval:60s}",
+            fixedDelayString = "${user.cache.snapshot.interval:60s}")
+    @PreDestroy
+    public synchronized void write() {
+        if (path == null) {
+            return;
+        }
+        List<byte[]> records = profileCache.hottest(properties.getMaxEntries());
+        if (records.isEmpty()) {
+            return;
+        }
+        try {
+            UserInfoSnapshotFile.writeEncoded(path, records, clock.instant());
+            logger.debug("Wrote profile cache snapshot {} with {} entries", path, records.size());
+        } catch (IOException e) {
+            logger.warn("Failed to write profile cache snapshot {}: {}", path, e.getMessage());
+        }
+    }
+}
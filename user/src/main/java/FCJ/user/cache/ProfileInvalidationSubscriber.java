@@ -0,0 +1,103 @@
+package FCJ.user.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Subscribes a {@link TwoLevelProfileCache} to the invalidation channel. A listener container
+ * bean would fail startup when Redis is unreachable and never retry its first subscription, so the
+ * subscription is made in the background and retried every {@code error-backoff} until it succeeds;
+ * after that the container reconnects by itself.
+ */
+public class ProfileInvalidationSubscriber implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProfileInvalidationSubscriber.class);
+
+    private final RedisConnectionFactory connectionFactory;
+    private final ProfileCache profileCache;
+    private final ChannelTopic topic;
+    private final long retryMillis;
+
+    private ScheduledExecutorService scheduler;
+    private volatile RedisMessageListenerContainer container;
+    private volatile boolean running;
+
+    public ProfileInvalidationSubscriber(RedisConnectionFactory connectionFactory, ProfileCache profileCache,
+                                         ProfileCacheProperties.Shared properties) {
+        this.connectionFactory = connectionFactory;
+        this.profileCache = profileCache;
+        this.topic = new ChannelTopic(properties.getChannel());
+        this.retryMillis = properties.getErrorBackoff().toMillis();
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        if (!(profileCache instanceof TwoLevelProfileCache)) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "profile-invalidation-subscriber");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.execute(this::subscribe);
+    }
+
+    private void subscribe() {
+        if (!running) {
+            return;
+        }
+        TwoLevelProfileCache twoLevel = (TwoLevelProfileCache) profileCache;
+        RedisMessageListenerContainer candidate = new RedisMessageListenerContainer();
+        candidate.setConnectionFactory(connectionFactory);
+        candidate.setRecoveryInterval(retryMillis);
+        candidate.addMessageListener(
+                (message, pattern) -> twoLevel.onInvalidation(new String(message.getBody(), StandardCharsets.UTF_8)),
+                topic);
+        candidate.afterPropertiesSet();
+        try {
+            candidate.start();
+            container = candidate;
+            logger.info("Subscribed to profile invalidations on {}", topic.getTopic());
+        } catch (RuntimeException e) {
+            destroy(candidate);
+            logger.warn("Could not subscribe to profile invalidations, retrying in {} ms: {}", retryMillis, e.getMessage());
+            scheduler.schedule(this::subscribe, retryMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        RedisMessageListenerContainer current = container;
+        if (current != null) {
+            destroy(current);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private static void destroy(RedisMessageListenerContainer container) {
+        try {
+            container.destroy();
+        } catch (Exception e) {
+            logger.debug("Closing profile invalidation listener failed: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package FCJ.user.cache;
+
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * {@link SharedProfileTier} on Redis: one string key per profile ({@code <key-prefix><userId>}) with
+ * a TTL, and invalidations published on a pub/sub channel.
+ */
+public class RedisProfileTier implements SharedProfileTier {
+
+    private final RedisTemplate<String, byte[]> redis;
+    private final StringRedisTemplate messages;
+    private final String keyPrefix;
+    private final String channel;
+
+    public RedisProfileTier(RedisConnectionFactory connectionFactory, ProfileCacheProperties.Shared properties) {
+        RedisTemplate<String, byte[]> template = new RedisTemplate<>();
+        template.setConnectionFactory(connectionFactory);
+        template.setKeySerializer(RedisSerializer.string());
+        template.setValueSerializer(RedisSerializer.byteArray());
+        template.afterPropertiesSet();
+        this.redis = template;
+        this.messages = new StringRedisTemplate(connectionFactory);
+        this.keyPrefix = properties.getKeyPrefix();
+        this.channel = properties.getChannel();
+    }
+
+    @Override
+    public Optional<byte[]> get(UUID userId) {
+        return Optional.ofNullable(redis.opsForValue().get(key(userId)));
+    }
+
+    @Override
+    public void put(UUID userId, byte[] record, Duration timeToLive) {
+        redis.opsForValue().set(key(userId), record, timeToLive);
+    }
+
+    @Override
+    public void putIfAbsent(UUID userId, byte[] record, Duration timeToLive) {
+        redis.opsForValue().setIfAbsent(key(userId), record, timeToLive);
+    }
+
+    @Override
+    public void evict(UUID userId) {
+        redis.delete(key(userId));
+    }
+
+    @Override
+    public void publish(String message) {
+        messages.convertAndSend(channel, message);
+    }
+
+    private String key(UUID userId) {
+        return keyPrefix + userId;
+    }
+}
@@ -0,0 +1,91 @@
+package FCJ.user.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Already encoded gRPC response messages per {@code (method, userId)}, for the hot lookups whose
+ * answer only depends on the profile. Entries are dropped whenever the local {@link ProfileCache}
+ * entry of the same user changes (see {@link ResponseInvalidatingProfileCache}), which covers
+ * writes on this instance, write-behind patches and invalidations received from other replicas,
+ * and they never outlive the profile cache's time-to-live.
+ * <p>
+ * A response built from a read that started before a write is not stored: {@link #put} takes the
+ * {@link #stamp} read before the lookup and gives up if a write to a user of the same stripe was
+ * invalidated since.
+ */
+public class ResponseBytesCache implements MeterBinder {
+
+    private static final int STRIPES = 1024;
+
+    private final Cache<Key, byte[]> cache;
+    private final Set<String> methods = ConcurrentHashMap.newKeySet();
+    // Write counters, striped by userId so writes to other users rarely cancel a put
+    private final AtomicLongArray writes = new AtomicLongArray(STRIPES);
+
+    public ResponseBytesCache(long maximumSize, Duration timeToLive) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive)
+                .recordStats()
+                .build();
+    }
+
+    public byte[] get(String method, UUID userId) {
+        return cache.getIfPresent(new Key(method, userId));
+    }
+
+    public long stamp(UUID userId) {
+        return writes.get(stripe(userId));
+    }
+
+    public void put(String method, UUID userId, byte[] response, long stamp) {
+        methods.add(method);
+        int stripe = stripe(userId);
+        cache.asMap().compute(new Key(method, userId), (key, current) ->
+                writes.get(stripe) == stamp ? response : current);
+    }
+
+    /**
+     * Drops the user's responses after a write; puts of lookups that started earlier are refused.
+     */
+    public void invalidate(UUID userId) {
+        // Bumped first, so a put that has not yet checked its stamp gives up
+        writes.incrementAndGet(stripe(userId));
+        drop(userId);
+    }
+
+    /**
+     * Drops the user's responses when the cached profile is refilled, e.g. after it expired.
+     */
+    public void drop(UUID userId) {
+        for (String method : methods) {
+            cache.invalidate(new Key(method, userId));
+        }
+    }
+
+    private static int stripe(UUID userId) {
+        return userId.hashCode() & (STRIPES - 1);
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "user.grpc.responses");
+    }
+
+    private record Key(String method, UUID userId) {
+    }
+}
@@ -0,0 +1,83 @@
+package FCJ.user.cache;
+
+import FCJ.user.dto.UserInfoDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Wraps the local {@link ProfileCache} engine and drops a user's {@link ResponseBytesCache} entries
+ * whenever that user's profile entry is replaced or evicted. Every change of a cached profile goes
+ * through the local engine, including the near-cache evictions of {@link TwoLevelProfileCache}
+ * triggered by other replicas' writes.
+ */
+public class ResponseInvalidatingProfileCache implements ProfileCache, MeterBinder {
+
+    private final ProfileCache delegate;
+    private final ResponseBytesCache responses;
+
+    public ResponseInvalidatingProfileCache(ProfileCache delegate, ResponseBytesCache responses) {
+        this.delegate = delegate;
+        this.responses = responses;
+    }
+
+    @Override
+    public Optional<UserInfoDTO> get(UUID userId) {
+        return delegate.get(userId);
+    }
+
+    @Override
+    public void put(UserInfoDTO userInfo) {
+        delegate.put(userInfo);
+        if (userInfo.getUserId() != null) {
+            // A read-through fill, not a write: the lookup that caused it may still store its response
+            responses.drop(userInfo.getUserId());
+        }
+    }
+
+    @Override
+    public void putWritten(UserInfoDTO userInfo) {
+        delegate.putWritten(userInfo);
+        if (userInfo.getUserId() != null) {
+            responses.invalidate(userInfo.getUserId());
+        }
+    }
+
+    @Override
+    public void evict(UUID userId) {
+        delegate.evict(userId);
+        responses.invalidate(userId);
+    }
+
+    @Override
+    public void warm(UUID userId, byte[] record, Duration age) {
+        delegate.warm(userId, record, age);
+        responses.drop(userId);
+    }
+
+    @Override
+    public List<byte[]> hottest(int limit) {
+        return delegate.hottest(limit);
+    }
+
+    @Override
+    public long size() {
+        return delegate.size();
+    }
+
+    @Override
+    public Duration timeToLive() {
+        return delegate.timeToLive();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (delegate instanceof MeterBinder binder) {
+            binder.bindTo(registry);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package FCJ.user.cache;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+/**
+ * Redis shared tier for the {@link ProfileCache} (see {@link TwoLevelProfileCache}). Connection
+ * settings come from {@code spring.data.redis.*}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "user.cache.shared", name = "enabled", havingValue = "true")
+public class SharedProfileCacheConfig {
+
+    @Bean
+    public SharedProfileTier sharedProfileTier(RedisConnectionFactory connectionFactory, ProfileCacheProperties properties) {
+        return new RedisProfileTier(connectionFactory, properties.getShared());
+    }
+
+    @Bean
+    public ProfileInvalidationSubscriber profileInvalidationSubscriber(RedisConnectionFactory connectionFactory,
+                                                                       ProfileCache profileCache,
+                                                                       ProfileCacheProperties properties) {
+        return new ProfileInvalidationSubscriber(connectionFactory, profileCache, properties.getShared());
+    }
+}
@@ -0,0 +1,27 @@
+package FCJ.user.cache;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Second cache level shared by all replicas, holding {@link FCJ.user.store.UserInfoRecordCodec}
+ * records, plus the broadcast channel that carries invalidations between replicas.
+ * Implementations may throw on any call when the backing store is unreachable.
+ */
+public interface SharedProfileTier {
+
+    Optional<byte[]> get(UUID userId);
+
+    void put(UUID userId, byte[] record, Duration timeToLive);
+
+    /**
+     * Stores {@code record} unless the key already holds one: a read-through fill must not overwrite
+     * a newer profile another replica has just written.
+     */
+    void putIfAbsent(UUID userId, byte[] record, Duration timeToLive);
+
+    void evict(UUID userId);
+
+    void publish(String message);
+}
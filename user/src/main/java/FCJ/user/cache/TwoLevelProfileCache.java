@@ -0,0 +1,219 @@
+package FCJ.user.cache;
+
+import FCJ.user.dto.UserInfoDTO;
+import FCJ.user.store.UserInfoRecordCodec;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * {@link ProfileCache} for multi-replica deployments: a short-lived local near-cache in front of a
+ * {@link SharedProfileTier} that every replica reads and fills. Writes made through this instance
+ * ({@link #putWritten}, {@link #evict}) publish an invalidation so the other replicas drop their
+ * near copies; messages a replica published itself are ignored on receipt.
+ * <p>
+ * The shared tier is best-effort: after any error it is skipped for {@code error-backoff} and the
+ * near-cache serves alone, so an outage of the shared store costs hit rate, not availability.
+ * Snapshots ({@link #warm}, {@link #hottest}) work on the near-cache only.
+ */
+public class TwoLevelProfileCache implements ProfileCache, MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(TwoLevelProfileCache.class);
+    private static final String SHARED_CACHE_NAME = "user.profile.shared";
+
+    private final ProfileCache near;
+    private final SharedProfileTier shared;
+    private final Duration sharedTimeToLive;
+    private final long errorBackoffNanos;
+    private final LongSupplier nanoTime;
+    // Identifies this replica's invalidations on the shared channel: "<node id>:<userId>"
+    private final String messagePrefix = UUID.randomUUID() + ":";
+
+    private final LongAdder sharedHits = new LongAdder();
+    private final LongAdder sharedMisses = new LongAdder();
+    private final LongAdder sharedPuts = new LongAdder();
+    private final LongAdder sharedErrors = new LongAdder();
+    private final LongAdder invalidationsSent = new LongAdder();
+    private final LongAdder invalidationsReceived = new LongAdder();
+    private volatile long sharedSuspendedUntil;
+
+    public TwoLevelProfileCache(ProfileCache near, SharedProfileTier shared,
+                                Duration sharedTimeToLive, Duration errorBackoff) {
+        this(near, shared, sharedTimeToLive, errorBackoff, System::nanoTime);
+    }
+
+    TwoLevelProfileCache(ProfileCache near, SharedProfileTier shared,
+                         Duration sharedTimeToLive, Duration errorBackoff, LongSupplier nanoTime) {
+        this.near = near;
+        this.shared = shared;
+        this.sharedTimeToLive = sharedTimeToLive;
+        this.errorBackoffNanos = errorBackoff.toNanos();
+        this.nanoTime = nanoTime;
+        this.sharedSuspendedUntil = nanoTime.getAsLong();
+    }
+
+    @Override
+    public Optional<UserInfoDTO> get(UUID userId) {
+        Optional<UserInfoDTO> cached = near.get(userId);
+        if (cached.isPresent()) {
+            return cached;
+        }
+        Optional<byte[]> record = callShared(() -> shared.get(userId)).flatMap(found -> found);
+        if (record.isEmpty()) {
+            sharedMisses.increment();
+            return Optional.empty();
+        }
+        sharedHits.increment();
+        near.warm(userId, record.get(), Duration.ZERO);
+        return Optional.of(UserInfoRecordCodec.read(ByteBuffer.wrap(record.get())));
+    }
+
+    @Override
+    public void put(UserInfoDTO userInfo) {
+        put(userInfo, false);
+    }
+
+    private void put(UserInfoDTO userInfo, boolean written) {
+        UUID userId = userInfo.getUserId();
+        if (userId == null) {
+            return;
+        }
+        if (written) {
+            near.putWritten(userInfo);
+        } else {
+            near.put(userInfo);
+        }
+        byte[] record = UserInfoRecordCodec.encode(userInfo);
+        callShared(() -> {
+            // A fill may carry a profile read before another replica's write; only writes overwrite
+            if (written) {
+                shared.put(userId, record, sharedTimeToLive);
+            } else {
+                shared.putIfAbsent(userId, record, sharedTimeToLive);
+            }
+            sharedPuts.increment();
+            return null;
+        });
+    }
+
+    @Override
+    public void putWritten(UserInfoDTO userInfo) {
+        put(userInfo, true);
+        if (userInfo.getUserId() != null) {
+            broadcast(userInfo.getUserId());
+        }
+    }
+
+    @Override
+    public void evict(UUID userId) {
+        near.evict(userId);
+        callShared(() -> {
+            shared.evict(userId);
+            return null;
+        });
+        broadcast(userId);
+    }
+
+    /**
+     * Handles a message from the shared invalidation channel.
+     */
+    public void onInvalidation(String message) {
+        int separator = message.lastIndexOf(':');
+        if (separator < 0 || message.startsWith(messagePrefix)) {
+            return;
+        }
+        try {
+            near.evict(UUID.fromString(message.substring(separator + 1)));
+            invalidationsReceived.increment();
+        } catch (IllegalArgumentException e) {
+            logger.debug("Ignoring malformed profile invalidation: {}", message);
+        }
+    }
+
+    @Override
+    public void warm(UUID userId, byte[] record, Duration age) {
+        near.warm(userId, record, age);
+    }
+
+    @Override
+    public List<byte[]> hottest(int limit) {
+        return near.hottest(limit);
+    }
+
+    @Override
+    public long size() {
+        return near.size();
+    }
+
+    @Override
+    public Duration timeToLive() {
+        return near.timeToLive();
+    }
+
+    private void broadcast(UUID userId) {
+        // Published even while reads skip the shared tier: a replica that misses it keeps a stale
+        // near copy for up to near-expire-after-write
+        try {
+            shared.publish(messagePrefix + userId);
+            invalidationsSent.increment();
+        } catch (RuntimeException e) {
+            sharedErrors.increment();
+            logger.debug("Could not publish profile invalidation for {}: {}", userId, e.getMessage());
+        }
+    }
+
+    private <T> Optional<T> callShared(Supplier<T> call) {
+        if (nanoTime.getAsLong() - sharedSuspendedUntil < 0) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.ofNullable(call.get());
+        } catch (RuntimeException e) {
+            sharedErrors.increment();
+            sharedSuspendedUntil = nanoTime.getAsLong() + errorBackoffNanos;
+            logger.warn("Shared profile cache unavailable, using the near-cache only for {} ms: {}",
+                    errorBackoffNanos / 1_000_000, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        // Near level keeps the local engine's own metrics (cache=user.profile)
+        if (near instanceof MeterBinder binder) {
+            binder.bindTo(registry);
+        }
+        FunctionCounter.builder("cache.gets", sharedHits, LongAdder::sum)
+                .tags("cache", SHARED_CACHE_NAME, "result", "hit")
+                .description("The number of times cache lookup methods have returned a cached value.")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", sharedMisses, LongAdder::sum)
+                .tags("cache", SHARED_CACHE_NAME, "result", "miss")
+                .description("The number of times cache lookup methods have returned an uncached (newly loaded) value, or null")
+                .register(registry);
+        FunctionCounter.builder("cache.puts", sharedPuts, LongAdder::sum)
+                .tags("cache", SHARED_CACHE_NAME)
+                .description("The number of entries added to the cache")
+                .register(registry);
+        FunctionCounter.builder("user.profile.shared.errors", sharedErrors, LongAdder::sum)
+                .description("Failed calls to the shared profile cache")
+                .register(registry);
+        FunctionCounter.builder("user.profile.invalidations", invalidationsSent, LongAdder::sum)
+                .tags("direction", "sent")
+                .register(registry);
+        FunctionCounter.builder("user.profile.invalidations", invalidationsReceived, LongAdder::sum)
+                .tags("direction", "received")
+                .register(registry);
+    }
+}
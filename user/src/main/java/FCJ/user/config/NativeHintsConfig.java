@@ -0,0 +1,116 @@
+package FCJ.user.config;
+
+import FCJ.user.controller.HealthController;
+import FCJ.user.dto.CurrentMembershipResponse;
+import FCJ.user.dto.EmptyUserInfoCreation;
+import FCJ.user.dto.ErrorResponse;
+import FCJ.user.dto.MembershipStatisticsResponse;
+import FCJ.user.dto.MembershipUpdateRequest;
+import FCJ.user.dto.TransactionCheckResponse;
+import FCJ.user.dto.UserInfoCreation;
+import FCJ.user.dto.UserInfoDTO;
+import FCJ.user.grpc.UserInfoProto;
+import FCJ.user.ledger.PaymentLedgerEntry;
+import FCJ.user.model.UserInfo;
+import com.google.protobuf.Descriptors;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+/**
+ * Reachability metadata for the GraalVM native image (Maven profile {@code native}).
+ * Only consulted at build time by Spring AOT; has no effect on the JVM.
+ */
+@Configuration
+@ImportRuntimeHints(NativeHintsConfig.UserServiceRuntimeHints.class)
+public class NativeHintsConfig {
+
+    static class UserServiceRuntimeHints implements RuntimeHintsRegistrar {
+
+        // Providers that grpc-java loads by name when ServiceLoader finds nothing
+        private static final String[] GRPC_PROVIDERS = {
+                "io.grpc.netty.shaded.io.grpc.netty.NettyServerProvider",
+                "io.grpc.netty.shaded.io.grpc.netty.NettyChannelProvider",
+                "io.grpc.netty.shaded.io.grpc.netty.UdsNettyChannelProvider",
+                "io.grpc.internal.PickFirstLoadBalancerProvider",
+                "io.grpc.internal.DnsNameResolverProvider",
+                "io.grpc.util.SecretRoundRobinLoadBalancerProvider$Provider",
+                "io.grpc.util.OutlierDetectionLoadBalancerProvider"
+        };
+
+        // Channels instantiated through Netty's ReflectiveChannelFactory
+        private static final String[] NETTY_CHANNELS = {
+                "io.grpc.netty.shaded.io.netty.channel.socket.nio.NioServerSocketChannel",
+                "io.grpc.netty.shaded.io.netty.channel.socket.nio.NioSocketChannel",
+                "io.grpc.netty.shaded.io.netty.channel.epoll.EpollServerSocketChannel",
+                "io.grpc.netty.shaded.io.netty.channel.epoll.EpollSocketChannel"
+        };
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            registerProtobufMessages(hints);
+
+            for (String provider : GRPC_PROVIDERS) {
+                hints.reflection().registerTypeIfPresent(classLoader, provider,
+                        MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+            }
+            for (String channel : NETTY_CHANNELS) {
+                hints.reflection().registerTypeIfPresent(classLoader, channel,
+                        MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+            }
+            hints.resources().registerPattern("META-INF/services/io.grpc.*");
+            hints.resources().registerPattern("META-INF/native/*");
+
+            hints.reflection().registerType(UserInfo.class,
+                    MemberCategory.DECLARED_FIELDS,
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                    MemberCategory.INVOKE_DECLARED_METHODS);
+
+            // Lombok-generated accessors used by Jackson
+            new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(),
+                    UserInfoDTO.class,
+                    UserInfoCreation.class,
+                    EmptyUserInfoCreation.class,
+                    ErrorResponse.class,
+                    MembershipUpdateRequest.class,
+                    CurrentMembershipResponse.class,
+                    TransactionCheckResponse.class,
+                    MembershipStatisticsResponse.class,
+                    PaymentLedgerEntry.class,
+                    HealthController.HealthResponse.class,
+                    HealthController.DetailedHealthResponse.class,
+                    HealthController.ProbeResponse.class);
+        }
+
+        /**
+         * protobuf-java resolves generated accessors (getX/setX/hasX/newBuilder...) reflectively
+         * when building its field accessor tables, for both messages and builders.
+         */
+        private void registerProtobufMessages(RuntimeHints hints) {
+            for (Descriptors.Descriptor message : UserInfoProto.getDescriptor().getMessageTypes()) {
+                String className = "FCJ.user.grpc." + message.getName();
+                for (String type : new String[]{className, className + "$Builder"}) {
+                    hints.reflection().registerType(TypeReference.of(type),
+                            MemberCategory.INVOKE_PUBLIC_METHODS,
+                            MemberCategory.INVOKE_DECLARED_METHODS,
+                            MemberCategory.DECLARED_FIELDS);
+                }
+            }
+            // Well-known types used by UserInfoResponse
+            for (String type : new String[]{"com.google.protobuf.Timestamp", "com.google.protobuf.Timestamp$Builder"}) {
+                hints.reflection().registerType(TypeReference.of(type),
+                        MemberCategory.INVOKE_PUBLIC_METHODS,
+                        MemberCategory.INVOKE_DECLARED_METHODS,
+                        MemberCategory.DECLARED_FIELDS);
+            }
+            for (Descriptors.EnumDescriptor enumType : UserInfoProto.getDescriptor().getEnumTypes()) {
+                hints.reflection().registerType(TypeReference.of("FCJ.user.grpc." + enumType.getName()),
+                        MemberCategory.INVOKE_PUBLIC_METHODS);
+            }
+        }
+    }
+}
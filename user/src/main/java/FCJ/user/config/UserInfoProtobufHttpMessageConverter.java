@@ -0,0 +1,45 @@
+package FCJ.user.config;
+
+import FCJ.user.dto.UserInfoDTO;
+import FCJ.user.grpc.UserInfoProtoMapper;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+
+/**
+ * Writes {@link UserInfoDTO} as the protobuf {@code UserInfoResponse} when the client sends
+ * {@code Accept: application/x-protobuf}. The message is serialized straight into the response stream.
+ * Error bodies stay JSON, so clients should also accept {@code application/json}.
+ */
+public class UserInfoProtobufHttpMessageConverter extends AbstractHttpMessageConverter<UserInfoDTO> {
+
+    public static final MediaType APPLICATION_X_PROTOBUF = new MediaType("application", "x-protobuf");
+
+    public UserInfoProtobufHttpMessageConverter() {
+        super(APPLICATION_X_PROTOBUF);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return UserInfoDTO.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected UserInfoDTO readInternal(Class<? extends UserInfoDTO> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Reading UserInfoDTO from protobuf is not supported", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(UserInfoDTO dto, HttpOutputMessage outputMessage) throws IOException {
+        UserInfoProtoMapper.toResponse(dto).writeTo(outputMessage.getBody());
+    }
+}
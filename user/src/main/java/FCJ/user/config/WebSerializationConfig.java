@@ -0,0 +1,32 @@
+package FCJ.user.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.NativeDetector;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+public class WebSerializationConfig implements WebMvcConfigurer {
+
+    /**
+     * Replaces Jackson's reflective getter/setter calls with generated lambdas (picked up by the
+     * auto-configured ObjectMapper). Not used in a native image, where runtime class generation is
+     * unavailable.
+     */
+    @Bean
+    public Module blackbirdModule() {
+        return NativeDetector.inNativeImage() ? new SimpleModule() : new BlackbirdModule();
+    }
+
+    // Appended after the JSON converter so JSON stays the default for Accept: */*
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new UserInfoProtobufHttpMessageConverter());
+    }
+}
@@ -1,22 +1,23 @@
 package FCJ.user.controller;
 
+import FCJ.user.service.HealthSnapshot;
+import FCJ.user.service.HealthSnapshotService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
-import org.springframework.boot.actuate.health.Health;
-import org.springframework.boot.actuate.health.HealthComponent;
-import org.springframework.boot.actuate.health.HealthEndpoint;
+import org.springframework.boot.actuate.health.Status;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
-import java.util.LinkedHashMap;
 import java.util.Map;
 
 @RestController
@@ -24,10 +25,11 @@ import java.util.Map;
 @Tag(name = "Health Check", description = "Health and actuator endpoints for AWS API Gateway")
 public class HealthController {
 
-    private final HealthEndpoint healthEndpoint;
+    // Probes read the snapshot kept by HealthSnapshotService; none of them run health indicators
+    private final HealthSnapshotService healthSnapshotService;
 
-    public HealthController(HealthEndpoint healthEndpoint) {
-        this.healthEndpoint = healthEndpoint;
+    public HealthController(HealthSnapshotService healthSnapshotService) {
+        this.healthSnapshotService = healthSnapshotService;
     }
 
     /**
@@ -59,24 +61,21 @@ public class HealthController {
     @GetMapping("/detailed")
     @Operation(
         summary = "Detailed Health Check",
-        description = "Returns detailed health information including database and component statuses"
+        description = "Returns detailed health information including database and component statuses, as of the last background check"
     )
     @ApiResponse(responseCode = "200", description = "Health check completed successfully")
     public ResponseEntity<DetailedHealthResponse> detailedHealth() {
-        HealthComponent health = healthEndpoint.health();
+        HealthSnapshot health = healthSnapshotService.current();
 
         DetailedHealthResponse response = new DetailedHealthResponse();
         response.setStatus(health.getStatus().toString());
         response.setTimestamp(getCurrentTimestamp());
         response.setService("user-service");
         response.setVersion("1.0.0");
+        response.setCheckedAt(formatTimestamp(health.getCheckedAt()));
+        response.setComponents(health.getComponents());
 
-        if (health instanceof Health h) {
-            Map<String, Object> details = new LinkedHashMap<>(h.getDetails());
-            response.setComponents(details);
-        }
-
-        HttpStatus status = "UP".equals(health.getStatus().toString())
+        HttpStatus status = Status.UP.equals(health.getStatus())
             ? HttpStatus.OK
             : HttpStatus.SERVICE_UNAVAILABLE;
 
@@ -95,8 +94,7 @@ public class HealthController {
     @ApiResponse(responseCode = "200", description = "Service is alive")
     @ApiResponse(responseCode = "503", description = "Service needs restart")
     public ResponseEntity<ProbeResponse> liveness() {
-        HealthComponent health = healthEndpoint.health();
-        String status = health.getStatus().toString();
+        String status = healthSnapshotService.liveness().toString();
 
         ProbeResponse response = new ProbeResponse();
         response.setStatus(status);
@@ -119,8 +117,7 @@ public class HealthController {
     @ApiResponse(responseCode = "200", description = "Service is ready")
     @ApiResponse(responseCode = "503", description = "Service is not ready yet")
     public ResponseEntity<ProbeResponse> readiness() {
-        HealthComponent health = healthEndpoint.health();
-        String status = health.getStatus().toString();
+        String status = healthSnapshotService.readiness().toString();
 
         ProbeResponse response = new ProbeResponse();
         response.setStatus(status);
@@ -142,8 +139,7 @@ public class HealthController {
     @ApiResponse(responseCode = "200", description = "Health status returned",
         content = @Content(schema = @Schema(implementation = HealthResponse.class)))
     public ResponseEntity<HealthResponse> health() {
-        HealthComponent health = healthEndpoint.health();
-        String status = health.getStatus().toString();
+        String status = healthSnapshotService.current().getStatus().toString();
 
         HealthResponse response = new HealthResponse();
         response.setStatus(status);
@@ -159,6 +155,10 @@ public class HealthController {
         return LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
     }
 
+    private String formatTimestamp(Instant instant) {
+        return LocalDateTime.ofInstant(instant, ZoneId.systemDefault()).format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+    }
+
     // DTO Classes
     public static class HealthResponse {
         private String status;
@@ -206,6 +206,7 @@ public class HealthController {
         private String timestamp;
         private String service;
         private String version;
+        private String checkedAt;
         private Map<String, Object> components;
 
         public DetailedHealthResponse() {}
@@ -242,6 +243,14 @@ public class HealthController {
             this.version = version;
         }
 
+        public String getCheckedAt() {
+            return checkedAt;
+        }
+
+        public void setCheckedAt(String checkedAt) {
+            this.checkedAt = checkedAt;
+        }
+
         public Map<String, Object> getComponents() {
             return components;
         }
@@ -0,0 +1,35 @@
+package FCJ.user.controller;
+
+import FCJ.user.dto.MembershipStatisticsResponse;
+import FCJ.user.stats.MembershipStatistics;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/user-info/membership-statistics")
+@RequiredArgsConstructor
+@Tag(name = "Membership Statistics", description = "Membership aggregates for the admin dashboard")
+public class MembershipStatisticsController {
+
+    private final MembershipStatistics membershipStatistics;
+
+    @GetMapping
+    @Operation(summary = "Get membership statistics",
+            description = "Profiles and lastPaymentAmount revenue per subscription tier and status. Maintained on every write and flushed every user.stats.flush-interval, so the figures may lag by that much; reading them never scans user_info.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Statistics as of the last flush",
+                    content = @Content(schema = @Schema(implementation = MembershipStatisticsResponse.class)))
+    })
+    public ResponseEntity<MembershipStatisticsResponse> getMembershipStatistics() {
+        return ResponseEntity.ok(MembershipStatisticsResponse.from(membershipStatistics.snapshot()));
+    }
+}
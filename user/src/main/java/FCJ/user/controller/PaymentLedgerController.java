@@ -0,0 +1,108 @@
+package FCJ.user.controller;
+
+import FCJ.user.ledger.PaymentLedger;
+import FCJ.user.ledger.PaymentLedgerEntry;
+import FCJ.user.ledger.PaymentLedgerQuery;
+import FCJ.user.ledger.PaymentLedgerStreamLimit;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+
+/**
+ * Payment history as newline-delimited JSON, one {@link PaymentLedgerEntry} per line. Rows are written
+ * to the response as the query reads them, in chunks, so the result set is never held in memory; the
+ * client's read rate paces the query. A failure after the first chunk truncates the response.
+ * <p>
+ * Only the caller's own history is served here. Every user's payments in a period are for internal
+ * reconciliation and only available as {@code PaymentLedgerService/StreamPayments} on the gRPC port.
+ * <p>
+ * Streams count against {@link PaymentLedgerStreamLimit}, shared with the gRPC streams. The permit is
+ * returned when the async request completes, which includes timeouts and client disconnects; requests
+ * beyond the limit get 503.
+ */
+@RestController
+@RequestMapping("/api/payment-ledger")
+@Tag(name = "Payment Ledger", description = "Append-only payment history for reconciliation")
+public class PaymentLedgerController {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private static final String PERMIT_INTERCEPTOR = PaymentLedgerController.class.getName() + ".permit";
+
+    private final PaymentLedger paymentLedger;
+    private final PaymentLedgerStreamLimit streamLimit;
+    private final ObjectWriter entryWriter;
+
+    public PaymentLedgerController(PaymentLedger paymentLedger, PaymentLedgerStreamLimit streamLimit,
+                                   ObjectMapper objectMapper) {
+        this.paymentLedger = paymentLedger;
+        this.streamLimit = streamLimit;
+        this.entryWriter = objectMapper.writerFor(PaymentLedgerEntry.class);
+    }
+
+    @GetMapping(value = "/by-user-id", produces = "application/x-ndjson")
+    @Operation(summary = "Stream a user's payments",
+            description = "Payments recorded for the user from the AWS API Gateway header, oldest first, optionally limited to paidAt in [from, to).")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "One JSON payment per line"),
+            @ApiResponse(responseCode = "503", description = "Too many concurrent payment ledger streams"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<StreamingResponseBody> streamUserPayments(
+            HttpServletRequest request,
+            @Parameter(description = "User ID from AWS API Gateway", required = true)
+            @RequestHeader("X-User-Id") String userId,
+            @Parameter(description = "Earliest paidAt, inclusive (ISO-8601)")
+            @RequestParam(required = false) Instant from,
+            @Parameter(description = "Latest paidAt, exclusive (ISO-8601)")
+            @RequestParam(required = false) Instant to) {
+        return stream(request, PaymentLedgerQuery.forUser(UUID.fromString(userId), from, to));
+    }
+
+    private ResponseEntity<StreamingResponseBody> stream(HttpServletRequest request, PaymentLedgerQuery query) {
+        if (!streamLimit.tryAcquire()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "5").build();
+        }
+        WebAsyncUtils.getAsyncManager(request).registerCallableInterceptor(PERMIT_INTERCEPTOR,
+                new CallableProcessingInterceptor() {
+                    @Override
+                    public <T> void afterCompletion(NativeWebRequest webRequest, Callable<T> task) {
+                        streamLimit.release();
+                    }
+                });
+        StreamingResponseBody body = out -> paymentLedger.stream(query, entry -> {
+            try {
+                out.write(entryWriter.writeValueAsBytes(entry));
+                out.write('\n');
+            } catch (IOException e) {
+                // The client went away; stops the query
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+}
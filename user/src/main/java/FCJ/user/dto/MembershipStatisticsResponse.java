@@ -0,0 +1,57 @@
+package FCJ.user.dto;
+
+import FCJ.user.stats.MembershipStatisticsSnapshot;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+import java.util.List;
+
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Membership Statistics Response DTO")
+public class MembershipStatisticsResponse {
+    @Schema(description = "Profiles and revenue per subscription tier and status")
+    private List<SegmentStatistics> segments;
+
+    @Schema(description = "Non-deleted profiles", example = "15230")
+    private long totalUsers;
+
+    @Schema(description = "Sum of lastPaymentAmount over all profiles", example = "48211.5")
+    private double totalRevenue;
+
+    @Schema(description = "When the statistics were last flushed; null before the first flush", example = "2024-01-01T00:00:00Z")
+    private Instant asOf;
+
+    public static MembershipStatisticsResponse from(MembershipStatisticsSnapshot snapshot) {
+        List<SegmentStatistics> segments = snapshot.segments().stream()
+                .map(totals -> new SegmentStatistics(totals.segment().tier(), totals.segment().status(),
+                        totals.users(), totals.revenue()))
+                .toList();
+        return new MembershipStatisticsResponse(segments, snapshot.totalUsers(), snapshot.totalRevenue(), snapshot.asOf());
+    }
+
+    @Setter
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Schema(description = "Statistics of one subscription tier and status")
+    public static class SegmentStatistics {
+        @Schema(description = "Subscription tier, NONE without a subscription", example = "VIP")
+        private String subscriptionTier;
+
+        @Schema(description = "Subscription status, NONE without a subscription", example = "ACTIVE")
+        private String subscriptionStatus;
+
+        @Schema(description = "Profiles in this segment", example = "1200")
+        private long users;
+
+        @Schema(description = "Sum of lastPaymentAmount in this segment", example = "11988.0")
+        private double revenue;
+    }
+}
@@ -1,5 +1,6 @@
 package FCJ.user.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Getter;
 import lombok.Setter;
@@ -57,4 +58,9 @@ public class UserInfoDTO {
 
     @Schema(description = "Auto-renewal status", example = "true")
     private Boolean autoRenewal;
+
+    // Not part of the cached record: set on copies served while the database is unavailable
+    @Schema(description = "Present and true when served from the last-known copy during a database outage")
+    @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+    private boolean stale;
 }
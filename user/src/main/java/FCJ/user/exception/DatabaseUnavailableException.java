@@ -0,0 +1,16 @@
+package FCJ.user.exception;
+
+/**
+ * The database cannot be reached, or is not being called because the circuit breaker is open or the
+ * bulkhead is full. Callers should retry later; lookups may be answered from the last-known copy
+ * instead.
+ */
+public class DatabaseUnavailableException extends RuntimeException {
+    public DatabaseUnavailableException(String message) {
+        super(message);
+    }
+
+    public DatabaseUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
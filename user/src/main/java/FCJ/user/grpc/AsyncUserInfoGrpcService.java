@@ -0,0 +1,120 @@
+package FCJ.user.grpc;
+
+import FCJ.user.cache.ResponseBytesCache;
+import FCJ.user.dto.UserInfoDTO;
+import FCJ.user.exception.DatabaseUnavailableException;
+import FCJ.user.exception.UserInfoNotFoundException;
+import FCJ.user.service.AsyncUserInfoLookup;
+import FCJ.user.service.UserInfoLookupBatcher;
+import FCJ.user.service.UserInfoService;
+import io.grpc.Context;
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import net.devh.boot.grpc.server.service.GrpcService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import reactor.core.Disposable;
+
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * {@link UserInfoGrpcService} whose lookups ({@code GetUserInfoById}, {@code BlogUserInfo}) run on
+ * {@link AsyncUserInfoLookup}: the service method only subscribes and returns, and the response
+ * observer is completed from the R2DBC driver's callback. A call waiting on the database therefore
+ * holds no executor thread. Cancellation and deadline expiry dispose the subscription, which
+ * releases the pooled connection. Writes keep the blocking implementation.
+ */
+@GrpcService
+@Profile("!in-memory")
+@ConditionalOnProperty(prefix = "user.r2dbc", name = "enabled", havingValue = "true")
+public class AsyncUserInfoGrpcService extends UserInfoGrpcService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncUserInfoGrpcService.class);
+    private final AsyncUserInfoLookup userInfoLookup;
+
+    public AsyncUserInfoGrpcService(UserInfoService userInfoService, UserInfoLookupBatcher userInfoLookupBatcher,
+                                    AsyncUserInfoLookup userInfoLookup) {
+        super(userInfoService, userInfoLookupBatcher);
+        this.userInfoLookup = userInfoLookup;
+    }
+
+    @Autowired
+    public AsyncUserInfoGrpcService(UserInfoService userInfoService, UserInfoLookupBatcher userInfoLookupBatcher,
+                                    AsyncUserInfoLookup userInfoLookup, ObjectProvider<ResponseBytesCache> responseBytesCache) {
+        super(userInfoService, userInfoLookupBatcher, responseBytesCache);
+        this.userInfoLookup = userInfoLookup;
+    }
+
+    @Override
+    public void getUserInfoById(GetUserInfoByIdRequest request, StreamObserver<UserInfoResponse> responseObserver) {
+        lookup("getUserInfoById", request.getId(), responseObserver, UserInfoProtoMapper::toResponse,
+                "Error retrieving user info: ");
+    }
+
+    @Override
+    public void blogUserInfo(BlogUserInfoRequest request, StreamObserver<BlogUserInfoResponse> responseObserver) {
+        lookup("blogUserInfo", request.getId(), responseObserver, UserInfoProtoMapper::toBlogResponse,
+                "Error retrieving blog user info: ");
+    }
+
+    private <T> void lookup(String method, String rawUserId, StreamObserver<T> responseObserver,
+                            Function<UserInfoDTO, T> toResponse, String errorPrefix) {
+        logger.debug("gRPC: {} called with userId={}", method, rawUserId);
+        UUID userId;
+        try {
+            userId = UUID.fromString(rawUserId);
+        } catch (IllegalArgumentException e) {
+            logger.error("gRPC: {} - Invalid argument error: {}", method, e.getMessage());
+            responseObserver.onError(Status.INVALID_ARGUMENT
+                    .withDescription("Invalid user ID format: " + e.getMessage())
+                    .asRuntimeException());
+            return;
+        }
+        if (isAbandoned(method)) {
+            return;
+        }
+
+        Context context = Context.current();
+        Disposable subscription = userInfoLookup.getUserInfoByUserId(userId)
+                .map(toResponse)
+                .subscribe(response -> {
+                    logger.debug("gRPC: {} completed successfully for userId={}", method, userId);
+                    responseObserver.onNext(response);
+                    responseObserver.onCompleted();
+                }, error -> {
+                    if (error instanceof UserInfoNotFoundException) {
+                        logger.warn("gRPC: {} - User not found: {}", method, error.getMessage());
+                        responseObserver.onError(Status.NOT_FOUND
+                                .withDescription(error.getMessage())
+                                .asRuntimeException());
+                        return;
+                    }
+                    if (context.isCancelled()) {
+                        return;
+                    }
+                    if (error instanceof DatabaseUnavailableException) {
+                        logger.warn("gRPC: {} - Database unavailable: {}", method, error.getMessage());
+                        responseObserver.onError(Status.UNAVAILABLE
+                                .withDescription(error.getMessage())
+                                .asRuntimeException());
+                        return;
+                    }
+                    logger.error("gRPC: {} - Internal error: {}", method, error.getMessage(), error);
+                    responseObserver.onError(Status.INTERNAL
+                            .withDescription(errorPrefix + error.getMessage())
+                            .asRuntimeException());
+                });
+        // The call's context is also cancelled once it completes normally; only an unfinished lookup is abandoned
+        context.addListener(cancelled -> {
+            if (!subscription.isDisposed()) {
+                subscription.dispose();
+                logger.debug("gRPC: {} abandoned for userId={}", method, userId);
+            }
+        }, Runnable::run);
+    }
+}
@@ -0,0 +1,117 @@
+package FCJ.user.grpc;
+
+import FCJ.user.cache.ResponseBytesCache;
+import com.google.protobuf.MessageLite;
+import io.grpc.MethodDescriptor;
+import io.grpc.ServerMethodDefinition;
+import io.grpc.ServerServiceDefinition;
+import io.grpc.ServiceDescriptor;
+import io.grpc.stub.ServerCalls;
+import io.grpc.stub.StreamObserver;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Rebinds unary lookup methods of a service so their responses are served from a
+ * {@link ResponseBytesCache}. A hit sends the stored bytes through a {@link PreEncodedMarshaller};
+ * a miss runs the normal implementation, encodes its response once and sends and stores those bytes.
+ * Errors, requests whose key is not a UUID and responses the {@code uncacheable} predicate rejects
+ * (stale copies served during a database outage) are passed through uncached.
+ */
+final class CachedResponseMethods {
+
+    private final ServerServiceDefinition definition;
+    private final ResponseBytesCache cache;
+    private final Map<String, ServerMethodDefinition<?, ?>> replacements = new HashMap<>();
+
+    CachedResponseMethods(ServerServiceDefinition definition, ResponseBytesCache cache) {
+        this.definition = definition;
+        this.cache = cache;
+    }
+
+    <ReqT, RespT extends MessageLite> CachedResponseMethods cache(MethodDescriptor<ReqT, RespT> method,
+                                                                  Function<ReqT, String> userId,
+                                                                  BiConsumer<ReqT, StreamObserver<RespT>> implementation) {
+        return cache(method, userId, implementation, response -> false);
+    }
+
+    <ReqT, RespT extends MessageLite> CachedResponseMethods cache(MethodDescriptor<ReqT, RespT> method,
+                                                                  Function<ReqT, String> userId,
+                                                                  BiConsumer<ReqT, StreamObserver<RespT>> implementation,
+                                                                  Predicate<RespT> uncacheable) {
+        MethodDescriptor<ReqT, Object> encoded = method.toBuilder(method.getRequestMarshaller(),
+                new PreEncodedMarshaller<>(method.getResponseMarshaller())).build();
+        String name = method.getFullMethodName();
+        replacements.put(name, ServerMethodDefinition.create(encoded, ServerCalls.asyncUnaryCall(
+                (ReqT request, StreamObserver<Object> responseObserver) -> {
+                    UUID key = parse(userId.apply(request));
+                    if (key == null) {
+                        implementation.accept(request, uncast(responseObserver));
+                        return;
+                    }
+                    byte[] cached = cache.get(name, key);
+                    if (cached != null) {
+                        responseObserver.onNext(new PreEncodedMarshaller.Encoded(cached));
+                        responseObserver.onCompleted();
+                        return;
+                    }
+                    long stamp = cache.stamp(key);
+                    implementation.accept(request, new StreamObserver<>() {
+                        @Override
+                        public void onNext(RespT response) {
+                            byte[] bytes = response.toByteArray();
+                            if (!uncacheable.test(response)) {
+                                cache.put(name, key, bytes, stamp);
+                            }
+                            responseObserver.onNext(new PreEncodedMarshaller.Encoded(bytes));
+                        }
+
+                        @Override
+                        public void onError(Throwable t) {
+                            responseObserver.onError(t);
+                        }
+
+                        @Override
+                        public void onCompleted() {
+                            responseObserver.onCompleted();
+                        }
+                    });
+                })));
+        return this;
+    }
+
+    ServerServiceDefinition build() {
+        ServiceDescriptor original = definition.getServiceDescriptor();
+        ServiceDescriptor.Builder descriptor = ServiceDescriptor.newBuilder(original.getName())
+                .setSchemaDescriptor(original.getSchemaDescriptor());
+        Map<String, ServerMethodDefinition<?, ?>> methods = new HashMap<>();
+        for (ServerMethodDefinition<?, ?> method : definition.getMethods()) {
+            String name = method.getMethodDescriptor().getFullMethodName();
+            ServerMethodDefinition<?, ?> bound = replacements.getOrDefault(name, method);
+            methods.put(name, bound);
+            descriptor.addMethod(bound.getMethodDescriptor());
+        }
+        ServerServiceDefinition.Builder builder = ServerServiceDefinition.builder(descriptor.build());
+        methods.values().forEach(builder::addMethod);
+        return builder.build();
+    }
+
+    private static UUID parse(String userId) {
+        try {
+            return UUID.fromString(userId);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    // The rebound method's observer takes Object; messages still go through the generated marshaller
+    @SuppressWarnings("unchecked")
+    private static <RespT> StreamObserver<RespT> uncast(StreamObserver<Object> observer) {
+        return (StreamObserver<RespT>) (StreamObserver<?>) observer;
+    }
+}
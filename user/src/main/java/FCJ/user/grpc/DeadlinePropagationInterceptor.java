@@ -0,0 +1,40 @@
+package FCJ.user.grpc;
+
+import FCJ.user.jdbc.QueryDeadline;
+import io.grpc.Context;
+import io.grpc.ForwardingServerCallListener;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import net.devh.boot.grpc.server.interceptor.GrpcGlobalServerInterceptor;
+
+/**
+ * Binds each call's deadline and cancellation to the handler thread, so that the JDBC layer
+ * ({@link FCJ.user.jdbc.DeadlineAwareDataSource}) can bound and cancel queries made on its behalf.
+ */
+@GrpcGlobalServerInterceptor
+public class DeadlinePropagationInterceptor implements ServerInterceptor {
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call,
+                                                                 Metadata headers,
+                                                                 ServerCallHandler<ReqT, RespT> next) {
+        return new ForwardingServerCallListener.SimpleForwardingServerCallListener<>(next.startCall(call, headers)) {
+            @Override
+            public void onMessage(ReqT message) {
+                try (QueryDeadline.Scope ignored = QueryDeadline.open(Context.current())) {
+                    super.onMessage(message);
+                }
+            }
+
+            @Override
+            public void onHalfClose() {
+                // Unary handlers run here
+                try (QueryDeadline.Scope ignored = QueryDeadline.open(Context.current())) {
+                    super.onHalfClose();
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,47 @@
+package FCJ.user.grpc;
+
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import net.devh.boot.grpc.server.serverfactory.GrpcServerConfigurer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * Applies the {@code user.grpc.transport} profile (epoll event loops, sized executor, flow-control
+ * window, per-connection stream limit) to the Netty server built by grpc-spring-boot-starter.
+ */
+@Configuration
+@EnableConfigurationProperties(GrpcTransportProperties.class)
+public class GrpcTransportConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(GrpcTransportConfig.class);
+
+    @Bean(destroyMethod = "close")
+    public GrpcTransportSupport grpcTransportSupport(GrpcTransportProperties properties) {
+        return GrpcTransportSupport.create(properties);
+    }
+
+    @Bean
+    public MeterBinder grpcServerExecutorMetrics(GrpcTransportSupport grpcTransportSupport) {
+        return new ExecutorServiceMetrics(grpcTransportSupport.getExecutor(), "grpc.server", List.of());
+    }
+
+    @Bean
+    public GrpcServerConfigurer grpcTransportConfigurer(GrpcTransportProperties properties,
+                                                        GrpcTransportSupport grpcTransportSupport) {
+        return serverBuilder -> {
+            if (serverBuilder instanceof NettyServerBuilder netty) {
+                grpcTransportSupport.applyTo(netty, properties);
+                logger.info("gRPC transport: {} event loops, {} executor threads, {} max calls per connection",
+                        grpcTransportSupport.getTransport(), properties.getExecutorThreads(),
+                        properties.getMaxConcurrentCallsPerConnection());
+            }
+        };
+    }
+}
@@ -0,0 +1,30 @@
+package FCJ.user.grpc;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "user.grpc.transport")
+public class GrpcTransportProperties {
+
+    // Use the native epoll transport when available (Linux); falls back to NIO elsewhere
+    private boolean epoll = true;
+
+    // Accepting threads; one is enough for a single listening port
+    private int bossThreads = 1;
+
+    // I/O threads; 0 keeps Netty's default of two per core
+    private int workerThreads = 0;
+
+    // Threads running service methods. Calls block on JDBC, so size this with the connection pool
+    private int executorThreads = 32;
+
+    // HTTP/2 connection and stream flow-control window
+    private DataSize flowControlWindow = DataSize.ofMegabytes(1);
+
+    // Concurrent calls (HTTP/2 streams) a single client connection may have open
+    private int maxConcurrentCallsPerConnection = 200;
+}
@@ -0,0 +1,82 @@
+package FCJ.user.grpc;
+
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import io.grpc.netty.shaded.io.netty.channel.EventLoopGroup;
+import io.grpc.netty.shaded.io.netty.channel.ServerChannel;
+import io.grpc.netty.shaded.io.netty.channel.epoll.Epoll;
+import io.grpc.netty.shaded.io.netty.channel.epoll.EpollEventLoopGroup;
+import io.grpc.netty.shaded.io.netty.channel.epoll.EpollServerSocketChannel;
+import io.grpc.netty.shaded.io.netty.channel.nio.NioEventLoopGroup;
+import io.grpc.netty.shaded.io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.grpc.netty.shaded.io.netty.util.concurrent.DefaultThreadFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Event loop groups and service executor for the Netty gRPC server, built from
+ * {@link GrpcTransportProperties}. Netty never shuts down groups or executors it was handed, so
+ * this owns them and releases them on {@link #close()}.
+ */
+public final class GrpcTransportSupport implements AutoCloseable {
+
+    private final EventLoopGroup boss;
+    private final EventLoopGroup worker;
+    private final Class<? extends ServerChannel> channelType;
+    private final String transport;
+    private final ThreadPoolExecutor executor;
+
+    private GrpcTransportSupport(EventLoopGroup boss, EventLoopGroup worker,
+                                 Class<? extends ServerChannel> channelType, String transport,
+                                 ThreadPoolExecutor executor) {
+        this.boss = boss;
+        this.worker = worker;
+        this.channelType = channelType;
+        this.transport = transport;
+        this.executor = executor;
+    }
+
+    public static GrpcTransportSupport create(GrpcTransportProperties properties) {
+        int threads = properties.getExecutorThreads();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), new DefaultThreadFactory("grpc-exec", true));
+        executor.allowCoreThreadTimeOut(true);
+
+        if (properties.isEpoll() && Epoll.isAvailable()) {
+            return new GrpcTransportSupport(
+                    new EpollEventLoopGroup(properties.getBossThreads(), new DefaultThreadFactory("grpc-boss", true)),
+                    new EpollEventLoopGroup(properties.getWorkerThreads(), new DefaultThreadFactory("grpc-worker", true)),
+                    EpollServerSocketChannel.class, "epoll", executor);
+        }
+        return new GrpcTransportSupport(
+                new NioEventLoopGroup(properties.getBossThreads(), new DefaultThreadFactory("grpc-boss", true)),
+                new NioEventLoopGroup(properties.getWorkerThreads(), new DefaultThreadFactory("grpc-worker", true)),
+                NioServerSocketChannel.class, "nio", executor);
+    }
+
+    public void applyTo(NettyServerBuilder builder, GrpcTransportProperties properties) {
+        builder.channelType(channelType)
+                .bossEventLoopGroup(boss)
+                .workerEventLoopGroup(worker)
+                .executor(executor)
+                .flowControlWindow((int) properties.getFlowControlWindow().toBytes())
+                .maxConcurrentCallsPerConnection(properties.getMaxConcurrentCallsPerConnection());
+    }
+
+    public ExecutorService getExecutor() {
+        return executor;
+    }
+
+    public String getTransport() {
+        return transport;
+    }
+
+    @Override
+    public void close() {
+        boss.shutdownGracefully(0, 5, TimeUnit.SECONDS);
+        worker.shutdownGracefully(0, 5, TimeUnit.SECONDS);
+        executor.shutdown();
+    }
+}
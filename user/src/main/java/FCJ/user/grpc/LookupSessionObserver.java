@@ -0,0 +1,160 @@
+package FCJ.user.grpc;
+
+import FCJ.user.dto.UserInfoDTO;
+import FCJ.user.exception.DatabaseUnavailableException;
+import FCJ.user.exception.UserInfoNotFoundException;
+import FCJ.user.service.UserInfoLookupBatcher;
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Server side of one {@code LookupSession} stream. Each request is handed to the shared
+ * {@link UserInfoLookupBatcher} and answered whenever its batch completes, tagged with the request's
+ * correlation id. Per-lookup failures become {@link LookupError} responses and the stream stays open.
+ * <p>
+ * Inbound flow control is manual: at most {@code maxInFlight} requests are read ahead, and a new one
+ * is only requested once a response has been sent and the transport can take more, so a client that
+ * stops reading its responses stops being read from.
+ */
+final class LookupSessionObserver implements StreamObserver<LookupRequest> {
+
+    private static final Logger logger = LoggerFactory.getLogger(LookupSessionObserver.class);
+
+    private final ServerCallStreamObserver<LookupResponse> responseObserver;
+    private final UserInfoLookupBatcher lookupBatcher;
+
+    // Guarded by this: responseObserver is not thread-safe and batches complete on several threads
+    private int outstanding;
+    private int deferredRequests;
+    private boolean halfClosed;
+    private boolean closed;
+
+    LookupSessionObserver(StreamObserver<LookupResponse> responseObserver, UserInfoLookupBatcher lookupBatcher,
+                          int maxInFlight) {
+        this.responseObserver = (ServerCallStreamObserver<LookupResponse>) responseObserver;
+        this.lookupBatcher = lookupBatcher;
+        this.responseObserver.disableAutoRequest();
+        this.responseObserver.setOnCancelHandler(this::cancelled);
+        this.responseObserver.setOnReadyHandler(this::requestDeferred);
+        this.responseObserver.request(maxInFlight);
+    }
+
+    @Override
+    public void onNext(LookupRequest request) {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            outstanding++;
+        }
+        UUID userId;
+        try {
+            userId = UUID.fromString(request.getUserId());
+        } catch (IllegalArgumentException e) {
+            respond(error(request, Status.INVALID_ARGUMENT, "Invalid user ID format: " + e.getMessage()));
+            return;
+        }
+        lookupBatcher.lookup(userId).whenComplete((userInfo, failure) ->
+                respond(failure == null ? result(request, userInfo) : failed(request, failure)));
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        cancelled();
+    }
+
+    @Override
+    public void onCompleted() {
+        synchronized (this) {
+            halfClosed = true;
+            completeIfDrained();
+        }
+    }
+
+    private void respond(LookupResponse response) {
+        boolean requestNext;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            responseObserver.onNext(response);
+            outstanding--;
+            if (completeIfDrained()) {
+                return;
+            }
+            requestNext = responseObserver.isReady();
+            if (!requestNext) {
+                deferredRequests++;
+            }
+        }
+        if (requestNext) {
+            responseObserver.request(1);
+        }
+    }
+
+    private boolean completeIfDrained() {
+        if (!halfClosed || outstanding > 0 || closed) {
+            return false;
+        }
+        closed = true;
+        responseObserver.onCompleted();
+        return true;
+    }
+
+    private void requestDeferred() {
+        int count;
+        synchronized (this) {
+            if (closed || deferredRequests == 0) {
+                return;
+            }
+            count = deferredRequests;
+            deferredRequests = 0;
+        }
+        responseObserver.request(count);
+    }
+
+    private synchronized void cancelled() {
+        if (!closed) {
+            closed = true;
+            logger.debug("gRPC: lookupSession cancelled with {} lookups outstanding", outstanding);
+        }
+    }
+
+    private static LookupResponse result(LookupRequest request, UserInfoDTO userInfo) {
+        LookupResponse.Builder response = LookupResponse.newBuilder().setCorrelationId(request.getCorrelationId());
+        if (request.getKind() == LookupRequest.Kind.BLOG_USER_INFO) {
+            response.setBlogUserInfo(UserInfoProtoMapper.toBlogResponse(userInfo));
+        } else {
+            response.setUserInfo(UserInfoProtoMapper.toResponse(userInfo));
+        }
+        return response.build();
+    }
+
+    private static LookupResponse failed(LookupRequest request, Throwable failure) {
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                ? failure.getCause() : failure;
+        if (cause instanceof UserInfoNotFoundException) {
+            return error(request, Status.NOT_FOUND, cause.getMessage());
+        }
+        if (cause instanceof DatabaseUnavailableException) {
+            return error(request, Status.UNAVAILABLE, cause.getMessage());
+        }
+        logger.error("gRPC: lookupSession - Internal error: {}", cause.getMessage(), cause);
+        return error(request, Status.INTERNAL, "Error retrieving user info: " + cause.getMessage());
+    }
+
+    private static LookupResponse error(LookupRequest request, Status status, String message) {
+        return LookupResponse.newBuilder()
+                .setCorrelationId(request.getCorrelationId())
+                .setError(LookupError.newBuilder()
+                        .setCode(status.getCode().value())
+                        .setMessage(message != null ? message : ""))
+                .build();
+    }
+}
@@ -0,0 +1,20 @@
+package FCJ.user.grpc;
+
+import FCJ.user.stats.MembershipStatistics;
+import io.grpc.stub.StreamObserver;
+import lombok.RequiredArgsConstructor;
+import net.devh.boot.grpc.server.service.GrpcService;
+
+@GrpcService
+@RequiredArgsConstructor
+public class MembershipStatisticsGrpcService extends MembershipStatisticsServiceGrpc.MembershipStatisticsServiceImplBase {
+
+    private final MembershipStatistics membershipStatistics;
+
+    @Override
+    public void getMembershipStatistics(GetMembershipStatisticsRequest request,
+                                        StreamObserver<MembershipStatisticsResponse> responseObserver) {
+        responseObserver.onNext(UserInfoProtoMapper.toStatisticsResponse(membershipStatistics.snapshot()));
+        responseObserver.onCompleted();
+    }
+}
@@ -0,0 +1,182 @@
+package FCJ.user.grpc;
+
+import FCJ.user.exception.DatabaseUnavailableException;
+import FCJ.user.ledger.PaymentLedger;
+import FCJ.user.ledger.PaymentLedgerQuery;
+import FCJ.user.ledger.PaymentLedgerStreamLimit;
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import jakarta.annotation.PreDestroy;
+import net.devh.boot.grpc.server.service.GrpcService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Server-streaming ledger queries. Each stream runs on its own thread, off the gRPC executor, and sends
+ * a row only while the call is ready: a slow client pauses the database cursor instead of making the
+ * server buffer the result. A cancelled call stops the query. Streams share
+ * {@link PaymentLedgerStreamLimit} with the REST endpoint; calls beyond it get {@code RESOURCE_EXHAUSTED}.
+ */
+@GrpcService
+public class PaymentLedgerGrpcService extends PaymentLedgerServiceGrpc.PaymentLedgerServiceImplBase {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentLedgerGrpcService.class);
+
+    private final PaymentLedger paymentLedger;
+    private final PaymentLedgerStreamLimit streamLimit;
+    private final ExecutorService streamExecutor;
+
+    public PaymentLedgerGrpcService(PaymentLedger paymentLedger, PaymentLedgerStreamLimit streamLimit) {
+        this.paymentLedger = paymentLedger;
+        this.streamLimit = streamLimit;
+        AtomicInteger count = new AtomicInteger();
+        // Threads are bounded by the stream limit
+        this.streamExecutor = new ThreadPoolExecutor(0, streamLimit.getMaxConcurrentStreams(), 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "payment-ledger-stream-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void streamUserPayments(UserPaymentsRequest request, StreamObserver<LedgerPayment> responseObserver) {
+        PaymentLedgerQuery query;
+        try {
+            query = PaymentLedgerQuery.forUser(UUID.fromString(request.getUserId()),
+                    request.hasFrom() ? UserInfoProtoMapper.instant(request.getFrom()) : null,
+                    request.hasTo() ? UserInfoProtoMapper.instant(request.getTo()) : null);
+        } catch (IllegalArgumentException e) {
+            logger.warn("gRPC: streamUserPayments - Invalid argument: {}", e.getMessage());
+            responseObserver.onError(Status.INVALID_ARGUMENT
+                    .withDescription(e.getMessage())
+                    .asRuntimeException());
+            return;
+        }
+        stream("streamUserPayments", query, responseObserver);
+    }
+
+    @Override
+    public void streamPayments(PaymentPeriodRequest request, StreamObserver<LedgerPayment> responseObserver) {
+        PaymentLedgerQuery query;
+        try {
+            query = PaymentLedgerQuery.forPeriod(
+                    request.hasFrom() ? UserInfoProtoMapper.instant(request.getFrom()) : null,
+                    request.hasTo() ? UserInfoProtoMapper.instant(request.getTo()) : null);
+        } catch (IllegalArgumentException e) {
+            logger.warn("gRPC: streamPayments - Invalid argument: {}", e.getMessage());
+            responseObserver.onError(Status.INVALID_ARGUMENT
+                    .withDescription(e.getMessage())
+                    .asRuntimeException());
+            return;
+        }
+        stream("streamPayments", query, responseObserver);
+    }
+
+    private void stream(String method, PaymentLedgerQuery query, StreamObserver<LedgerPayment> responseObserver) {
+        ServerCallStreamObserver<LedgerPayment> call = (ServerCallStreamObserver<LedgerPayment>) responseObserver;
+        // Handlers can only be registered before this method returns
+        OutboundFlow flow = new OutboundFlow(call);
+        if (!streamLimit.tryAcquire()) {
+            logger.warn("gRPC: {} - Rejected, {} streams already running", method, streamLimit.getMaxConcurrentStreams());
+            call.onError(Status.RESOURCE_EXHAUSTED
+                    .withDescription("Too many concurrent payment ledger streams")
+                    .asRuntimeException());
+            return;
+        }
+        try {
+            streamExecutor.execute(() -> run(method, query, flow));
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+            streamLimit.release();
+            call.onError(Status.UNAVAILABLE.withDescription("Server is shutting down").asRuntimeException());
+        }
+    }
+
+    private void run(String method, PaymentLedgerQuery query, OutboundFlow flow) {
+        AtomicInteger sent = new AtomicInteger();
+        try {
+            paymentLedger.stream(query, entry -> {
+                flow.send(UserInfoProtoMapper.toLedgerPayment(entry));
+                sent.incrementAndGet();
+            });
+            flow.call.onCompleted();
+            logger.info("gRPC: {} completed, {} payments sent", method, sent.get());
+        } catch (CancellationException e) {
+            logger.info("gRPC: {} cancelled by client after {} payments", method, sent.get());
+        } catch (DatabaseUnavailableException e) {
+            logger.warn("gRPC: {} - Database unavailable: {}", method, e.getMessage());
+            flow.fail(Status.UNAVAILABLE.withDescription(e.getMessage()));
+        } catch (Exception e) {
+            logger.error("gRPC: {} - Internal error: {}", method, e.getMessage(), e);
+            flow.fail(Status.INTERNAL.withDescription("Error streaming payments: " + e.getMessage()));
+        } finally {
+            streamLimit.release();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        streamExecutor.shutdownNow();
+    }
+
+    /**
+     * Blocks the stream thread until the call can take another message without buffering, or is
+     * cancelled.
+     */
+    private static final class OutboundFlow {
+
+        private final ServerCallStreamObserver<LedgerPayment> call;
+        private final Object lock = new Object();
+        private volatile boolean cancelled;
+
+        OutboundFlow(ServerCallStreamObserver<LedgerPayment> call) {
+            this.call = call;
+            call.setOnReadyHandler(this::signal);
+            call.setOnCancelHandler(() -> {
+                cancelled = true;
+                signal();
+            });
+        }
+
+        void send(LedgerPayment payment) {
+            synchronized (lock) {
+                while (!cancelled && !call.isReady()) {
+                    try {
+                        // Timed, as a safety net: readiness is also re-checked on every signal
+                        lock.wait(1_000);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new CancellationException("Interrupted while waiting for the client");
+                    }
+                }
+            }
+            if (cancelled) {
+                throw new CancellationException("Call cancelled");
+            }
+            call.onNext(payment);
+        }
+
+        void fail(Status status) {
+            if (!cancelled) {
+                call.onError(status.asRuntimeException());
+            }
+        }
+
+        private void signal() {
+            synchronized (lock) {
+                lock.notifyAll();
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package FCJ.user.grpc;
+
+import io.grpc.Drainable;
+import io.grpc.KnownLength;
+import io.grpc.MethodDescriptor;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Response marshaller that accepts either a message, which it hands to the generated marshaller, or
+ * an {@link Encoded} wrapper around bytes that are already the message's wire form, which it writes
+ * out unchanged: sending one is a buffer copy into the transport, with no message building or encoding.
+ */
+final class PreEncodedMarshaller<T> implements MethodDescriptor.Marshaller<Object> {
+
+    private final MethodDescriptor.Marshaller<T> messages;
+
+    PreEncodedMarshaller(MethodDescriptor.Marshaller<T> messages) {
+        this.messages = messages;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public InputStream stream(Object value) {
+        if (value instanceof Encoded encoded) {
+            return new EncodedStream(encoded.bytes());
+        }
+        return messages.stream((T) value);
+    }
+
+    @Override
+    public Object parse(InputStream stream) {
+        return messages.parse(stream);
+    }
+
+    record Encoded(byte[] bytes) {
+    }
+
+    // Drainable lets the transport copy the array straight into its buffer; KnownLength sizes the frame up front
+    private static final class EncodedStream extends ByteArrayInputStream implements Drainable, KnownLength {
+
+        private EncodedStream(byte[] bytes) {
+            super(bytes);
+        }
+
+        @Override
+        public int drainTo(OutputStream target) throws IOException {
+            int length = count - pos;
+            target.write(buf, pos, length);
+            pos = count;
+            return length;
+        }
+    }
+}
@@ -1,24 +1,73 @@
 package FCJ.user.grpc;
 
+import FCJ.user.cache.ResponseBytesCache;
 import FCJ.user.dto.UserInfoCreation;
 import FCJ.user.dto.UserInfoDTO;
+import FCJ.user.exception.DatabaseUnavailableException;
 import FCJ.user.exception.UserInfoNotFoundException;
+import FCJ.user.service.UserInfoLookupBatcher;
 import FCJ.user.service.UserInfoService;
+import io.grpc.BindableService;
+import io.grpc.Context;
+import io.grpc.ServerServiceDefinition;
 import io.grpc.Status;
 import io.grpc.stub.StreamObserver;
-import lombok.RequiredArgsConstructor;
 import net.devh.boot.grpc.server.service.GrpcService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.ConcurrencyFailureException;
 
 import java.util.UUID;
 
 @GrpcService
-@RequiredArgsConstructor
-public class UserInfoGrpcService extends UserInfoServiceGrpc.UserInfoServiceImplBase {
+// Replaced by AsyncUserInfoGrpcService when the R2DBC lookup path is enabled
+@ConditionalOnProperty(prefix = "user.r2dbc", name = "enabled", havingValue = "false", matchIfMissing = true)
+// Implements AsyncService directly because the generated ImplBase makes bindService() final
+public class UserInfoGrpcService implements UserInfoServiceGrpc.AsyncService, BindableService {
 
     private static final Logger logger = LoggerFactory.getLogger(UserInfoGrpcService.class);
     private final UserInfoService userInfoService;
+    private final UserInfoLookupBatcher userInfoLookupBatcher;
+    // Null when response caching is off (or in the in-memory profile)
+    private final ResponseBytesCache responseBytesCache;
+
+    public UserInfoGrpcService(UserInfoService userInfoService, UserInfoLookupBatcher userInfoLookupBatcher) {
+        this(userInfoService, userInfoLookupBatcher, (ResponseBytesCache) null);
+    }
+
+    @Autowired
+    public UserInfoGrpcService(UserInfoService userInfoService, UserInfoLookupBatcher userInfoLookupBatcher,
+                               ObjectProvider<ResponseBytesCache> responseBytesCache) {
+        this(userInfoService, userInfoLookupBatcher, responseBytesCache.getIfAvailable());
+    }
+
+    public UserInfoGrpcService(UserInfoService userInfoService, UserInfoLookupBatcher userInfoLookupBatcher,
+                               ResponseBytesCache responseBytesCache) {
+        this.userInfoService = userInfoService;
+        this.userInfoLookupBatcher = userInfoLookupBatcher;
+        this.responseBytesCache = responseBytesCache;
+    }
+
+    /**
+     * Serves the hot lookups ({@code GetUserInfoById}, {@code BlogUserInfo}) from already encoded
+     * responses when a {@link ResponseBytesCache} is configured.
+     */
+    @Override
+    public ServerServiceDefinition bindService() {
+        ServerServiceDefinition definition = UserInfoServiceGrpc.bindService(this);
+        if (responseBytesCache == null) {
+            return definition;
+        }
+        return new CachedResponseMethods(definition, responseBytesCache)
+                .cache(UserInfoServiceGrpc.getGetUserInfoByIdMethod(), GetUserInfoByIdRequest::getId, this::getUserInfoById,
+                        UserInfoResponse::getStale)
+                .cache(UserInfoServiceGrpc.getBlogUserInfoMethod(), BlogUserInfoRequest::getId, this::blogUserInfo,
+                        BlogUserInfoResponse::getStale)
+                .build();
+    }
 
     @Override
     public void createUserInfo(CreateUserInfoRequest request, StreamObserver<UserInfoResponse> responseObserver) {
@@ -33,11 +82,14 @@ public class UserInfoGrpcService extends UserInfoServiceGrpc.UserInfoServiceImpl
             creation.setPhoneNumber(request.getPhoneNumber());
             creation.setAddress(request.getAddress());
 
+            if (isAbandoned("createUserInfo")) {
+                return;
+            }
             // Call service
             UserInfoDTO result = userInfoService.createUserInfo(userId, creation);
 
             // Convert DTO to gRPC response
-            UserInfoResponse response = convertToGrpcResponse(result);
+            UserInfoResponse response = UserInfoProtoMapper.toResponse(result);
 
             logger.info("gRPC: createUserInfo completed successfully with id={}", result.getId());
             responseObserver.onNext(response);
@@ -47,7 +99,20 @@ public class UserInfoGrpcService extends UserInfoServiceGrpc.UserInfoServiceImpl
             responseObserver.onError(Status.INVALID_ARGUMENT
                     .withDescription("Invalid user ID format: " + e.getMessage())
                     .asRuntimeException());
+        } catch (ConcurrencyFailureException e) {
+            logger.warn("gRPC: createUserInfo - Conflicting concurrent write: {}", e.getMessage());
+            responseObserver.onError(Status.ABORTED
+                    .withDescription("Conflicting concurrent write, retry: " + e.getMessage())
+                    .asRuntimeException());
+        } catch (DatabaseUnavailableException e) {
+            logger.warn("gRPC: createUserInfo - Database unavailable: {}", e.getMessage());
+            responseObserver.onError(Status.UNAVAILABLE
+                    .withDescription(e.getMessage())
+                    .asRuntimeException());
         } catch (Exception e) {
+            if (isAbandoned("createUserInfo")) {
+                return;
+            }
             logger.error("gRPC: createUserInfo - Internal error: {}", e.getMessage(), e);
             responseObserver.onError(Status.INTERNAL
                     .withDescription("Error creating user info: " + e.getMessage())
@@ -61,9 +126,12 @@ public class UserInfoGrpcService extends UserInfoServiceGrpc.UserInfoServiceImpl
             logger.info("gRPC: createEmptyUserInfo called with userId={}", request.getUserId());
 
             UUID userId = UUID.fromString(request.getUserId());
+            if (isAbandoned("createEmptyUserInfo")) {
+                return;
+            }
             UserInfoDTO result = userInfoService.createEmptyUserInfo(userId);
             
-            UserInfoResponse response = convertToGrpcResponse(result);
+            UserInfoResponse response = UserInfoProtoMapper.toResponse(result);
             
             logger.info("gRPC: createEmptyUserInfo completed successfully with id={}", result.getId());
             responseObserver.onNext(response);
@@ -73,7 +141,20 @@ public class UserInfoGrpcService extends UserInfoServiceGrpc.UserInfoServiceImpl
             responseObserver.onError(Status.INVALID_ARGUMENT
                     .withDescription("Invalid user ID format: " + e.getMessage())
                     .asRuntimeException());
+        } catch (ConcurrencyFailureException e) {
+            logger.warn("gRPC: createEmptyUserInfo - Conflicting concurrent write: {}", e.getMessage());
+            responseObserver.onError(Status.ABORTED
+                    .withDescription("Conflicting concurrent write, retry: " + e.getMessage())
+                    .asRuntimeException());
+        } catch (DatabaseUnavailableException e) {
+            logger.warn("gRPC: createEmptyUserInfo - Database unavailable: {}", e.getMessage());
+            responseObserver.onError(Status.UNAVAILABLE
+                    .withDescription(e.getMessage())
+                    .asRuntimeException());
         } catch (Exception e) {
+            if (isAbandoned("createEmptyUserInfo")) {
+                return;
+            }
             logger.error("gRPC: createEmptyUserInfo - Internal error: {}", e.getMessage(), e);
             responseObserver.onError(Status.INTERNAL
                     .withDescription("Error creating empty user info: " + e.getMessage())
@@ -87,9 +168,15 @@ public class UserInfoGrpcService extends UserInfoServiceGrpc.UserInfoServiceImpl
             logger.info("gRPC: getUserInfoById called with userId={}", request.getId());
 
             UUID userId = UUID.fromString(request.getId());
+            if (isAbandoned("getUserInfoById")) {
+                return;
+            }
             UserInfoDTO result = userInfoService.getUserInfoByUserId(userId);
+            if (isAbandoned("getUserInfoById")) {
+                return;
+            }
 
-            UserInfoResponse response = convertToGrpcResponse(result);
+            UserInfoResponse response = UserInfoProtoMapper.toResponse(result);
             
             logger.info("gRPC: getUserInfoById completed successfully for userId={}", userId);
             responseObserver.onNext(response);
@@ -104,7 +191,15 @@ public class UserInfoGrpcService extends UserInfoServiceGrpc.UserInfoServiceImpl
             responseObserver.onError(Status.INVALID_ARGUMENT
                     .withDescription("Invalid user ID format: " + e.getMessage())
                     .asRuntimeException());
+        } catch (DatabaseUnavailableException e) {
+            logger.warn("gRPC: getUserInfoById - Database unavailable: {}", e.getMessage());
+            responseObserver.onError(Status.UNAVAILABLE
+                    .withDescription(e.getMessage())
+                    .asRuntimeException());
         } catch (Exception e) {
+            if (isAbandoned("getUserInfoById")) {
+                return;
+            }
             logger.error("gRPC: getUserInfoById - Internal error: {}", e.getMessage(), e);
             responseObserver.onError(Status.INTERNAL
                     .withDescription("Error retrieving user info: " + e.getMessage())
@@ -124,9 +219,12 @@ public class UserInfoGrpcService extends UserInfoServiceGrpc.UserInfoServiceImpl
             creation.setPhoneNumber(request.getPhoneNumber());
             creation.setAddress(request.getAddress());
 
+            if (isAbandoned("updateUserInfo")) {
+                return;
+            }
             UserInfoDTO result = userInfoService.updateUserInfo(id, creation);
             
-            UserInfoResponse response = convertToGrpcResponse(result);
+            UserInfoResponse response = UserInfoProtoMapper.toResponse(result);
             
             logger.info("gRPC: updateUserInfo completed successfully for id={}", id);
             responseObserver.onNext(response);
@@ -141,7 +239,20 @@ public class UserInfoGrpcService extends UserInfoServiceGrpc.UserInfoServiceImpl
             responseObserver.onError(Status.INVALID_ARGUMENT
                     .withDescription("Invalid ID format: " + e.getMessage())
                     .asRuntimeException());
+        } catch (ConcurrencyFailureException e) {
+            logger.warn("gRPC: updateUserInfo - Conflicting concurrent write: {}", e.getMessage());
+            responseObserver.onError(Status.ABORTED
+                    .withDescription("Conflicting concurrent write, retry: " + e.getMessage())
+                    .asRuntimeException());
+        } catch (DatabaseUnavailableException e) {
+            logger.warn("gRPC: updateUserInfo - Database unavailable: {}", e.getMessage());
+            responseObserver.onError(Status.UNAVAILABLE
+                    .withDescription(e.getMessage())
+                    .asRuntimeException());
         } catch (Exception e) {
+            if (isAbandoned("updateUserInfo")) {
+                return;
+            }
             logger.error("gRPC: updateUserInfo - Internal error: {}", e.getMessage(), e);
             responseObserver.onError(Status.INTERNAL
                     .withDescription("Error updating user info: " + e.getMessage())
@@ -171,9 +282,12 @@ public class UserInfoGrpcService extends UserInfoServiceGrpc.UserInfoServiceImpl
                 creation.setAddress(request.getAddress());
             }
 
+            if (isAbandoned("patchUserInfo")) {
+                return;
+            }
             UserInfoDTO result = userInfoService.patchUserInfo(id, creation);
             
-            UserInfoResponse response = convertToGrpcResponse(result);
+            UserInfoResponse response = UserInfoProtoMapper.toResponse(result);
             
             logger.info("gRPC: patchUserInfo completed successfully for id={}", id);
             responseObserver.onNext(response);
@@ -188,7 +302,20 @@ public class UserInfoGrpcService extends UserInfoServiceGrpc.UserInfoServiceImpl
             responseObserver.onError(Status.INVALID_ARGUMENT
                     .withDescription("Invalid ID format: " + e.getMessage())
                     .asRuntimeException());
+        } catch (ConcurrencyFailureException e) {
+            logger.warn("gRPC: patchUserInfo - Conflicting concurrent write: {}", e.getMessage());
+            responseObserver.onError(Status.ABORTED
+                    .withDescription("Conflicting concurrent write, retry: " + e.getMessage())
+                    .asRuntimeException());
+        } catch (DatabaseUnavailableException e) {
+            logger.warn("gRPC: patchUserInfo - Database unavailable: {}", e.getMessage());
+            responseObserver.onError(Status.UNAVAILABLE
+                    .withDescription(e.getMessage())
+                    .asRuntimeException());
         } catch (Exception e) {
+            if (isAbandoned("patchUserInfo")) {
+                return;
+            }
             logger.error("gRPC: patchUserInfo - Internal error: {}", e.getMessage(), e);
             responseObserver.onError(Status.INTERNAL
                     .withDescription("Error patching user info: " + e.getMessage())
@@ -202,6 +329,9 @@ public class UserInfoGrpcService extends UserInfoServiceGrpc.UserInfoServiceImpl
             logger.info("gRPC: deleteUserInfo called with id={}", request.getId());
 
             UUID id = UUID.fromString(request.getId());
+            if (isAbandoned("deleteUserInfo")) {
+                return;
+            }
             userInfoService.deleteUserInfo(id);
             
             DeleteUserInfoResponse response = DeleteUserInfoResponse.newBuilder()
@@ -222,7 +352,20 @@ public class UserInfoGrpcService extends UserInfoServiceGrpc.UserInfoServiceImpl
             responseObserver.onError(Status.INVALID_ARGUMENT
                     .withDescription("Invalid ID format: " + e.getMessage())
                     .asRuntimeException());
+        } catch (ConcurrencyFailureException e) {
+            logger.warn("gRPC: deleteUserInfo - Conflicting concurrent write: {}", e.getMessage());
+            responseObserver.onError(Status.ABORTED
+                    .withDescription("Conflicting concurrent write, retry: " + e.getMessage())
+                    .asRuntimeException());
+        } catch (DatabaseUnavailableException e) {
+            logger.warn("gRPC: deleteUserInfo - Database unavailable: {}", e.getMessage());
+            responseObserver.onError(Status.UNAVAILABLE
+                    .withDescription(e.getMessage())
+                    .asRuntimeException());
         } catch (Exception e) {
+            if (isAbandoned("deleteUserInfo")) {
+                return;
+            }
             logger.error("gRPC: deleteUserInfo - Internal error: {}", e.getMessage(), e);
             responseObserver.onError(Status.INTERNAL
                     .withDescription("Error deleting user info: " + e.getMessage())
@@ -236,12 +379,15 @@ public class UserInfoGrpcService extends UserInfoServiceGrpc.UserInfoServiceImpl
             logger.info("gRPC: blogUserInfo called with userId={}", request.getId());
 
             UUID userId = UUID.fromString(request.getId());
+            if (isAbandoned("blogUserInfo")) {
+                return;
+            }
             UserInfoDTO result = userInfoService.getUserInfoByUserId(userId);
+            if (isAbandoned("blogUserInfo")) {
+                return;
+            }
 
-            BlogUserInfoResponse response = BlogUserInfoResponse.newBuilder()
-                    .setName(result.getFullName() != null ? result.getFullName() : "")
-                    .setAvatar(result.getAvatarUrl() != null ? result.getAvatarUrl() : "")
-                    .build();
+            BlogUserInfoResponse response = UserInfoProtoMapper.toBlogResponse(result);
             
             logger.info("gRPC: blogUserInfo completed successfully for userId={}", userId);
             responseObserver.onNext(response);
@@ -256,7 +402,15 @@ public class UserInfoGrpcService extends UserInfoServiceGrpc.UserInfoServiceImpl
             responseObserver.onError(Status.INVALID_ARGUMENT
                     .withDescription("Invalid user ID format: " + e.getMessage())
                     .asRuntimeException());
+        } catch (DatabaseUnavailableException e) {
+            logger.warn("gRPC: blogUserInfo - Database unavailable: {}", e.getMessage());
+            responseObserver.onError(Status.UNAVAILABLE
+                    .withDescription(e.getMessage())
+                    .asRuntimeException());
         } catch (Exception e) {
+            if (isAbandoned("blogUserInfo")) {
+                return;
+            }
             logger.error("gRPC: blogUserInfo - Internal error: {}", e.getMessage(), e);
             responseObserver.onError(Status.INTERNAL
                     .withDescription("Error retrieving blog user info: " + e.getMessage())
@@ -264,28 +418,25 @@ public class UserInfoGrpcService extends UserInfoServiceGrpc.UserInfoServiceImpl
         }
     }
 
+    @Override
+    public StreamObserver<LookupRequest> lookupSession(StreamObserver<LookupResponse> responseObserver) {
+        logger.info("gRPC: lookupSession opened");
+        return new LookupSessionObserver(responseObserver, userInfoLookupBatcher,
+                userInfoLookupBatcher.getMaxInFlightPerSession());
+    }
+
     /**
-     * Helper method to convert UserInfoDTO to gRPC UserInfoResponse
+     * True once the caller has cancelled or its deadline has expired; nobody is waiting for the
+     * result, so the remaining work (and any error response) is skipped.
      */
-    private UserInfoResponse convertToGrpcResponse(UserInfoDTO dto) {
-        UserInfoResponse.Builder builder = UserInfoResponse.newBuilder()
-                .setId(dto.getId().toString())
-                .setUserId(dto.getUserId().toString());
-        
-        if (dto.getFullName() != null) {
-            builder.setFullName(dto.getFullName());
-        }
-        if (dto.getAvatarUrl() != null) {
-            builder.setAvatarUrl(dto.getAvatarUrl());
-        }
-        if (dto.getPhoneNumber() != null) {
-            builder.setPhoneNumber(dto.getPhoneNumber());
-        }
-        if (dto.getAddress() != null) {
-            builder.setAddress(dto.getAddress());
+    boolean isAbandoned(String method) {
+        Context context = Context.current();
+        if (!context.isCancelled()) {
+            return false;
         }
-        
-        return builder.build();
+        boolean expired = context.getDeadline() != null && context.getDeadline().isExpired();
+        logger.info("gRPC: {} abandoned - {}", method, expired ? "deadline exceeded" : "cancelled by client");
+        return true;
     }
 }
 
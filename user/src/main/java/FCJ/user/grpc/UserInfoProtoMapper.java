@@ -0,0 +1,127 @@
+package FCJ.user.grpc;
+
+import FCJ.user.dto.UserInfoDTO;
+import FCJ.user.ledger.PaymentLedgerEntry;
+import FCJ.user.stats.MembershipStatisticsSnapshot;
+import FCJ.user.stats.SegmentTotals;
+import com.google.protobuf.Timestamp;
+
+import java.time.Instant;
+
+/**
+ * Maps {@link UserInfoDTO} to the protobuf {@link UserInfoResponse}, shared by the gRPC service and
+ * the {@code application/x-protobuf} REST representation. Unset proto fields stand for nulls.
+ */
+public final class UserInfoProtoMapper {
+
+    private UserInfoProtoMapper() {
+    }
+
+    public static UserInfoResponse toResponse(UserInfoDTO dto) {
+        UserInfoResponse.Builder builder = UserInfoResponse.newBuilder()
+                .setId(dto.getId().toString())
+                .setUserId(dto.getUserId().toString());
+
+        if (dto.getFullName() != null) {
+            builder.setFullName(dto.getFullName());
+        }
+        if (dto.getAvatarUrl() != null) {
+            builder.setAvatarUrl(dto.getAvatarUrl());
+        }
+        if (dto.getPhoneNumber() != null) {
+            builder.setPhoneNumber(dto.getPhoneNumber());
+        }
+        if (dto.getAddress() != null) {
+            builder.setAddress(dto.getAddress());
+        }
+        if (dto.getSubscriptionTier() != null) {
+            builder.setSubscriptionTier(dto.getSubscriptionTier());
+        }
+        if (dto.getSubscriptionStatus() != null) {
+            builder.setSubscriptionStatus(dto.getSubscriptionStatus());
+        }
+        if (dto.getSubscriptionExpiresAt() != null) {
+            builder.setSubscriptionExpiresAt(timestamp(dto.getSubscriptionExpiresAt()));
+        }
+        if (dto.getPaymentMethod() != null) {
+            builder.setPaymentMethod(dto.getPaymentMethod());
+        }
+        if (dto.getLastPaymentId() != null) {
+            builder.setLastPaymentId(dto.getLastPaymentId());
+        }
+        if (dto.getLastPaymentDate() != null) {
+            builder.setLastPaymentDate(timestamp(dto.getLastPaymentDate()));
+        }
+        if (dto.getLastPaymentAmount() != null) {
+            builder.setLastPaymentAmount(dto.getLastPaymentAmount());
+        }
+        if (dto.getNextBillingDate() != null) {
+            builder.setNextBillingDate(timestamp(dto.getNextBillingDate()));
+        }
+        if (dto.getAutoRenewal() != null) {
+            builder.setAutoRenewal(dto.getAutoRenewal());
+        }
+        if (dto.isStale()) {
+            builder.setStale(true);
+        }
+
+        return builder.build();
+    }
+
+    public static BlogUserInfoResponse toBlogResponse(UserInfoDTO dto) {
+        return BlogUserInfoResponse.newBuilder()
+                .setName(dto.getFullName() != null ? dto.getFullName() : "")
+                .setAvatar(dto.getAvatarUrl() != null ? dto.getAvatarUrl() : "")
+                .setStale(dto.isStale())
+                .build();
+    }
+
+    public static MembershipStatisticsResponse toStatisticsResponse(MembershipStatisticsSnapshot snapshot) {
+        MembershipStatisticsResponse.Builder builder = MembershipStatisticsResponse.newBuilder()
+                .setTotalUsers(snapshot.totalUsers())
+                .setTotalRevenue(snapshot.totalRevenue());
+        for (SegmentTotals totals : snapshot.segments()) {
+            builder.addSegments(MembershipSegmentStatistics.newBuilder()
+                    .setSubscriptionTier(totals.segment().tier())
+                    .setSubscriptionStatus(totals.segment().status())
+                    .setUsers(totals.users())
+                    .setRevenue(totals.revenue()));
+        }
+        if (snapshot.asOf() != null) {
+            builder.setAsOf(timestamp(snapshot.asOf()));
+        }
+        return builder.build();
+    }
+
+    public static LedgerPayment toLedgerPayment(PaymentLedgerEntry entry) {
+        LedgerPayment.Builder builder = LedgerPayment.newBuilder()
+                .setUserId(entry.userId().toString())
+                .setPaymentId(entry.paymentId())
+                .setPaidAt(timestamp(entry.paidAt()))
+                .setRecordedAt(timestamp(entry.recordedAt()));
+        if (entry.amount() != null) {
+            builder.setAmount(entry.amount());
+        }
+        if (entry.paymentMethod() != null) {
+            builder.setPaymentMethod(entry.paymentMethod());
+        }
+        if (entry.subscriptionTier() != null) {
+            builder.setSubscriptionTier(entry.subscriptionTier());
+        }
+        if (entry.subscriptionStatus() != null) {
+            builder.setSubscriptionStatus(entry.subscriptionStatus());
+        }
+        return builder.build();
+    }
+
+    public static Instant instant(Timestamp timestamp) {
+        return Instant.ofEpochSecond(timestamp.getSeconds(), timestamp.getNanos());
+    }
+
+    private static Timestamp timestamp(Instant instant) {
+        return Timestamp.newBuilder()
+                .setSeconds(instant.getEpochSecond())
+                .setNanos(instant.getNano())
+                .build();
+    }
+}
@@ -0,0 +1,107 @@
+package FCJ.user.jdbc;
+
+import FCJ.user.repository.UserInfoRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Opens the pool's minimum-idle connections (TCP, TLS and Postgres handshakes) and runs the hot
+ * {@code findByUserId} lookup once, before the application reports ready. Application runners
+ * complete before readiness switches to ACCEPTING_TRAFFIC, so the first real requests find a warm
+ * pool. Failures are logged and never block startup.
+ */
+@Component
+@ConditionalOnProperty(prefix = "user.datasource.warmup", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ConnectionPoolWarmup implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConnectionPoolWarmup.class);
+
+    private final ObjectProvider<DataSource> dataSource;
+    private final ObjectProvider<UserInfoRepository> userInfoRepository;
+
+    public ConnectionPoolWarmup(ObjectProvider<DataSource> dataSource,
+                                ObjectProvider<UserInfoRepository> userInfoRepository) {
+        this.dataSource = dataSource;
+        this.userInfoRepository = userInfoRepository;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        DataSource ds = dataSource.getIfAvailable();
+        if (ds == null) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            int opened = openConnections(ds, targetConnections(ds));
+            UserInfoRepository repository = userInfoRepository.getIfAvailable();
+            if (repository != null) {
+                repository.findByUserId(new UUID(0L, 0L));
+            }
+            logger.info("Connection pool warmed up: {} connections in {} ms",
+                    opened, (System.nanoTime() - start) / 1_000_000);
+        } catch (Exception e) {
+            logger.warn("Connection pool warm-up failed, continuing startup: {}", e.getMessage());
+        }
+    }
+
+    private int targetConnections(DataSource ds) throws SQLException {
+        if (ds.isWrapperFor(HikariDataSource.class)) {
+            HikariDataSource hikari = ds.unwrap(HikariDataSource.class);
+            return Math.max(1, hikari.getMinimumIdle());
+        }
+        return 1;
+    }
+
+    /**
+     * Checks out {@code count} connections at the same time so the pool has to establish distinct
+     * physical connections, then returns them all.
+     */
+    private int openConnections(DataSource ds, int count) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(count, 8));
+        List<Connection> connections = new ArrayList<>();
+        try {
+            List<CompletableFuture<Connection>> futures = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                futures.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        Connection connection = ds.getConnection();
+                        connection.isValid(2);
+                        return connection;
+                    } catch (SQLException e) {
+                        throw new IllegalStateException(e.getMessage(), e);
+                    }
+                }, executor));
+            }
+            for (CompletableFuture<Connection> future : futures) {
+                try {
+                    connections.add(future.join());
+                } catch (RuntimeException e) {
+                    logger.debug("Warm-up connection failed: {}", e.getMessage());
+                }
+            }
+            return connections.size();
+        } finally {
+            for (Connection connection : connections) {
+                connection.close();
+            }
+            executor.shutdown();
+        }
+    }
+}
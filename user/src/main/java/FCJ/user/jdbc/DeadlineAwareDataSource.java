@@ -0,0 +1,70 @@
+package FCJ.user.jdbc;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+
+/**
+ * Applies the thread's {@link QueryDeadline} to every connection and statement it hands out.
+ * Without an open scope (REST calls, schedulers) it behaves exactly like the target data source.
+ */
+public class DeadlineAwareDataSource extends DelegatingDataSource {
+
+    public DeadlineAwareDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    private Connection wrap(Connection connection) throws SQLException {
+        QueryDeadline.Scope scope = QueryDeadline.current();
+        if (scope == null) {
+            return connection;
+        }
+        if (scope.isExpired()) {
+            connection.close();
+            throw new SQLTimeoutException("Caller deadline exceeded before the query was started");
+        }
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    Object result;
+                    try {
+                        result = method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                    if (result instanceof Statement statement) {
+                        applyDeadline(scope, statement);
+                    }
+                    return result;
+                });
+    }
+
+    private void applyDeadline(QueryDeadline.Scope scope, Statement statement) throws SQLException {
+        if (scope.isExpired()) {
+            statement.close();
+            throw new SQLTimeoutException("Caller deadline exceeded before the query was started");
+        }
+        int remaining = scope.remainingSeconds();
+        if (remaining > 0 && (statement.getQueryTimeout() == 0 || statement.getQueryTimeout() > remaining)) {
+            statement.setQueryTimeout(remaining);
+        }
+        scope.register(statement);
+    }
+}
@@ -0,0 +1,21 @@
+package FCJ.user.jdbc;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the application's data source in a {@link DeadlineAwareDataSource}.
+ */
+@Component
+public class DeadlineAwareDataSourcePostProcessor implements BeanPostProcessor {
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof DeadlineAwareDataSource)) {
+            return new DeadlineAwareDataSource(dataSource);
+        }
+        return bean;
+    }
+}
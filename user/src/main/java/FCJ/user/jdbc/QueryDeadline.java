@@ -0,0 +1,126 @@
+package FCJ.user.jdbc;
+
+import io.grpc.Context;
+import io.grpc.Deadline;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-thread deadline for JDBC work done on behalf of a gRPC call.
+ * <p>
+ * While a scope is open, {@link DeadlineAwareDataSource} refuses to hand out connections once the
+ * deadline has passed, caps each statement's query timeout at the remaining time, and cancels
+ * running statements as soon as the call's {@link Context} is cancelled (client cancel or deadline).
+ */
+public final class QueryDeadline {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryDeadline.class);
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    private QueryDeadline() {
+    }
+
+    /**
+     * Binds the deadline and cancellation of {@code context} to the current thread.
+     */
+    public static Scope open(Context context) {
+        Scope scope = new Scope(context, CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    static Scope current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Whether the call bound to the current thread has been cancelled or is past its deadline, so that
+     * a timeout or cancelled statement was caused by the caller rather than the database.
+     */
+    public static boolean isCallerExpired() {
+        Scope scope = CURRENT.get();
+        return scope != null && scope.isExpired();
+    }
+
+    public static final class Scope implements AutoCloseable, Context.CancellationListener {
+        private final Context context;
+        private final Scope previous;
+        private final List<Statement> statements = new ArrayList<>();
+        private boolean cancelled;
+
+        private Scope(Context context, Scope previous) {
+            this.context = context;
+            this.previous = previous;
+            context.addListener(this, Runnable::run);
+        }
+
+        Deadline deadline() {
+            return context.getDeadline();
+        }
+
+        boolean isExpired() {
+            Deadline deadline = context.getDeadline();
+            return context.isCancelled() || (deadline != null && deadline.isExpired());
+        }
+
+        /**
+         * Remaining time in whole seconds (rounded up) for {@link Statement#setQueryTimeout}, or 0 if unbounded.
+         */
+        int remainingSeconds() {
+            Deadline deadline = context.getDeadline();
+            if (deadline == null) {
+                return 0;
+            }
+            long millis = deadline.timeRemaining(TimeUnit.MILLISECONDS);
+            return (int) Math.max(1, (millis + 999) / 1000);
+        }
+
+        void register(Statement statement) throws SQLException {
+            boolean cancelNow;
+            synchronized (this) {
+                statements.add(statement);
+                cancelNow = cancelled;
+            }
+            if (cancelNow) {
+                statement.cancel();
+            }
+        }
+
+        @Override
+        public void cancelled(Context context) {
+            List<Statement> running;
+            synchronized (this) {
+                cancelled = true;
+                running = new ArrayList<>(statements);
+            }
+            for (Statement statement : running) {
+                try {
+                    if (!statement.isClosed()) {
+                        statement.cancel();
+                    }
+                } catch (SQLException e) {
+                    logger.debug("Could not cancel statement: {}", e.getMessage());
+                }
+            }
+        }
+
+        @Override
+        public void close() {
+            context.removeListener(this);
+            synchronized (this) {
+                statements.clear();
+            }
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package FCJ.user.jdbc;
+
+import FCJ.user.shard.ShardRouter;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Idempotent PostgreSQL DDL for soft delete and archival: the tombstone column, the archive table
+ * and partial indexes. {@code user_id} is unique among live rows only, through a partial unique index
+ * that replaces the table's original unique constraint, so a tombstone does not block registering its
+ * user id again and stays out of the lookup index. Production may run with {@code ddl-auto=none}, and
+ * Hibernate cannot express partial or concurrently built indexes anyway.
+ * <p>
+ * Depends on the EntityManagerFactory so it runs after any Hibernate schema update. Runs as an
+ * application runner: the column and archive table are created before the application reports
+ * ready, while the indexes are built concurrently on a background thread, since that can take minutes
+ * on a large table. Until the unique index is valid a plain unique constraint on {@code user_id} stays in
+ * place (and is added to a table created without one), and a deleted user id cannot be registered again
+ * until the archiver has moved its tombstone. H2 has no partial indexes, so there a unique index covers
+ * a generated column that holds the user id of live rows only, next to a plain index on {@code user_id}
+ * for lookups. Other databases are skipped, and failures
+ * are logged without blocking startup. Every shard gets the same DDL.
+ */
+@Component
+@Profile("!in-memory")
+@ConditionalOnProperty(prefix = "user.archive", name = "schema-init", havingValue = "true", matchIfMissing = true)
+public class UserInfoArchiveSchema implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserInfoArchiveSchema.class);
+
+    static final List<String> TABLE_STATEMENTS = List.of(
+            "ALTER TABLE user_info ADD COLUMN IF NOT EXISTS deleted_at timestamp(6) with time zone",
+            // user_id stays unique until the partial index below is valid; Hibernate no longer declares it
+            """
+                    DO $$
+                    BEGIN
+                        IF NOT EXISTS (SELECT 1 FROM pg_constraint c
+                                JOIN pg_attribute a ON a.attrelid = c.conrelid AND a.attname = 'user_id'
+                                WHERE c.conrelid = 'user_info'::regclass AND c.contype = 'u' AND c.conkey = ARRAY[a.attnum])
+                            AND NOT EXISTS (SELECT 1 FROM pg_index
+                                WHERE indexrelid = to_regclass('user_info_live_user_id_idx') AND indisvalid) THEN
+                            ALTER TABLE user_info ADD CONSTRAINT user_info_user_id_key UNIQUE (user_id);
+                        END IF;
+                    END $$""",
+            "CREATE TABLE IF NOT EXISTS user_info_archive (LIKE user_info INCLUDING DEFAULTS, "
+                    + "archived_at timestamp(6) with time zone NOT NULL, PRIMARY KEY (id))",
+            "CREATE INDEX IF NOT EXISTS user_info_archive_user_id_idx ON user_info_archive (user_id)");
+
+    static final List<String> INDEX_STATEMENTS = List.of(
+            // Lookups by user_id; live rows only
+            "CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS user_info_live_user_id_idx ON user_info (user_id) "
+                    + "WHERE deleted_at IS NULL",
+            // The unique constraint on every row's user_id goes once the partial index is valid (a failed
+            // concurrent build leaves an invalid index behind)
+            """
+                    DO $$
+                    DECLARE
+                        constraint_name text;
+                    BEGIN
+                        SELECT c.conname INTO constraint_name FROM pg_constraint c
+                        JOIN pg_attribute a ON a.attrelid = c.conrelid AND a.attname = 'user_id'
+                        WHERE c.conrelid = 'user_info'::regclass AND c.contype = 'u' AND c.conkey = ARRAY[a.attnum];
+                        IF constraint_name IS NOT NULL AND EXISTS (SELECT 1 FROM pg_index
+                                WHERE indexrelid = to_regclass('user_info_live_user_id_idx') AND indisvalid) THEN
+                            EXECUTE format('ALTER TABLE user_info DROP CONSTRAINT %I', constraint_name);
+                        END IF;
+                    END $$""",
+            // Archiver scan for tombstones; contains only deleted rows
+            "CREATE INDEX CONCURRENTLY IF NOT EXISTS user_info_tombstone_idx ON user_info (deleted_at) "
+                    + "WHERE deleted_at IS NOT NULL",
+            // Archiver scan for ended subscriptions; live rows only
+            "CREATE INDEX CONCURRENTLY IF NOT EXISTS user_info_inactive_idx ON user_info (subscription_expires_at) "
+                    + "WHERE deleted_at IS NULL AND subscription_status IN ('EXPIRED', 'CANCELLED')");
+
+    static final List<String> H2_TABLE_STATEMENTS = List.of(
+            "ALTER TABLE user_info ADD COLUMN IF NOT EXISTS live_user_id uuid "
+                    + "GENERATED ALWAYS AS (CASE WHEN deleted_at IS NULL THEN user_id END)",
+            "CREATE UNIQUE INDEX IF NOT EXISTS user_info_live_user_id_idx ON user_info (live_user_id)",
+            // Lookups filter on user_id itself, which the generated column's index does not serve
+            "CREATE INDEX IF NOT EXISTS user_info_user_id_idx ON user_info (user_id)");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ShardRouter router;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "user-info-archive-indexes");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public UserInfoArchiveSchema(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this(jdbcTemplate, entityManagerFactory, ShardRouter.single());
+    }
+
+    @Autowired
+    public UserInfoArchiveSchema(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory,
+                                 ShardRouter router) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.router = router;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        router.forEachShard(shard -> execute(shard, TABLE_STATEMENTS, H2_TABLE_STATEMENTS, "tables"));
+        executor.execute(() -> router.forEachShard(shard -> execute(shard, INDEX_STATEMENTS, List.of(), "indexes")));
+    }
+
+    /**
+     * Creates the tables and builds the indexes on the calling thread.
+     */
+    public void initialize() {
+        router.forEachShard(shard -> {
+            execute(shard, TABLE_STATEMENTS, H2_TABLE_STATEMENTS, "tables");
+            execute(shard, INDEX_STATEMENTS, List.of(), "indexes");
+        });
+    }
+
+    private void execute(int shard, List<String> postgresStatements, List<String> h2Statements, String what) {
+        try {
+            DatabaseDriver driver = jdbcTemplate.execute((ConnectionCallback<DatabaseDriver>) connection ->
+                    DatabaseDriver.fromProductName(connection.getMetaData().getDatabaseProductName()));
+            List<String> statements = switch (driver) {
+                case POSTGRESQL -> postgresStatements;
+                case H2 -> h2Statements;
+                default -> List.of();
+            };
+            if (statements.isEmpty()) {
+                return;
+            }
+            // Autocommit statements: CREATE INDEX CONCURRENTLY cannot run inside a transaction
+            for (String statement : statements) {
+                jdbcTemplate.execute(statement);
+            }
+            logger.info("user_info archive {} verified{}", what, router.isSharded() ? " on shard " + shard : "");
+        } catch (DataAccessException e) {
+            logger.warn("user_info archive {} setup{} failed, continuing: {}", what,
+                    router.isSharded() ? " on shard " + shard : "", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        // Interrupting the build would not cancel it server-side; the daemon thread ends with the JVM
+        executor.shutdown();
+    }
+}
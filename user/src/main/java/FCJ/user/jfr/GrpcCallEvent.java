@@ -0,0 +1,12 @@
+package FCJ.user.jfr;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("FCJ.user.GrpcCall")
+@Label("gRPC Call")
+class GrpcCallEvent extends OperationEvent {
+
+    @Label("Status")
+    String status;
+}
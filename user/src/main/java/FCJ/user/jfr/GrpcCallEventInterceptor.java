@@ -0,0 +1,85 @@
+package FCJ.user.jfr;
+
+import com.google.protobuf.Descriptors;
+import com.google.protobuf.Message;
+import io.grpc.ForwardingServerCall;
+import io.grpc.ForwardingServerCallListener;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+
+/**
+ * Emits a {@link GrpcCallEvent} per call, from its start until it is closed (for a stream, the
+ * whole stream). The key is the {@code id} or {@code user_id} field of the first request message,
+ * read only while a recording is running.
+ */
+class GrpcCallEventInterceptor implements ServerInterceptor {
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call,
+                                                                 Metadata headers,
+                                                                 ServerCallHandler<ReqT, RespT> next) {
+        GrpcCallEvent event = new GrpcCallEvent();
+        event.begin();
+        // A handler that throws is closed by ServerImpl directly, so the listener commits in that case
+        ServerCall<ReqT, RespT> recordingCall = new ForwardingServerCall.SimpleForwardingServerCall<>(call) {
+            @Override
+            public void close(Status status, Metadata trailers) {
+                commit(event, call, status.getCode().name());
+                super.close(status, trailers);
+            }
+        };
+        return new ForwardingServerCallListener.SimpleForwardingServerCallListener<>(next.startCall(recordingCall, headers)) {
+            @Override
+            public void onMessage(ReqT message) {
+                if (event.key == null && event.isEnabled()) {
+                    event.key = key(message);
+                }
+                super.onMessage(message);
+            }
+
+            @Override
+            public void onCancel() {
+                commit(event, call, Status.Code.CANCELLED.name());
+                super.onCancel();
+            }
+
+            @Override
+            public void onComplete() {
+                commit(event, call, Status.Code.UNKNOWN.name());
+                super.onComplete();
+            }
+        };
+    }
+
+    private static void commit(GrpcCallEvent event, ServerCall<?, ?> call, String status) {
+        synchronized (event) {
+            if (event.status != null) {
+                return;
+            }
+            event.status = status;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = call.getMethodDescriptor().getFullMethodName();
+            event.failed = !Status.Code.OK.name().equals(status);
+            event.commit();
+        }
+    }
+
+    private static String key(Object message) {
+        if (!(message instanceof Message proto)) {
+            return null;
+        }
+        Descriptors.Descriptor type = proto.getDescriptorForType();
+        for (String name : new String[]{"id", "user_id"}) {
+            Descriptors.FieldDescriptor field = type.findFieldByName(name);
+            if (field != null && field.getJavaType() == Descriptors.FieldDescriptor.JavaType.STRING) {
+                return (String) proto.getField(field);
+            }
+        }
+        return null;
+    }
+}
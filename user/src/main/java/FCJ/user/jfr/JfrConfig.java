@@ -0,0 +1,40 @@
+package FCJ.user.jfr;
+
+import net.devh.boot.grpc.server.interceptor.GrpcGlobalServerInterceptor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(JfrProperties.class)
+@ConditionalOnProperty(prefix = "user.jfr", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class JfrConfig {
+
+    // Static: post-processors are created before the other beans of this class can be
+    @Bean
+    static OperationEventPostProcessor serviceOperationEvents() {
+        return OperationEventPostProcessor.service();
+    }
+
+    @Bean
+    static OperationEventPostProcessor repositoryCallEvents() {
+        return OperationEventPostProcessor.repository();
+    }
+
+    @Bean
+    @GrpcGlobalServerInterceptor
+    GrpcCallEventInterceptor grpcCallEventInterceptor() {
+        return new GrpcCallEventInterceptor();
+    }
+
+    @Bean
+    public JfrRecorder jfrRecorder(JfrProperties properties) {
+        return new JfrRecorder(properties);
+    }
+
+    @Bean
+    public JfrRecordingEndpoint jfrRecordingEndpoint(JfrRecorder jfrRecorder) {
+        return new JfrRecordingEndpoint(jfrRecorder);
+    }
+}
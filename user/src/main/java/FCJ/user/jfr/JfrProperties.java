@@ -0,0 +1,27 @@
+package FCJ.user.jfr;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "user.jfr")
+public class JfrProperties {
+
+    // Emit the FCJ.user.* JFR events; they cost next to nothing while no recording is running
+    private boolean enabled = true;
+
+    // On-demand recordings (POST /actuator/jfr): length when none is given, and the most that may be asked for
+    private Duration defaultDuration = Duration.ofSeconds(30);
+    private Duration maxDuration = Duration.ofMinutes(5);
+    // JFR drops the oldest data beyond this
+    private DataSize maxSize = DataSize.ofMegabytes(100);
+    // Service, repository and gRPC events shorter than this are not recorded
+    private Duration threshold = Duration.ofMillis(5);
+    // Operations listed in the recording summary
+    private int topOperations = 20;
+}
@@ -0,0 +1,235 @@
+package FCJ.user.jfr;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Runs one bounded JFR recording at a time: the JDK's {@code default} settings (designed to stay
+ * under 1% overhead) plus the {@code FCJ.user.*} events above {@code user.jfr.threshold}. When it
+ * stops, the recording is written to a temporary file, which is kept until the next recording, and
+ * summarized per operation.
+ */
+public class JfrRecorder {
+
+    private static final Logger logger = LoggerFactory.getLogger(JfrRecorder.class);
+    private static final Set<String> EVENTS = Set.of(
+            "FCJ.user.ServiceOperation", "FCJ.user.RepositoryCall", "FCJ.user.GrpcCall");
+
+    private final JfrProperties properties;
+
+    private Recording recording;
+    private Instant startedAt;
+    private Duration duration;
+    private Path file;
+    private List<SlowOperation> slowest = List.of();
+
+    public JfrRecorder(JfrProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Starts a recording of {@code duration}, capped at {@code user.jfr.max-duration}.
+     *
+     * @return null if a recording is already running
+     */
+    public synchronized Status start(Duration requested, Duration threshold) {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            return null;
+        }
+        finish();
+        Duration length = requested == null ? properties.getDefaultDuration() : requested;
+        if (length.compareTo(properties.getMaxDuration()) > 0) {
+            length = properties.getMaxDuration();
+        }
+        Duration eventThreshold = threshold == null ? properties.getThreshold() : threshold;
+        Recording candidate;
+        try {
+            candidate = new Recording(Configuration.getConfiguration("default"));
+        } catch (IOException | ParseException e) {
+            throw new IllegalStateException("JFR default configuration unavailable", e);
+        }
+        candidate.setName("user-service-on-demand");
+        candidate.setToDisk(true);
+        candidate.setMaxSize(properties.getMaxSize().toBytes());
+        candidate.setDuration(length);
+        for (String event : EVENTS) {
+            candidate.enable(event).withThreshold(eventThreshold);
+        }
+        candidate.start();
+        recording = candidate;
+        startedAt = Instant.now();
+        duration = length;
+        slowest = List.of();
+        logger.info("Started on-demand JFR recording for {} (event threshold {})", length, eventThreshold);
+        return status();
+    }
+
+    /**
+     * Stops a running recording before its duration is up.
+     */
+    public synchronized Status stop() {
+        finish();
+        return status();
+    }
+
+    public synchronized Status status() {
+        if (recording != null && recording.getState() == RecordingState.STOPPED) {
+            finish();
+        }
+        String state = recording != null ? recording.getState().name() : file != null ? "FINISHED" : "NONE";
+        return new Status(state, startedAt, duration, file != null ? slowest : List.of());
+    }
+
+    /**
+     * The last finished recording, or null.
+     */
+    public synchronized Path recordingFile() {
+        status();
+        return file;
+    }
+
+    // Writes a stopped recording out, summarizes it and releases it
+    private void finish() {
+        if (recording == null) {
+            return;
+        }
+        Recording finished = recording;
+        recording = null;
+        try {
+            if (finished.getState() == RecordingState.RUNNING) {
+                finished.stop();
+            }
+            Path dump = Files.createTempFile("user-service-", ".jfr");
+            finished.dump(dump);
+            deleteFile();
+            file = dump;
+            slowest = summarize(dump, properties.getTopOperations());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write the JFR recording", e);
+        } finally {
+            finished.close();
+        }
+    }
+
+    /**
+     * Groups the service's events by type and operation, slowest 99th percentile first. The file is
+     * read one event at a time and only per-operation aggregates are kept, since a recording of up to
+     * {@code user.jfr.max-size} holds far more JDK events than the service's own.
+     */
+    static List<SlowOperation> summarize(Path recordingFile, int limit) throws IOException {
+        Map<String, OperationStats> byOperation = new HashMap<>();
+        try (RecordingFile events = new RecordingFile(recordingFile)) {
+            while (events.hasMoreEvents()) {
+                RecordedEvent event = events.readEvent();
+                String type = event.getEventType().getName();
+                if (EVENTS.contains(type)) {
+                    String operation = event.getString("operation");
+                    byOperation.computeIfAbsent(type + " " + operation, key -> new OperationStats(type, operation))
+                            .add(event);
+                }
+            }
+        }
+        List<SlowOperation> operations = new ArrayList<>();
+        byOperation.values().forEach(stats -> operations.add(stats.summary()));
+        operations.sort(Comparator.comparingDouble(SlowOperation::p99Millis).reversed());
+        return List.copyOf(operations.subList(0, Math.min(limit, operations.size())));
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private void deleteFile() {
+        if (file != null) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                logger.warn("Could not delete JFR recording {}: {}", file, e.getMessage());
+            }
+            file = null;
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+        deleteFile();
+    }
+
+    private static final class OperationStats {
+
+        private final String event;
+        private final String operation;
+        private long[] durations = new long[16];
+        private int count;
+        private long failed;
+        private long totalNanos;
+        private long maxNanos = -1;
+        private String slowestKey;
+
+        OperationStats(String event, String operation) {
+            this.event = event;
+            this.operation = operation;
+        }
+
+        void add(RecordedEvent recorded) {
+            long nanos = recorded.getDuration().toNanos();
+            if (count == durations.length) {
+                durations = Arrays.copyOf(durations, count * 2);
+            }
+            durations[count++] = nanos;
+            totalNanos += nanos;
+            if (recorded.getBoolean("failed")) {
+                failed++;
+            }
+            if (nanos > maxNanos) {
+                maxNanos = nanos;
+                slowestKey = recorded.getString("key");
+            }
+        }
+
+        SlowOperation summary() {
+            long[] sorted = Arrays.copyOf(durations, count);
+            Arrays.sort(sorted);
+            return new SlowOperation(event, operation, count, failed, millis(totalNanos),
+                    millis(sorted[(int) Math.ceil(count * 0.99) - 1]), millis(maxNanos), slowestKey);
+        }
+    }
+
+    /**
+     * @param state NONE, NEW/RUNNING, or FINISHED once the recording can be downloaded
+     */
+    public record Status(String state, Instant startedAt, Duration duration, List<SlowOperation> slowestOperations) {
+    }
+
+    /**
+     * Events above the threshold for one operation; only those are counted.
+     */
+    public record SlowOperation(String event, String operation, long count, long failed, double totalMillis,
+                                double p99Millis, double maxMillis, String slowestKey) {
+    }
+}
@@ -0,0 +1,61 @@
+package FCJ.user.jfr;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * {@code /actuator/jfr}: {@code POST} starts a bounded recording ({@code duration}, {@code threshold}),
+ * {@code DELETE} stops it early, {@code GET} reports its state and, once finished, the slowest operations, and
+ * {@code GET /actuator/jfr/recording} downloads the finished {@code .jfr} file for JDK Mission Control
+ * or {@code jfr print}.
+ */
+@WebEndpoint(id = "jfr")
+public class JfrRecordingEndpoint {
+
+    private static final String RECORDING = "recording";
+    private static final int STATUS_CONFLICT = 409;
+
+    private final JfrRecorder recorder;
+
+    public JfrRecordingEndpoint(JfrRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    @WriteOperation
+    public WebEndpointResponse<JfrRecorder.Status> start(@Nullable Duration duration, @Nullable Duration threshold) {
+        JfrRecorder.Status started = recorder.start(duration, threshold);
+        if (started == null) {
+            return new WebEndpointResponse<>(recorder.status(), STATUS_CONFLICT);
+        }
+        return new WebEndpointResponse<>(started);
+    }
+
+    @DeleteOperation
+    public JfrRecorder.Status stop() {
+        return recorder.stop();
+    }
+
+    @ReadOperation
+    public JfrRecorder.Status status() {
+        return recorder.status();
+    }
+
+    @ReadOperation(produces = "application/octet-stream")
+    public WebEndpointResponse<Resource> download(@Selector String name) {
+        Path file = RECORDING.equals(name) ? recorder.recordingFile() : null;
+        if (file == null) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        return new WebEndpointResponse<>(new FileSystemResource(file));
+    }
+}
@@ -0,0 +1,30 @@
+package FCJ.user.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Common fields of the service's JFR events. The event's own duration is the operation's latency.
+ * Stack traces are off: they are the expensive part of an event and the operation name already
+ * says where the time went.
+ */
+@Category("User Service")
+@StackTrace(false)
+@Threshold("10 ms")
+abstract class OperationEvent extends Event {
+
+    @Label("Operation")
+    @Description("Service method, repository method or full gRPC method name")
+    String operation;
+
+    @Label("Key")
+    @Description("User id, profile id or number of ids the operation was called with, if any")
+    String key;
+
+    @Label("Failed")
+    boolean failed;
+}
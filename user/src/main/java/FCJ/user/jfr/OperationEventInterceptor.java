@@ -0,0 +1,55 @@
+package FCJ.user.jfr;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+import java.util.Collection;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Wraps each call in a JFR event. With no recording running, {@link OperationEvent#shouldCommit()}
+ * is false and the cost is an allocation the JIT usually removes and two timestamp reads.
+ */
+class OperationEventInterceptor implements MethodInterceptor {
+
+    private final Supplier<OperationEvent> events;
+
+    OperationEventInterceptor(Supplier<OperationEvent> events) {
+        this.events = events;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        OperationEvent event = events.get();
+        event.begin();
+        boolean failed = true;
+        try {
+            Object result = invocation.proceed();
+            failed = false;
+            return result;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.operation = invocation.getMethod().getName();
+                event.key = key(invocation.getArguments());
+                event.failed = failed;
+                event.commit();
+            }
+        }
+    }
+
+    static String key(Object[] arguments) {
+        if (arguments.length == 0) {
+            return null;
+        }
+        Object first = arguments[0];
+        if (first instanceof UUID id) {
+            return id.toString();
+        }
+        if (first instanceof Collection<?> ids) {
+            return ids.size() + " ids";
+        }
+        return null;
+    }
+}
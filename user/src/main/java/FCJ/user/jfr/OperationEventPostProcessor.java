@@ -0,0 +1,33 @@
+package FCJ.user.jfr;
+
+import FCJ.user.repository.UserInfoRepository;
+import FCJ.user.service.UserInfoService;
+import org.springframework.aop.framework.autoproxy.AbstractBeanFactoryAwareAdvisingPostProcessor;
+import org.springframework.aop.support.ComposablePointcut;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+
+/**
+ * Adds a JFR event to every call of the {@link UserInfoService} or {@link UserInfoRepository}
+ * bean. An existing proxy (transactions, Spring Data) gets the advice added in front of its own, so the
+ * event covers the transaction; other beans get a new proxy.
+ */
+class OperationEventPostProcessor extends AbstractBeanFactoryAwareAdvisingPostProcessor {
+
+    OperationEventPostProcessor(Class<?> type, OperationEventInterceptor interceptor) {
+        // Matches the bean class, or the interfaces of an already proxied bean such as a Spring Data repository
+        this.advisor = new DefaultPointcutAdvisor(new ComposablePointcut(type::isAssignableFrom), interceptor);
+        setBeforeExistingAdvisors(true);
+        // Class proxies, so @Scheduled and other methods outside the interface stay invocable
+        setProxyTargetClass(true);
+    }
+
+    static OperationEventPostProcessor service() {
+        return new OperationEventPostProcessor(UserInfoService.class,
+                new OperationEventInterceptor(ServiceOperationEvent::new));
+    }
+
+    static OperationEventPostProcessor repository() {
+        return new OperationEventPostProcessor(UserInfoRepository.class,
+                new OperationEventInterceptor(RepositoryCallEvent::new));
+    }
+}
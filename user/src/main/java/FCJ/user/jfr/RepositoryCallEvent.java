@@ -0,0 +1,9 @@
+package FCJ.user.jfr;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("FCJ.user.RepositoryCall")
+@Label("UserInfoRepository Call")
+class RepositoryCallEvent extends OperationEvent {
+}
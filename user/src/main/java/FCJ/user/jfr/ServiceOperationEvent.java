@@ -0,0 +1,9 @@
+package FCJ.user.jfr;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("FCJ.user.ServiceOperation")
+@Label("UserInfoService Operation")
+class ServiceOperationEvent extends OperationEvent {
+}
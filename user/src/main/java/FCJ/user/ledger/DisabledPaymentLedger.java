@@ -0,0 +1,19 @@
+package FCJ.user.ledger;
+
+import java.util.function.Consumer;
+
+final class DisabledPaymentLedger implements PaymentLedger {
+
+    static final DisabledPaymentLedger INSTANCE = new DisabledPaymentLedger();
+
+    private DisabledPaymentLedger() {
+    }
+
+    @Override
+    public void append(PaymentLedgerEntry entry) {
+    }
+
+    @Override
+    public void stream(PaymentLedgerQuery query, Consumer<PaymentLedgerEntry> sink) {
+    }
+}
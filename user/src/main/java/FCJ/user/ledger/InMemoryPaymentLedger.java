@@ -0,0 +1,72 @@
+package FCJ.user.ledger;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+
+/**
+ * Process-local ledger for the {@code in-memory} profile. Entries are indexed by {@code paidAt} for
+ * period queries and per user for history queries; streams iterate the live indexes without copying.
+ */
+@Component
+@Profile("in-memory")
+public class InMemoryPaymentLedger implements PaymentLedger {
+
+    private final ConcurrentSkipListMap<Key, PaymentLedgerEntry> byPaidAt = new ConcurrentSkipListMap<>();
+    private final Map<UUID, ConcurrentSkipListMap<Key, PaymentLedgerEntry>> byUser = new ConcurrentHashMap<>();
+
+    @Override
+    public void append(PaymentLedgerEntry entry) {
+        // compute() serializes appends per user, so checking the user's history and adding to it is atomic
+        byUser.compute(entry.userId(), (userId, history) -> {
+            ConcurrentSkipListMap<Key, PaymentLedgerEntry> entries = history != null ? history : new ConcurrentSkipListMap<>();
+            if (entries.values().stream().noneMatch(recorded -> recorded.paymentId().equals(entry.paymentId()))) {
+                Key key = new Key(entry.paidAt(), entry.paymentId(), entry.userId());
+                entries.put(key, entry);
+                byPaidAt.put(key, entry);
+            }
+            return entries;
+        });
+    }
+
+    @Override
+    public void stream(PaymentLedgerQuery query, Consumer<PaymentLedgerEntry> sink) {
+        NavigableMap<Key, PaymentLedgerEntry> index = query.userId() == null ? byPaidAt : byUser.get(query.userId());
+        if (index == null) {
+            return;
+        }
+        if (query.from() != null) {
+            index = index.tailMap(Key.first(query.from()), true);
+        }
+        if (query.to() != null) {
+            index = index.headMap(Key.first(query.to()), false);
+        }
+        index.values().forEach(sink);
+    }
+
+    // The user id keeps two users' payments with the same id and paidAt apart in byPaidAt
+    private record Key(Instant paidAt, String paymentId, UUID userId) implements Comparable<Key> {
+
+        private static final Comparator<Key> ORDER = Comparator.comparing(Key::paidAt)
+                .thenComparing(Key::paymentId, Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparing(Key::userId, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+        // Sorts before every entry paid at that instant
+        static Key first(Instant paidAt) {
+            return new Key(paidAt, null, null);
+        }
+
+        @Override
+        public int compareTo(Key other) {
+            return ORDER.compare(this, other);
+        }
+    }
+}
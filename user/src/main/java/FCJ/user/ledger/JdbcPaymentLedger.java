@@ -0,0 +1,109 @@
+package FCJ.user.ledger;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * {@link PaymentLedger} on the {@code payment_ledger} table ({@link PaymentLedgerSchema}). With
+ * sharding the ledger lives on shard 0, like {@code user_membership_stats}, so a period query reads one
+ * database.
+ * <p>
+ * A payment is appended together with its {@code (user_id, payment_id)} row in
+ * {@code payment_ledger_ids}, in one transaction. The key on that table, rather than anything in the
+ * partitioned ledger, is what makes a repeated payment id a no-op: a concurrent retry blocks on it and
+ * then fails, whatever {@code paid_at} it carries.
+ * <p>
+ * Streams run in a read-only transaction with a fetch size: the PostgreSQL driver only uses a cursor
+ * when autocommit is off, and otherwise reads the whole result set into memory before returning the
+ * first row.
+ */
+@Component
+@Profile("!in-memory")
+@EnableConfigurationProperties(PaymentLedgerProperties.class)
+public class JdbcPaymentLedger implements PaymentLedger {
+
+    static final String INSERT_ID = "INSERT INTO payment_ledger_ids (user_id, payment_id) VALUES (?, ?)";
+    static final String INSERT = "INSERT INTO payment_ledger (user_id, payment_id, paid_at, amount, payment_method, "
+            + "subscription_tier, subscription_status, recorded_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String SELECT = "SELECT user_id, payment_id, paid_at, amount, payment_method, "
+            + "subscription_tier, subscription_status, recorded_at FROM payment_ledger";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final TransactionTemplate appendTransaction;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public JdbcPaymentLedger(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                             PaymentLedgerProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.streamingJdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.streamingJdbcTemplate.setFetchSize(properties.getFetchSize());
+        this.appendTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @Override
+    public void append(PaymentLedgerEntry entry) {
+        try {
+            appendTransaction.executeWithoutResult(status -> {
+                jdbcTemplate.update(INSERT_ID, entry.userId(), entry.paymentId());
+                jdbcTemplate.update(INSERT, entry.userId(), entry.paymentId(), Timestamp.from(entry.paidAt()),
+                        entry.amount(), entry.paymentMethod(), entry.subscriptionTier(), entry.subscriptionStatus(),
+                        Timestamp.from(entry.recordedAt()));
+            });
+        } catch (DuplicateKeyException e) {
+            // The user already has this payment id: recorded by an earlier attempt of the same write
+        }
+    }
+
+    @Override
+    public void stream(PaymentLedgerQuery query, Consumer<PaymentLedgerEntry> sink) {
+        List<String> conditions = new ArrayList<>();
+        List<Object> arguments = new ArrayList<>();
+        if (query.userId() != null) {
+            conditions.add("user_id = ?");
+            arguments.add(query.userId());
+        }
+        if (query.from() != null) {
+            conditions.add("paid_at >= ?");
+            arguments.add(Timestamp.from(query.from()));
+        }
+        if (query.to() != null) {
+            conditions.add("paid_at < ?");
+            arguments.add(Timestamp.from(query.to()));
+        }
+        String sql = SELECT + (conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions))
+                + " ORDER BY paid_at, payment_id";
+        readOnlyTransaction.executeWithoutResult(status -> streamingJdbcTemplate.query(sql,
+                (RowCallbackHandler) rs -> sink.accept(entry(rs)), arguments.toArray()));
+    }
+
+    private static PaymentLedgerEntry entry(ResultSet rs) throws SQLException {
+        double amount = rs.getDouble("amount");
+        boolean noAmount = rs.wasNull();
+        return new PaymentLedgerEntry(
+                rs.getObject("user_id", UUID.class),
+                rs.getString("payment_id"),
+                rs.getTimestamp("paid_at").toInstant(),
+                noAmount ? null : amount,
+                rs.getString("payment_method"),
+                rs.getString("subscription_tier"),
+                rs.getString("subscription_status"),
+                rs.getTimestamp("recorded_at").toInstant());
+    }
+}
@@ -0,0 +1,27 @@
+package FCJ.user.ledger;
+
+import java.util.function.Consumer;
+
+/**
+ * Append-only history of payments, written whenever a profile write carries a {@code lastPaymentId}.
+ * {@code UserInfo} only keeps the latest payment; this keeps all of them for reconciliation.
+ */
+public interface PaymentLedger {
+
+    /**
+     * Records a payment. Appending a {@code paymentId} the user already has (a retried write, whose
+     * {@code paidAt} may differ when it defaults to the time of the write) is a no-op.
+     */
+    void append(PaymentLedgerEntry entry);
+
+    /**
+     * Passes the matching entries to {@code sink} in {@code paidAt} order, reading them incrementally
+     * rather than collecting the result first. An exception thrown by {@code sink} stops the query and
+     * is rethrown.
+     */
+    void stream(PaymentLedgerQuery query, Consumer<PaymentLedgerEntry> sink);
+
+    static PaymentLedger disabled() {
+        return DisabledPaymentLedger.INSTANCE;
+    }
+}
@@ -0,0 +1,31 @@
+package FCJ.user.ledger;
+
+import FCJ.user.dto.UserInfoDTO;
+import FCJ.user.model.UserInfo;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One payment as recorded in the ledger. {@code paidAt} is the profile's {@code lastPaymentDate}, or
+ * the time it was recorded when the write did not carry one.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record PaymentLedgerEntry(UUID userId, String paymentId, Instant paidAt, Double amount, String paymentMethod,
+                                 String subscriptionTier, String subscriptionStatus, Instant recordedAt) {
+
+    public static PaymentLedgerEntry of(UserInfo userInfo, Instant recordedAt) {
+        return new PaymentLedgerEntry(userInfo.getUserId(), userInfo.getLastPaymentId(),
+                userInfo.getLastPaymentDate() != null ? userInfo.getLastPaymentDate() : recordedAt,
+                userInfo.getLastPaymentAmount(), userInfo.getPaymentMethod(),
+                userInfo.getSubscriptionTier(), userInfo.getSubscriptionStatus(), recordedAt);
+    }
+
+    public static PaymentLedgerEntry of(UserInfoDTO userInfo, Instant recordedAt) {
+        return new PaymentLedgerEntry(userInfo.getUserId(), userInfo.getLastPaymentId(),
+                userInfo.getLastPaymentDate() != null ? userInfo.getLastPaymentDate() : recordedAt,
+                userInfo.getLastPaymentAmount(), userInfo.getPaymentMethod(),
+                userInfo.getSubscriptionTier(), userInfo.getSubscriptionStatus(), recordedAt);
+    }
+}
@@ -0,0 +1,28 @@
+package FCJ.user.ledger;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "user.payment-ledger")
+public class PaymentLedgerProperties {
+
+    // Create payment_ledger and its partitions at startup
+    private boolean schemaInit = true;
+
+    // Monthly partitions kept created ahead of the current month
+    private int monthsAhead = 3;
+
+    // How often the partitions ahead are checked
+    private Duration partitionCheckInterval = Duration.ofHours(12);
+
+    // Rows fetched per round trip while streaming a query
+    private int fetchSize = 500;
+
+    // Streams served at once, REST and gRPC together; each holds a database connection until it completes
+    private int maxConcurrentStreams = 4;
+}
@@ -0,0 +1,38 @@
+package FCJ.user.ledger;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Which ledger entries to stream: one user's (optionally bounded by {@code paidAt}) or every user's
+ * in a period. {@code from} is inclusive, {@code to} exclusive.
+ */
+public record PaymentLedgerQuery(UUID userId, Instant from, Instant to) {
+
+    public PaymentLedgerQuery {
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+    }
+
+    public static PaymentLedgerQuery forUser(UUID userId, Instant from, Instant to) {
+        if (userId == null) {
+            throw new IllegalArgumentException("userId is required");
+        }
+        return new PaymentLedgerQuery(userId, from, to);
+    }
+
+    // Both bounds are required so a query never scans the whole ledger by accident
+    public static PaymentLedgerQuery forPeriod(Instant from, Instant to) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("from and to are required");
+        }
+        return new PaymentLedgerQuery(null, from, to);
+    }
+
+    public boolean matches(PaymentLedgerEntry entry) {
+        return (userId == null || userId.equals(entry.userId()))
+                && (from == null || !entry.paidAt().isBefore(from))
+                && (to == null || entry.paidAt().isBefore(to));
+    }
+}
@@ -0,0 +1,143 @@
+package FCJ.user.ledger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Idempotent DDL for {@code payment_ledger}. On PostgreSQL the table is range-partitioned by month on
+ * {@code paid_at}: a period query only scans the months it covers, and old months can be detached or
+ * dropped whole. Rows are appended roughly in {@code paid_at} order, so a BRIN index (a few pages per
+ * partition) narrows period scans as well as a B-tree would; per-user history uses a B-tree on
+ * {@code (user_id, paid_at)}. Partitions are created {@code months-ahead} in advance, and a default
+ * partition takes payments dated outside them. UPDATE and DELETE on the table are rejected by a
+ * trigger. Other databases get a plain table. Runs as an application runner (before the application
+ * reports ready, not during context refresh); failures are logged without blocking startup.
+ */
+@Component
+@Profile("!in-memory")
+@EnableConfigurationProperties(PaymentLedgerProperties.class)
+@ConditionalOnProperty(prefix = "user.payment-ledger", name = "schema-init", havingValue = "true", matchIfMissing = true)
+public class PaymentLedgerSchema implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentLedgerSchema.class);
+
+    private static final String COLUMNS = "user_id uuid NOT NULL, "
+            + "payment_id varchar(255) NOT NULL, "
+            + "paid_at timestamp(6) with time zone NOT NULL, "
+            + "amount double precision, "
+            + "payment_method varchar(255), "
+            + "subscription_tier varchar(255), "
+            + "subscription_status varchar(255), "
+            + "recorded_at timestamp(6) with time zone NOT NULL, "
+            // Unique keys of a partitioned table must include the partition key, so this one cannot
+            // deduplicate payment ids on its own; payment_ledger_ids does
+            + "PRIMARY KEY (user_id, payment_id, paid_at)";
+    static final String CREATE_PLAIN = "CREATE TABLE IF NOT EXISTS payment_ledger (" + COLUMNS + ")";
+    static final String CREATE_IDS = "CREATE TABLE IF NOT EXISTS payment_ledger_ids (user_id uuid NOT NULL, "
+            + "payment_id varchar(255) NOT NULL, PRIMARY KEY (user_id, payment_id))";
+    static final String CREATE_USER_INDEX = "CREATE INDEX IF NOT EXISTS payment_ledger_user_idx ON payment_ledger (user_id, paid_at)";
+    static final List<String> POSTGRES_STATEMENTS = List.of(
+            "CREATE TABLE IF NOT EXISTS payment_ledger (" + COLUMNS + ") PARTITION BY RANGE (paid_at)",
+            "CREATE TABLE IF NOT EXISTS payment_ledger_default PARTITION OF payment_ledger DEFAULT",
+            CREATE_IDS,
+            // Created on the parent, so every partition gets both
+            "CREATE INDEX IF NOT EXISTS payment_ledger_paid_at_brin ON payment_ledger USING brin (paid_at)",
+            CREATE_USER_INDEX,
+            "CREATE OR REPLACE FUNCTION payment_ledger_append_only() RETURNS trigger LANGUAGE plpgsql AS "
+                    + "$$ BEGIN RAISE EXCEPTION 'payment_ledger is append-only'; END $$",
+            "CREATE OR REPLACE TRIGGER payment_ledger_append_only BEFORE UPDATE OR DELETE ON payment_ledger "
+                    + "FOR EACH STATEMENT EXECUTE FUNCTION payment_ledger_append_only()");
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PaymentLedgerProperties properties;
+    private final Clock clock;
+    private volatile boolean partitioned;
+
+    @Autowired
+    public PaymentLedgerSchema(JdbcTemplate jdbcTemplate, PaymentLedgerProperties properties) {
+        this(jdbcTemplate, properties, Clock.systemUTC());
+    }
+
+    PaymentLedgerSchema(JdbcTemplate jdbcTemplate, PaymentLedgerProperties properties, Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        this.clock = clock;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        initialize();
+    }
+
+    public void initialize() {
+        try {
+            DatabaseDriver driver = jdbcTemplate.execute((ConnectionCallback<DatabaseDriver>) connection ->
+                    DatabaseDriver.fromProductName(connection.getMetaData().getDatabaseProductName()));
+            if (driver != DatabaseDriver.POSTGRESQL) {
+                jdbcTemplate.execute(CREATE_PLAIN);
+                jdbcTemplate.execute(CREATE_IDS);
+                jdbcTemplate.execute(CREATE_USER_INDEX);
+                return;
+            }
+            for (String statement : POSTGRES_STATEMENTS) {
+                jdbcTemplate.execute(statement);
+            }
+            partitioned = true;
+            createPartitions();
+            logger.info("payment_ledger schema verified");
+        } catch (DataAccessException e) {
+            logger.warn("payment_ledger schema setup failed, continuing startup: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Creates this month's partition and the next {@code months-ahead}.
+     */
+    @Scheduled(initialDelayString = "${user.payment-ledger.partition-check-interval:12h}",
+            fixedDelayString = "${user.payment-ledger.partition-check-interval:12h}")
+    public void createPartitions() {
+        if (!partitioned) {
+            return;
+        }
+        YearMonth current = YearMonth.now(clock);
+        for (int i = 0; i <= properties.getMonthsAhead(); i++) {
+            String statement = partitionStatement(current.plusMonths(i));
+            try {
+                jdbcTemplate.execute(statement);
+            } catch (DataAccessException e) {
+                // e.g. the default partition already holds rows for that month
+                logger.warn("payment_ledger partition for {} not created: {}", current.plusMonths(i), e.getMessage());
+            }
+        }
+    }
+
+    static String partitionStatement(YearMonth month) {
+        return "CREATE TABLE IF NOT EXISTS payment_ledger_" + month.format(PARTITION_SUFFIX)
+                + " PARTITION OF payment_ledger FOR VALUES FROM ('" + bound(month) + "') TO ('"
+                + bound(month.plusMonths(1)) + "')";
+    }
+
+    private static String bound(YearMonth month) {
+        return month.atDay(1).atStartOfDay().atOffset(ZoneOffset.UTC).toString();
+    }
+}
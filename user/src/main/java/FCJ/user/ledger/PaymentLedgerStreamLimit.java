@@ -0,0 +1,40 @@
+package FCJ.user.ledger;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * Caps the payment ledger streams served at once, REST and gRPC together. Each stream holds a database
+ * connection and a read-only transaction until it ends, for as long as the client takes to read it, so
+ * {@code user.payment-ledger.max-concurrent-streams} has to stay well below the connection pool size.
+ * A caller that gets no permit is turned away rather than queued.
+ */
+@Component
+@EnableConfigurationProperties(PaymentLedgerProperties.class)
+public class PaymentLedgerStreamLimit {
+
+    private final Semaphore permits;
+    private final int maxConcurrentStreams;
+
+    public PaymentLedgerStreamLimit(PaymentLedgerProperties properties) {
+        this.maxConcurrentStreams = properties.getMaxConcurrentStreams();
+        this.permits = new Semaphore(maxConcurrentStreams);
+    }
+
+    /**
+     * @return whether a stream may start; if so, {@link #release()} must be called once it ends
+     */
+    public boolean tryAcquire() {
+        return permits.tryAcquire();
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    public int getMaxConcurrentStreams() {
+        return maxConcurrentStreams;
+    }
+}
@@ -0,0 +1,48 @@
+package FCJ.user.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Cold copy of a {@link UserInfo} row moved out of the hot table by the archiver: either a
+ * tombstone past its retention or a long-expired/cancelled subscription. Rows without
+ * {@code deletedAt} are moved back on the next lookup.
+ */
+@Setter
+@Getter
+@NoArgsConstructor
+@Entity
+@Table(name = "user_info_archive", indexes = @Index(name = "user_info_archive_user_id_idx", columnList = "user_id"))
+public class ArchivedUserInfo {
+
+    // Columns shared with user_info, in the order the archive/restore statements copy them
+    public static final String COLUMNS = "id, user_id, full_name, avatar_url, phone_number, address, "
+            + "subscription_tier, subscription_status, subscription_expires_at, payment_method, last_payment_id, "
+            + "last_payment_date, last_payment_amount, next_billing_date, auto_renewal, deleted_at";
+
+    @Id
+    private UUID id;
+    @Column(nullable = false)
+    private UUID userId;
+    private String fullName;
+    private String avatarUrl;
+    private String phoneNumber;
+    private String address;
+
+    private String subscriptionTier;
+    private String subscriptionStatus;
+    private Instant subscriptionExpiresAt;
+    private String paymentMethod;
+    private String lastPaymentId;
+    private Instant lastPaymentDate;
+    private Double lastPaymentAmount;
+    private Instant nextBillingDate;
+    private Boolean autoRenewal;
+
+    private Instant deletedAt;
+    @Column(nullable = false)
+    private Instant archivedAt;
+}
@@ -1,7 +1,9 @@
 package FCJ.user.model;
 
+import FCJ.user.shard.ShardedId;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.SQLRestriction;
 
 import java.time.Instant;
 import java.util.UUID;
@@ -14,11 +16,14 @@ import java.util.UUID;
 @AllArgsConstructor
 @Entity
 @Table(name = "user_info")
+// Soft-deleted rows stay in place as tombstones until UserInfoArchiver moves them to user_info_archive
+@SQLRestriction("deleted_at is null")
 public class UserInfo {
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @ShardedId
     private UUID id;
-    @Column(nullable = false, unique = true)
+    // Unique among live rows only: UserInfoArchiveSchema creates the unique index (partial on PostgreSQL)
+    @Column(nullable = false)
     private UUID userId;
     private String fullName;
     private String avatarUrl;
@@ -39,6 +44,9 @@ public class UserInfo {
     @Builder.Default
     private Boolean autoRenewal = false;
 
+    // Tombstone: set by deleteUserInfo, null for live rows
+    private Instant deletedAt;
+
     // Validation: Reject invalid subscription values
     @PrePersist
     @PreUpdate
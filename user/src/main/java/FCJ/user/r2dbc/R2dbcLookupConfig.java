@@ -0,0 +1,36 @@
+package FCJ.user.r2dbc;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Connection pool for the asynchronous lookup path. The pool is owned by
+ * {@link R2dbcUserInfoRepository} rather than exposed as a {@code ConnectionFactory} bean: Boot's JDBC
+ * DataSource auto-configuration backs off as soon as one exists.
+ */
+@Configuration
+@Profile("!in-memory")
+@ConditionalOnProperty(prefix = "user.r2dbc", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(R2dbcLookupProperties.class)
+public class R2dbcLookupConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(R2dbcLookupConfig.class);
+
+    @Bean(destroyMethod = "close")
+    public R2dbcUserInfoRepository r2dbcUserInfoRepository(R2dbcLookupProperties properties) {
+        R2dbcUserInfoRepository repository = R2dbcUserInfoRepository.create(properties);
+        // Opened in the background; lookups before it completes simply open connections on demand
+        repository.warmup().subscribe(
+                ignored -> {
+                },
+                error -> logger.warn("R2DBC pool warm-up failed: {}", error.getMessage()),
+                () -> logger.info("R2DBC pool warmed up with {} connections on {} event loop threads",
+                        properties.getInitialSize(), properties.getEventLoopThreads()));
+        return repository;
+    }
+}
@@ -0,0 +1,32 @@
+package FCJ.user.r2dbc;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "user.r2dbc")
+public class R2dbcLookupProperties {
+
+    // Serve the gRPC lookups (GetUserInfoById, BlogUserInfo) through the non-blocking driver
+    private boolean enabled = false;
+
+    // r2dbc:postgresql://host:5432/database
+    private String url;
+    private String username;
+    private String password;
+
+    // Netty event loops shared by all R2DBC connections; lookups never hold a thread while waiting
+    private int eventLoopThreads = 2;
+
+    private int initialSize = 4;
+    private int maxSize = 16;
+
+    // Lookups waiting longer than this for a pooled connection fail instead of queueing forever
+    private Duration maxAcquireTime = Duration.ofSeconds(2);
+
+    private Duration statementTimeout = Duration.ofSeconds(5);
+}
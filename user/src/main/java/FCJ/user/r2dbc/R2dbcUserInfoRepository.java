@@ -0,0 +1,134 @@
+package FCJ.user.r2dbc;
+
+import FCJ.user.dto.UserInfoDTO;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.pool.PoolMetrics;
+import io.r2dbc.postgresql.PostgresqlConnectionFactoryProvider;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.r2dbc.spi.Row;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.resources.LoopResources;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Read-only access to {@code user_info} over R2DBC. Queries run on a small, fixed set of Netty event
+ * loops and complete their {@link Mono} from the driver's callbacks, so a lookup waiting on the
+ * database holds a pooled connection but no thread.
+ */
+public class R2dbcUserInfoRepository implements AutoCloseable, MeterBinder {
+
+    static final String FIND_BY_USER_ID = "SELECT id, user_id, full_name, avatar_url, phone_number, address, "
+            + "subscription_tier, subscription_status, subscription_expires_at, payment_method, last_payment_id, "
+            + "last_payment_date, last_payment_amount, next_billing_date, auto_renewal "
+            + "FROM user_info WHERE user_id = $1 AND deleted_at IS NULL";
+
+    private final ConnectionPool pool;
+    private final LoopResources loopResources;
+
+    R2dbcUserInfoRepository(ConnectionPool pool, LoopResources loopResources) {
+        this.pool = pool;
+        this.loopResources = loopResources;
+    }
+
+    public static R2dbcUserInfoRepository create(R2dbcLookupProperties properties) {
+        LoopResources loopResources = LoopResources.create("r2dbc-user", properties.getEventLoopThreads(), true);
+        ConnectionFactoryOptions parsed = ConnectionFactoryOptions.parse(properties.getUrl());
+        ConnectionFactoryOptions.Builder options = parsed.mutate();
+        if (PostgresqlConnectionFactoryProvider.POSTGRESQL_DRIVER.equals(parsed.getValue(ConnectionFactoryOptions.DRIVER))) {
+            options.option(PostgresqlConnectionFactoryProvider.LOOP_RESOURCES, loopResources)
+                    .option(PostgresqlConnectionFactoryProvider.STATEMENT_TIMEOUT, properties.getStatementTimeout());
+        }
+        if (properties.getUsername() != null) {
+            options.option(ConnectionFactoryOptions.USER, properties.getUsername());
+        }
+        if (properties.getPassword() != null) {
+            options.option(ConnectionFactoryOptions.PASSWORD, properties.getPassword());
+        }
+        ConnectionPool pool = new ConnectionPool(ConnectionPoolConfiguration
+                .builder(ConnectionFactories.get(options.build()))
+                .name("user-info-r2dbc")
+                .initialSize(properties.getInitialSize())
+                .maxSize(properties.getMaxSize())
+                .maxAcquireTime(properties.getMaxAcquireTime())
+                .build());
+        return new R2dbcUserInfoRepository(pool, loopResources);
+    }
+
+    /**
+     * The live (not soft-deleted) row for {@code userId}, or an empty {@link Mono}.
+     */
+    public Mono<UserInfoDTO> findByUserId(UUID userId) {
+        return Mono.usingWhen(pool.create(),
+                connection -> Flux.from(connection.createStatement(FIND_BY_USER_ID).bind(0, userId).execute())
+                        .flatMap(result -> result.map((row, metadata) -> toDto(row)))
+                        .next(),
+                Connection::close);
+    }
+
+    /**
+     * Opens the pool's initial connections; fails if the database is unreachable.
+     */
+    public Mono<Void> warmup() {
+        return pool.warmup().then();
+    }
+
+    private static UserInfoDTO toDto(Row row) {
+        UserInfoDTO dto = new UserInfoDTO();
+        dto.setId(row.get("id", UUID.class));
+        dto.setUserId(row.get("user_id", UUID.class));
+        dto.setFullName(row.get("full_name", String.class));
+        dto.setAvatarUrl(row.get("avatar_url", String.class));
+        dto.setPhoneNumber(row.get("phone_number", String.class));
+        dto.setAddress(row.get("address", String.class));
+        dto.setSubscriptionTier(row.get("subscription_tier", String.class));
+        dto.setSubscriptionStatus(row.get("subscription_status", String.class));
+        dto.setSubscriptionExpiresAt(instant(row, "subscription_expires_at"));
+        dto.setPaymentMethod(row.get("payment_method", String.class));
+        dto.setLastPaymentId(row.get("last_payment_id", String.class));
+        dto.setLastPaymentDate(instant(row, "last_payment_date"));
+        dto.setLastPaymentAmount(row.get("last_payment_amount", Double.class));
+        dto.setNextBillingDate(instant(row, "next_billing_date"));
+        dto.setAutoRenewal(row.get("auto_renewal", Boolean.class));
+        return dto;
+    }
+
+    private static Instant instant(Row row, String column) {
+        OffsetDateTime value = row.get(column, OffsetDateTime.class);
+        return value == null ? null : value.toInstant();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        gauge(registry, "r2dbc.pool.acquired", "Size of successfully acquired connections which are in active use.",
+                PoolMetrics::acquiredSize);
+        gauge(registry, "r2dbc.pool.idle", "Size of idle connections in the pool.", PoolMetrics::idleSize);
+        gauge(registry, "r2dbc.pool.pending", "Size of pending to acquire connections from the underlying connection factory.",
+                PoolMetrics::pendingAcquireSize);
+        gauge(registry, "r2dbc.pool.allocated", "Size of allocated connections in the pool which are in active use or idle.",
+                PoolMetrics::allocatedSize);
+    }
+
+    private void gauge(MeterRegistry registry, String name, String description, ToDoubleFunction<PoolMetrics> value) {
+        pool.getMetrics().ifPresent(metrics -> Gauge.builder(name, metrics, value)
+                .tag("name", "user-info-r2dbc")
+                .description(description)
+                .register(registry));
+    }
+
+    @Override
+    public void close() {
+        pool.dispose();
+        loopResources.dispose();
+    }
+}
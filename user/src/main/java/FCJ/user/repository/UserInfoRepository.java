@@ -1,13 +1,86 @@
 package FCJ.user.repository;
 
+import FCJ.user.model.ArchivedUserInfo;
 import FCJ.user.model.UserInfo;
+import FCJ.user.shard.ShardKey;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
+/**
+ * With {@code user.sharding.enabled} every call is routed by {@code ShardRoutingInterceptor}: by the
+ * {@link ShardKey} parameter, the entity's {@code userId}, or to all shards.
+ */
 public interface UserInfoRepository extends JpaRepository<UserInfo, UUID> {
     Optional<UserInfo> findById(UUID id);
     Optional<UserInfo> findByFullNameIsContainingIgnoreCase(String fullName);
-    Optional<UserInfo> findByUserId(UUID userId);
+    Optional<UserInfo> findByUserId(@ShardKey(ShardKey.Kind.USER_ID) UUID userId);
+    List<UserInfo> findAllByUserIdIn(@ShardKey(ShardKey.Kind.USER_ID) Collection<UUID> userIds);
+
+    /**
+     * Moves an archived, non-deleted row back into user_info. Returns whether a row was restored.
+     * <p>
+     * The archived row is locked first, so of two concurrent restores the second waits and then finds
+     * nothing left to copy. Nothing is restored while user_info holds any row for the user id, live or
+     * tombstone: that row is newer than the archived one.
+     */
+    @Transactional
+    default boolean restoreArchivedByUserId(@ShardKey(ShardKey.Kind.USER_ID) UUID userId) {
+        return !lockArchivedByUserId(userId).isEmpty()
+                && copyArchivedToActiveByUserId(userId) > 0 && deleteArchivedByUserId(userId) > 0;
+    }
+
+    @Transactional
+    default boolean restoreArchivedById(@ShardKey(ShardKey.Kind.ID) UUID id) {
+        return !lockArchivedById(id).isEmpty() && copyArchivedToActiveById(id) > 0 && deleteArchivedById(id) > 0;
+    }
+
+    /**
+     * Archived, non-deleted rows among {@code userIds}: the read that decides whether a lookup miss
+     * needs a restore.
+     */
+    @Query("select a.userId from ArchivedUserInfo a where a.userId in :userIds and a.deletedAt is null")
+    List<UUID> findArchivedUserIds(@ShardKey(ShardKey.Kind.USER_ID) Collection<UUID> userIds);
+
+    @Query("select count(a) > 0 from ArchivedUserInfo a where a.id = :id and a.deletedAt is null")
+    boolean existsArchivedById(@ShardKey(ShardKey.Kind.ID) UUID id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select a from ArchivedUserInfo a where a.userId = :userId and a.deletedAt is null")
+    List<ArchivedUserInfo> lockArchivedByUserId(@ShardKey(ShardKey.Kind.USER_ID) UUID userId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select a from ArchivedUserInfo a where a.id = :id and a.deletedAt is null")
+    List<ArchivedUserInfo> lockArchivedById(@ShardKey(ShardKey.Kind.ID) UUID id);
+
+    // Native, so tombstones count as well
+    @Modifying(flushAutomatically = true)
+    @Query(value = "insert into user_info (" + ArchivedUserInfo.COLUMNS + ") "
+            + "select " + ArchivedUserInfo.COLUMNS + " from user_info_archive a "
+            + "where a.user_id = :userId and a.deleted_at is null "
+            + "and not exists (select 1 from user_info u where u.user_id = a.user_id)", nativeQuery = true)
+    int copyArchivedToActiveByUserId(@ShardKey(ShardKey.Kind.USER_ID) UUID userId);
+
+    @Modifying
+    @Query(value = "delete from user_info_archive where user_id = :userId and deleted_at is null", nativeQuery = true)
+    int deleteArchivedByUserId(@ShardKey(ShardKey.Kind.USER_ID) UUID userId);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "insert into user_info (" + ArchivedUserInfo.COLUMNS + ") "
+            + "select " + ArchivedUserInfo.COLUMNS + " from user_info_archive a "
+            + "where a.id = :id and a.deleted_at is null "
+            + "and not exists (select 1 from user_info u where u.id = a.id or u.user_id = a.user_id)", nativeQuery = true)
+    int copyArchivedToActiveById(@ShardKey(ShardKey.Kind.ID) UUID id);
+
+    @Modifying
+    @Query(value = "delete from user_info_archive where id = :id and deleted_at is null", nativeQuery = true)
+    int deleteArchivedById(@ShardKey(ShardKey.Kind.ID) UUID id);
 }
@@ -0,0 +1,157 @@
+package FCJ.user.resilience;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Adaptive concurrency limit using additive-increase / multiplicative-decrease.
+ * <p>
+ * The limit grows by one when a request completes quickly while the limiter is at least half
+ * utilised, and is multiplied by {@code backoffRatio} when a request is slow or fails. It backs off
+ * at most once per round trip: requests already in flight at a backoff were admitted under the old
+ * limit, so their slow or failed completions do not shrink the limit again. Requests beyond the
+ * current limit are rejected immediately instead of queueing on server threads.
+ */
+public class AimdConcurrencyLimiter implements MeterBinder {
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final long latencyThresholdNanos;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+    // Bumped on every backoff; a permit only backs off if none happened since it was acquired
+    private volatile long backoffEpoch;
+
+    private Counter acceptedCounter;
+    private Counter rejectedCounter;
+    private Counter droppedCounter;
+    private Timer latencyTimer;
+
+    public AimdConcurrencyLimiter(String name, ConcurrencyLimitProperties.Budget budget) {
+        this.name = name;
+        this.minLimit = budget.getMinLimit();
+        this.maxLimit = budget.getMaxLimit();
+        this.backoffRatio = budget.getBackoffRatio();
+        this.latencyThresholdNanos = budget.getLatencyThreshold().toNanos();
+        this.limit = Math.max(minLimit, Math.min(maxLimit, budget.getInitialLimit()));
+    }
+
+    /**
+     * @return a permit that must be completed exactly once, or {@code null} if the limit is reached
+     */
+    public Permit tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                if (rejectedCounter != null) {
+                    rejectedCounter.increment();
+                }
+                return null;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                if (acceptedCounter != null) {
+                    acceptedCounter.increment();
+                }
+                return new Permit(current + 1, backoffEpoch, System.nanoTime());
+            }
+        }
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private synchronized void onSample(int inFlightAtStart, long epochAtStart, long latencyNanos, boolean dropped) {
+        double current = limit;
+        if (dropped || latencyNanos > latencyThresholdNanos) {
+            if (epochAtStart != backoffEpoch) {
+                return;
+            }
+            backoffEpoch++;
+            current = current * backoffRatio;
+        } else if (inFlightAtStart * 2 >= current) {
+            current = current + 1;
+        }
+        limit = Math.max(minLimit, Math.min(maxLimit, current));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("user.concurrency.limit", this, AimdConcurrencyLimiter::getLimit)
+                .tag("limiter", name)
+                .description("Current adaptive concurrency limit")
+                .register(registry);
+        Gauge.builder("user.concurrency.inflight", this, AimdConcurrencyLimiter::getInFlight)
+                .tag("limiter", name)
+                .description("Requests currently holding a permit")
+                .register(registry);
+        acceptedCounter = Counter.builder("user.concurrency.requests").tag("limiter", name).tag("outcome", "accepted")
+                .register(registry);
+        rejectedCounter = Counter.builder("user.concurrency.requests").tag("limiter", name).tag("outcome", "rejected")
+                .register(registry);
+        droppedCounter = Counter.builder("user.concurrency.requests").tag("limiter", name).tag("outcome", "dropped")
+                .register(registry);
+        latencyTimer = Timer.builder("user.concurrency.latency").tag("limiter", name)
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+    }
+
+    public final class Permit {
+        private final int inFlightAtStart;
+        private final long epochAtStart;
+        private final long startNanos;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(int inFlightAtStart, long epochAtStart, long startNanos) {
+            this.inFlightAtStart = inFlightAtStart;
+            this.epochAtStart = epochAtStart;
+            this.startNanos = startNanos;
+        }
+
+        /** The request completed normally; its latency feeds the limit. */
+        public void onSuccess() {
+            release(false, true);
+        }
+
+        /** The request failed because a dependency was slow or unavailable. */
+        public void onDropped() {
+            release(true, true);
+        }
+
+        /** The request ended without a meaningful sample (e.g. client cancelled). */
+        public void onIgnore() {
+            release(false, false);
+        }
+
+        private void release(boolean dropped, boolean sample) {
+            if (!released.compareAndSet(false, true)) {
+                return;
+            }
+            inFlight.decrementAndGet();
+            long latency = System.nanoTime() - startNanos;
+            if (latencyTimer != null) {
+                latencyTimer.record(latency, TimeUnit.NANOSECONDS);
+            }
+            if (dropped && droppedCounter != null) {
+                droppedCounter.increment();
+            }
+            if (sample) {
+                onSample(inFlightAtStart, epochAtStart, latency, dropped);
+            }
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package FCJ.user.resilience;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Count-based circuit breaker.
+ * <p>
+ * CLOSED: every call is let through and its outcome recorded in a window of the last
+ * {@code windowSize} calls; once at least {@code minimumCalls} are recorded and the share of failed
+ * or slow ones reaches {@code failureRateThreshold}, the breaker opens. OPEN: calls are rejected
+ * without touching the dependency for {@code openDuration}. HALF_OPEN: {@code halfOpenCalls} trial
+ * calls are let through; one failure opens the breaker again, all succeeding closes it.
+ */
+public class CircuitBreaker implements MeterBinder {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final String name;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long slowCallNanos;
+    private final long openNanos;
+    private final int halfOpenCalls;
+    private final LongSupplier nanoClock;
+
+    private final boolean[] window;
+    private int next;
+    private int recorded;
+    private int failures;
+
+    private volatile State state = State.CLOSED;
+    private long openedAt;
+    private int trialPermits;
+    private int trialSuccesses;
+
+    private Counter successCounter;
+    private Counter failureCounter;
+    private Counter rejectedCounter;
+
+    public CircuitBreaker(String name, DatabaseResilienceProperties properties) {
+        this(name, properties, System::nanoTime);
+    }
+
+    CircuitBreaker(String name, DatabaseResilienceProperties properties, LongSupplier nanoClock) {
+        this.name = name;
+        this.window = new boolean[properties.getWindowSize()];
+        this.minimumCalls = Math.min(properties.getMinimumCalls(), properties.getWindowSize());
+        this.failureRateThreshold = properties.getFailureRateThreshold();
+        this.slowCallNanos = properties.getSlowCallThreshold().toNanos();
+        this.openNanos = properties.getOpenDuration().toNanos();
+        this.halfOpenCalls = properties.getHalfOpenCalls();
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * @return whether the call may go ahead; if so, exactly one of {@link #onSuccess},
+     * {@link #onFailure} or {@link #onIgnored} must follow
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN && nanoClock.getAsLong() - openedAt >= openNanos) {
+            state = State.HALF_OPEN;
+            trialPermits = halfOpenCalls;
+            trialSuccesses = 0;
+        }
+        boolean permitted = switch (state) {
+            case CLOSED -> true;
+            case OPEN -> false;
+            case HALF_OPEN -> {
+                if (trialPermits == 0) {
+                    yield false;
+                }
+                trialPermits--;
+                yield true;
+            }
+        };
+        if (!permitted && rejectedCounter != null) {
+            rejectedCounter.increment();
+        }
+        return permitted;
+    }
+
+    /**
+     * The dependency answered; a call slower than the slow-call threshold still counts as a failure.
+     */
+    public synchronized void onSuccess(long durationNanos) {
+        if (durationNanos > slowCallNanos) {
+            onFailure();
+            return;
+        }
+        if (successCounter != null) {
+            successCounter.increment();
+        }
+        if (state == State.HALF_OPEN) {
+            if (++trialSuccesses >= halfOpenCalls) {
+                close();
+            }
+        } else if (state == State.CLOSED) {
+            record(false);
+        }
+    }
+
+    public synchronized void onFailure() {
+        if (failureCounter != null) {
+            failureCounter.increment();
+        }
+        if (state == State.HALF_OPEN) {
+            open();
+        } else if (state == State.CLOSED) {
+            record(true);
+            if (recorded >= minimumCalls && (double) failures / recorded >= failureRateThreshold) {
+                open();
+            }
+        }
+    }
+
+    /**
+     * The call ended without saying anything about the dependency; a trial permit is handed back.
+     */
+    public synchronized void onIgnored() {
+        if (state == State.HALF_OPEN) {
+            trialPermits++;
+        }
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    private void record(boolean failed) {
+        if (recorded == window.length) {
+            if (window[next]) {
+                failures--;
+            }
+        } else {
+            recorded++;
+        }
+        window[next] = failed;
+        if (failed) {
+            failures++;
+        }
+        next = (next + 1) % window.length;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = nanoClock.getAsLong();
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        next = 0;
+        recorded = 0;
+        failures = 0;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (State value : State.values()) {
+            Gauge.builder("user.circuit_breaker.state", this, breaker -> breaker.state == value ? 1 : 0)
+                    .tag("name", name)
+                    .tag("state", value.name().toLowerCase())
+                    .description("1 for the circuit breaker's current state")
+                    .register(registry);
+        }
+        successCounter = Counter.builder("user.circuit_breaker.calls").tag("name", name).tag("outcome", "success")
+                .register(registry);
+        failureCounter = Counter.builder("user.circuit_breaker.calls").tag("name", name).tag("outcome", "failure")
+                .register(registry);
+        rejectedCounter = Counter.builder("user.circuit_breaker.calls").tag("name", name).tag("outcome", "rejected")
+                .register(registry);
+    }
+}
@@ -0,0 +1,48 @@
+package FCJ.user.resilience;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.devh.boot.grpc.server.interceptor.GrpcGlobalServerInterceptor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Configuration
+@EnableConfigurationProperties(ConcurrencyLimitProperties.class)
+@ConditionalOnProperty(prefix = "user.concurrency-limit", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ConcurrencyLimitConfig {
+
+    @Bean
+    public AimdConcurrencyLimiter apiConcurrencyLimiter(ConcurrencyLimitProperties properties) {
+        return new AimdConcurrencyLimiter("api", properties.getApi());
+    }
+
+    @Bean
+    public AimdConcurrencyLimiter healthConcurrencyLimiter(ConcurrencyLimitProperties properties) {
+        return new AimdConcurrencyLimiter("health", properties.getHealth());
+    }
+
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(
+            AimdConcurrencyLimiter apiConcurrencyLimiter,
+            AimdConcurrencyLimiter healthConcurrencyLimiter,
+            ObjectMapper objectMapper,
+            ConcurrencyLimitProperties properties) {
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(
+                new ConcurrencyLimitFilter(apiConcurrencyLimiter, healthConcurrencyLimiter, objectMapper, properties));
+        // Reject before security and request parsing do any work
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+
+    @Bean
+    @GrpcGlobalServerInterceptor
+    public ConcurrencyLimitGrpcInterceptor concurrencyLimitGrpcInterceptor(
+            AimdConcurrencyLimiter apiConcurrencyLimiter,
+            AimdConcurrencyLimiter healthConcurrencyLimiter,
+            ConcurrencyLimitProperties properties) {
+        return new ConcurrencyLimitGrpcInterceptor(apiConcurrencyLimiter, healthConcurrencyLimiter, properties);
+    }
+}
@@ -0,0 +1,125 @@
+package FCJ.user.resilience;
+
+import FCJ.user.dto.ErrorResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+/**
+ * Applies the adaptive concurrency limits to REST traffic. Health and actuator paths use their
+ * own budget; other paths (Swagger UI, static resources) are not limited. An asynchronous request
+ * (a streamed response) keeps its permit until the async processing completes.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private final AimdConcurrencyLimiter apiLimiter;
+    private final AimdConcurrencyLimiter healthLimiter;
+    private final ObjectMapper objectMapper;
+    private final long retryAfterSeconds;
+
+    public ConcurrencyLimitFilter(AimdConcurrencyLimiter apiLimiter,
+                                  AimdConcurrencyLimiter healthLimiter,
+                                  ObjectMapper objectMapper,
+                                  ConcurrencyLimitProperties properties) {
+        this.apiLimiter = apiLimiter;
+        this.healthLimiter = healthLimiter;
+        this.objectMapper = objectMapper;
+        this.retryAfterSeconds = Math.max(1, properties.getRetryAfter().toSeconds());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        AimdConcurrencyLimiter limiter = limiterFor(request.getRequestURI());
+        if (limiter == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        AimdConcurrencyLimiter.Permit permit = limiter.tryAcquire();
+        if (permit == null) {
+            reject(request, response);
+            return;
+        }
+
+        boolean completed = false;
+        try {
+            filterChain.doFilter(request, response);
+            completed = true;
+        } finally {
+            if (completed && request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new PermitReleasingListener(permit, response));
+            } else {
+                release(permit, completed, response);
+            }
+        }
+    }
+
+    private static void release(AimdConcurrencyLimiter.Permit permit, boolean completed, HttpServletResponse response) {
+        if (completed && response.getStatus() < HttpStatus.INTERNAL_SERVER_ERROR.value()) {
+            permit.onSuccess();
+        } else {
+            permit.onDropped();
+        }
+    }
+
+    private AimdConcurrencyLimiter limiterFor(String uri) {
+        if (uri.startsWith("/api/health") || uri.startsWith("/actuator")) {
+            return healthLimiter;
+        }
+        if (uri.startsWith("/api/")) {
+            return apiLimiter;
+        }
+        return null;
+    }
+
+    private record PermitReleasingListener(AimdConcurrencyLimiter.Permit permit, HttpServletResponse response)
+            implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release(permit, true, response);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            permit.onDropped();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            permit.onDropped();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Restarted async processing is still the same request: keep listening on the new context
+            event.getAsyncContext().addListener(this);
+        }
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ErrorResponse errorResponse = new ErrorResponse(
+                LocalDateTime.now(),
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                "Service Unavailable",
+                "Server is overloaded, retry after " + retryAfterSeconds + "s",
+                request.getRequestURI()
+        );
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), errorResponse);
+    }
+}
@@ -0,0 +1,120 @@
+package FCJ.user.resilience;
+
+import io.grpc.ForwardingServerCall;
+import io.grpc.ForwardingServerCallListener;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+import io.grpc.health.v1.HealthGrpc;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Applies the adaptive concurrency limits to gRPC calls. Calls over the limit are closed with
+ * RESOURCE_EXHAUSTED and a {@code grpc-retry-pushback-ms} hint. Streaming calls (e.g.
+ * {@code LookupSession}) are only admitted against the limit: they live for minutes, so holding a
+ * permit or feeding their duration into the latency signal would starve unary calls.
+ */
+public class ConcurrencyLimitGrpcInterceptor implements ServerInterceptor {
+
+    static final Metadata.Key<String> RETRY_PUSHBACK_KEY =
+            Metadata.Key.of("grpc-retry-pushback-ms", Metadata.ASCII_STRING_MARSHALLER);
+
+    // Statuses that indicate the server (or its database) was the bottleneck
+    private static final Set<Status.Code> DROP_CODES = EnumSet.of(
+            Status.Code.INTERNAL, Status.Code.UNAVAILABLE, Status.Code.DEADLINE_EXCEEDED, Status.Code.RESOURCE_EXHAUSTED);
+
+    private final AimdConcurrencyLimiter apiLimiter;
+    private final AimdConcurrencyLimiter healthLimiter;
+    private final long retryAfterMillis;
+
+    public ConcurrencyLimitGrpcInterceptor(AimdConcurrencyLimiter apiLimiter,
+                                           AimdConcurrencyLimiter healthLimiter,
+                                           ConcurrencyLimitProperties properties) {
+        this.apiLimiter = apiLimiter;
+        this.healthLimiter = healthLimiter;
+        this.retryAfterMillis = properties.getRetryAfter().toMillis();
+    }
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call,
+                                                                 Metadata headers,
+                                                                 ServerCallHandler<ReqT, RespT> next) {
+        String service = call.getMethodDescriptor().getServiceName();
+        AimdConcurrencyLimiter limiter = HealthGrpc.SERVICE_NAME.equals(service) ? healthLimiter : apiLimiter;
+
+        AimdConcurrencyLimiter.Permit permit = limiter.tryAcquire();
+        if (permit == null) {
+            Metadata trailers = new Metadata();
+            trailers.put(RETRY_PUSHBACK_KEY, String.valueOf(retryAfterMillis));
+            call.close(Status.RESOURCE_EXHAUSTED.withDescription("Server is overloaded, retry later"), trailers);
+            return new ServerCall.Listener<>() {
+            };
+        }
+
+        if (call.getMethodDescriptor().getType() != MethodDescriptor.MethodType.UNARY) {
+            permit.onIgnore();
+            return next.startCall(call, headers);
+        }
+
+        ServerCall<ReqT, RespT> releasingCall = new ForwardingServerCall.SimpleForwardingServerCall<>(call) {
+            @Override
+            public void close(Status status, Metadata trailers) {
+                if (DROP_CODES.contains(status.getCode())) {
+                    permit.onDropped();
+                } else {
+                    permit.onSuccess();
+                }
+                super.close(status, trailers);
+            }
+        };
+
+        ServerCall.Listener<ReqT> delegate;
+        try {
+            delegate = next.startCall(releasingCall, headers);
+        } catch (RuntimeException e) {
+            permit.onDropped();
+            throw e;
+        }
+        // A handler that throws is closed by ServerImpl directly on the stream, bypassing
+        // releasingCall, so the permit has to be released here or it leaks.
+        return new ForwardingServerCallListener.SimpleForwardingServerCallListener<>(delegate) {
+            @Override
+            public void onMessage(ReqT message) {
+                try {
+                    super.onMessage(message);
+                } catch (RuntimeException | Error e) {
+                    permit.onDropped();
+                    throw e;
+                }
+            }
+
+            @Override
+            public void onHalfClose() {
+                try {
+                    super.onHalfClose();
+                } catch (RuntimeException | Error e) {
+                    permit.onDropped();
+                    throw e;
+                }
+            }
+
+            @Override
+            public void onCancel() {
+                permit.onIgnore();
+                super.onCancel();
+            }
+
+            @Override
+            public void onComplete() {
+                // No-op when close() already released it
+                permit.onIgnore();
+                super.onComplete();
+            }
+        };
+    }
+}
@@ -0,0 +1,45 @@
+package FCJ.user.resilience;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "user.concurrency-limit")
+public class ConcurrencyLimitProperties {
+
+    private boolean enabled = true;
+
+    // Hint returned to rejected callers (Retry-After / grpc-retry-pushback-ms)
+    private Duration retryAfter = Duration.ofSeconds(1);
+
+    // Budget for user-info REST and gRPC calls
+    private Budget api = new Budget(20, 4, 200, Duration.ofMillis(500));
+
+    // Separate budget for health probes so they are neither starved by nor starve API traffic
+    private Budget health = new Budget(8, 2, 16, Duration.ofMillis(200));
+
+    @Getter
+    @Setter
+    public static class Budget {
+        private int initialLimit;
+        private int minLimit;
+        private int maxLimit;
+        private double backoffRatio = 0.9;
+        // Completions slower than this count as congestion signals
+        private Duration latencyThreshold;
+
+        public Budget() {
+        }
+
+        public Budget(int initialLimit, int minLimit, int maxLimit, Duration latencyThreshold) {
+            this.initialLimit = initialLimit;
+            this.minLimit = minLimit;
+            this.maxLimit = maxLimit;
+            this.latencyThreshold = latencyThreshold;
+        }
+    }
+}
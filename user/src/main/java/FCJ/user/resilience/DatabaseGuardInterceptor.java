@@ -0,0 +1,175 @@
+package FCJ.user.resilience;
+
+import FCJ.user.exception.DatabaseUnavailableException;
+import FCJ.user.jdbc.QueryDeadline;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.r2dbc.spi.R2dbcNonTransientResourceException;
+import io.r2dbc.spi.R2dbcTimeoutException;
+import io.r2dbc.spi.R2dbcTransientResourceException;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.transaction.CannotCreateTransactionException;
+import reactor.core.publisher.Mono;
+
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransactionRollbackException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Circuit breaker and bulkhead around repository calls. While the breaker is open, or when
+ * {@code max-concurrent-calls} calls are already running and none finishes within {@code max-wait},
+ * the call fails at once with {@link DatabaseUnavailableException} instead of waiting for a
+ * connection timeout. Only failures to get or keep a connection and statement timeouts count against
+ * the breaker, and they are rethrown as {@link DatabaseUnavailableException} too. Constraint
+ * violations, lock conflicts and deadlocks mean the database answered; they are rethrown without being
+ * counted either way. A timeout or cancellation
+ * while the caller's gRPC deadline has passed or the call was cancelled ({@link QueryDeadline}) is
+ * the caller's doing: it is neither counted nor rethrown as an outage. Calls made from inside a
+ * guarded call (the queries of a default repository method) are not counted again.
+ * <p>
+ * {@link #guard(Mono)} applies the same breaker and bulkhead to the R2DBC lookups.
+ */
+public class DatabaseGuardInterceptor implements MethodInterceptor, MeterBinder {
+
+    private static final ThreadLocal<Boolean> GUARDED = new ThreadLocal<>();
+
+    private final CircuitBreaker breaker;
+    private final Semaphore bulkhead;
+    private final int maxConcurrentCalls;
+    private final long maxWaitNanos;
+    private Counter bulkheadRejected;
+
+    public DatabaseGuardInterceptor(CircuitBreaker breaker, DatabaseResilienceProperties properties) {
+        this.breaker = breaker;
+        this.maxConcurrentCalls = properties.getMaxConcurrentCalls();
+        this.bulkhead = new Semaphore(maxConcurrentCalls);
+        this.maxWaitNanos = properties.getMaxWait().toNanos();
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        if (GUARDED.get() != null) {
+            return invocation.proceed();
+        }
+        if (!breaker.tryAcquire()) {
+            throw new DatabaseUnavailableException("Database circuit breaker is open");
+        }
+        boolean admitted;
+        try {
+            admitted = bulkhead.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            // Hands back a half-open trial permit
+            breaker.onIgnored();
+            throw e;
+        }
+        if (!admitted) {
+            breaker.onIgnored();
+            if (bulkheadRejected != null) {
+                bulkheadRejected.increment();
+            }
+            throw new DatabaseUnavailableException("Too many concurrent database calls");
+        }
+        GUARDED.set(Boolean.TRUE);
+        long start = System.nanoTime();
+        try {
+            Object result = invocation.proceed();
+            breaker.onSuccess(System.nanoTime() - start);
+            return result;
+        } catch (Throwable t) {
+            if (QueryDeadline.isCallerExpired()) {
+                breaker.onIgnored();
+                throw t;
+            }
+            if (isOutage(t)) {
+                breaker.onFailure();
+                throw new DatabaseUnavailableException("Database unavailable: " + t.getMessage(), t);
+            }
+            breaker.onIgnored();
+            throw t;
+        } finally {
+            GUARDED.remove();
+            bulkhead.release();
+        }
+    }
+
+    /**
+     * Guards a reactive database call. The bulkhead is not waited for, since that would block the
+     * subscribing thread, so a call that finds it full fails at once. A cancelled call is not counted.
+     */
+    public <T> Mono<T> guard(Mono<T> call) {
+        return Mono.defer(() -> {
+            if (!breaker.tryAcquire()) {
+                return Mono.error(new DatabaseUnavailableException("Database circuit breaker is open"));
+            }
+            if (!bulkhead.tryAcquire()) {
+                breaker.onIgnored();
+                if (bulkheadRejected != null) {
+                    bulkheadRejected.increment();
+                }
+                return Mono.error(new DatabaseUnavailableException("Too many concurrent database calls"));
+            }
+            long start = System.nanoTime();
+            AtomicBoolean finished = new AtomicBoolean();
+            return call
+                    .doOnSuccess(result -> finish(finished, () -> breaker.onSuccess(System.nanoTime() - start)))
+                    .doOnCancel(() -> finish(finished, breaker::onIgnored))
+                    .onErrorMap(failure -> {
+                        if (isOutage(failure)) {
+                            finish(finished, breaker::onFailure);
+                            return new DatabaseUnavailableException("Database unavailable: " + failure.getMessage(), failure);
+                        }
+                        finish(finished, breaker::onIgnored);
+                        return failure;
+                    });
+        });
+    }
+
+    private void finish(AtomicBoolean finished, Runnable outcome) {
+        if (finished.compareAndSet(false, true)) {
+            outcome.run();
+            bulkhead.release();
+        }
+    }
+
+    static boolean isOutage(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConcurrencyFailureException || cause instanceof SQLTransactionRollbackException) {
+                return false;
+            }
+            if (cause instanceof DataAccessResourceFailureException || cause instanceof CannotCreateTransactionException
+                    || cause instanceof TransientDataAccessResourceException || cause instanceof QueryTimeoutException
+                    || cause instanceof SQLTransientConnectionException || cause instanceof SQLNonTransientConnectionException
+                    || cause instanceof SQLTimeoutException || cause instanceof R2dbcTransientResourceException
+                    || cause instanceof R2dbcNonTransientResourceException || cause instanceof R2dbcTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("user.bulkhead.available", bulkhead, Semaphore::availablePermits)
+                .tag("name", "database")
+                .description("Repository calls that can start without waiting")
+                .register(registry);
+        Gauge.builder("user.bulkhead.max", this, interceptor -> interceptor.maxConcurrentCalls)
+                .tag("name", "database")
+                .register(registry);
+        bulkheadRejected = Counter.builder("user.bulkhead.rejected")
+                .tag("name", "database")
+                .description("Repository calls rejected because the bulkhead was full")
+                .register(registry);
+    }
+}
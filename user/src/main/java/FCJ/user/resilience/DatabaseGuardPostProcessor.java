@@ -0,0 +1,22 @@
+package FCJ.user.resilience;
+
+import FCJ.user.repository.UserInfoRepository;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.autoproxy.AbstractBeanFactoryAwareAdvisingPostProcessor;
+import org.springframework.aop.support.ComposablePointcut;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * Puts {@link DatabaseGuardInterceptor} in front of the {@link UserInfoRepository} proxy's own advice,
+ * so a rejected call never starts a transaction or asks the pool for a connection.
+ */
+class DatabaseGuardPostProcessor extends AbstractBeanFactoryAwareAdvisingPostProcessor {
+
+    DatabaseGuardPostProcessor(ObjectProvider<DatabaseGuardInterceptor> guard) {
+        MethodInterceptor lazyGuard = invocation -> guard.getObject().invoke(invocation);
+        this.advisor = new DefaultPointcutAdvisor(new ComposablePointcut(UserInfoRepository.class::isAssignableFrom),
+                lazyGuard);
+        setBeforeExistingAdvisors(true);
+    }
+}
@@ -0,0 +1,50 @@
+package FCJ.user.resilience;
+
+import FCJ.user.cache.LastKnownProfiles;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Circuit breaker, bulkhead and last-known profile copies for database outages
+ * ({@code user.db-resilience.enabled}). With it disabled the last-known copies are a disabled instance
+ * that keeps nothing.
+ */
+@Configuration
+@Profile("!in-memory")
+@EnableConfigurationProperties(DatabaseResilienceProperties.class)
+public class DatabaseResilienceConfig {
+
+    @Bean
+    public LastKnownProfiles lastKnownProfiles(DatabaseResilienceProperties properties) {
+        if (!properties.isEnabled()) {
+            return LastKnownProfiles.disabled();
+        }
+        return new LastKnownProfiles(properties.getStaleMaxEntries(), properties.getStaleWindow());
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnProperty(prefix = "user.db-resilience", name = "enabled", havingValue = "true", matchIfMissing = true)
+    static class GuardConfig {
+
+        @Bean
+        public CircuitBreaker databaseCircuitBreaker(DatabaseResilienceProperties properties) {
+            return new CircuitBreaker("database", properties);
+        }
+
+        @Bean
+        public DatabaseGuardInterceptor databaseGuardInterceptor(CircuitBreaker databaseCircuitBreaker,
+                                                                 DatabaseResilienceProperties properties) {
+            return new DatabaseGuardInterceptor(databaseCircuitBreaker, properties);
+        }
+
+        // Static: post-processors are created before the other beans of this class can be
+        @Bean
+        static DatabaseGuardPostProcessor databaseGuardPostProcessor(ObjectProvider<DatabaseGuardInterceptor> guard) {
+            return new DatabaseGuardPostProcessor(guard);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package FCJ.user.resilience;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "user.db-resilience")
+public class DatabaseResilienceProperties {
+
+    private boolean enabled = true;
+
+    // Most recent repository calls the failure rate is computed over
+    private int windowSize = 50;
+
+    // Calls needed in the window before the breaker may open
+    private int minimumCalls = 10;
+
+    // Share of failed (or slow) calls in the window that opens the breaker
+    private double failureRateThreshold = 0.5;
+
+    // Successful calls slower than this count as failures
+    private Duration slowCallThreshold = Duration.ofSeconds(2);
+
+    // How long the breaker stays open before letting trial calls through
+    private Duration openDuration = Duration.ofSeconds(10);
+
+    // Trial calls in half-open state; all must succeed to close the breaker
+    private int halfOpenCalls = 5;
+
+    // Bulkhead: repository calls allowed at once (callers beyond it wait up to max-wait, then fail fast)
+    private int maxConcurrentCalls = 20;
+    private Duration maxWait = Duration.ofMillis(50);
+
+    // How old a last-known profile copy may be and still be served during an outage
+    private Duration staleWindow = Duration.ofHours(1);
+    private long staleMaxEntries = 100_000;
+}
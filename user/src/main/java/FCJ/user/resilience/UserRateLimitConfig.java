@@ -0,0 +1,40 @@
+package FCJ.user.resilience;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.devh.boot.grpc.server.interceptor.GrpcGlobalServerInterceptor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+@Configuration
+@EnableConfigurationProperties(UserRateLimitProperties.class)
+@ConditionalOnProperty(prefix = "user.rate-limit", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class UserRateLimitConfig {
+
+    @Bean
+    public UserRateLimiter userRateLimiter(UserRateLimitProperties properties) {
+        return new UserRateLimiter(properties);
+    }
+
+    @Bean
+    public FilterRegistrationBean<UserRateLimitFilter> userRateLimitFilter(UserRateLimiter userRateLimiter,
+                                                                          ObjectMapper objectMapper) {
+        FilterRegistrationBean<UserRateLimitFilter> registration = new FilterRegistrationBean<>(
+                new UserRateLimitFilter(userRateLimiter, objectMapper));
+        // Ahead of the concurrency limit, so a retry loop does not hold permits other users need
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 5);
+        return registration;
+    }
+
+    @Bean
+    @GrpcGlobalServerInterceptor
+    // Runs before the unordered concurrency limit interceptor, as the filter does
+    @Order(Ordered.HIGHEST_PRECEDENCE + 5)
+    public UserRateLimitGrpcInterceptor userRateLimitGrpcInterceptor(UserRateLimiter userRateLimiter) {
+        return new UserRateLimitGrpcInterceptor(userRateLimiter);
+    }
+}
@@ -0,0 +1,76 @@
+package FCJ.user.resilience;
+
+import FCJ.user.dto.ErrorResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies the per-user token buckets to {@code /api/} requests that carry an {@code X-User-Id}
+ * header. Requests without one, or with one that is not a UUID, pass through; the controller
+ * rejects the latter anyway.
+ */
+public class UserRateLimitFilter extends OncePerRequestFilter {
+
+    static final String USER_ID_HEADER = "X-User-Id";
+
+    private final UserRateLimiter rateLimiter;
+    private final ObjectMapper objectMapper;
+
+    public UserRateLimitFilter(UserRateLimiter rateLimiter, ObjectMapper objectMapper) {
+        this.rateLimiter = rateLimiter;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        UUID userId = parseUserId(request.getHeader(USER_ID_HEADER));
+        String path = request.getRequestURI();
+        if (userId != null && path.startsWith("/api/")) {
+            long waitNanos = rateLimiter.tryAcquire(rateLimiter.restEndpoint(request.getMethod(), path), userId);
+            if (waitNanos > 0) {
+                reject(request, response, waitNanos);
+                return;
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    static UUID parseUserId(String header) {
+        if (header == null || header.length() != 36) {
+            return null;
+        }
+        try {
+            return UUID.fromString(header);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, long waitNanos) throws IOException {
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        ErrorResponse errorResponse = new ErrorResponse(
+                LocalDateTime.now(),
+                HttpStatus.TOO_MANY_REQUESTS.value(),
+                "Too Many Requests",
+                "Rate limit exceeded for this user, retry after " + retryAfterSeconds + "s",
+                request.getRequestURI()
+        );
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), errorResponse);
+    }
+}
@@ -0,0 +1,46 @@
+package FCJ.user.resilience;
+
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies the per-user token buckets to gRPC calls that carry an {@code x-user-id} metadata entry.
+ * Over-quota calls are closed with RESOURCE_EXHAUSTED and a {@code grpc-retry-pushback-ms} hint
+ * before the handler sees them. A streaming call takes one token when it starts.
+ */
+public class UserRateLimitGrpcInterceptor implements ServerInterceptor {
+
+    static final Metadata.Key<String> USER_ID_KEY = Metadata.Key.of("x-user-id", Metadata.ASCII_STRING_MARSHALLER);
+
+    private final UserRateLimiter rateLimiter;
+
+    public UserRateLimitGrpcInterceptor(UserRateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call,
+                                                                 Metadata headers,
+                                                                 ServerCallHandler<ReqT, RespT> next) {
+        UUID userId = UserRateLimitFilter.parseUserId(headers.get(USER_ID_KEY));
+        if (userId != null) {
+            String method = call.getMethodDescriptor().getFullMethodName();
+            long waitNanos = rateLimiter.tryAcquire(rateLimiter.grpcEndpoint(method), userId);
+            if (waitNanos > 0) {
+                Metadata trailers = new Metadata();
+                trailers.put(ConcurrencyLimitGrpcInterceptor.RETRY_PUSHBACK_KEY,
+                        String.valueOf(Math.max(1, TimeUnit.NANOSECONDS.toMillis(waitNanos))));
+                call.close(Status.RESOURCE_EXHAUSTED.withDescription("Rate limit exceeded for this user"), trailers);
+                return new ServerCall.Listener<>() {
+                };
+            }
+        }
+        return next.startCall(call, headers);
+    }
+}
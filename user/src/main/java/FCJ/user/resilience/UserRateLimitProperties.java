@@ -0,0 +1,57 @@
+package FCJ.user.resilience;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "user.rate-limit")
+public class UserRateLimitProperties {
+
+    private boolean enabled = true;
+
+    // A bucket untouched for this long has refilled completely and is dropped
+    private Duration idleTimeout = Duration.ofMinutes(5);
+
+    // Upper bound on tracked (endpoint, user) buckets; beyond it the least used are evicted and start over full
+    private int maxBuckets = 100_000;
+
+    // Quota for calls that match none of the endpoints below
+    private Quota defaults = new Quota(50, 20);
+
+    // Named endpoint groups, each with its own bucket per user
+    private Map<String, Endpoint> endpoints = new LinkedHashMap<>();
+
+    @Getter
+    @Setter
+    public static class Quota {
+        // Burst size: calls a user with a full bucket can make at once
+        private int capacity;
+        // Sustained calls per second
+        private double refillPerSecond;
+
+        public Quota() {
+        }
+
+        public Quota(int capacity, double refillPerSecond) {
+            this.capacity = capacity;
+            this.refillPerSecond = refillPerSecond;
+        }
+    }
+
+    @Getter
+    @Setter
+    public static class Endpoint extends Quota {
+        // "[METHOD ]/path/pattern" entries, e.g. "PATCH /api/user-info/**"; without a method every method matches
+        private List<String> rest = new ArrayList<>();
+        // Full gRPC method names, e.g. "userinfo.UserInfoService/CreateUserInfo"
+        private List<String> grpc = new ArrayList<>();
+    }
+}
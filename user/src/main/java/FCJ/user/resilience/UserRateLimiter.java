@@ -0,0 +1,166 @@
+package FCJ.user.resilience;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.http.server.PathContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-user token buckets, one per endpoint group and user id. Each bucket is a single
+ * {@link AtomicLong} holding the time at which it will be full again (the GCRA form of a token
+ * bucket), so taking a token is one compare-and-set and needs no lock. The buckets live in one
+ * bounded Caffeine cache: a bucket untouched for {@code idle-timeout} has refilled and is
+ * indistinguishable from a new one, so it expires, and beyond {@code max-buckets} the least used
+ * ones are evicted in amortized constant time. A flood of new user ids therefore costs neither a
+ * scan on the request path nor the limit itself; at worst an evicted user starts over with a full bucket.
+ */
+public class UserRateLimiter implements MeterBinder {
+
+    private final LongSupplier nanoClock;
+    private final Cache<BucketKey, AtomicLong> buckets;
+    private final Endpoint defaultEndpoint;
+    private final List<Endpoint> endpoints = new ArrayList<>();
+    private final List<RestRoute> restRoutes = new ArrayList<>();
+    private final Map<String, Endpoint> grpcRoutes = new HashMap<>();
+
+    public UserRateLimiter(UserRateLimitProperties properties) {
+        this(properties, System::nanoTime);
+    }
+
+    UserRateLimiter(UserRateLimitProperties properties, LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxBuckets())
+                .expireAfterAccess(properties.getIdleTimeout())
+                .ticker(nanoClock::getAsLong)
+                .build();
+        this.defaultEndpoint = new Endpoint("default", properties.getDefaults());
+        endpoints.add(defaultEndpoint);
+        PathPatternParser parser = PathPatternParser.defaultInstance;
+        properties.getEndpoints().forEach((name, config) -> {
+            Endpoint endpoint = new Endpoint(name, config);
+            endpoints.add(endpoint);
+            for (String route : config.getRest()) {
+                String trimmed = route.trim();
+                int space = trimmed.indexOf(' ');
+                String method = space < 0 ? null : trimmed.substring(0, space).toUpperCase(Locale.ROOT);
+                restRoutes.add(new RestRoute(method, parser.parse(trimmed.substring(space + 1).trim()), endpoint));
+            }
+            for (String method : config.getGrpc()) {
+                grpcRoutes.put(method.trim(), endpoint);
+            }
+        });
+    }
+
+    public Endpoint restEndpoint(String method, String path) {
+        PathContainer container = PathContainer.parsePath(path);
+        for (RestRoute route : restRoutes) {
+            if ((route.method() == null || route.method().equals(method)) && route.pattern().matches(container)) {
+                return route.endpoint();
+            }
+        }
+        return defaultEndpoint;
+    }
+
+    public Endpoint grpcEndpoint(String fullMethodName) {
+        return grpcRoutes.getOrDefault(fullMethodName, defaultEndpoint);
+    }
+
+    /**
+     * Takes a token from the user's bucket for the endpoint.
+     *
+     * @return 0 if the call is allowed, otherwise the nanoseconds until a token is available
+     */
+    public long tryAcquire(Endpoint endpoint, UUID userId) {
+        long now = nanoClock.getAsLong();
+        AtomicLong bucket = buckets.get(new BucketKey(endpoint, userId), key -> new AtomicLong(now));
+        while (true) {
+            long fullAt = bucket.get();
+            long start = Math.max(fullAt, now);
+            long wait = start - now - endpoint.burstNanos;
+            if (wait > 0) {
+                Counter rejected = endpoint.rejected;
+                if (rejected != null) {
+                    rejected.increment();
+                }
+                return wait;
+            }
+            if (bucket.compareAndSet(fullAt, start + endpoint.intervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Drops buckets that have been untouched for {@code idle-timeout}. Caffeine also does this as
+     * part of normal reads and writes; the schedule covers an idle limiter.
+     *
+     * @return the number of buckets dropped
+     */
+    @Scheduled(fixedDelayString = "${user.rate-limit.idle-timeout:5m}")
+    public int evictIdle() {
+        long before = buckets.estimatedSize();
+        buckets.cleanUp();
+        return (int) Math.max(0, before - buckets.estimatedSize());
+    }
+
+    long getBucketCount() {
+        return buckets.estimatedSize();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Endpoint endpoint : endpoints) {
+            endpoint.rejected = Counter.builder("user.rate_limit.rejected")
+                    .description("Calls rejected because the user's token bucket was empty")
+                    .tag("endpoint", endpoint.name)
+                    .register(registry);
+        }
+        Gauge.builder("user.rate_limit.buckets", buckets, Cache::estimatedSize)
+                .description("Tracked per-user token buckets")
+                .register(registry);
+    }
+
+    public static final class Endpoint {
+        private final String name;
+        private final long intervalNanos;
+        // How far ahead of now the full-again time may run: (capacity - 1) intervals
+        private final long burstNanos;
+        private volatile Counter rejected;
+
+        private Endpoint(String name, UserRateLimitProperties.Quota quota) {
+            if (!(quota.getRefillPerSecond() > 0)) {
+                throw new IllegalArgumentException("user.rate-limit refill-per-second of " + name
+                        + " must be positive, was " + quota.getRefillPerSecond());
+            }
+            this.name = name;
+            this.intervalNanos = (long) (1_000_000_000L / quota.getRefillPerSecond());
+            this.burstNanos = (Math.max(1, quota.getCapacity()) - 1) * intervalNanos;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    private record RestRoute(String method, PathPattern pattern, Endpoint endpoint) {
+    }
+
+    private record BucketKey(Endpoint endpoint, UUID userId) {
+    }
+}
@@ -0,0 +1,30 @@
+package FCJ.user.service;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "user.archive")
+public class ArchiveProperties {
+
+    private boolean enabled = true;
+
+    // Rows moved per transaction
+    private int batchSize = 500;
+
+    // Upper bound on batches per kind (tombstones, inactive) in one run, so a backlog drains over several runs
+    private int maxBatchesPerRun = 20;
+
+    // How long soft-deleted rows stay in user_info before they are archived
+    private Duration tombstoneRetention = Duration.ofDays(7);
+
+    // EXPIRED/CANCELLED subscriptions that ended longer ago than this are archived; zero disables
+    private Duration inactiveAfter = Duration.ofDays(365);
+
+    // Create the archive table, tombstone column and partial indexes at startup (PostgreSQL only)
+    private boolean schemaInit = true;
+}
@@ -0,0 +1,102 @@
+package FCJ.user.service;
+
+import FCJ.user.cache.LastKnownProfiles;
+import FCJ.user.cache.ProfileCache;
+import FCJ.user.dto.UserInfoDTO;
+import FCJ.user.exception.DatabaseUnavailableException;
+import FCJ.user.r2dbc.R2dbcUserInfoRepository;
+import FCJ.user.resilience.DatabaseGuardInterceptor;
+import FCJ.user.store.UserInfoRecordCodec;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.ByteBuffer;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Non-blocking counterpart of {@link UserInfoService#getUserInfoByUserId}: profile cache first, then
+ * {@link R2dbcUserInfoRepository}, with pending write-behind patches overlaid as usual. Misses (unknown
+ * users and rows the archiver moved out, which have to be restored through JPA) fall back to the
+ * blocking service on a bounded scheduler, so they keep their exact semantics.
+ * <p>
+ * With {@code user.db-resilience} enabled the R2DBC query shares the JPA path's circuit breaker and
+ * bulkhead, and while the database is unavailable a lookup is answered from {@link LastKnownProfiles}.
+ */
+@Component
+@Profile("!in-memory")
+@ConditionalOnProperty(prefix = "user.r2dbc", name = "enabled", havingValue = "true")
+public class AsyncUserInfoLookup {
+
+    private final R2dbcUserInfoRepository repository;
+    private final ProfileCache profileCache;
+    private final ProfileWriteBehindBuffer profileWriteBehindBuffer;
+    private final UserInfoService userInfoService;
+    // Null when user.db-resilience is disabled
+    private final DatabaseGuardInterceptor databaseGuard;
+    private final LastKnownProfiles lastKnownProfiles;
+    // Cache fills may write to Redis when the shared tier is enabled, which must not run on the event loop
+    private final Scheduler blockingScheduler;
+
+    @Autowired
+    public AsyncUserInfoLookup(R2dbcUserInfoRepository repository, ProfileCache profileCache,
+                               ProfileWriteBehindBuffer profileWriteBehindBuffer, UserInfoService userInfoService,
+                               ObjectProvider<DatabaseGuardInterceptor> databaseGuard, LastKnownProfiles lastKnownProfiles) {
+        this(repository, profileCache, profileWriteBehindBuffer, userInfoService, databaseGuard.getIfAvailable(),
+                lastKnownProfiles, Schedulers.boundedElastic());
+    }
+
+    AsyncUserInfoLookup(R2dbcUserInfoRepository repository, ProfileCache profileCache,
+                        ProfileWriteBehindBuffer profileWriteBehindBuffer, UserInfoService userInfoService,
+                        DatabaseGuardInterceptor databaseGuard, LastKnownProfiles lastKnownProfiles,
+                        Scheduler blockingScheduler) {
+        this.repository = repository;
+        this.profileCache = profileCache;
+        this.profileWriteBehindBuffer = profileWriteBehindBuffer;
+        this.userInfoService = userInfoService;
+        this.databaseGuard = databaseGuard;
+        this.lastKnownProfiles = lastKnownProfiles;
+        this.blockingScheduler = blockingScheduler;
+    }
+
+    /**
+     * Emits the profile, or fails with {@link FCJ.user.exception.UserInfoNotFoundException}.
+     */
+    public Mono<UserInfoDTO> getUserInfoByUserId(UUID userId) {
+        return Mono.defer(() -> {
+            Optional<UserInfoDTO> cached = profileCache.get(userId);
+            if (cached.isPresent()) {
+                return Mono.just(profileWriteBehindBuffer.overlay(cached.get()));
+            }
+            Mono<UserInfoDTO> query = repository.findByUserId(userId);
+            if (databaseGuard != null) {
+                query = databaseGuard.guard(query);
+            }
+            return query
+                    .doOnNext(dto -> {
+                        UserInfoDTO stored = copyOf(dto);
+                        blockingScheduler.schedule(() -> {
+                            profileCache.put(stored);
+                            lastKnownProfiles.record(stored);
+                        });
+                    })
+                    .onErrorResume(DatabaseUnavailableException.class, e -> lastKnownProfiles.get(userId)
+                            .map(Mono::just)
+                            .orElseGet(() -> Mono.error(e)))
+                    .map(profileWriteBehindBuffer::overlay)
+                    .switchIfEmpty(Mono.fromCallable(() -> userInfoService.getUserInfoByUserId(userId))
+                            .subscribeOn(blockingScheduler));
+        });
+    }
+
+    // overlay() patches the DTO in place; the cache must keep the database state
+    private static UserInfoDTO copyOf(UserInfoDTO dto) {
+        return UserInfoRecordCodec.read(ByteBuffer.wrap(UserInfoRecordCodec.encode(dto)));
+    }
+}
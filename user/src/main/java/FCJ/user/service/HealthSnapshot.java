@@ -0,0 +1,23 @@
+package FCJ.user.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.boot.actuate.health.Status;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Immutable result of one full health indicator run.
+ */
+@Getter
+@AllArgsConstructor
+public class HealthSnapshot {
+    private final Status status;
+    private final Map<String, Object> components;
+    private final Instant checkedAt;
+
+    public static HealthSnapshot unknown() {
+        return new HealthSnapshot(Status.UNKNOWN, Map.of(), Instant.EPOCH);
+    }
+}
@@ -0,0 +1,109 @@
+package FCJ.user.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.CompositeHealth;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthComponent;
+import org.springframework.boot.actuate.health.HealthEndpoint;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.LivenessState;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Runs the health indicators (including the database check) on a background schedule and
+ * keeps the last result in memory, so that probe endpoints answer without any I/O.
+ */
+@Service
+public class HealthSnapshotService {
+
+    private static final Logger logger = LoggerFactory.getLogger(HealthSnapshotService.class);
+
+    private final HealthEndpoint healthEndpoint;
+    private final ApplicationAvailability applicationAvailability;
+    private final Duration maxAge;
+    private final Clock clock;
+
+    private volatile HealthSnapshot snapshot = HealthSnapshot.unknown();
+
+    @Autowired
+    public HealthSnapshotService(HealthEndpoint healthEndpoint,
+                                 ApplicationAvailability applicationAvailability,
+                                 @Value("${health.snapshot.max-age:60s}") Duration maxAge) {
+        this(healthEndpoint, applicationAvailability, maxAge, Clock.systemUTC());
+    }
+
+    HealthSnapshotService(HealthEndpoint healthEndpoint,
+                          ApplicationAvailability applicationAvailability,
+                          Duration maxAge,
+                          Clock clock) {
+        this.healthEndpoint = healthEndpoint;
+        this.applicationAvailability = applicationAvailability;
+        this.maxAge = maxAge;
+        this.clock = clock;
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${health.snapshot.refresh-interval:10s}")
+    public void refresh() {
+        try {
+            HealthComponent health = healthEndpoint.health();
+            snapshot = new HealthSnapshot(health.getStatus(), describeComponents(health), clock.instant());
+        } catch (Exception e) {
+            logger.warn("Health snapshot refresh failed: {}", e.getMessage());
+            snapshot = new HealthSnapshot(Status.DOWN, Map.of("error", String.valueOf(e.getMessage())), clock.instant());
+        }
+    }
+
+    /**
+     * Last snapshot, or UNKNOWN if the refresher has not run recently enough to be trusted.
+     */
+    public HealthSnapshot current() {
+        HealthSnapshot current = snapshot;
+        if (current.getCheckedAt().plus(maxAge).isBefore(clock.instant())) {
+            return new HealthSnapshot(Status.UNKNOWN, current.getComponents(), current.getCheckedAt());
+        }
+        return current;
+    }
+
+    /**
+     * Liveness only reflects the JVM/application state, never dependency health:
+     * a database outage must not get the container restarted.
+     */
+    public Status liveness() {
+        return applicationAvailability.getLivenessState() == LivenessState.CORRECT ? Status.UP : Status.DOWN;
+    }
+
+    public Status readiness() {
+        if (applicationAvailability.getReadinessState() != ReadinessState.ACCEPTING_TRAFFIC) {
+            return Status.OUT_OF_SERVICE;
+        }
+        return current().getStatus();
+    }
+
+    private Map<String, Object> describeComponents(HealthComponent health) {
+        Map<String, Object> components = new LinkedHashMap<>();
+        if (health instanceof CompositeHealth composite) {
+            composite.getComponents().forEach((name, component) -> {
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("status", component.getStatus().getCode());
+                if (component instanceof Health h && !h.getDetails().isEmpty()) {
+                    entry.put("details", h.getDetails());
+                }
+                components.put(name, entry);
+            });
+        } else if (health instanceof Health h) {
+            components.putAll(h.getDetails());
+        }
+        return components;
+    }
+}
@@ -0,0 +1,247 @@
+package FCJ.user.service;
+
+import FCJ.user.dto.UserInfoCreation;
+import FCJ.user.dto.UserInfoDTO;
+import FCJ.user.exception.UserInfoNotFoundException;
+import FCJ.user.ledger.PaymentLedger;
+import FCJ.user.ledger.PaymentLedgerEntry;
+import FCJ.user.stats.MembershipState;
+import FCJ.user.stats.MembershipStatistics;
+import FCJ.user.store.StripedUserInfoStore;
+import FCJ.user.store.UserInfoSnapshotFile;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * {@link UserInfoService} backed by a {@link StripedUserInfoStore} instead of Postgres, active with
+ * the {@code in-memory} profile. Intended for load tests of the HTTP and gRPC layers, CI and small
+ * edge deployments. When {@code user.store.in-memory.snapshot-path} is set, the store is restored
+ * from that file at startup and written back periodically and on shutdown.
+ */
+@Service
+@Profile("in-memory")
+public class InMemoryUserInfoService implements UserInfoService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryUserInfoService.class);
+
+    private final StripedUserInfoStore store;
+    private final Path snapshotPath;
+    private final MembershipStatistics membershipStatistics;
+    private final PaymentLedger paymentLedger;
+    private volatile long snapshotModificationCount = -1;
+
+    public InMemoryUserInfoService(@Value("${user.store.in-memory.stripes:64}") int stripes,
+                                   @Value("${user.store.in-memory.snapshot-path:}") String snapshotPath,
+                                   MembershipStatistics membershipStatistics, PaymentLedger paymentLedger) {
+        this.store = new StripedUserInfoStore(stripes);
+        this.snapshotPath = snapshotPath.isBlank() ? null : Path.of(snapshotPath);
+        this.membershipStatistics = membershipStatistics;
+        this.paymentLedger = paymentLedger;
+    }
+
+    @PostConstruct
+    void restoreSnapshot() {
+        if (snapshotPath == null || !Files.exists(snapshotPath)) {
+            return;
+        }
+        try {
+            UserInfoSnapshotFile.Snapshot snapshot = UserInfoSnapshotFile.read(snapshotPath);
+            store.loadAll(snapshot.getRecords());
+            snapshot.getRecords().forEach(record -> membershipStatistics.recordChange(null, MembershipState.of(record)));
+            snapshotModificationCount = store.modificationCount();
+            logger.info("Restored {} UserInfo records from snapshot {} taken at {}",
+                    store.size(), snapshotPath, snapshot.getCreatedAt());
+        } catch (IOException e) {
+            logger.warn("Ignoring unreadable UserInfo snapshot {}: {}", snapshotPath, e.getMessage());
+        }
+    }
+
+    @Scheduled(initialDelayString = "${user.store.in-memory.snapshot-interval:30s}",
+            fixedDelayString = "${user.store.in-memory.snapshot-interval:30s}")
+    @PreDestroy
+    public synchronized void writeSnapshot() {
+        long modifications = store.modificationCount();
+        if (snapshotPath == null || modifications == snapshotModificationCount) {
+            return;
+        }
+        try {
+            UserInfoSnapshotFile.write(snapshotPath, store.records(), Instant.now());
+            snapshotModificationCount = modifications;
+            logger.debug("Wrote UserInfo snapshot {}", snapshotPath);
+        } catch (IOException e) {
+            logger.warn("Failed to write UserInfo snapshot {}: {}", snapshotPath, e.getMessage());
+        }
+    }
+
+    @Override
+    public UserInfoDTO createUserInfo(UUID userId, UserInfoCreation userInfoCreation) {
+        UserInfoDTO userInfo = newRecord(userId);
+        applyProfile(userInfo, userInfoCreation, true);
+        applySubscription(userInfo, userInfoCreation);
+        validateSubscription(userInfo);
+        return recordPayment(userInfoCreation, created(store.insert(userInfo)));
+    }
+
+    @Override
+    public UserInfoDTO createEmptyUserInfo(UUID userId) {
+        return created(store.insert(newRecord(userId)));
+    }
+
+    @Override
+    public UserInfoDTO getUserInfoById(UUID id) {
+        return store.findById(id)
+                .orElseThrow(() -> new UserInfoNotFoundException("UserInfo not found with id: " + id));
+    }
+
+    @Override
+    public UserInfoDTO getUserInfoByUserId(UUID userId) {
+        return store.findByUserId(userId)
+                .orElseThrow(() -> new UserInfoNotFoundException("UserInfo not found with userId: " + userId));
+    }
+
+    @Override
+    public UserInfoDTO updateUserInfo(UUID id, UserInfoCreation userInfoCreation) {
+        return update(mutation -> store.updateById(id, mutation), userInfo -> {
+                    applyProfile(userInfo, userInfoCreation, true);
+                    applySubscription(userInfo, userInfoCreation);
+                    validateSubscription(userInfo);
+                })
+                .map(userInfo -> recordPayment(userInfoCreation, userInfo))
+                .orElseThrow(() -> new UserInfoNotFoundException("UserInfo not found with id: " + id));
+    }
+
+    @Override
+    public UserInfoDTO patchUserInfo(UUID id, UserInfoCreation userInfoCreation) {
+        return update(mutation -> store.updateById(id, mutation), userInfo -> {
+                    applyProfile(userInfo, userInfoCreation, false);
+                    applySubscription(userInfo, userInfoCreation);
+                    validateSubscription(userInfo);
+                })
+                .map(userInfo -> recordPayment(userInfoCreation, userInfo))
+                .orElseThrow(() -> new UserInfoNotFoundException("UserInfo not found with id: " + id));
+    }
+
+    @Override
+    public UserInfoDTO patchUserInfoByUserId(UUID userId, UserInfoCreation userInfoCreation) {
+        return update(mutation -> store.updateByUserId(userId, mutation), userInfo -> {
+                    applyProfile(userInfo, userInfoCreation, false);
+                    applySubscription(userInfo, userInfoCreation);
+                    validateSubscription(userInfo);
+                })
+                .map(userInfo -> recordPayment(userInfoCreation, userInfo))
+                .orElseThrow(() -> new UserInfoNotFoundException("UserInfo not found with userId: " + userId));
+    }
+
+    @Override
+    public void deleteUserInfo(UUID id) {
+        UserInfoDTO removed = store.removeById(id)
+                .orElseThrow(() -> new UserInfoNotFoundException("UserInfo not found with id: " + id));
+        membershipStatistics.recordChange(MembershipState.of(removed), null);
+    }
+
+    private UserInfoDTO created(UserInfoDTO userInfo) {
+        membershipStatistics.recordChange(null, MembershipState.of(userInfo));
+        return userInfo;
+    }
+
+    // Writes that carry a lastPaymentId are payments
+    private UserInfoDTO recordPayment(UserInfoCreation userInfoCreation, UserInfoDTO userInfo) {
+        if (userInfoCreation.getLastPaymentId() != null) {
+            paymentLedger.append(PaymentLedgerEntry.of(userInfo, Instant.now()));
+        }
+        return userInfo;
+    }
+
+    // Runs the store update with a mutation that also captures the membership state it started from
+    private Optional<UserInfoDTO> update(Function<Consumer<UserInfoDTO>, Optional<UserInfoDTO>> storeUpdate,
+                                         Consumer<UserInfoDTO> mutation) {
+        AtomicReference<MembershipState> before = new AtomicReference<>();
+        Optional<UserInfoDTO> updated = storeUpdate.apply(userInfo -> {
+            before.set(MembershipState.of(userInfo));
+            mutation.accept(userInfo);
+        });
+        updated.ifPresent(userInfo -> membershipStatistics.recordChange(before.get(), MembershipState.of(userInfo)));
+        return updated;
+    }
+
+    private static UserInfoDTO newRecord(UUID userId) {
+        UserInfoDTO userInfo = new UserInfoDTO();
+        userInfo.setUserId(userId);
+        // Same default as the UserInfo entity
+        userInfo.setAutoRenewal(false);
+        return userInfo;
+    }
+
+    // Full updates overwrite profile fields with nulls, patches skip them
+    private static void applyProfile(UserInfoDTO userInfo, UserInfoCreation source, boolean overwrite) {
+        if (overwrite || source.getFullName() != null) {
+            userInfo.setFullName(source.getFullName());
+        }
+        if (overwrite || source.getAvatarUrl() != null) {
+            userInfo.setAvatarUrl(source.getAvatarUrl());
+        }
+        if (overwrite || source.getPhoneNumber() != null) {
+            userInfo.setPhoneNumber(source.getPhoneNumber());
+        }
+        if (overwrite || source.getAddress() != null) {
+            userInfo.setAddress(source.getAddress());
+        }
+    }
+
+    // Subscription fields are only ever set, never cleared, matching UserInfoServiceImpl
+    private static void applySubscription(UserInfoDTO userInfo, UserInfoCreation source) {
+        if (source.getSubscriptionTier() != null) {
+            userInfo.setSubscriptionTier(source.getSubscriptionTier());
+        }
+        if (source.getSubscriptionStatus() != null) {
+            userInfo.setSubscriptionStatus(source.getSubscriptionStatus());
+        }
+        if (source.getSubscriptionExpiresAt() != null) {
+            userInfo.setSubscriptionExpiresAt(source.getSubscriptionExpiresAt());
+        }
+        if (source.getPaymentMethod() != null) {
+            userInfo.setPaymentMethod(source.getPaymentMethod());
+        }
+        if (source.getLastPaymentId() != null) {
+            userInfo.setLastPaymentId(source.getLastPaymentId());
+        }
+        if (source.getLastPaymentDate() != null) {
+            userInfo.setLastPaymentDate(source.getLastPaymentDate());
+        }
+        if (source.getLastPaymentAmount() != null) {
+            userInfo.setLastPaymentAmount(source.getLastPaymentAmount());
+        }
+        if (source.getNextBillingDate() != null) {
+            userInfo.setNextBillingDate(source.getNextBillingDate());
+        }
+        if (source.getAutoRenewal() != null) {
+            userInfo.setAutoRenewal(source.getAutoRenewal());
+        }
+    }
+
+    // Mirrors the @PrePersist/@PreUpdate check on the UserInfo entity
+    private static void validateSubscription(UserInfoDTO userInfo) {
+        if ("TRIAL".equalsIgnoreCase(userInfo.getSubscriptionTier())) {
+            throw new IllegalArgumentException("TRIAL tier is not allowed");
+        }
+        if ("TRIALING".equalsIgnoreCase(userInfo.getSubscriptionStatus())) {
+            throw new IllegalArgumentException("TRIALING status is not allowed");
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package FCJ.user.service;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "user.lookup-batch")
+public class LookupBatchProperties {
+
+    // Lookups arriving within this window of the first pending one share a single IN (...) query
+    private Duration window = Duration.ofMillis(2);
+
+    // Query early once this many lookups are pending
+    private int maxBatchSize = 256;
+
+    // Threads running batch queries; each holds a JDBC connection while its query runs
+    private int threads = 4;
+
+    // Lookups a single LookupSession stream may have outstanding before the server stops reading from it
+    private int maxInFlightPerSession = 1000;
+}
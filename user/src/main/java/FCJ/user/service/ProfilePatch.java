@@ -0,0 +1,90 @@
+package FCJ.user.service;
+
+import FCJ.user.dto.UserInfoCreation;
+import FCJ.user.dto.UserInfoDTO;
+import FCJ.user.model.UserInfo;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Pending change to the profile fields of one user (name, avatar, phone, address). A null field
+ * means "unchanged". Instances are immutable; {@link #mergedWith} returns a new patch.
+ */
+@Getter
+@AllArgsConstructor
+public class ProfilePatch {
+
+    private final String fullName;
+    private final String avatarUrl;
+    private final String phoneNumber;
+    private final String address;
+
+    public static ProfilePatch of(UserInfoCreation source) {
+        return new ProfilePatch(source.getFullName(), source.getAvatarUrl(), source.getPhoneNumber(), source.getAddress());
+    }
+
+    /**
+     * True if the request only patches profile fields, so it can be written behind. Anything that
+     * touches subscription or payment data stays synchronous.
+     */
+    public static boolean isProfileOnly(UserInfoCreation source) {
+        boolean subscription = source.getSubscriptionTier() != null
+                || source.getSubscriptionStatus() != null
+                || source.getSubscriptionExpiresAt() != null
+                || source.getPaymentMethod() != null
+                || source.getLastPaymentId() != null
+                || source.getLastPaymentDate() != null
+                || source.getLastPaymentAmount() != null
+                || source.getNextBillingDate() != null
+                || source.getAutoRenewal() != null;
+        boolean profile = source.getFullName() != null
+                || source.getAvatarUrl() != null
+                || source.getPhoneNumber() != null
+                || source.getAddress() != null;
+        return profile && !subscription;
+    }
+
+    /**
+     * This patch followed by {@code newer}: fields set in {@code newer} win.
+     */
+    public ProfilePatch mergedWith(ProfilePatch newer) {
+        if (newer == null) {
+            return this;
+        }
+        return new ProfilePatch(
+                newer.fullName != null ? newer.fullName : fullName,
+                newer.avatarUrl != null ? newer.avatarUrl : avatarUrl,
+                newer.phoneNumber != null ? newer.phoneNumber : phoneNumber,
+                newer.address != null ? newer.address : address);
+    }
+
+    public void applyTo(UserInfoDTO userInfo) {
+        if (fullName != null) {
+            userInfo.setFullName(fullName);
+        }
+        if (avatarUrl != null) {
+            userInfo.setAvatarUrl(avatarUrl);
+        }
+        if (phoneNumber != null) {
+            userInfo.setPhoneNumber(phoneNumber);
+        }
+        if (address != null) {
+            userInfo.setAddress(address);
+        }
+    }
+
+    public void applyTo(UserInfo userInfo) {
+        if (fullName != null) {
+            userInfo.setFullName(fullName);
+        }
+        if (avatarUrl != null) {
+            userInfo.setAvatarUrl(avatarUrl);
+        }
+        if (phoneNumber != null) {
+            userInfo.setPhoneNumber(phoneNumber);
+        }
+        if (address != null) {
+            userInfo.setAddress(address);
+        }
+    }
+}
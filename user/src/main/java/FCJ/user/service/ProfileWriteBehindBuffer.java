@@ -0,0 +1,258 @@
+package FCJ.user.service;
+
+import FCJ.user.dto.UserInfoCreation;
+import FCJ.user.dto.UserInfoDTO;
+import FCJ.user.shard.ShardRouter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind buffer for profile-only patches ({@code user.write-behind.enabled}).
+ * <p>
+ * Patches are merged per {@code userId} in memory and flushed every
+ * {@code user.write-behind.flush-interval} as one JDBC-batched UPDATE per user. Reads overlay the
+ * pending and in-flight patches, so callers see their own writes before the flush. Synchronous writes
+ * for a user first {@link #drain} its pending patch and apply it themselves, which keeps later
+ * flushes from overwriting them. The buffer stops after the web and gRPC servers, flushing whatever
+ * is left before the DataSource is closed. With sharding the batch is split by the shard(s) that may
+ * hold each user's row.
+ */
+@Component
+@Profile("!in-memory")
+@EnableConfigurationProperties(WriteBehindProperties.class)
+public class ProfileWriteBehindBuffer implements SmartLifecycle, MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProfileWriteBehindBuffer.class);
+
+    static final String UPDATE_SQL = "UPDATE user_info SET "
+            + "full_name = COALESCE(?, full_name), "
+            + "avatar_url = COALESCE(?, avatar_url), "
+            + "phone_number = COALESCE(?, phone_number), "
+            + "address = COALESCE(?, address) "
+            + "WHERE user_id = ? AND deleted_at IS NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final WriteBehindProperties properties;
+    private final ShardRouter router;
+    private final Map<UUID, ProfilePatch> pending = new ConcurrentHashMap<>();
+    private final Map<UUID, ProfilePatch> inFlight = new ConcurrentHashMap<>();
+    private final Object flushLock = new Object();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong flushedRows = new AtomicLong();
+
+    private ScheduledExecutorService scheduler;
+    private volatile boolean running;
+
+    public ProfileWriteBehindBuffer(JdbcTemplate jdbcTemplate, WriteBehindProperties properties) {
+        this(jdbcTemplate, properties, ShardRouter.single());
+    }
+
+    @Autowired
+    public ProfileWriteBehindBuffer(JdbcTemplate jdbcTemplate, WriteBehindProperties properties, ShardRouter router) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        this.router = router;
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * True if this patch can be buffered instead of written synchronously.
+     */
+    public boolean accepts(UserInfoCreation patch) {
+        return properties.isEnabled() && ProfilePatch.isProfileOnly(patch);
+    }
+
+    public void enqueue(UUID userId, UserInfoCreation patch) {
+        pending.merge(userId, ProfilePatch.of(patch), ProfilePatch::mergedWith);
+        enqueued.incrementAndGet();
+        if (pending.size() >= properties.getMaxPending() && running && flushRequested.compareAndSet(false, true)) {
+            scheduler.execute(this::flushQuietly);
+        }
+    }
+
+    /**
+     * Applies any not yet persisted profile changes of the record's user to {@code userInfo}.
+     */
+    public UserInfoDTO overlay(UserInfoDTO userInfo) {
+        if (userInfo == null || (pending.isEmpty() && inFlight.isEmpty())) {
+            return userInfo;
+        }
+        ProfilePatch written = inFlight.get(userInfo.getUserId());
+        ProfilePatch queued = pending.get(userInfo.getUserId());
+        if (written != null) {
+            written.applyTo(userInfo);
+        }
+        if (queued != null) {
+            queued.applyTo(userInfo);
+        }
+        return userInfo;
+    }
+
+    /**
+     * Removes and returns everything not yet persisted for {@code userId}, waiting for an in-progress
+     * flush of that user to finish. The caller writes the returned patch itself.
+     */
+    public ProfilePatch drain(UUID userId) {
+        if (pending.isEmpty() && inFlight.isEmpty()) {
+            return null;
+        }
+        ProfilePatch queued = pending.remove(userId);
+        ProfilePatch written = inFlight.get(userId);
+        if (written == null) {
+            return queued;
+        }
+        synchronized (flushLock) {
+            // A failed flush puts its patches back into pending
+            ProfilePatch requeued = pending.remove(userId);
+            return written.mergedWith(requeued).mergedWith(queued);
+        }
+    }
+
+    /**
+     * Writes all pending patches. Failed batches are put back and retried on the next flush.
+     *
+     * @return number of users written
+     */
+    public int flush() {
+        synchronized (flushLock) {
+            flushRequested.set(false);
+            if (pending.isEmpty()) {
+                return 0;
+            }
+            for (UUID userId : pending.keySet()) {
+                pending.computeIfPresent(userId, (key, patch) -> {
+                    inFlight.put(key, patch);
+                    return null;
+                });
+            }
+            List<Map.Entry<UUID, ProfilePatch>> batch = new ArrayList<>(inFlight.entrySet());
+            try {
+                // While resharding a user's row may still be on the previous owner; the UPDATE matches wherever it is
+                Map<Integer, List<Map.Entry<UUID, ProfilePatch>>> byShard = new TreeMap<>();
+                for (Map.Entry<UUID, ProfilePatch> entry : batch) {
+                    for (int shard : router.candidatesForUserId(entry.getKey())) {
+                        byShard.computeIfAbsent(shard, key -> new ArrayList<>()).add(entry);
+                    }
+                }
+                byShard.forEach((shard, entries) -> router.onShard(shard, () -> write(entries)));
+                flushedRows.addAndGet(batch.size());
+                return batch.size();
+            } catch (DataAccessException e) {
+                logger.warn("Write-behind flush of {} profile patches failed, will retry: {}", batch.size(), e.getMessage());
+                for (Map.Entry<UUID, ProfilePatch> entry : batch) {
+                    pending.merge(entry.getKey(), entry.getValue(), (newer, failed) -> failed.mergedWith(newer));
+                }
+                return 0;
+            } finally {
+                inFlight.clear();
+            }
+        }
+    }
+
+    private int[][] write(List<Map.Entry<UUID, ProfilePatch>> entries) {
+        return jdbcTemplate.batchUpdate(UPDATE_SQL, entries, properties.getBatchSize(), (ps, entry) -> {
+            ProfilePatch patch = entry.getValue();
+            ps.setString(1, patch.getFullName());
+            ps.setString(2, patch.getAvatarUrl());
+            ps.setString(3, patch.getPhoneNumber());
+            ps.setString(4, patch.getAddress());
+            ps.setObject(5, entry.getKey());
+        });
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            logger.warn("Write-behind flush failed: {}", e.getMessage());
+        }
+    }
+
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    @Override
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "profile-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.getFlushInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, interval, interval, TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (scheduler != null) {
+            scheduler.shutdown();
+            try {
+                scheduler.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        int remaining = pending.size();
+        if (remaining > 0) {
+            int written = flush();
+            logger.info("Flushed {} of {} pending profile patches on shutdown", written, remaining);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Stop after the web server (graceful shutdown) and the gRPC server, so no patch arrives after the last flush
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("user.write_behind.pending", pending, Map::size)
+                .description("Users with profile patches waiting to be flushed")
+                .register(registry);
+        FunctionCounter.builder("user.write_behind.enqueued", enqueued, AtomicLong::get)
+                .description("Profile patches accepted by the write-behind buffer")
+                .register(registry);
+        FunctionCounter.builder("user.write_behind.flushed", flushedRows, AtomicLong::get)
+                .description("Merged profile updates written to the database")
+                .register(registry);
+    }
+}
@@ -0,0 +1,174 @@
+package FCJ.user.service;
+
+import FCJ.user.cache.ProfileCache;
+import FCJ.user.model.ArchivedUserInfo;
+import FCJ.user.shard.ShardRouter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps {@code user_info} down to the working set. Each run moves, in batches of
+ * {@code user.archive.batch-size} rows per transaction, into {@code user_info_archive}:
+ * <ul>
+ *     <li>tombstones older than {@code user.archive.tombstone-retention};</li>
+ *     <li>EXPIRED/CANCELLED subscriptions that ended more than {@code user.archive.inactive-after} ago.
+ *     These come back into user_info on their next lookup.</li>
+ * </ul>
+ * Candidate rows are locked with {@code FOR UPDATE SKIP LOCKED}, so several instances can run the
+ * archiver at the same time without waiting on each other. With sharding each shard is drained in
+ * turn, and a failing shard does not hold up the others.
+ */
+@Component
+@Profile("!in-memory")
+@ConditionalOnProperty(prefix = "user.archive", name = "enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(ArchiveProperties.class)
+public class UserInfoArchiver implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserInfoArchiver.class);
+
+    static final String SELECT_TOMBSTONES = "SELECT id, user_id FROM user_info "
+            + "WHERE deleted_at < ? ORDER BY deleted_at LIMIT ? FOR UPDATE SKIP LOCKED";
+    static final String SELECT_INACTIVE = "SELECT id, user_id FROM user_info "
+            + "WHERE deleted_at IS NULL AND subscription_status IN ('EXPIRED', 'CANCELLED') AND subscription_expires_at < ? "
+            + "ORDER BY subscription_expires_at LIMIT ? FOR UPDATE SKIP LOCKED";
+    static final String COPY_TO_ARCHIVE = "INSERT INTO user_info_archive (" + ArchivedUserInfo.COLUMNS + ", archived_at) "
+            + "SELECT " + ArchivedUserInfo.COLUMNS + ", :archivedAt FROM user_info WHERE id IN (:ids)";
+    static final String DELETE_ARCHIVED = "DELETE FROM user_info WHERE id IN (:ids)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ProfileCache profileCache;
+    private final ArchiveProperties properties;
+    private final ShardRouter router;
+    private final Clock clock;
+    private final AtomicLong archivedTombstones = new AtomicLong();
+    private final AtomicLong archivedInactive = new AtomicLong();
+
+    public UserInfoArchiver(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                            ProfileCache profileCache, ArchiveProperties properties) {
+        this(jdbcTemplate, transactionManager, profileCache, properties, ShardRouter.single(), Clock.systemUTC());
+    }
+
+    @Autowired
+    public UserInfoArchiver(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                            ProfileCache profileCache, ArchiveProperties properties, ShardRouter router) {
+        this(jdbcTemplate, transactionManager, profileCache, properties, router, Clock.systemUTC());
+    }
+
+    UserInfoArchiver(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                     ProfileCache profileCache, ArchiveProperties properties, Clock clock) {
+        this(jdbcTemplate, transactionManager, profileCache, properties, ShardRouter.single(), clock);
+    }
+
+    UserInfoArchiver(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                     ProfileCache profileCache, ArchiveProperties properties, ShardRouter router, Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.profileCache = profileCache;
+        this.properties = properties;
+        this.router = router;
+        this.clock = clock;
+    }
+
+    /**
+     * @return number of rows moved to the archive
+     */
+    @Scheduled(initialDelayString = "${user.archive.interval:5m}", fixedDelayString = "${user.archive.interval:5m}")
+    public int archive() {
+        Instant now = clock.instant();
+        int[] moved = new int[1];
+        router.forEachShard(shard -> moved[0] += archiveShard(shard, now));
+        return moved[0];
+    }
+
+    private int archiveShard(int shard, Instant now) {
+        try {
+            int tombstones = drain(SELECT_TOMBSTONES, now.minus(properties.getTombstoneRetention()), now);
+            archivedTombstones.addAndGet(tombstones);
+            int inactive = 0;
+            if (!properties.getInactiveAfter().isZero()) {
+                inactive = drain(SELECT_INACTIVE, now.minus(properties.getInactiveAfter()), now);
+                archivedInactive.addAndGet(inactive);
+            }
+            if (tombstones + inactive > 0) {
+                logger.info("Archived {} deleted and {} inactive user_info rows{}", tombstones, inactive, on(shard));
+            }
+            return tombstones + inactive;
+        } catch (DataAccessException e) {
+            logger.warn("user_info archival{} failed, retrying next run: {}", on(shard), e.getMessage());
+            return 0;
+        }
+    }
+
+    private String on(int shard) {
+        return router.isSharded() ? " on shard " + shard : "";
+    }
+
+    private int drain(String selectSql, Instant cutoff, Instant now) {
+        int moved = 0;
+        for (int batch = 0; batch < properties.getMaxBatchesPerRun(); batch++) {
+            int rows = moveBatch(selectSql, cutoff, now);
+            moved += rows;
+            if (rows < properties.getBatchSize()) {
+                break;
+            }
+        }
+        return moved;
+    }
+
+    private int moveBatch(String selectSql, Instant cutoff, Instant now) {
+        List<UUID[]> rows = transactionTemplate.execute(status -> {
+            List<UUID[]> candidates = jdbcTemplate.query(selectSql,
+                    (rs, rowNum) -> new UUID[]{rs.getObject("id", UUID.class), rs.getObject("user_id", UUID.class)},
+                    Timestamp.from(cutoff), properties.getBatchSize());
+            if (candidates.isEmpty()) {
+                return candidates;
+            }
+            MapSqlParameterSource params = new MapSqlParameterSource()
+                    .addValue("ids", candidates.stream().map(row -> row[0]).toList())
+                    .addValue("archivedAt", Timestamp.from(now));
+            namedJdbcTemplate.update(COPY_TO_ARCHIVE, params);
+            namedJdbcTemplate.update(DELETE_ARCHIVED, params);
+            return candidates;
+        });
+        // Archived rows must be read (and restored) from the database, not served from the cache
+        rows.forEach(row -> profileCache.evict(row[1]));
+        return rows.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("user.archive.rows", archivedTombstones, AtomicLong::get)
+                .description("user_info rows moved to user_info_archive")
+                .tag("reason", "deleted")
+                .register(registry);
+        FunctionCounter.builder("user.archive.rows", archivedInactive, AtomicLong::get)
+                .description("user_info rows moved to user_info_archive")
+                .tag("reason", "inactive")
+                .register(registry);
+    }
+}
@@ -0,0 +1,167 @@
+package FCJ.user.service;
+
+import FCJ.user.dto.UserInfoDTO;
+import FCJ.user.exception.UserInfoNotFoundException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Coalesces {@code userId} lookups from all callers into {@link UserInfoService#getUserInfosByUserIds}
+ * calls. The first lookup of a batch starts a {@code user.lookup-batch.window} timer; everything that
+ * arrives before it fires (or until {@code max-batch-size} is reached) is answered by one query. The
+ * returned futures complete on the batch threads, in no particular order.
+ */
+@Component
+@EnableConfigurationProperties(LookupBatchProperties.class)
+public class UserInfoLookupBatcher implements MeterBinder {
+
+    private final UserInfoService userInfoService;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final int maxInFlightPerSession;
+    private final ScheduledExecutorService timer;
+    private final ExecutorService queryExecutor;
+    private final Object lock = new Object();
+
+    private List<PendingLookup> pending = new ArrayList<>();
+    // Bumped whenever pending is handed off, so a timer armed for an earlier batch does nothing
+    private long generation;
+    private volatile DistributionSummary batchSizes;
+
+    public UserInfoLookupBatcher(UserInfoService userInfoService, LookupBatchProperties properties) {
+        this.userInfoService = userInfoService;
+        this.windowNanos = properties.getWindow().toNanos();
+        this.maxBatchSize = properties.getMaxBatchSize();
+        this.maxInFlightPerSession = properties.getMaxInFlightPerSession();
+        this.timer = Executors.newSingleThreadScheduledExecutor(daemonThreads("lookup-batch-timer"));
+        this.queryExecutor = Executors.newFixedThreadPool(properties.getThreads(), daemonThreads("lookup-batch"));
+    }
+
+    /**
+     * Completes with the profile, or exceptionally with {@link UserInfoNotFoundException} or the
+     * error that failed the batch query.
+     */
+    public CompletableFuture<UserInfoDTO> lookup(UUID userId) {
+        CompletableFuture<UserInfoDTO> result = new CompletableFuture<>();
+        List<PendingLookup> full = null;
+        synchronized (lock) {
+            pending.add(new PendingLookup(userId, result));
+            if (pending.size() >= maxBatchSize) {
+                full = takePending();
+            } else if (pending.size() == 1) {
+                long armedFor = generation;
+                timer.schedule(() -> flush(armedFor), windowNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+        if (full != null) {
+            submit(full);
+        }
+        return result;
+    }
+
+    public int getMaxInFlightPerSession() {
+        return maxInFlightPerSession;
+    }
+
+    private void flush(long armedFor) {
+        List<PendingLookup> batch;
+        synchronized (lock) {
+            if (generation != armedFor || pending.isEmpty()) {
+                return;
+            }
+            batch = takePending();
+        }
+        submit(batch);
+    }
+
+    private List<PendingLookup> takePending() {
+        List<PendingLookup> batch = pending;
+        pending = new ArrayList<>();
+        generation++;
+        return batch;
+    }
+
+    private void submit(List<PendingLookup> batch) {
+        try {
+            queryExecutor.execute(() -> run(batch));
+        } catch (RejectedExecutionException e) {
+            batch.forEach(lookup -> lookup.result().completeExceptionally(e));
+        }
+    }
+
+    private void run(List<PendingLookup> batch) {
+        Set<UUID> userIds = new LinkedHashSet<>();
+        for (PendingLookup lookup : batch) {
+            userIds.add(lookup.userId());
+        }
+        DistributionSummary sizes = batchSizes;
+        if (sizes != null) {
+            sizes.record(userIds.size());
+        }
+        Map<UUID, UserInfoDTO> found;
+        try {
+            found = userInfoService.getUserInfosByUserIds(userIds);
+        } catch (RuntimeException e) {
+            batch.forEach(lookup -> lookup.result().completeExceptionally(e));
+            return;
+        }
+        for (PendingLookup lookup : batch) {
+            UserInfoDTO userInfo = found.get(lookup.userId());
+            if (userInfo != null) {
+                lookup.result().complete(userInfo);
+            } else {
+                lookup.result().completeExceptionally(
+                        new UserInfoNotFoundException("UserInfo not found with userId: " + lookup.userId()));
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdownNow();
+        queryExecutor.shutdown();
+        try {
+            queryExecutor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        batchSizes = DistributionSummary.builder("user.lookup_batch.size")
+                .description("Distinct users fetched per batched lookup query")
+                .register(registry);
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private record PendingLookup(UUID userId, CompletableFuture<UserInfoDTO> result) {
+    }
+}
@@ -2,7 +2,11 @@ package FCJ.user.service;
 
 import FCJ.user.dto.UserInfoCreation;
 import FCJ.user.dto.UserInfoDTO;
+import FCJ.user.exception.UserInfoNotFoundException;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.UUID;
 
 public interface UserInfoService {
@@ -10,6 +14,23 @@ public interface UserInfoService {
     UserInfoDTO createEmptyUserInfo(UUID userId);
     UserInfoDTO getUserInfoById(UUID id);
     UserInfoDTO getUserInfoByUserId(UUID userId);
+
+    /**
+     * {@link #getUserInfoByUserId} for several users at once. Users that do not exist are absent
+     * from the result instead of failing the whole lookup.
+     */
+    default Map<UUID, UserInfoDTO> getUserInfosByUserIds(Collection<UUID> userIds) {
+        Map<UUID, UserInfoDTO> found = new HashMap<>();
+        for (UUID userId : userIds) {
+            try {
+                found.put(userId, getUserInfoByUserId(userId));
+            } catch (UserInfoNotFoundException e) {
+                // absent
+            }
+        }
+        return found;
+    }
+
     UserInfoDTO updateUserInfo(UUID id, UserInfoCreation userInfoCreation);
     UserInfoDTO patchUserInfo(UUID id, UserInfoCreation userInfoCreation);
     UserInfoDTO patchUserInfoByUserId(UUID userId, UserInfoCreation userInfoCreation);
@@ -1,23 +1,47 @@
 package FCJ.user.service;
 
+import FCJ.user.cache.LastKnownProfiles;
+import FCJ.user.cache.ProfileCache;
 import FCJ.user.dto.UserInfoCreation;
 import FCJ.user.dto.UserInfoDTO;
+import FCJ.user.exception.DatabaseUnavailableException;
 import FCJ.user.exception.UserInfoNotFoundException;
+import FCJ.user.ledger.PaymentLedger;
+import FCJ.user.ledger.PaymentLedgerEntry;
 import FCJ.user.model.UserInfo;
 import FCJ.user.repository.UserInfoRepository;
+import FCJ.user.stats.MembershipState;
+import FCJ.user.stats.MembershipStatistics;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 
 @Service
+@Profile("!in-memory")
 @RequiredArgsConstructor
 public class UserInfoServiceImpl implements UserInfoService {
 
     private final UserInfoRepository userInfoRepository;
+    private final ProfileCache profileCache;
+    private final ProfileWriteBehindBuffer profileWriteBehindBuffer;
+    private final MembershipStatistics membershipStatistics;
+    // Answers userId lookups while the database is unavailable; disabled with user.db-resilience
+    private final LastKnownProfiles lastKnownProfiles;
+    private final PaymentLedger paymentLedger;
 
     @Override
     public UserInfoDTO createUserInfo(UUID userId, UserInfoCreation userInfoCreation) {
+        requireNotArchived(userId);
         UserInfo userInfo = new UserInfo();
         userInfo.setUserId(userId);
         userInfo.setFullName(userInfoCreation.getFullName());
@@ -54,37 +78,90 @@ public class UserInfoServiceImpl implements UserInfoService {
         }
 
         UserInfo savedUserInfo = userInfoRepository.save(userInfo);
-        return convertToDTO(savedUserInfo);
+        membershipStatistics.recordChange(null, MembershipState.of(savedUserInfo));
+        recordPayment(userInfoCreation, savedUserInfo);
+        return cacheWritten(convertToDTO(savedUserInfo));
     }
 
     @Override
     public UserInfoDTO createEmptyUserInfo(UUID userId) {
+        requireNotArchived(userId);
         UserInfo userInfo = new UserInfo();
         userInfo.setUserId(userId);
         // All other fields (fullName, avatarUrl, phoneNumber, address) remain null
 
         UserInfo savedUserInfo = userInfoRepository.save(userInfo);
-        return convertToDTO(savedUserInfo);
+        membershipStatistics.recordChange(null, MembershipState.of(savedUserInfo));
+        return cacheWritten(convertToDTO(savedUserInfo));
     }
 
     @Override
     public UserInfoDTO getUserInfoById(UUID id) {
-        UserInfo userInfo = userInfoRepository.findById(id)
-                .orElseThrow(() -> new UserInfoNotFoundException("UserInfo not found with id: " + id));
-        return convertToDTO(userInfo);
+        UserInfo userInfo = findActiveById(id);
+        return profileWriteBehindBuffer.overlay(convertToDTO(userInfo));
     }
 
     @Override
     public UserInfoDTO getUserInfoByUserId(UUID userId) {
-        UserInfo userInfo = userInfoRepository.findByUserId(userId)
-                .orElseThrow(() -> new UserInfoNotFoundException("UserInfo not found with userId: " + userId));
-        return convertToDTO(userInfo);
+        UserInfoDTO dto = profileCache.get(userId).orElseGet(() -> {
+            try {
+                UserInfo userInfo = findActiveByUserId(userId);
+                return cache(convertToDTO(userInfo));
+            } catch (DatabaseUnavailableException e) {
+                return lastKnownProfiles.get(userId).orElseThrow(() -> e);
+            }
+        });
+        return profileWriteBehindBuffer.overlay(dto);
+    }
+
+    @Override
+    public Map<UUID, UserInfoDTO> getUserInfosByUserIds(Collection<UUID> userIds) {
+        Map<UUID, UserInfoDTO> found = new HashMap<>();
+        List<UUID> misses = new ArrayList<>();
+        for (UUID userId : userIds) {
+            profileCache.get(userId).ifPresentOrElse(dto -> found.put(userId, dto), () -> misses.add(userId));
+        }
+        if (!misses.isEmpty()) {
+            try {
+                findMisses(misses, found);
+            } catch (DatabaseUnavailableException e) {
+                // Every miss must have a last-known copy: a missing entry would read as "not found"
+                for (UUID userId : misses) {
+                    if (!found.containsKey(userId)) {
+                        found.put(userId, lastKnownProfiles.get(userId).orElseThrow(() -> e));
+                    }
+                }
+            }
+        }
+        found.values().forEach(profileWriteBehindBuffer::overlay);
+        return found;
+    }
+
+    private void findMisses(List<UUID> misses, Map<UUID, UserInfoDTO> found) {
+        // One IN (...) query for every cache miss
+        for (UserInfo userInfo : userInfoRepository.findAllByUserIdIn(misses)) {
+            if (userInfo.getDeletedAt() == null) {
+                found.put(userInfo.getUserId(), cache(convertToDTO(userInfo)));
+            }
+        }
+        // Rows the archiver moved out come back one at a time, as in findActiveByUserId; one read finds them
+        List<UUID> notFound = misses.stream().filter(userId -> !found.containsKey(userId)).toList();
+        if (notFound.isEmpty()) {
+            return;
+        }
+        for (UUID userId : userInfoRepository.findArchivedUserIds(notFound)) {
+            userInfoRepository.restoreArchivedByUserId(userId);
+            userInfoRepository.findByUserId(userId)
+                    .filter(userInfo -> userInfo.getDeletedAt() == null)
+                    .ifPresent(userInfo -> found.put(userId, cache(convertToDTO(userInfo))));
+        }
     }
 
     @Override
     public UserInfoDTO updateUserInfo(UUID id, UserInfoCreation userInfoCreation) {
-        UserInfo userInfo = userInfoRepository.findById(id)
-                .orElseThrow(() -> new UserInfoNotFoundException("UserInfo not found with id: " + id));
+        UserInfo userInfo = findActiveById(id);
+        MembershipState before = MembershipState.of(userInfo);
+        applyPendingPatch(userInfo);
 
         userInfo.setFullName(userInfoCreation.getFullName());
         userInfo.setAvatarUrl(userInfoCreation.getAvatarUrl());
@@ -120,13 +197,16 @@ public class UserInfoServiceImpl implements UserInfoService {
         }
 
         UserInfo updatedUserInfo = userInfoRepository.save(userInfo);
-        return convertToDTO(updatedUserInfo);
+        membershipStatistics.recordChange(before, MembershipState.of(updatedUserInfo));
+        recordPayment(userInfoCreation, updatedUserInfo);
+        return cacheWritten(convertToDTO(updatedUserInfo));
     }
 
     @Override
     public UserInfoDTO patchUserInfo(UUID id, UserInfoCreation userInfoCreation) {
-        UserInfo userInfo = userInfoRepository.findById(id)
-                .orElseThrow(() -> new UserInfoNotFoundException("UserInfo not found with id: " + id));
+        UserInfo userInfo = findActiveById(id);
+        MembershipState before = MembershipState.of(userInfo);
+        applyPendingPatch(userInfo);
 
         if (userInfoCreation.getFullName() != null) {
             userInfo.setFullName(userInfoCreation.getFullName());
@@ -170,13 +250,26 @@ public class UserInfoServiceImpl implements UserInfoService {
         }
 
         UserInfo patchedUserInfo = userInfoRepository.save(userInfo);
-        return convertToDTO(patchedUserInfo);
+        membershipStatistics.recordChange(before, MembershipState.of(patchedUserInfo));
+        recordPayment(userInfoCreation, patchedUserInfo);
+        return cacheWritten(convertToDTO(patchedUserInfo));
     }
 
     @Override
     public UserInfoDTO patchUserInfoByUserId(UUID userId, UserInfoCreation userInfoCreation) {
-        UserInfo userInfo = userInfoRepository.findByUserId(userId)
-                .orElseThrow(() -> new UserInfoNotFoundException("UserInfo not found with userId: " + userId));
+        if (profileWriteBehindBuffer.accepts(userInfoCreation)) {
+            // Profile-only patch: merge into the write-behind buffer and answer from the cached view
+            UserInfoDTO current = getUserInfoByUserId(userId);
+            if (current.isStale()) {
+                throw new DatabaseUnavailableException("Database unavailable, profile writes are rejected");
+            }
+            profileWriteBehindBuffer.enqueue(userId, userInfoCreation);
+            ProfilePatch.of(userInfoCreation).applyTo(current);
+            return cacheWritten(current);
+        }
+        UserInfo userInfo = findActiveByUserId(userId);
+        MembershipState before = MembershipState.of(userInfo);
+        applyPendingPatch(userInfo);
 
         if (userInfoCreation.getFullName() != null) {
             userInfo.setFullName(userInfoCreation.getFullName());
@@ -220,15 +313,88 @@ public class UserInfoServiceImpl implements UserInfoService {
         }
 
         UserInfo patchedUserInfo = userInfoRepository.save(userInfo);
-        return convertToDTO(patchedUserInfo);
+        membershipStatistics.recordChange(before, MembershipState.of(patchedUserInfo));
+        recordPayment(userInfoCreation, patchedUserInfo);
+        return cacheWritten(convertToDTO(patchedUserInfo));
     }
 
     @Override
     public void deleteUserInfo(UUID id) {
-        if (!userInfoRepository.existsById(id)) {
-            throw new UserInfoNotFoundException("UserInfo not found with id: " + id);
+        UserInfo userInfo = findActiveById(id);
+        profileWriteBehindBuffer.drain(userInfo.getUserId());
+        // Soft delete: a single-row UPDATE; UserInfoArchiver moves the tombstone out of user_info later
+        userInfo.setDeletedAt(Instant.now());
+        userInfoRepository.save(userInfo);
+        membershipStatistics.recordChange(MembershipState.of(userInfo), null);
+        profileCache.evict(userInfo.getUserId());
+        lastKnownProfiles.evict(userInfo.getUserId());
+    }
+
+    // Live rows only: a tombstone can still be in the persistence context after deleteUserInfo.
+    // Rows the archiver moved out for inactivity are moved back on first access; a miss only reads
+    // the archive, the restore transaction runs when the row is there. The row is read again whether or
+    // not this call restored it, since a concurrent lookup may have won the restore.
+    private UserInfo findActiveById(UUID id) {
+        return userInfoRepository.findById(id)
+                .filter(userInfo -> userInfo.getDeletedAt() == null)
+                .or(() -> {
+                    if (!userInfoRepository.existsArchivedById(id)) {
+                        return Optional.empty();
+                    }
+                    userInfoRepository.restoreArchivedById(id);
+                    return userInfoRepository.findById(id).filter(userInfo -> userInfo.getDeletedAt() == null);
+                })
+                .orElseThrow(() -> new UserInfoNotFoundException("UserInfo not found with id: " + id));
+    }
+
+    private UserInfo findActiveByUserId(UUID userId) {
+        return userInfoRepository.findByUserId(userId)
+                .filter(userInfo -> userInfo.getDeletedAt() == null)
+                .or(() -> {
+                    if (userInfoRepository.findArchivedUserIds(List.of(userId)).isEmpty()) {
+                        return Optional.empty();
+                    }
+                    userInfoRepository.restoreArchivedByUserId(userId);
+                    return userInfoRepository.findByUserId(userId).filter(userInfo -> userInfo.getDeletedAt() == null);
+                })
+                .orElseThrow(() -> new UserInfoNotFoundException("UserInfo not found with userId: " + userId));
+    }
+
+    // A profile the archiver moved out still belongs to its user: a second one would orphan it, and its
+    // restore would be refused for as long as the new row exists
+    private void requireNotArchived(UUID userId) {
+        if (!userInfoRepository.findArchivedUserIds(List.of(userId)).isEmpty()) {
+            throw new DataIntegrityViolationException("UserInfo already exists for userId: " + userId);
+        }
+    }
+
+    // Synchronous writes take over buffered profile changes so a later flush cannot overwrite them
+    private void applyPendingPatch(UserInfo userInfo) {
+        ProfilePatch pending = profileWriteBehindBuffer.drain(userInfo.getUserId());
+        if (pending != null) {
+            pending.applyTo(userInfo);
+        }
+    }
+
+    // Writes that carry a lastPaymentId are payments. The ledger append runs after the row is saved, in its
+    // own transaction (with sharding the ledger is on shard 0, not the user's shard), so a failed append
+    // fails the request; the retry saves the same values again and the ledger keeps the payment id once.
+    private void recordPayment(UserInfoCreation userInfoCreation, UserInfo saved) {
+        if (userInfoCreation.getLastPaymentId() != null) {
+            paymentLedger.append(PaymentLedgerEntry.of(saved, Instant.now()));
         }
-        userInfoRepository.deleteById(id);
+    }
+
+    private UserInfoDTO cache(UserInfoDTO dto) {
+        profileCache.put(dto);
+        lastKnownProfiles.record(dto);
+        return dto;
+    }
+
+    private UserInfoDTO cacheWritten(UserInfoDTO dto) {
+        profileCache.putWritten(dto);
+        lastKnownProfiles.record(dto);
+        return dto;
     }
 
     private UserInfoDTO convertToDTO(UserInfo userInfo) {
@@ -0,0 +1,24 @@
+package FCJ.user.service;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "user.write-behind")
+public class WriteBehindProperties {
+
+    private boolean enabled = false;
+
+    // Window over which successive profile patches of the same user are merged into one UPDATE
+    private Duration flushInterval = Duration.ofSeconds(1);
+
+    // Flush early once this many users have pending patches
+    private int maxPending = 1000;
+
+    // Rows per JDBC batch
+    private int batchSize = 100;
+}
@@ -0,0 +1,36 @@
+package FCJ.user.shard;
+
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+
+/**
+ * {@code /actuator/resharding}: {@code POST} starts moving rows to the shards that own them under
+ * the current ring, {@code GET} reports progress.
+ */
+@WebEndpoint(id = "resharding")
+public class ReshardingEndpoint {
+
+    private static final int STATUS_CONFLICT = 409;
+
+    private final ShardRebalancer rebalancer;
+
+    public ReshardingEndpoint(ShardRebalancer rebalancer) {
+        this.rebalancer = rebalancer;
+    }
+
+    @WriteOperation
+    public WebEndpointResponse<ShardRebalancer.Status> start() {
+        ShardRebalancer.Status started = rebalancer.start();
+        if (started == null) {
+            return new WebEndpointResponse<>(rebalancer.status(), STATUS_CONFLICT);
+        }
+        return new WebEndpointResponse<>(started);
+    }
+
+    @ReadOperation
+    public ShardRebalancer.Status status() {
+        return rebalancer.status();
+    }
+}
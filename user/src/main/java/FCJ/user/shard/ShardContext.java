@@ -0,0 +1,40 @@
+package FCJ.user.shard;
+
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Supplier;
+
+/**
+ * The shard the current thread's JDBC connections come from, read by {@link ShardRoutingDataSource}
+ * when a connection is taken. Unbound means shard 0.
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public static Integer current() {
+        return CURRENT.get();
+    }
+
+    static <T> T callOn(int shard, Supplier<T> action) {
+        Integer previous = CURRENT.get();
+        if (previous != null && previous != shard && TransactionSynchronizationManager.isActualTransactionActive()) {
+            // The transaction's connection is already bound to the other shard
+            throw new IllegalStateException("Cannot switch from shard " + previous + " to shard " + shard
+                    + " inside a transaction");
+        }
+        CURRENT.set(shard);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+}
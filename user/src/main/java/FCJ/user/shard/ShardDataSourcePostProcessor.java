@@ -0,0 +1,75 @@
+package FCJ.user.shard;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.core.PriorityOrdered;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces the application's data source (shard 0) with a {@link ShardRoutingDataSource} over it and
+ * one pool per {@code user.sharding.shards} entry. Shard pools copy the primary pool's settings. Runs
+ * before the other data source wrappers, so deadlines and tracing apply to every shard.
+ */
+class ShardDataSourcePostProcessor implements BeanPostProcessor, PriorityOrdered, DisposableBean {
+
+    private final ShardingProperties properties;
+    private final List<HikariDataSource> shardPools = new ArrayList<>();
+    private boolean wrapped;
+
+    ShardDataSourcePostProcessor(ShardingProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public synchronized Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource primary) || wrapped) {
+            return bean;
+        }
+        wrapped = true;
+        List<DataSource> shards = new ArrayList<>();
+        shards.add(primary);
+        for (int index = 0; index < properties.getShards().size(); index++) {
+            HikariDataSource pool = new HikariDataSource(config(primary, index + 1, properties.getShards().get(index)));
+            shardPools.add(pool);
+            shards.add(pool);
+        }
+        return new ShardRoutingDataSource(shards);
+    }
+
+    private static HikariConfig config(DataSource primary, int shard, ShardingProperties.ShardDataSource target) {
+        HikariConfig config = new HikariConfig();
+        try {
+            if (primary.isWrapperFor(HikariDataSource.class)) {
+                primary.unwrap(HikariDataSource.class).copyStateTo(config);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Cannot read the primary pool settings", e);
+        }
+        config.setJdbcUrl(target.getUrl());
+        if (target.getUsername() != null) {
+            config.setUsername(target.getUsername());
+        }
+        if (target.getPassword() != null) {
+            config.setPassword(target.getPassword());
+        }
+        config.setPoolName((config.getPoolName() != null ? config.getPoolName() : "user-service-pool") + "-shard-" + shard);
+        return config;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    @Override
+    public void destroy() {
+        shardPools.forEach(HikariDataSource::close);
+    }
+}
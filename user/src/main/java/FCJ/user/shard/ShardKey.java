@@ -0,0 +1,22 @@
+package FCJ.user.shard;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks the repository parameter (a {@code UUID} or a collection of them) that decides which shard a
+ * call goes to. Inherited {@code ...ById} methods and entity arguments are recognized without it;
+ * anything else runs on every shard.
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ShardKey {
+
+    Kind value();
+
+    enum Kind {
+        USER_ID, ID
+    }
+}
@@ -0,0 +1,207 @@
+package FCJ.user.shard;
+
+import FCJ.user.model.ArchivedUserInfo;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Online resharding: moves every row whose user is owned by another shard under the current ring.
+ * Each shard's {@code user_info} and {@code user_info_archive} are scanned in id order, a page of
+ * {@code user.sharding.reshard-batch-size} at a time, while the service keeps serving; reads find
+ * not yet moved users through the previous ring.
+ * <p>
+ * A row is copied to its owner, then deleted from the old shard. If the owner already has a row for
+ * the user (written there since the ring changed, or copied by an interrupted run), that row wins and
+ * the old one is only deleted, so a run can be repeated safely. The old row is read {@code FOR UPDATE}
+ * in a transaction on the old shard that lasts until it is deleted: a concurrent write to it either
+ * commits before it is read, and is copied, or waits and then finds the row gone (a retryable conflict)
+ * instead of being lost.
+ */
+public class ShardRebalancer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardRebalancer.class);
+
+    static final List<String> TABLES = List.of("user_info", "user_info_archive");
+    private static final String ARCHIVE_COLUMNS = ArchivedUserInfo.COLUMNS + ", archived_at";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ShardRouter router;
+    private final TransactionTemplate sourceTransaction;
+    // Steps out of the source transaction, whose connection is bound to the source shard
+    private final TransactionTemplate withoutTransaction;
+    private final int batchSize;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "shard-rebalancer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicLong scanned = new AtomicLong();
+    private final AtomicLong moved = new AtomicLong();
+
+    private volatile Status status = new Status(State.IDLE, null, null, 0, 0, null);
+
+    public ShardRebalancer(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager, ShardRouter router,
+                           ShardingProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.router = router;
+        this.sourceTransaction = new TransactionTemplate(transactionManager);
+        this.withoutTransaction = new TransactionTemplate(transactionManager);
+        this.withoutTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_NOT_SUPPORTED);
+        this.batchSize = properties.getReshardBatchSize();
+    }
+
+    /**
+     * Starts a run in the background.
+     *
+     * @return the new status, or null if a run is already in progress
+     */
+    public synchronized Status start() {
+        if (status.state() == State.RUNNING) {
+            return null;
+        }
+        scanned.set(0);
+        moved.set(0);
+        status = new Status(State.RUNNING, Instant.now(), null, 0, 0, null);
+        executor.execute(this::runQuietly);
+        return status;
+    }
+
+    public Status status() {
+        Status current = status;
+        return current.state() == State.RUNNING
+                ? new Status(State.RUNNING, current.startedAt(), null, scanned.get(), moved.get(), null)
+                : current;
+    }
+
+    private void runQuietly() {
+        Instant startedAt = status.startedAt();
+        try {
+            run();
+            status = new Status(State.DONE, startedAt, Instant.now(), scanned.get(), moved.get(), null);
+            logger.info("Resharding finished in {}: {} rows scanned, {} moved",
+                    Duration.between(startedAt, Instant.now()), scanned.get(), moved.get());
+        } catch (RuntimeException e) {
+            status = new Status(State.FAILED, startedAt, Instant.now(), scanned.get(), moved.get(), e.getMessage());
+            logger.warn("Resharding failed after moving {} rows, start it again to resume: {}", moved.get(), e.getMessage());
+        }
+    }
+
+    /**
+     * Moves every misplaced row.
+     *
+     * @return number of rows moved
+     */
+    public long run() {
+        long before = moved.get();
+        for (String table : TABLES) {
+            for (int shard : router.allShards()) {
+                try {
+                    rebalance(table, shard);
+                } catch (BadSqlGrammarException e) {
+                    if (!table.equals("user_info_archive")) {
+                        throw e;
+                    }
+                    // No archive table (archival schema disabled)
+                }
+            }
+        }
+        return moved.get() - before;
+    }
+
+    private void rebalance(String table, int source) {
+        String page = "SELECT id, user_id FROM " + table + " WHERE id > ? ORDER BY id LIMIT ?";
+        UUID after = new UUID(0L, 0L);
+        while (true) {
+            UUID cursor = after;
+            List<UUID[]> rows = router.onShard(source, () -> jdbcTemplate.query(page,
+                    (rs, rowNum) -> new UUID[]{rs.getObject("id", UUID.class), rs.getObject("user_id", UUID.class)},
+                    cursor, batchSize));
+            for (UUID[] row : rows) {
+                int owner = router.ownerOf(row[1]);
+                if (owner != source) {
+                    move(table, row[0], row[1], source, owner);
+                }
+            }
+            scanned.addAndGet(rows.size());
+            if (rows.size() < batchSize) {
+                return;
+            }
+            after = rows.getLast()[0];
+        }
+    }
+
+    private void move(String table, UUID id, UUID userId, int source, int target) {
+        boolean archive = !table.equals("user_info");
+        String columns = archive ? ARCHIVE_COLUMNS : ArchivedUserInfo.COLUMNS;
+        Boolean wasMoved = router.onShard(source, () -> sourceTransaction.execute(status -> {
+            List<Map<String, Object>> found = jdbcTemplate.queryForList(
+                    "SELECT " + columns + " FROM " + table + " WHERE id = ? FOR UPDATE", id);
+            if (found.isEmpty()) {
+                return false;
+            }
+            Map<String, Object> row = found.getFirst();
+            withoutTransaction.executeWithoutResult(suspended -> router.onShard(target, () -> {
+                copy(table, columns, row, id, userId);
+                return null;
+            }));
+            jdbcTemplate.update("DELETE FROM " + table + " WHERE id = ?", id);
+            return true;
+        }));
+        if (Boolean.TRUE.equals(wasMoved)) {
+            moved.incrementAndGet();
+        }
+    }
+
+    private void copy(String table, String columns, Map<String, Object> row, UUID id, UUID userId) {
+        Object[] values = row.values().toArray();
+        // user_id is unique among live rows of user_info; tombstones and the archive may hold several rows of a user
+        boolean live = table.equals("user_info") && row.get("deleted_at") == null;
+        Long existing = live
+                ? jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table
+                        + " WHERE id = ? OR (user_id = ? AND deleted_at IS NULL)", Long.class, id, userId)
+                : jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table + " WHERE id = ?", Long.class, id);
+        if (existing == null || existing == 0) {
+            try {
+                jdbcTemplate.update("INSERT INTO " + table + " (" + columns + ") VALUES ("
+                        + String.join(", ", Arrays.stream(values).map(value -> "?").toList()) + ")", values);
+            } catch (DuplicateKeyException e) {
+                // Written concurrently; that row wins
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public enum State {
+        IDLE, RUNNING, DONE, FAILED
+    }
+
+    public record Status(State state, Instant startedAt, Instant finishedAt, long scanned, long moved, String error) {
+    }
+}
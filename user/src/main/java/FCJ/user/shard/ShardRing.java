@@ -0,0 +1,41 @@
+package FCJ.user.shard;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Consistent hash ring: each shard owns {@code virtualNodes} points and a slot belongs to the next
+ * point clockwise of its hash. Adding a shard only moves the slots the new points take over, about
+ * 1/n of them, all from existing shards to the new one.
+ */
+public final class ShardRing {
+
+    private final List<Integer> shards;
+    private final int[] owners = new int[ShardedIds.SLOTS];
+
+    public ShardRing(List<Integer> shards, int virtualNodes) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("A shard ring needs at least one shard");
+        }
+        this.shards = List.copyOf(shards);
+        TreeMap<Long, Integer> points = new TreeMap<>();
+        for (int shard : shards) {
+            for (int node = 0; node < virtualNodes; node++) {
+                points.put(ShardedIds.mix(((long) shard << 32) | node), shard);
+            }
+        }
+        for (int slot = 0; slot < owners.length; slot++) {
+            Map.Entry<Long, Integer> point = points.ceilingEntry(ShardedIds.mix(0x5107L << 32 | slot));
+            owners[slot] = (point != null ? point : points.firstEntry()).getValue();
+        }
+    }
+
+    public int ownerOfSlot(int slot) {
+        return owners[slot];
+    }
+
+    public List<Integer> shards() {
+        return shards;
+    }
+}
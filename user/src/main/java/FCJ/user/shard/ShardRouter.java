@@ -0,0 +1,111 @@
+package FCJ.user.shard;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * Where a user's rows live. {@link #ownerOf} is where they are written; while resharding, reads that
+ * miss there fall back to the owner under the previous ring ({@link #candidatesForUserId}).
+ * Without sharding there is one shard, 0, and every method answers accordingly.
+ */
+public class ShardRouter {
+
+    private final int shardCount;
+    private final ShardRing ring;
+    private final ShardRing previousRing;
+
+    public ShardRouter(int shardCount, ShardRing ring, ShardRing previousRing) {
+        this.shardCount = shardCount;
+        this.ring = ring;
+        this.previousRing = previousRing;
+        for (ShardRing configured : previousRing == null ? List.of(ring) : List.of(ring, previousRing)) {
+            for (int shard : configured.shards()) {
+                if (shard < 0 || shard >= shardCount) {
+                    throw new IllegalArgumentException("Shard " + shard + " is on the ring but only "
+                            + shardCount + " shards are configured");
+                }
+            }
+        }
+    }
+
+    public static ShardRouter single() {
+        return new ShardRouter(1, new ShardRing(List.of(0), 1), null);
+    }
+
+    public static ShardRouter of(ShardingProperties properties) {
+        int shardCount = properties.getShards().size() + 1;
+        List<Integer> ring = properties.getRing().isEmpty()
+                ? IntStream.range(0, shardCount).boxed().toList() : properties.getRing();
+        ShardRing previous = properties.getPreviousRing().isEmpty()
+                ? null : new ShardRing(properties.getPreviousRing(), properties.getVirtualNodes());
+        return new ShardRouter(shardCount, new ShardRing(ring, properties.getVirtualNodes()), previous);
+    }
+
+    public boolean isSharded() {
+        return shardCount > 1;
+    }
+
+    public int shardCount() {
+        return shardCount;
+    }
+
+    public boolean isResharding() {
+        return previousRing != null;
+    }
+
+    public int ownerOf(UUID userId) {
+        return ring.ownerOfSlot(ShardedIds.slot(userId));
+    }
+
+    /**
+     * The owner, then the previous owner if resharding moved the user.
+     */
+    public List<Integer> candidatesForUserId(UUID userId) {
+        return candidatesForSlot(ShardedIds.slot(userId));
+    }
+
+    /**
+     * Like {@link #candidatesForUserId} for ids that carry a slot; every shard for older ids.
+     */
+    public List<Integer> candidatesForId(UUID id) {
+        int slot = ShardedIds.slotOf(id);
+        return slot < 0 ? allShards() : candidatesForSlot(slot);
+    }
+
+    private List<Integer> candidatesForSlot(int slot) {
+        int owner = ring.ownerOfSlot(slot);
+        if (previousRing == null || previousRing.ownerOfSlot(slot) == owner) {
+            return List.of(owner);
+        }
+        return List.of(owner, previousRing.ownerOfSlot(slot));
+    }
+
+    public List<Integer> allShards() {
+        List<Integer> shards = new ArrayList<>(shardCount);
+        for (int shard = 0; shard < shardCount; shard++) {
+            shards.add(shard);
+        }
+        return shards;
+    }
+
+    /**
+     * Runs {@code action} with JDBC connections coming from {@code shard}.
+     */
+    public <T> T onShard(int shard, Supplier<T> action) {
+        return ShardContext.callOn(shard, action);
+    }
+
+    public void forEachShard(IntConsumer action) {
+        for (int shard = 0; shard < shardCount; shard++) {
+            int current = shard;
+            onShard(shard, () -> {
+                action.accept(current);
+                return null;
+            });
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package FCJ.user.shard;
+
+import FCJ.user.model.UserInfo;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.ProxyMethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.repository.CrudRepository;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Sends each repository call to the shard(s) that hold its rows:
+ * <ul>
+ *     <li>by {@code userId} or id: the owner, then (while resharding, or for ids without a slot)
+ *     the other candidates until one finds something</li>
+ *     <li>collections of keys: one call per shard with that shard's keys, results concatenated</li>
+ *     <li>entities: writes go to the owner of their {@code userId}, or while resharding to the shard
+ *     that still holds the row</li>
+ *     <li>anything else (search, export): every shard, results combined (scatter-gather)</li>
+ * </ul>
+ * Calls made while a shard is already bound, such as the queries inside a default method, stay on it.
+ */
+class ShardRoutingInterceptor implements MethodInterceptor {
+
+    private static final Set<String> ID_METHODS = Set.of("findById", "existsById", "deleteById",
+            "getReferenceById", "getById", "getOne", "findAllById", "deleteAllById", "deleteAllByIdInBatch");
+
+    private final ObjectProvider<ShardRouter> routerProvider;
+    private final Map<Method, Key> keys = new ConcurrentHashMap<>();
+    private volatile ShardRouter router;
+
+    ShardRoutingInterceptor(ObjectProvider<ShardRouter> routerProvider) {
+        this.routerProvider = routerProvider;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        if (ShardContext.current() != null) {
+            return invocation.proceed();
+        }
+        if (router == null) {
+            router = routerProvider.getObject();
+        }
+        Object[] args = invocation.getArguments();
+        Key key = keys.computeIfAbsent(invocation.getMethod(), ShardRoutingInterceptor::keyOf);
+        if (key != null) {
+            Object value = args[key.index()];
+            if (value instanceof Collection<?> values) {
+                return grouped(invocation, key, values);
+            }
+            UUID uuid = (UUID) value;
+            return firstFound(invocation, key.kind() == ShardKey.Kind.ID
+                    ? router.candidatesForId(uuid) : router.candidatesForUserId(uuid));
+        }
+        if (args.length > 0 && args[0] instanceof UserInfo entity) {
+            if (invocation.getMethod().getName().startsWith("delete")) {
+                return forEach(invocation, router.candidatesForUserId(entity.getUserId()));
+            }
+            return proceedOn(holderOf(invocation, entity), invocation, args);
+        }
+        if (args.length > 0 && args[0] instanceof Iterable<?> entities) {
+            return byOwner(invocation, entities);
+        }
+        return scatter(invocation);
+    }
+
+    private static Key keyOf(Method method) {
+        Annotation[][] annotations = method.getParameterAnnotations();
+        for (int index = 0; index < annotations.length; index++) {
+            for (Annotation annotation : annotations[index]) {
+                if (annotation instanceof ShardKey shardKey) {
+                    return new Key(index, shardKey.value());
+                }
+            }
+        }
+        return ID_METHODS.contains(method.getName()) ? new Key(0, ShardKey.Kind.ID) : null;
+    }
+
+    private Object firstFound(MethodInvocation invocation, List<Integer> candidates) throws Throwable {
+        Object result = null;
+        for (int shard : candidates) {
+            result = proceedOn(shard, invocation, invocation.getArguments());
+            if (found(result)) {
+                return result;
+            }
+        }
+        return result;
+    }
+
+    private Object forEach(MethodInvocation invocation, List<Integer> shards) throws Throwable {
+        Object result = null;
+        for (int shard : shards) {
+            result = proceedOn(shard, invocation, invocation.getArguments());
+        }
+        return result;
+    }
+
+    // Each round asks every key's next candidate shard, for the keys no earlier round found
+    private Object grouped(MethodInvocation invocation, Key key, Collection<?> values) throws Throwable {
+        Function<UUID, List<Integer>> candidates = key.kind() == ShardKey.Kind.ID
+                ? router::candidatesForId : router::candidatesForUserId;
+        Function<UserInfo, UUID> keyOfRow = key.kind() == ShardKey.Kind.ID ? UserInfo::getId : UserInfo::getUserId;
+        List<Object> results = new ArrayList<>();
+        Set<UUID> remaining = new HashSet<>();
+        values.forEach(value -> remaining.add((UUID) value));
+        for (int round = 0; !remaining.isEmpty(); round++) {
+            Map<Integer, List<UUID>> byShard = new LinkedHashMap<>();
+            for (UUID value : remaining) {
+                List<Integer> shards = candidates.apply(value);
+                if (round < shards.size()) {
+                    byShard.computeIfAbsent(shards.get(round), shard -> new ArrayList<>()).add(value);
+                }
+            }
+            if (byShard.isEmpty()) {
+                break;
+            }
+            for (Map.Entry<Integer, List<UUID>> entry : byShard.entrySet()) {
+                Object[] args = invocation.getArguments().clone();
+                args[key.index()] = entry.getValue();
+                for (Object row : (Iterable<?>) proceedOn(entry.getKey(), invocation, args)) {
+                    results.add(row);
+                    if (row instanceof UserInfo userInfo) {
+                        remaining.remove(keyOfRow.apply(userInfo));
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    private Object byOwner(MethodInvocation invocation, Iterable<?> entities) throws Throwable {
+        Map<Integer, List<Object>> byShard = new LinkedHashMap<>();
+        for (Object entity : entities) {
+            if (!(entity instanceof UserInfo userInfo)) {
+                return scatter(invocation);
+            }
+            byShard.computeIfAbsent(holderOf(invocation, userInfo), shard -> new ArrayList<>()).add(entity);
+        }
+        List<Object> results = new ArrayList<>();
+        for (Map.Entry<Integer, List<Object>> entry : byShard.entrySet()) {
+            Object[] args = invocation.getArguments().clone();
+            args[0] = entry.getValue();
+            if (proceedOn(entry.getKey(), invocation, args) instanceof Iterable<?> saved) {
+                saved.forEach(results::add);
+            }
+        }
+        return invocation.getMethod().getReturnType() == void.class ? null : results;
+    }
+
+    // New entities go to the owner. While resharding an existing one is written where its row still is:
+    // merging it into a shard without the row would fail
+    @SuppressWarnings("unchecked")
+    private int holderOf(MethodInvocation invocation, UserInfo entity) {
+        List<Integer> candidates = router.candidatesForUserId(entity.getUserId());
+        if (entity.getId() == null || candidates.size() == 1) {
+            return candidates.getFirst();
+        }
+        CrudRepository<UserInfo, UUID> repository = (CrudRepository<UserInfo, UUID>) invocation.getThis();
+        for (int shard : candidates) {
+            if (router.onShard(shard, () -> repository.existsById(entity.getId()))) {
+                return shard;
+            }
+        }
+        return candidates.getFirst();
+    }
+
+    private Object scatter(MethodInvocation invocation) throws Throwable {
+        Class<?> type = invocation.getMethod().getReturnType();
+        boolean list = type == List.class || type == Collection.class || type == Iterable.class;
+        boolean combinable = list || type == Optional.class || type == void.class || type == boolean.class
+                || type == Boolean.class || type == long.class || type == Long.class;
+        if (!combinable) {
+            throw new UnsupportedOperationException(invocation.getMethod().getName()
+                    + " returns " + type.getSimpleName() + ", which cannot be combined across shards");
+        }
+        List<Object> rows = new ArrayList<>();
+        Object combined = null;
+        for (int shard : router.allShards()) {
+            Object result = proceedOn(shard, invocation, invocation.getArguments());
+            if (list) {
+                ((Iterable<?>) result).forEach(rows::add);
+            } else if (result instanceof Optional<?> optional) {
+                if (optional.isPresent()) {
+                    return optional;
+                }
+                combined = optional;
+            } else if (result instanceof Boolean flag) {
+                if (flag) {
+                    return true;
+                }
+                combined = false;
+            } else if (result instanceof Long count) {
+                combined = (combined == null ? 0L : (Long) combined) + count;
+            }
+        }
+        return list ? rows : combined;
+    }
+
+    private static boolean found(Object result) {
+        return switch (result) {
+            case null -> false;
+            case Optional<?> optional -> optional.isPresent();
+            case Boolean flag -> flag;
+            case Number number -> number.longValue() != 0;
+            case Collection<?> collection -> !collection.isEmpty();
+            default -> true;
+        };
+    }
+
+    private Object proceedOn(int shard, MethodInvocation invocation, Object[] args) throws Throwable {
+        Throwable[] failure = new Throwable[1];
+        Object result = router.onShard(shard, () -> {
+            try {
+                return ((ProxyMethodInvocation) invocation).invocableClone(args).proceed();
+            } catch (Throwable t) {
+                failure[0] = t;
+                return null;
+            }
+        });
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+        return result;
+    }
+
+    private record Key(int index, ShardKey.Kind kind) {
+    }
+}
@@ -0,0 +1,20 @@
+package FCJ.user.shard;
+
+import FCJ.user.repository.UserInfoRepository;
+import org.springframework.aop.framework.autoproxy.AbstractBeanFactoryAwareAdvisingPostProcessor;
+import org.springframework.aop.support.ComposablePointcut;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * Puts {@link ShardRoutingInterceptor} in front of the {@link UserInfoRepository} proxy's own advice,
+ * so the shard is chosen before the repository's transaction takes a connection.
+ */
+class ShardRoutingPostProcessor extends AbstractBeanFactoryAwareAdvisingPostProcessor {
+
+    ShardRoutingPostProcessor(ObjectProvider<ShardRouter> router) {
+        this.advisor = new DefaultPointcutAdvisor(new ComposablePointcut(UserInfoRepository.class::isAssignableFrom),
+                new ShardRoutingInterceptor(router));
+        setBeforeExistingAdvisors(true);
+    }
+}
@@ -0,0 +1,38 @@
+package FCJ.user.shard;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.hibernate.tool.schema.spi.SchemaManagementToolCoordinator;
+
+/**
+ * Hibernate only manages the schema of the data source's default target, shard 0. This applies the
+ * same {@code ddl-auto} action to the other shards while the session factory is being built, so
+ * nothing can query them first. Drops on shutdown ({@code create-drop}) stay on shard 0.
+ */
+class ShardSchemaIntegrator implements Integrator {
+
+    private final ShardRouter router;
+
+    ShardSchemaIntegrator(ShardRouter router) {
+        this.router = router;
+    }
+
+    @Override
+    public void integrate(Metadata metadata, BootstrapContext bootstrapContext, SessionFactoryImplementor sessionFactory) {
+        for (int shard = 1; shard < router.shardCount(); shard++) {
+            router.onShard(shard, () -> {
+                SchemaManagementToolCoordinator.process(metadata, sessionFactory.getServiceRegistry(),
+                        sessionFactory.getProperties(), action -> {
+                        });
+                return null;
+            });
+        }
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+    }
+}
@@ -0,0 +1,17 @@
+package FCJ.user.shard;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Generates the id of a new profile with {@link ShardedIds#newId}, so it carries its user's slot.
+ */
+@IdGeneratorType(ShardedIdGenerator.class)
+@Target({ElementType.FIELD, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ShardedId {
+}
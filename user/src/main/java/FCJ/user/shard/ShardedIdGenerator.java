@@ -0,0 +1,24 @@
+package FCJ.user.shard;
+
+import FCJ.user.model.UserInfo;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+
+import java.util.EnumSet;
+import java.util.UUID;
+
+class ShardedIdGenerator implements BeforeExecutionGenerator {
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue, EventType eventType) {
+        UUID userId = owner instanceof UserInfo userInfo ? userInfo.getUserId() : null;
+        return userId == null ? UUID.randomUUID() : ShardedIds.newId(userId);
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+}
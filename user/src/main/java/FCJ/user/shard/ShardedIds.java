@@ -0,0 +1,49 @@
+package FCJ.user.shard;
+
+import java.util.UUID;
+
+/**
+ * Placement keys. A user's <em>slot</em> (0..65535) is a hash of their {@code userId}; the
+ * {@link ShardRing} maps slots to shards. Generated profile ids are version 8 UUIDs that carry the
+ * slot in their low 16 bits, so a lookup by id finds the owning shard without knowing the user.
+ * Ids generated before that (version 4) carry no slot.
+ */
+public final class ShardedIds {
+
+    public static final int SLOTS = 1 << 16;
+    private static final int VERSION = 8;
+
+    private ShardedIds() {
+    }
+
+    public static int slot(UUID userId) {
+        return (int) (mix(userId.getMostSignificantBits() ^ Long.rotateLeft(userId.getLeastSignificantBits(), 32)) >>> 48);
+    }
+
+    /**
+     * A random id carrying {@code userId}'s slot.
+     */
+    public static UUID newId(UUID userId) {
+        UUID random = UUID.randomUUID();
+        long msb = (random.getMostSignificantBits() & ~0xF000L) | ((long) VERSION << 12);
+        long lsb = (random.getLeastSignificantBits() & ~0xFFFFL) | slot(userId);
+        return new UUID(msb, lsb);
+    }
+
+    /**
+     * @return the slot carried by {@code id}, or -1 for ids generated without one
+     */
+    public static int slotOf(UUID id) {
+        return id.version() == VERSION ? (int) (id.getLeastSignificantBits() & 0xFFFF) : -1;
+    }
+
+    // MurmurHash3 fmix64
+    static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
@@ -0,0 +1,76 @@
+package FCJ.user.shard;
+
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+/**
+ * Horizontal sharding of {@code user_info} by {@code userId} ({@code user.sharding.enabled}). Without
+ * it, {@link ShardRouter#single()} keeps the shard-aware components on the one database.
+ */
+@Configuration
+@Profile("!in-memory")
+@EnableConfigurationProperties(ShardingProperties.class)
+public class ShardingConfig {
+
+    @Bean
+    public ShardRouter shardRouter(ShardingProperties properties, Environment environment) {
+        if (!properties.isEnabled()) {
+            return ShardRouter.single();
+        }
+        if (environment.getProperty("user.r2dbc.enabled", Boolean.class, false)) {
+            throw new IllegalStateException("user.r2dbc.enabled reads a single database and cannot be combined with user.sharding");
+        }
+        if (environment.getProperty("spring.jpa.open-in-view", Boolean.class, true)) {
+            // The request-scoped EntityManager would hold the first shard's connection for every later call
+            throw new IllegalStateException("user.sharding requires spring.jpa.open-in-view=false");
+        }
+        return ShardRouter.of(properties);
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnProperty(prefix = ShardingProperties.PREFIX, name = "enabled", havingValue = "true")
+    static class Sharded {
+
+        // Static: post-processors are created before the other beans of this class can be, and before
+        // configuration properties are bound, hence the Binder
+        @Bean
+        static ShardDataSourcePostProcessor shardDataSourcePostProcessor(Environment environment) {
+            return new ShardDataSourcePostProcessor(Binder.get(environment)
+                    .bindOrCreate(ShardingProperties.PREFIX, ShardingProperties.class));
+        }
+
+        @Bean
+        static ShardRoutingPostProcessor shardRoutingPostProcessor(ObjectProvider<ShardRouter> router) {
+            return new ShardRoutingPostProcessor(router);
+        }
+
+        @Bean
+        HibernatePropertiesCustomizer shardSchemaCustomizer(ShardRouter router) {
+            ShardSchemaIntegrator integrator = new ShardSchemaIntegrator(router);
+            return properties -> properties.put("hibernate.integrator_provider", (IntegratorProvider) () -> List.of(integrator));
+        }
+
+        @Bean
+        public ShardRebalancer shardRebalancer(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                               ShardRouter router, ShardingProperties properties) {
+            return new ShardRebalancer(jdbcTemplate, transactionManager, router, properties);
+        }
+
+        @Bean
+        public ReshardingEndpoint reshardingEndpoint(ShardRebalancer shardRebalancer) {
+            return new ReshardingEndpoint(shardRebalancer);
+        }
+    }
+}
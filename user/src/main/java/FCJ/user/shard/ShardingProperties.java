@@ -0,0 +1,41 @@
+package FCJ.user.shard;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = ShardingProperties.PREFIX)
+public class ShardingProperties {
+
+    static final String PREFIX = "user.sharding";
+
+    private boolean enabled = false;
+
+    // Shards 1..n; shard 0 is spring.datasource. Only ever append: ids and ring positions refer to the index
+    private List<ShardDataSource> shards = new ArrayList<>();
+
+    // Shards that own users (by consistent hash of userId); empty means all of them
+    private List<Integer> ring = new ArrayList<>();
+
+    // Set while resharding: the ring before the change. Reads that miss on the new owner fall back to the old one
+    private List<Integer> previousRing = new ArrayList<>();
+
+    // Points per shard on the hash ring; more points, more even spread
+    private int virtualNodes = 256;
+
+    // Rows read per page when moving users to their new shard
+    private int reshardBatchSize = 500;
+
+    @Getter
+    @Setter
+    public static class ShardDataSource {
+        private String url;
+        private String username;
+        private String password;
+    }
+}
@@ -0,0 +1,29 @@
+package FCJ.user.stats;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Process-local aggregates for the {@code in-memory} profile, seeded from the restored store at startup.
+ */
+@Component
+@Profile("in-memory")
+public class InMemoryMembershipStatisticsStore implements MembershipStatisticsStore {
+
+    private final Map<MembershipSegment, SegmentTotals> totals = new LinkedHashMap<>();
+
+    @Override
+    public synchronized List<SegmentTotals> apply(Collection<SegmentTotals> deltas) {
+        for (SegmentTotals delta : deltas) {
+            totals.merge(delta.segment(), delta, (current, added) ->
+                    new SegmentTotals(current.segment(), current.users() + added.users(), current.revenue() + added.revenue()));
+        }
+        return new ArrayList<>(totals.values());
+    }
+}
@@ -0,0 +1,178 @@
+package FCJ.user.stats;
+
+import FCJ.user.shard.ShardRouter;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the aggregates in {@code user_membership_stats}, one row per segment, shared by all
+ * instances: each one adds its own deltas ({@code user_count = user_count + ?}), so the table is the
+ * sum of every instance's writes.
+ * <p>
+ * The table is created on first use. While it is empty it is seeded by a single grouped scan of the
+ * non-deleted profiles in {@code user_info} and {@code user_info_archive}; archived profiles are still
+ * counted, so the archiver moving rows between the two tables does not change the aggregates.
+ * The seeded rows carry the instant the scan started ({@code seeded_at}); deltas recorded before it
+ * are of writes the scan counted and are dropped by {@link MembershipStatistics}, on every instance.
+ * <p>
+ * With sharding the table lives on shard 0; the seed groups each shard's profiles and inserts the
+ * sums there.
+ */
+@Component
+@Profile("!in-memory")
+public class JdbcMembershipStatisticsStore implements MembershipStatisticsStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(JdbcMembershipStatisticsStore.class);
+
+    static final String CREATE_TABLE = "CREATE TABLE IF NOT EXISTS user_membership_stats ("
+            + "subscription_tier varchar(64) NOT NULL, "
+            + "subscription_status varchar(64) NOT NULL, "
+            + "user_count bigint NOT NULL, "
+            + "revenue_total double precision NOT NULL, "
+            + "updated_at timestamp(6) with time zone NOT NULL, "
+            + "seeded_at timestamp(6) with time zone, "
+            + "PRIMARY KEY (subscription_tier, subscription_status))";
+    // For tables created without the column; their rows read as seeded before any delta was recorded
+    static final String ADD_SEEDED_AT = "ALTER TABLE user_membership_stats "
+            + "ADD COLUMN IF NOT EXISTS seeded_at timestamp(6) with time zone";
+    static final String SELECT_SEEDED_AT = "SELECT MIN(seeded_at) FROM user_membership_stats";
+    static final String SELECT_ALL = "SELECT subscription_tier, subscription_status, user_count, revenue_total "
+            + "FROM user_membership_stats ORDER BY subscription_tier, subscription_status";
+    static final String UPDATE = "UPDATE user_membership_stats "
+            + "SET user_count = user_count + ?, revenue_total = revenue_total + ?, updated_at = ? "
+            + "WHERE subscription_tier = ? AND subscription_status = ?";
+    static final String INSERT = "INSERT INTO user_membership_stats "
+            + "(subscription_tier, subscription_status, user_count, revenue_total, updated_at) VALUES (?, ?, ?, ?, ?)";
+    private static final String INSERT_SEEDED = "INSERT INTO user_membership_stats "
+            + "(subscription_tier, subscription_status, user_count, revenue_total, updated_at, seeded_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String PROFILES = "SELECT COALESCE(subscription_tier, '" + MembershipSegment.NONE + "') AS tier, "
+            + "COALESCE(subscription_status, '" + MembershipSegment.NONE + "') AS status, last_payment_amount "
+            + "FROM %s WHERE deleted_at IS NULL";
+    private static final String SEED = "INSERT INTO user_membership_stats "
+            + "(subscription_tier, subscription_status, user_count, revenue_total, updated_at, seeded_at) "
+            + "SELECT tier, status, COUNT(*), COALESCE(SUM(last_payment_amount), 0), ?, ? FROM (%s) profiles "
+            + "GROUP BY tier, status";
+    static final String SEED_WITH_ARCHIVE = SEED.formatted(
+            PROFILES.formatted("user_info") + " UNION ALL " + PROFILES.formatted("user_info_archive"));
+    static final String SEED_ACTIVE_ONLY = SEED.formatted(PROFILES.formatted("user_info"));
+    private static final String COUNT = "SELECT tier, status, COUNT(*) AS users, "
+            + "COALESCE(SUM(last_payment_amount), 0) AS revenue FROM (%s) profiles GROUP BY tier, status";
+    static final String COUNT_WITH_ARCHIVE = COUNT.formatted(
+            PROFILES.formatted("user_info") + " UNION ALL " + PROFILES.formatted("user_info_archive"));
+    static final String COUNT_ACTIVE_ONLY = COUNT.formatted(PROFILES.formatted("user_info"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter router;
+    private volatile Instant seededAt;
+
+    public JdbcMembershipStatisticsStore(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                         EntityManagerFactory entityManagerFactory) {
+        this(jdbcTemplate, transactionManager, entityManagerFactory, ShardRouter.single());
+    }
+
+    // The EntityManagerFactory dependency orders the seed scan after any Hibernate schema update
+    @Autowired
+    public JdbcMembershipStatisticsStore(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                         EntityManagerFactory entityManagerFactory, ShardRouter router) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.router = router;
+    }
+
+    @Override
+    public List<SegmentTotals> apply(Collection<SegmentTotals> deltas) {
+        if (seededAt == null) {
+            seed(() -> { });
+        }
+        if (!deltas.isEmpty()) {
+            Timestamp now = Timestamp.from(Instant.now());
+            transactionTemplate.executeWithoutResult(status -> deltas.forEach(delta -> add(delta, now)));
+        }
+        return jdbcTemplate.query(SELECT_ALL, (rs, rowNum) -> new SegmentTotals(
+                new MembershipSegment(rs.getString("subscription_tier"), rs.getString("subscription_status")),
+                rs.getLong("user_count"), rs.getDouble("revenue_total")));
+    }
+
+    private void add(SegmentTotals delta, Timestamp now) {
+        MembershipSegment segment = delta.segment();
+        if (jdbcTemplate.update(UPDATE, delta.users(), delta.revenue(), now, segment.tier(), segment.status()) == 0) {
+            // A concurrent insert of the same segment fails the transaction; the deltas are retried next flush
+            jdbcTemplate.update(INSERT, segment.tier(), segment.status(), delta.users(), delta.revenue(), now);
+        }
+    }
+
+    @Override
+    public synchronized Instant seed(Runnable beforeScan) {
+        if (seededAt != null) {
+            return seededAt;
+        }
+        jdbcTemplate.execute(CREATE_TABLE);
+        jdbcTemplate.execute(ADD_SEEDED_AT);
+        Long rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM user_membership_stats", Long.class);
+        if (rows == null || rows == 0) {
+            beforeScan.run();
+            Timestamp now = Timestamp.from(Instant.now());
+            try {
+                int segments;
+                if (router.isSharded()) {
+                    segments = seedFromShards(now);
+                } else {
+                    try {
+                        segments = jdbcTemplate.update(SEED_WITH_ARCHIVE, now, now);
+                    } catch (BadSqlGrammarException e) {
+                        // No archive table (archival schema disabled)
+                        segments = jdbcTemplate.update(SEED_ACTIVE_ONLY, now, now);
+                    }
+                }
+                logger.info("Seeded membership statistics with {} segments from user_info", segments);
+            } catch (DuplicateKeyException e) {
+                logger.info("Membership statistics already seeded by another instance");
+            }
+        }
+        Timestamp seeded = jdbcTemplate.queryForObject(SELECT_SEEDED_AT, Timestamp.class);
+        seededAt = seeded != null ? seeded.toInstant() : Instant.MIN;
+        return seededAt;
+    }
+
+    private int seedFromShards(Timestamp now) {
+        Map<MembershipSegment, SegmentTotals> totals = new LinkedHashMap<>();
+        router.forEachShard(shard -> {
+            List<SegmentTotals> counted;
+            try {
+                counted = count(COUNT_WITH_ARCHIVE);
+            } catch (BadSqlGrammarException e) {
+                counted = count(COUNT_ACTIVE_ONLY);
+            }
+            counted.forEach(segment -> totals.merge(segment.segment(), segment, (a, b) ->
+                    new SegmentTotals(a.segment(), a.users() + b.users(), a.revenue() + b.revenue())));
+        });
+        transactionTemplate.executeWithoutResult(status -> totals.values().forEach(segment ->
+                jdbcTemplate.update(INSERT_SEEDED, segment.segment().tier(), segment.segment().status(),
+                        segment.users(), segment.revenue(), now, now)));
+        return totals.size();
+    }
+
+    private List<SegmentTotals> count(String sql) {
+        return jdbcTemplate.query(sql, (rs, rowNum) -> new SegmentTotals(
+                new MembershipSegment(rs.getString("tier"), rs.getString("status")),
+                rs.getLong("users"), rs.getDouble("revenue")));
+    }
+}
@@ -0,0 +1,14 @@
+package FCJ.user.stats;
+
+/**
+ * A {@code subscriptionTier} x {@code subscriptionStatus} cell of the membership statistics. Profiles
+ * without a tier or status are counted under {@link #NONE}.
+ */
+public record MembershipSegment(String tier, String status) {
+
+    public static final String NONE = "NONE";
+
+    public static MembershipSegment of(String tier, String status) {
+        return new MembershipSegment(tier != null ? tier : NONE, status != null ? status : NONE);
+    }
+}
@@ -0,0 +1,22 @@
+package FCJ.user.stats;
+
+import FCJ.user.dto.UserInfoDTO;
+import FCJ.user.model.UserInfo;
+
+/**
+ * The fields of a profile that the membership statistics aggregate, captured before and after a write.
+ */
+public record MembershipState(MembershipSegment segment, double lastPaymentAmount) {
+
+    public static MembershipState of(UserInfo userInfo) {
+        return of(userInfo.getSubscriptionTier(), userInfo.getSubscriptionStatus(), userInfo.getLastPaymentAmount());
+    }
+
+    public static MembershipState of(UserInfoDTO userInfo) {
+        return of(userInfo.getSubscriptionTier(), userInfo.getSubscriptionStatus(), userInfo.getLastPaymentAmount());
+    }
+
+    private static MembershipState of(String tier, String status, Double lastPaymentAmount) {
+        return new MembershipState(MembershipSegment.of(tier, status), lastPaymentAmount != null ? lastPaymentAmount : 0);
+    }
+}
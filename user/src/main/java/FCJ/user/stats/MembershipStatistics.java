@@ -0,0 +1,173 @@
+package FCJ.user.stats;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Membership statistics (profiles and {@code lastPaymentAmount} revenue per tier x status) maintained
+ * incrementally instead of by scanning {@code user_info}.
+ * <p>
+ * Every create, update, patch and delete reports the profile's membership state before and after
+ * the write. The difference goes into per-segment {@link LongAdder}/{@link DoubleAdder} cells, so
+ * concurrent writers do not contend. Every {@code user.stats.flush-interval} the accumulated deltas
+ * are added to the {@link MembershipStatisticsStore} in one transaction and the resulting totals
+ * become the published {@link #snapshot()}, which reads in constant time. Deltas of a failed flush
+ * are put back and retried. Writes made on other instances show up after their next flush. The first
+ * flush (which seeds the store) runs as an application runner, before the application reports ready
+ * but not during context refresh, so an AOT training run does not reach the database.
+ * <p>
+ * The seed counts every write committed before it reads the profiles, so deltas recorded before that
+ * must not be added on top. An instance that seeds drops its pending deltas right before the scan.
+ * One that finds the store seeded after it started recording drops the deltas pending at that point;
+ * as every instance flushes before it reports ready, those are normally of writes from before the
+ * seed. A write committed between the drop and the start of the scan is still counted twice.
+ */
+@Component
+public class MembershipStatistics implements MeterBinder, ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(MembershipStatistics.class);
+
+    private final MembershipStatisticsStore store;
+    private final Clock clock;
+    private final Map<MembershipSegment, Delta> pending = new ConcurrentHashMap<>();
+    private final Object flushLock = new Object();
+    private final Instant recordingSince;
+    private boolean seeded;
+    private volatile MembershipStatisticsSnapshot snapshot = MembershipStatisticsSnapshot.EMPTY;
+
+    @Autowired
+    public MembershipStatistics(MembershipStatisticsStore store) {
+        this(store, Clock.systemUTC());
+    }
+
+    MembershipStatistics(MembershipStatisticsStore store, Clock clock) {
+        this.store = store;
+        this.clock = clock;
+        this.recordingSince = clock.instant();
+    }
+
+    /**
+     * Records a committed write. {@code before} is null for a new profile, {@code after} for a
+     * deleted one.
+     */
+    public void recordChange(MembershipState before, MembershipState after) {
+        if (before != null && before.equals(after)) {
+            return;
+        }
+        if (before != null) {
+            Delta delta = pending.computeIfAbsent(before.segment(), segment -> new Delta());
+            delta.users.decrement();
+            delta.revenue.add(-before.lastPaymentAmount());
+        }
+        if (after != null) {
+            Delta delta = pending.computeIfAbsent(after.segment(), segment -> new Delta());
+            delta.users.increment();
+            delta.revenue.add(after.lastPaymentAmount());
+        }
+    }
+
+    public MembershipStatisticsSnapshot snapshot() {
+        return snapshot;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        flush();
+    }
+
+    /**
+     * Adds the pending deltas to the store and publishes the new totals.
+     *
+     * @return whether the store accepted them
+     */
+    @Scheduled(initialDelayString = "${user.stats.flush-interval:10s}", fixedDelayString = "${user.stats.flush-interval:10s}")
+    public boolean flush() {
+        synchronized (flushLock) {
+            if (!seeded && !seed()) {
+                return false;
+            }
+            List<SegmentTotals> deltas = drain();
+            try {
+                snapshot = MembershipStatisticsSnapshot.of(store.apply(deltas), clock.instant());
+                return true;
+            } catch (RuntimeException e) {
+                logger.warn("Membership statistics flush of {} segments failed, will retry: {}", deltas.size(), e.getMessage());
+                for (SegmentTotals delta : deltas) {
+                    Delta cell = pending.computeIfAbsent(delta.segment(), segment -> new Delta());
+                    cell.users.add(delta.users());
+                    cell.revenue.add(delta.revenue());
+                }
+                return false;
+            }
+        }
+    }
+
+    private boolean seed() {
+        boolean[] dropped = {false};
+        try {
+            Instant seededAt = store.seed(() -> {
+                dropped[0] = true;
+                drain();
+            });
+            if (!dropped[0] && seededAt.isAfter(recordingSince)) {
+                // Seeded by another instance while this one was recording; its scan saw those writes
+                List<SegmentTotals> counted = drain();
+                logger.info("Dropped {} membership statistics deltas recorded before the seed at {}", counted.size(), seededAt);
+            }
+            seeded = true;
+            return true;
+        } catch (RuntimeException e) {
+            logger.warn("Membership statistics seed failed, will retry: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private List<SegmentTotals> drain() {
+        List<SegmentTotals> deltas = new ArrayList<>();
+        pending.forEach((segment, delta) -> {
+            long users = delta.users.sumThenReset();
+            double revenue = delta.revenue.sumThenReset();
+            if (users != 0 || revenue != 0) {
+                deltas.add(new SegmentTotals(segment, users, revenue));
+            }
+        });
+        return deltas;
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        if (!pending.isEmpty()) {
+            flush();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("user.membership.profiles", this, statistics -> statistics.snapshot.totalUsers())
+                .description("Non-deleted profiles as of the last membership statistics flush")
+                .register(registry);
+    }
+
+    private static final class Delta {
+        private final LongAdder users = new LongAdder();
+        private final DoubleAdder revenue = new DoubleAdder();
+    }
+}
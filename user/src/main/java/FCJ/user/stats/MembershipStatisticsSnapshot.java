@@ -0,0 +1,23 @@
+package FCJ.user.stats;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Aggregates as of the last flush; {@code asOf} is null until the first flush has completed.
+ */
+public record MembershipStatisticsSnapshot(List<SegmentTotals> segments, long totalUsers, double totalRevenue,
+                                           Instant asOf) {
+
+    static final MembershipStatisticsSnapshot EMPTY = new MembershipStatisticsSnapshot(List.of(), 0, 0, null);
+
+    static MembershipStatisticsSnapshot of(List<SegmentTotals> segments, Instant asOf) {
+        long users = 0;
+        double revenue = 0;
+        for (SegmentTotals totals : segments) {
+            users += totals.users();
+            revenue += totals.revenue();
+        }
+        return new MembershipStatisticsSnapshot(List.copyOf(segments), users, revenue, asOf);
+    }
+}
@@ -0,0 +1,27 @@
+package FCJ.user.stats;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Where {@link MembershipStatistics} keeps the aggregates between flushes.
+ */
+public interface MembershipStatisticsStore {
+
+    /**
+     * Adds {@code deltas} to the stored aggregates, all or nothing, and returns every segment
+     * afterwards. An empty collection just reads them.
+     */
+    List<SegmentTotals> apply(Collection<SegmentTotals> deltas);
+
+    /**
+     * Seeds the aggregates from the stored profiles unless that has been done, calling
+     * {@code beforeScan} right before the profiles are read, and returns when they were seeded.
+     * Deltas recorded before that instant are of writes the seed already counted. A store that is
+     * not seeded from anything returns {@link Instant#MIN}.
+     */
+    default Instant seed(Runnable beforeScan) {
+        return Instant.MIN;
+    }
+}
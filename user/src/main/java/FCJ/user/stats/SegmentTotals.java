@@ -0,0 +1,7 @@
+package FCJ.user.stats;
+
+/**
+ * Profiles in a segment and the sum of their {@code lastPaymentAmount}; also used for deltas.
+ */
+public record SegmentTotals(MembershipSegment segment, long users, double revenue) {
+}
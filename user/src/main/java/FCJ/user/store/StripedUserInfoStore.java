@@ -0,0 +1,206 @@
+package FCJ.user.store;
+
+import FCJ.user.dto.UserInfoDTO;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * In-memory UserInfo table with a primary-key map and a unique {@code userId} index.
+ * <p>
+ * Reads are lock-free map lookups. Writes take the lock of the stripe owning the record's
+ * {@code userId}, so both maps change together and writes for different users rarely contend.
+ * Stored records are never mutated after publication; every write installs a fresh copy and every
+ * read hands out a copy, so callers cannot change the store behind its back.
+ */
+public class StripedUserInfoStore {
+
+    private final ConcurrentHashMap<UUID, UserInfoDTO> byId = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<UUID, UUID> idByUserId = new ConcurrentHashMap<>();
+    private final ReentrantLock[] stripes;
+    private final AtomicLong modifications = new AtomicLong();
+
+    public StripedUserInfoStore(int stripeCount) {
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1) << 1);
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    public Optional<UserInfoDTO> findById(UUID id) {
+        UserInfoDTO record = byId.get(id);
+        return record == null ? Optional.empty() : Optional.of(copy(record));
+    }
+
+    public Optional<UserInfoDTO> findByUserId(UUID userId) {
+        UUID id = idByUserId.get(userId);
+        return id == null ? Optional.empty() : findById(id);
+    }
+
+    /**
+     * Inserts a new record, assigning an id if it has none.
+     *
+     * @throws DataIntegrityViolationException if a record already exists for the same userId
+     */
+    public UserInfoDTO insert(UserInfoDTO record) {
+        UUID userId = record.getUserId();
+        if (userId == null) {
+            throw new DataIntegrityViolationException("userId must not be null");
+        }
+        ReentrantLock lock = stripeFor(userId);
+        lock.lock();
+        try {
+            if (idByUserId.containsKey(userId)) {
+                throw new DataIntegrityViolationException("UserInfo already exists for userId: " + userId);
+            }
+            UserInfoDTO stored = copy(record);
+            if (stored.getId() == null) {
+                stored.setId(UUID.randomUUID());
+            }
+            byId.put(stored.getId(), stored);
+            idByUserId.put(userId, stored.getId());
+            modifications.incrementAndGet();
+            return copy(stored);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Applies {@code mutation} to a copy of the record and installs it. The id and userId are kept
+     * as they were; if the mutation throws, the stored record is left unchanged.
+     */
+    public Optional<UserInfoDTO> updateById(UUID id, Consumer<UserInfoDTO> mutation) {
+        UserInfoDTO current = byId.get(id);
+        if (current == null) {
+            return Optional.empty();
+        }
+        ReentrantLock lock = stripeFor(current.getUserId());
+        lock.lock();
+        try {
+            return replace(id, mutation);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Optional<UserInfoDTO> updateByUserId(UUID userId, Consumer<UserInfoDTO> mutation) {
+        ReentrantLock lock = stripeFor(userId);
+        lock.lock();
+        try {
+            UUID id = idByUserId.get(userId);
+            return id == null ? Optional.empty() : replace(id, mutation);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean deleteById(UUID id) {
+        return removeById(id).isPresent();
+    }
+
+    /**
+     * Deletes the record and returns it as it was when removed.
+     */
+    public Optional<UserInfoDTO> removeById(UUID id) {
+        UserInfoDTO current = byId.get(id);
+        if (current == null) {
+            return Optional.empty();
+        }
+        ReentrantLock lock = stripeFor(current.getUserId());
+        lock.lock();
+        try {
+            UserInfoDTO removed = byId.remove(id);
+            if (removed == null) {
+                return Optional.empty();
+            }
+            idByUserId.remove(removed.getUserId(), id);
+            modifications.incrementAndGet();
+            return Optional.of(copy(removed));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Point-in-time view of all records for snapshotting. The returned records are the stored
+     * instances and must be treated as read-only.
+     */
+    public List<UserInfoDTO> records() {
+        return new ArrayList<>(byId.values());
+    }
+
+    /**
+     * Replaces the whole content of the store, typically from a snapshot at startup.
+     */
+    public void loadAll(Collection<UserInfoDTO> records) {
+        byId.clear();
+        idByUserId.clear();
+        for (UserInfoDTO record : records) {
+            byId.put(record.getId(), record);
+            idByUserId.put(record.getUserId(), record.getId());
+        }
+        modifications.incrementAndGet();
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    /**
+     * Monotonic counter of successful writes, used to skip snapshots when nothing changed.
+     */
+    public long modificationCount() {
+        return modifications.get();
+    }
+
+    // Caller holds the stripe lock of the record's userId
+    private Optional<UserInfoDTO> replace(UUID id, Consumer<UserInfoDTO> mutation) {
+        UserInfoDTO current = byId.get(id);
+        if (current == null) {
+            return Optional.empty();
+        }
+        UserInfoDTO next = copy(current);
+        mutation.accept(next);
+        next.setId(current.getId());
+        next.setUserId(current.getUserId());
+        byId.put(id, next);
+        modifications.incrementAndGet();
+        return Optional.of(copy(next));
+    }
+
+    private ReentrantLock stripeFor(UUID userId) {
+        int h = userId.hashCode();
+        h ^= (h >>> 16);
+        return stripes[h & (stripes.length - 1)];
+    }
+
+    static UserInfoDTO copy(UserInfoDTO source) {
+        UserInfoDTO dto = new UserInfoDTO();
+        dto.setId(source.getId());
+        dto.setUserId(source.getUserId());
+        dto.setFullName(source.getFullName());
+        dto.setAvatarUrl(source.getAvatarUrl());
+        dto.setPhoneNumber(source.getPhoneNumber());
+        dto.setAddress(source.getAddress());
+        dto.setSubscriptionTier(source.getSubscriptionTier());
+        dto.setSubscriptionStatus(source.getSubscriptionStatus());
+        dto.setSubscriptionExpiresAt(source.getSubscriptionExpiresAt());
+        dto.setPaymentMethod(source.getPaymentMethod());
+        dto.setLastPaymentId(source.getLastPaymentId());
+        dto.setLastPaymentDate(source.getLastPaymentDate());
+        dto.setLastPaymentAmount(source.getLastPaymentAmount());
+        dto.setNextBillingDate(source.getNextBillingDate());
+        dto.setAutoRenewal(source.getAutoRenewal());
+        return dto;
+    }
+}
@@ -0,0 +1,182 @@
+package FCJ.user.store;
+
+import FCJ.user.dto.UserInfoDTO;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Compact binary encoding of a {@link UserInfoDTO}.
+ * <p>
+ * Layout: a 16-bit presence mask followed by the non-null fields in declaration order. UUIDs are
+ * two longs, strings are a length-prefixed UTF-8 byte sequence, instants are epoch seconds plus
+ * nanos, and the auto-renewal flag is a single byte.
+ */
+public final class UserInfoRecordCodec {
+
+    private static final int ID = 1;
+    private static final int USER_ID = 1 << 1;
+    private static final int FULL_NAME = 1 << 2;
+    private static final int AVATAR_URL = 1 << 3;
+    private static final int PHONE_NUMBER = 1 << 4;
+    private static final int ADDRESS = 1 << 5;
+    private static final int SUBSCRIPTION_TIER = 1 << 6;
+    private static final int SUBSCRIPTION_STATUS = 1 << 7;
+    private static final int SUBSCRIPTION_EXPIRES_AT = 1 << 8;
+    private static final int PAYMENT_METHOD = 1 << 9;
+    private static final int LAST_PAYMENT_ID = 1 << 10;
+    private static final int LAST_PAYMENT_DATE = 1 << 11;
+    private static final int LAST_PAYMENT_AMOUNT = 1 << 12;
+    private static final int NEXT_BILLING_DATE = 1 << 13;
+    private static final int AUTO_RENEWAL = 1 << 14;
+
+    private UserInfoRecordCodec() {
+    }
+
+    public static int encodedSize(UserInfoDTO dto) {
+        int size = Short.BYTES;
+        size += dto.getId() != null ? 16 : 0;
+        size += dto.getUserId() != null ? 16 : 0;
+        size += stringSize(dto.getFullName());
+        size += stringSize(dto.getAvatarUrl());
+        size += stringSize(dto.getPhoneNumber());
+        size += stringSize(dto.getAddress());
+        size += stringSize(dto.getSubscriptionTier());
+        size += stringSize(dto.getSubscriptionStatus());
+        size += instantSize(dto.getSubscriptionExpiresAt());
+        size += stringSize(dto.getPaymentMethod());
+        size += stringSize(dto.getLastPaymentId());
+        size += instantSize(dto.getLastPaymentDate());
+        size += dto.getLastPaymentAmount() != null ? Double.BYTES : 0;
+        size += instantSize(dto.getNextBillingDate());
+        size += dto.getAutoRenewal() != null ? 1 : 0;
+        return size;
+    }
+
+    public static byte[] encode(UserInfoDTO dto) {
+        ByteBuffer buffer = ByteBuffer.allocate(encodedSize(dto));
+        write(buffer, dto);
+        return buffer.array();
+    }
+
+    public static void write(ByteBuffer buffer, UserInfoDTO dto) {
+        int mask = 0;
+        mask |= dto.getId() != null ? ID : 0;
+        mask |= dto.getUserId() != null ? USER_ID : 0;
+        mask |= dto.getFullName() != null ? FULL_NAME : 0;
+        mask |= dto.getAvatarUrl() != null ? AVATAR_URL : 0;
+        mask |= dto.getPhoneNumber() != null ? PHONE_NUMBER : 0;
+        mask |= dto.getAddress() != null ? ADDRESS : 0;
+        mask |= dto.getSubscriptionTier() != null ? SUBSCRIPTION_TIER : 0;
+        mask |= dto.getSubscriptionStatus() != null ? SUBSCRIPTION_STATUS : 0;
+        mask |= dto.getSubscriptionExpiresAt() != null ? SUBSCRIPTION_EXPIRES_AT : 0;
+        mask |= dto.getPaymentMethod() != null ? PAYMENT_METHOD : 0;
+        mask |= dto.getLastPaymentId() != null ? LAST_PAYMENT_ID : 0;
+        mask |= dto.getLastPaymentDate() != null ? LAST_PAYMENT_DATE : 0;
+        mask |= dto.getLastPaymentAmount() != null ? LAST_PAYMENT_AMOUNT : 0;
+        mask |= dto.getNextBillingDate() != null ? NEXT_BILLING_DATE : 0;
+        mask |= dto.getAutoRenewal() != null ? AUTO_RENEWAL : 0;
+        buffer.putShort((short) mask);
+
+        putUuid(buffer, dto.getId());
+        putUuid(buffer, dto.getUserId());
+        putString(buffer, dto.getFullName());
+        putString(buffer, dto.getAvatarUrl());
+        putString(buffer, dto.getPhoneNumber());
+        putString(buffer, dto.getAddress());
+        putString(buffer, dto.getSubscriptionTier());
+        putString(buffer, dto.getSubscriptionStatus());
+        putInstant(buffer, dto.getSubscriptionExpiresAt());
+        putString(buffer, dto.getPaymentMethod());
+        putString(buffer, dto.getLastPaymentId());
+        putInstant(buffer, dto.getLastPaymentDate());
+        if (dto.getLastPaymentAmount() != null) {
+            buffer.putDouble(dto.getLastPaymentAmount());
+        }
+        putInstant(buffer, dto.getNextBillingDate());
+        if (dto.getAutoRenewal() != null) {
+            buffer.put((byte) (dto.getAutoRenewal() ? 1 : 0));
+        }
+    }
+
+    public static UserInfoDTO read(ByteBuffer buffer) {
+        int mask = buffer.getShort() & 0xFFFF;
+        UserInfoDTO dto = new UserInfoDTO();
+        dto.setId((mask & ID) != 0 ? getUuid(buffer) : null);
+        dto.setUserId((mask & USER_ID) != 0 ? getUuid(buffer) : null);
+        dto.setFullName((mask & FULL_NAME) != 0 ? getString(buffer) : null);
+        dto.setAvatarUrl((mask & AVATAR_URL) != 0 ? getString(buffer) : null);
+        dto.setPhoneNumber((mask & PHONE_NUMBER) != 0 ? getString(buffer) : null);
+        dto.setAddress((mask & ADDRESS) != 0 ? getString(buffer) : null);
+        dto.setSubscriptionTier((mask & SUBSCRIPTION_TIER) != 0 ? getString(buffer) : null);
+        dto.setSubscriptionStatus((mask & SUBSCRIPTION_STATUS) != 0 ? getString(buffer) : null);
+        dto.setSubscriptionExpiresAt((mask & SUBSCRIPTION_EXPIRES_AT) != 0 ? getInstant(buffer) : null);
+        dto.setPaymentMethod((mask & PAYMENT_METHOD) != 0 ? getString(buffer) : null);
+        dto.setLastPaymentId((mask & LAST_PAYMENT_ID) != 0 ? getString(buffer) : null);
+        dto.setLastPaymentDate((mask & LAST_PAYMENT_DATE) != 0 ? getInstant(buffer) : null);
+        dto.setLastPaymentAmount((mask & LAST_PAYMENT_AMOUNT) != 0 ? buffer.getDouble() : null);
+        dto.setNextBillingDate((mask & NEXT_BILLING_DATE) != 0 ? getInstant(buffer) : null);
+        dto.setAutoRenewal((mask & AUTO_RENEWAL) != 0 ? buffer.get() != 0 : null);
+        return dto;
+    }
+
+    /**
+     * Reads only the userId of an encoded record, without moving the buffer's position.
+     */
+    public static UUID peekUserId(ByteBuffer buffer) {
+        int position = buffer.position();
+        int mask = buffer.getShort(position) & 0xFFFF;
+        if ((mask & USER_ID) == 0) {
+            return null;
+        }
+        int offset = position + Short.BYTES + ((mask & ID) != 0 ? 16 : 0);
+        return new UUID(buffer.getLong(offset), buffer.getLong(offset + Long.BYTES));
+    }
+
+    private static int stringSize(String value) {
+        return value == null ? 0 : Integer.BYTES + value.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private static int instantSize(Instant value) {
+        return value == null ? 0 : Long.BYTES + Integer.BYTES;
+    }
+
+    private static void putUuid(ByteBuffer buffer, UUID value) {
+        if (value != null) {
+            buffer.putLong(value.getMostSignificantBits());
+            buffer.putLong(value.getLeastSignificantBits());
+        }
+    }
+
+    private static UUID getUuid(ByteBuffer buffer) {
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    private static void putString(ByteBuffer buffer, String value) {
+        if (value != null) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            buffer.putInt(bytes.length);
+            buffer.put(bytes);
+        }
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void putInstant(ByteBuffer buffer, Instant value) {
+        if (value != null) {
+            buffer.putLong(value.getEpochSecond());
+            buffer.putInt(value.getNano());
+        }
+    }
+
+    private static Instant getInstant(ByteBuffer buffer) {
+        return Instant.ofEpochSecond(buffer.getLong(), buffer.getInt());
+    }
+}
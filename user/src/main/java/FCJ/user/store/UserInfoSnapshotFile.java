@@ -0,0 +1,164 @@
+package FCJ.user.store;
+
+import FCJ.user.dto.UserInfoDTO;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Binary snapshot of UserInfo records on local disk.
+ * <p>
+ * Layout: magic, format version, creation time (epoch millis), record count, then each record as a
+ * length-prefixed {@link UserInfoRecordCodec} payload, followed by a CRC32 of everything before it.
+ * Snapshots are written to a temporary file and moved into place, so readers never observe a
+ * partially written file; they are read back through a memory-mapped channel.
+ */
+public final class UserInfoSnapshotFile {
+
+    static final int MAGIC = 0x55494E46;
+    static final int VERSION = 1;
+    private static final int HEADER_BYTES = Integer.BYTES + Integer.BYTES + Long.BYTES + Integer.BYTES;
+
+    private UserInfoSnapshotFile() {
+    }
+
+    public static void write(Path path, Collection<UserInfoDTO> records, Instant createdAt) throws IOException {
+        List<byte[]> encoded = new ArrayList<>(records.size());
+        for (UserInfoDTO record : records) {
+            encoded.add(UserInfoRecordCodec.encode(record));
+        }
+        writeEncoded(path, encoded, createdAt);
+    }
+
+    /**
+     * Writes records that are already in {@link UserInfoRecordCodec} form.
+     */
+    public static void writeEncoded(Path path, Collection<byte[]> records, Instant createdAt) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            CRC32 crc = new CRC32();
+            OutputStream raw = Channels.newOutputStream(channel);
+            DataOutputStream out = new DataOutputStream(new CheckedOutputStream(new BufferedOutputStream(raw, 64 * 1024), crc));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(createdAt.toEpochMilli());
+            out.writeInt(records.size());
+            for (byte[] record : records) {
+                out.writeInt(record.length);
+                out.write(record);
+            }
+            out.flush();
+            new DataOutputStream(raw).writeLong(crc.getValue());
+            channel.force(true);
+        }
+        try {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Maps the file read-only, verifies magic, version and checksum, then decodes every record.
+     *
+     * @throws IOException if the file cannot be read or is not a valid snapshot
+     */
+    public static Snapshot read(Path path) throws IOException {
+        List<UserInfoDTO> records = new ArrayList<>();
+        Instant createdAt = scan(path, record -> records.add(UserInfoRecordCodec.read(record)));
+        return new Snapshot(createdAt, records);
+    }
+
+    /**
+     * Creation time from the header, without verifying or decoding the records.
+     */
+    public static Instant readCreatedAt(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES + Long.BYTES) {
+                throw new IOException("Snapshot " + path + " is truncated");
+            }
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            channel.read(header, 0);
+            header.flip();
+            checkHeader(path, header);
+            return Instant.ofEpochMilli(header.getLong());
+        }
+    }
+
+    /**
+     * Maps the file read-only, verifies magic, version and checksum, then hands each encoded record
+     * to {@code consumer} as a slice of the mapping. The slices are only valid during the call.
+     *
+     * @return the snapshot creation time
+     * @throws IOException if the file cannot be read or is not a valid snapshot
+     */
+    public static Instant scan(Path path, Consumer<ByteBuffer> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES + Long.BYTES) {
+                throw new IOException("Snapshot " + path + " is truncated");
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int bodyLength = (int) size - Long.BYTES;
+
+            CRC32 crc = new CRC32();
+            crc.update(mapped.slice(0, bodyLength));
+            if (crc.getValue() != mapped.getLong(bodyLength)) {
+                throw new IOException("Snapshot " + path + " failed checksum verification");
+            }
+
+            ByteBuffer body = mapped.slice(0, bodyLength);
+            checkHeader(path, body);
+            Instant createdAt = Instant.ofEpochMilli(body.getLong());
+            int count = body.getInt();
+            for (int i = 0; i < count; i++) {
+                int length = body.getInt();
+                consumer.accept(body.slice(body.position(), length));
+                body.position(body.position() + length);
+            }
+            return createdAt;
+        }
+    }
+
+    private static void checkHeader(Path path, ByteBuffer buffer) throws IOException {
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("Snapshot " + path + " has an unknown format");
+        }
+        int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IOException("Snapshot " + path + " has unsupported version " + version);
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Snapshot {
+        private final Instant createdAt;
+        private final List<UserInfoDTO> records;
+    }
+}
@@ -0,0 +1,44 @@
+package FCJ.user.tracing;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * Runs each call in an {@link Observation}, which becomes a child span of the current REST or gRPC
+ * span and a {@code user.service} timer tagged with the method.
+ */
+class ObservedMethodInterceptor implements MethodInterceptor {
+
+    private final ObjectProvider<ObservationRegistry> registryProvider;
+    private final String name;
+    private final String component;
+    private volatile ObservationRegistry registry;
+
+    ObservedMethodInterceptor(ObjectProvider<ObservationRegistry> registryProvider, String name, String component) {
+        this.registryProvider = registryProvider;
+        this.name = name;
+        this.component = component;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        String method = invocation.getMethod().getName();
+        return Observation.createNotStarted(name, registry())
+                .contextualName(component + "." + method)
+                .lowCardinalityKeyValue("method", method)
+                .observeChecked(invocation::proceed);
+    }
+
+    // Resolved on first use: the post-processor that creates this runs before the registry exists
+    private ObservationRegistry registry() {
+        ObservationRegistry current = registry;
+        if (current == null) {
+            current = registryProvider.getIfAvailable(() -> ObservationRegistry.NOOP);
+            registry = current;
+        }
+        return current;
+    }
+}
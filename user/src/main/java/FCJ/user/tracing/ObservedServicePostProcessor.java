@@ -0,0 +1,23 @@
+package FCJ.user.tracing;
+
+import FCJ.user.service.UserInfoService;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.aop.framework.autoproxy.AbstractBeanFactoryAwareAdvisingPostProcessor;
+import org.springframework.aop.support.ComposablePointcut;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * Adds a {@code user.service} span to every call of the {@link UserInfoService} bean, in front of
+ * its transaction advice, so the span separates service time from transport and JDBC time.
+ */
+class ObservedServicePostProcessor extends AbstractBeanFactoryAwareAdvisingPostProcessor {
+
+    ObservedServicePostProcessor(ObjectProvider<ObservationRegistry> registry) {
+        this.advisor = new DefaultPointcutAdvisor(new ComposablePointcut(UserInfoService.class::isAssignableFrom),
+                new ObservedMethodInterceptor(registry, "user.service", "UserInfoService"));
+        setBeforeExistingAdvisors(true);
+        // Class proxies, so @Scheduled and other methods outside the interface stay invocable
+        setProxyTargetClass(true);
+    }
+}
@@ -0,0 +1,217 @@
+package FCJ.user.tracing;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import io.opentelemetry.sdk.trace.data.SpanData;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Tail-based sampling in front of the exporting processor. Every span is recorded, but ended spans
+ * are held per trace until the trace's local root span (the REST or gRPC server span, or a scheduled
+ * job) ends. The whole trace is then exported if any span failed, if the root took at least
+ * {@code user.tracing.slow-threshold}, or for a {@code baseline-ratio} share of the rest, and dropped
+ * otherwise. Spans ending after the decision (asynchronous work) follow it for {@code decision-wait}.
+ * <p>
+ * Failed means an error status, a 5xx HTTP status or a server-side gRPC status. Traces whose root
+ * never ends here are let go after {@code decision-wait} and kept only if they contain a failure.
+ */
+public class TailSamplingSpanProcessor implements SpanProcessor, MeterBinder {
+
+    private static final AttributeKey<String> HTTP_STATUS = AttributeKey.stringKey("status");
+    private static final AttributeKey<String> GRPC_STATUS = AttributeKey.stringKey("grpc.status_code");
+    private static final Set<String> GRPC_SERVER_ERRORS = Set.of(
+            "UNKNOWN", "DEADLINE_EXCEEDED", "RESOURCE_EXHAUSTED", "INTERNAL", "UNAVAILABLE", "DATA_LOSS");
+
+    enum Decision {
+        ERROR, SLOW, BASELINE, DROPPED;
+
+        boolean exported() {
+            return this != DROPPED;
+        }
+    }
+
+    private final SpanProcessor delegate;
+    private final long slowThresholdNanos;
+    private final double baselineRatio;
+    private final int maxSpansPerTrace;
+    private final Cache<String, PendingTrace> pending;
+    private final Cache<String, Decision> decided;
+    private volatile Map<Decision, Counter> decisions = Map.of();
+    private volatile Counter overflow;
+
+    public TailSamplingSpanProcessor(SpanProcessor delegate, UserTracingProperties properties) {
+        this.delegate = delegate;
+        this.slowThresholdNanos = properties.getSlowThreshold().toNanos();
+        this.baselineRatio = properties.getBaselineRatio();
+        this.maxSpansPerTrace = properties.getMaxSpansPerTrace();
+        this.decided = Caffeine.newBuilder()
+                .expireAfterWrite(properties.getDecisionWait())
+                .maximumSize(properties.getMaxPendingTraces())
+                .build();
+        this.pending = Caffeine.newBuilder()
+                .expireAfterWrite(properties.getDecisionWait())
+                .maximumSize(properties.getMaxPendingTraces())
+                .executor(Runnable::run)
+                .removalListener((String traceId, PendingTrace trace, RemovalCause cause) -> {
+                    if (cause.wasEvicted() && trace != null) {
+                        abandon(trace);
+                    }
+                })
+                .build();
+    }
+
+    @Override
+    public void onStart(Context parentContext, ReadWriteSpan span) {
+    }
+
+    @Override
+    public boolean isStartRequired() {
+        return false;
+    }
+
+    @Override
+    public void onEnd(ReadableSpan span) {
+        String traceId = span.getSpanContext().getTraceId();
+        Decision decision = decided.getIfPresent(traceId);
+        if (decision != null) {
+            forward(decision, span);
+            return;
+        }
+        boolean root = isLocalRoot(span.getParentSpanContext());
+        pending.asMap().compute(traceId, (id, trace) -> {
+            // Re-checked under the key's lock: the root may have been decided since the lookup above
+            Decision current = decided.getIfPresent(id);
+            if (current != null) {
+                forward(current, span);
+                return trace;
+            }
+            if (trace == null) {
+                trace = new PendingTrace();
+            }
+            trace.add(span);
+            if (!root) {
+                return trace;
+            }
+            Decision made = decide(span, trace);
+            decided.put(id, made);
+            record(made);
+            if (made.exported()) {
+                trace.spans.forEach(delegate::onEnd);
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public boolean isEndRequired() {
+        return true;
+    }
+
+    private Decision decide(ReadableSpan root, PendingTrace trace) {
+        if (trace.failed) {
+            return Decision.ERROR;
+        }
+        if (root.getLatencyNanos() >= slowThresholdNanos) {
+            return Decision.SLOW;
+        }
+        if (baselineRatio > 0 && ThreadLocalRandom.current().nextDouble() < baselineRatio) {
+            return Decision.BASELINE;
+        }
+        return Decision.DROPPED;
+    }
+
+    private void abandon(PendingTrace trace) {
+        Decision made = trace.failed ? Decision.ERROR : Decision.DROPPED;
+        record(made);
+        if (made.exported()) {
+            trace.spans.forEach(delegate::onEnd);
+        }
+    }
+
+    private void forward(Decision decision, ReadableSpan span) {
+        if (decision.exported()) {
+            delegate.onEnd(span);
+        }
+    }
+
+    private void record(Decision decision) {
+        Counter counter = decisions.get(decision);
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+
+    static boolean isLocalRoot(SpanContext parent) {
+        return !parent.isValid() || parent.isRemote();
+    }
+
+    static boolean failed(SpanData span) {
+        if (span.getStatus().getStatusCode() == StatusCode.ERROR) {
+            return true;
+        }
+        String grpcStatus = span.getAttributes().get(GRPC_STATUS);
+        if (grpcStatus != null && GRPC_SERVER_ERRORS.contains(grpcStatus)) {
+            return true;
+        }
+        String httpStatus = span.getAttributes().get(HTTP_STATUS);
+        return httpStatus != null && httpStatus.startsWith("5");
+    }
+
+    @Override
+    public CompletableResultCode forceFlush() {
+        return delegate.forceFlush();
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        return delegate.shutdown();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Map<Decision, Counter> counters = new EnumMap<>(Decision.class);
+        for (Decision decision : Decision.values()) {
+            counters.put(decision, Counter.builder("user.tracing.traces")
+                    .description("Traces by tail-sampling decision")
+                    .tag("decision", decision.name().toLowerCase())
+                    .register(registry));
+        }
+        decisions = counters;
+        overflow = Counter.builder("user.tracing.spans.overflow")
+                .description("Spans dropped because their trace exceeded user.tracing.max-spans-per-trace")
+                .register(registry);
+    }
+
+    // Only touched inside pending's compute for its trace id, or after its removal
+    private final class PendingTrace {
+        private final List<ReadableSpan> spans = new ArrayList<>();
+        private boolean failed;
+
+        void add(ReadableSpan span) {
+            failed |= failed(span.toSpanData());
+            if (spans.size() < maxSpansPerTrace) {
+                spans.add(span);
+            } else if (overflow != null) {
+                overflow.increment();
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package FCJ.user.tracing;
+
+import io.micrometer.core.instrument.binder.grpc.ObservationGrpcServerInterceptor;
+import io.micrometer.observation.ObservationRegistry;
+import io.opentelemetry.sdk.trace.export.BatchSpanProcessor;
+import net.devh.boot.grpc.server.interceptor.GrpcGlobalServerInterceptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.autoconfigure.tracing.SpanProcessors;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+/**
+ * REST spans (with W3C {@code traceparent} extraction) come from Spring Boot's HTTP server
+ * observation. This adds the gRPC server span, {@code UserInfoService} and JDBC spans, and puts
+ * {@link TailSamplingSpanProcessor} in front of the exporters.
+ */
+@Configuration
+@EnableConfigurationProperties(UserTracingProperties.class)
+public class TracingConfig {
+
+    // Replaces the starter's interceptor (management.tracing.grpc.enabled=false), which runs inside the
+    // rate and concurrency limiters: outermost, rejected calls are traced too
+    @Bean
+    @GrpcGlobalServerInterceptor
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public ObservationGrpcServerInterceptor observationGrpcServerInterceptor(ObservationRegistry observationRegistry) {
+        return new ObservationGrpcServerInterceptor(observationRegistry);
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnProperty(prefix = "management.tracing", name = "enabled", havingValue = "true", matchIfMissing = true)
+    static class Instrumentation {
+
+        // Static: post-processors are created before the other beans of this class can be
+        @Bean
+        static ObservedServicePostProcessor observedServicePostProcessor(ObjectProvider<ObservationRegistry> registry) {
+            return new ObservedServicePostProcessor(registry);
+        }
+
+        @Bean
+        static TracingDataSourcePostProcessor tracingDataSourcePostProcessor(ObjectProvider<ObservationRegistry> registry) {
+            return new TracingDataSourcePostProcessor(registry);
+        }
+
+        @Bean
+        TailSamplingSpanProcessor tailSamplingSpanProcessor(BatchSpanProcessor otelSpanProcessor,
+                                                           UserTracingProperties properties) {
+            return new TailSamplingSpanProcessor(otelSpanProcessor, properties);
+        }
+
+        // Replaces Spring Boot's list, which would hand every span straight to the exporters
+        @Bean
+        SpanProcessors spanProcessors(TailSamplingSpanProcessor tailSamplingSpanProcessor) {
+            return SpanProcessors.of(tailSamplingSpanProcessor);
+        }
+    }
+}
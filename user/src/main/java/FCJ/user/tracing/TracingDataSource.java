@@ -0,0 +1,96 @@
+package FCJ.user.tracing;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Locale;
+
+/**
+ * Traces JDBC work as two kinds of spans: {@code jdbc.connection} around taking a connection from the
+ * pool, which is Hikari wait time, and {@code jdbc.query} around each statement execution, which is
+ * time spent in Postgres (and the network), with the SQL as {@code db.statement}.
+ */
+public class TracingDataSource extends DelegatingDataSource {
+
+    private final ObservationRegistry registry;
+
+    public TracingDataSource(DataSource targetDataSource, ObservationRegistry registry) {
+        super(targetDataSource);
+        this.registry = registry;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(Observation.createNotStarted("jdbc.connection", registry)
+                .contextualName("jdbc connection")
+                .observeChecked(() -> super.getConnection()));
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(Observation.createNotStarted("jdbc.connection", registry)
+                .contextualName("jdbc connection")
+                .observeChecked(() -> super.getConnection(username, password)));
+    }
+
+    private Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(connection, method, args);
+                    if (result instanceof Statement statement && Statement.class.isAssignableFrom(method.getReturnType())) {
+                        String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : null;
+                        return wrap(statement, method.getReturnType(), sql);
+                    }
+                    return result;
+                });
+    }
+
+    private Object wrap(Statement statement, Class<?> type, String preparedSql) {
+        return Proxy.newProxyInstance(
+                Statement.class.getClassLoader(),
+                new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    if (!method.getName().startsWith("execute")) {
+                        return invoke(statement, method, args);
+                    }
+                    String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : preparedSql;
+                    Observation observation = Observation.createNotStarted("jdbc.query", registry)
+                            .contextualName("jdbc " + operation(sql))
+                            .lowCardinalityKeyValue("db.operation", operation(sql));
+                    if (sql != null) {
+                        observation.highCardinalityKeyValue("db.statement", sql);
+                    }
+                    return observation.observeChecked(() -> invoke(statement, method, args));
+                });
+    }
+
+    static String operation(String sql) {
+        if (sql == null) {
+            return "batch";
+        }
+        String trimmed = sql.stripLeading();
+        int end = 0;
+        while (end < trimmed.length() && Character.isLetter(trimmed.charAt(end))) {
+            end++;
+        }
+        return end == 0 ? "other" : trimmed.substring(0, end).toLowerCase(Locale.ROOT);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package FCJ.user.tracing;
+
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the application's data source in a {@link TracingDataSource}.
+ */
+class TracingDataSourcePostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<ObservationRegistry> registry;
+
+    TracingDataSourcePostProcessor(ObjectProvider<ObservationRegistry> registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof TracingDataSource)) {
+            return new TracingDataSource(dataSource, registry.getIfAvailable(() -> ObservationRegistry.NOOP));
+        }
+        return bean;
+    }
+}
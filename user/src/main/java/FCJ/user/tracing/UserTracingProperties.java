@@ -0,0 +1,26 @@
+package FCJ.user.tracing;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "user.tracing")
+public class UserTracingProperties {
+
+    // Traces whose local root span took at least this long are always exported
+    private Duration slowThreshold = Duration.ofMillis(500);
+
+    // Share of the remaining (fast, successful) traces exported as a baseline
+    private double baselineRatio = 0.01;
+
+    // How long spans wait for their local root to end, and how long the decision is remembered for late spans
+    private Duration decisionWait = Duration.ofSeconds(30);
+
+    // Bounds on the spans held while waiting for a decision
+    private int maxPendingTraces = 10_000;
+    private int maxSpansPerTrace = 1_000;
+}
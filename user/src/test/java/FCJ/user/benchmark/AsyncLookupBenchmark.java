@@ -0,0 +1,216 @@
+package FCJ.user.benchmark;
+
+import FCJ.user.cache.LastKnownProfiles;
+import FCJ.user.cache.ProfileCache;
+import FCJ.user.dto.UserInfoDTO;
+import FCJ.user.grpc.AsyncUserInfoGrpcService;
+import FCJ.user.grpc.GetUserInfoByIdRequest;
+import FCJ.user.grpc.GrpcTransportProperties;
+import FCJ.user.grpc.GrpcTransportSupport;
+import FCJ.user.grpc.UserInfoGrpcService;
+import FCJ.user.grpc.UserInfoResponse;
+import FCJ.user.grpc.UserInfoServiceGrpc;
+import FCJ.user.r2dbc.R2dbcLookupProperties;
+import FCJ.user.r2dbc.R2dbcUserInfoRepository;
+import FCJ.user.resilience.DatabaseGuardInterceptor;
+import FCJ.user.service.AsyncUserInfoLookup;
+import FCJ.user.service.LookupBatchProperties;
+import FCJ.user.service.ProfileWriteBehindBuffer;
+import FCJ.user.service.UserInfoLookupBatcher;
+import FCJ.user.service.UserInfoService;
+import FCJ.user.service.WriteBehindProperties;
+import ch.qos.logback.classic.Level;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.grpc.BindableService;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@code GetUserInfoById} with a fixed number of calls in flight, served once by the blocking
+ * {@link UserInfoGrpcService} (JDBC on the sized gRPC executor) and once by
+ * {@link AsyncUserInfoGrpcService} (R2DBC, completed from the driver's event loops). Both sides get the
+ * same number of database connections and no profile cache, so every call reaches the database.
+ * Reports throughput, latency and the JVM's peak thread count for each run.
+ * <p>
+ * Needs a real database with rows in user_info, so it only runs when BENCH_DB_URL is set:
+ * <pre>
+ * BENCH_DB_URL=jdbc:postgresql://host:5432/postgres BENCH_DB_USER=postgres BENCH_DB_PASSWORD=... \
+ *   mvn test -Dtest=AsyncLookupBenchmark -Dsurefire.failIfNoSpecifiedTests=false -Dbench.concurrency=10000
+ * </pre>
+ */
+@EnabledIfEnvironmentVariable(named = "BENCH_DB_URL", matches = ".+")
+class AsyncLookupBenchmark {
+
+    private static final int CONCURRENCY = Integer.getInteger("bench.concurrency", 10_000);
+    private static final int SECONDS = Integer.getInteger("bench.seconds", 10);
+    private static final int WARMUP_SECONDS = Integer.getInteger("bench.warmup-seconds", 3);
+    private static final int CONNECTIONS = Integer.getInteger("bench.connections", 16);
+
+    private static final String FIND_BY_USER_ID =
+            "select id, user_id, full_name, avatar_url from user_info where user_id = ? and deleted_at is null";
+
+    @Test
+    void getUserInfoByIdUnderConcurrency() throws Exception {
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger("FCJ.user")).setLevel(Level.WARN);
+        try (HikariDataSource dataSource = dataSource()) {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            List<String> ids = jdbcTemplate.queryForList(
+                    "select user_id from user_info where deleted_at is null limit 10000", UUID.class)
+                    .stream().map(UUID::toString).toList();
+            if (ids.isEmpty()) {
+                throw new IllegalStateException("user_info has no rows to look up");
+            }
+
+            UserInfoService blocking = mock(UserInfoService.class);
+            when(blocking.getUserInfoByUserId(any())).thenAnswer(invocation ->
+                    jdbcTemplate.queryForObject(FIND_BY_USER_ID, (rs, rowNum) -> {
+                        UserInfoDTO dto = new UserInfoDTO();
+                        dto.setId(rs.getObject("id", UUID.class));
+                        dto.setUserId(rs.getObject("user_id", UUID.class));
+                        dto.setFullName(rs.getString("full_name"));
+                        dto.setAvatarUrl(rs.getString("avatar_url"));
+                        return dto;
+                    }, invocation.getArgument(0, UUID.class)));
+            UserInfoLookupBatcher batcher = new UserInfoLookupBatcher(blocking, new LookupBatchProperties());
+            report("blocking", serve(new UserInfoGrpcService(blocking, batcher), ids));
+
+            try (R2dbcUserInfoRepository repository = R2dbcUserInfoRepository.create(r2dbcProperties())) {
+                repository.warmup().block();
+                // Neither side runs behind the database guard
+                AsyncUserInfoLookup lookup = new AsyncUserInfoLookup(repository, ProfileCache.disabled(),
+                        new ProfileWriteBehindBuffer(jdbcTemplate, new WriteBehindProperties()), blocking,
+                        new StaticListableBeanFactory().getBeanProvider(DatabaseGuardInterceptor.class),
+                        LastKnownProfiles.disabled());
+                report("async", serve(new AsyncUserInfoGrpcService(blocking, batcher, lookup), ids));
+            }
+        }
+    }
+
+    private HikariDataSource dataSource() {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(System.getenv("BENCH_DB_URL"));
+        config.setUsername(System.getenv().getOrDefault("BENCH_DB_USER", "postgres"));
+        config.setPassword(System.getenv("BENCH_DB_PASSWORD"));
+        config.setMaximumPoolSize(CONNECTIONS);
+        config.setMinimumIdle(CONNECTIONS);
+        return new HikariDataSource(config);
+    }
+
+    private R2dbcLookupProperties r2dbcProperties() {
+        R2dbcLookupProperties properties = new R2dbcLookupProperties();
+        properties.setUrl(System.getenv().getOrDefault("BENCH_R2DBC_URL",
+                System.getenv("BENCH_DB_URL").replaceFirst("^jdbc:", "r2dbc:")));
+        properties.setUsername(System.getenv().getOrDefault("BENCH_DB_USER", "postgres"));
+        properties.setPassword(System.getenv("BENCH_DB_PASSWORD"));
+        properties.setInitialSize(CONNECTIONS);
+        properties.setMaxSize(CONNECTIONS);
+        // Thousands of calls queue for a connection; only fail calls that cannot get one at all
+        properties.setMaxAcquireTime(java.time.Duration.ofSeconds(30));
+        return properties;
+    }
+
+    private Result serve(BindableService service, List<String> ids) throws Exception {
+        GrpcTransportProperties properties = new GrpcTransportProperties();
+        properties.setMaxConcurrentCallsPerConnection(Integer.MAX_VALUE);
+        try (GrpcTransportSupport transport = GrpcTransportSupport.create(properties)) {
+            NettyServerBuilder builder = NettyServerBuilder.forPort(0).addService(service);
+            transport.applyTo(builder, properties);
+            Server server = builder.build().start();
+            try {
+                return run(server.getPort(), ids);
+            } finally {
+                server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+            }
+        }
+    }
+
+    private Result run(int port, List<String> ids) throws InterruptedException {
+        ManagedChannel channel = NettyChannelBuilder.forAddress("localhost", port)
+                .usePlaintext()
+                .directExecutor()
+                .build();
+        try {
+            UserInfoServiceGrpc.UserInfoServiceFutureStub stub = UserInfoServiceGrpc.newFutureStub(channel);
+            drive(stub, ids, WARMUP_SECONDS, new ConcurrentHistogram(3));
+            ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            threads.resetPeakThreadCount();
+            Histogram histogram = new ConcurrentHistogram(3);
+            long start = System.nanoTime();
+            AtomicLong failures = drive(stub, ids, SECONDS, histogram);
+            long elapsed = System.nanoTime() - start;
+            return new Result(histogram, failures.get(), histogram.getTotalCount() * 1e9 / elapsed,
+                    threads.getPeakThreadCount());
+        } finally {
+            channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Keeps {@code CONCURRENCY} calls outstanding for {@code seconds}, then waits for them to finish.
+     */
+    private AtomicLong drive(UserInfoServiceGrpc.UserInfoServiceFutureStub stub, List<String> ids,
+                             int seconds, Histogram histogram) throws InterruptedException {
+        AtomicLong failures = new AtomicLong();
+        Semaphore inFlight = new Semaphore(CONCURRENCY);
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        for (long i = 0; System.nanoTime() < end; i++) {
+            inFlight.acquire();
+            GetUserInfoByIdRequest request = GetUserInfoByIdRequest.newBuilder()
+                    .setId(ids.get((int) (i % ids.size())))
+                    .build();
+            long start = System.nanoTime();
+            Futures.addCallback(stub.getUserInfoById(request), new FutureCallback<UserInfoResponse>() {
+                @Override
+                public void onSuccess(UserInfoResponse result) {
+                    histogram.recordValue(System.nanoTime() - start);
+                    inFlight.release();
+                }
+
+                @Override
+                public void onFailure(Throwable t) {
+                    failures.incrementAndGet();
+                    inFlight.release();
+                }
+            }, MoreExecutors.directExecutor());
+        }
+        inFlight.tryAcquire(CONCURRENCY, 60, TimeUnit.SECONDS);
+        return failures;
+    }
+
+    private void report(String label, Result result) {
+        Histogram h = result.histogram();
+        System.out.printf("%-8s in-flight=%d rps=%.0f p50=%.3fms p99=%.3fms p999=%.3fms max=%.3fms peak-threads=%d failures=%d%n",
+                label, CONCURRENCY, result.achievedRps(),
+                h.getValueAtPercentile(50) / 1e6, h.getValueAtPercentile(99) / 1e6,
+                h.getValueAtPercentile(99.9) / 1e6, h.getMaxValue() / 1e6,
+                result.peakThreads(), result.failures());
+    }
+
+    private record Result(Histogram histogram, long failures, double achievedRps, int peakThreads) {
+    }
+}
@@ -0,0 +1,122 @@
+package FCJ.user.benchmark;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Compares {@code findByUserId} latency with the default pool/driver settings against the tuned
+ * profile from application.properties (warm pool, server-side prepared statement cache).
+ * <p>
+ * Needs a real database, so it only runs when BENCH_DB_URL is set:
+ * <pre>
+ * BENCH_DB_URL=jdbc:postgresql://host:5432/postgres BENCH_DB_USER=postgres BENCH_DB_PASSWORD=... \
+ *   mvn test -Dtest=DataSourceTuningBenchmark -Dsurefire.failIfNoSpecifiedTests=false
+ * </pre>
+ */
+@EnabledIfEnvironmentVariable(named = "BENCH_DB_URL", matches = ".+")
+class DataSourceTuningBenchmark {
+
+    private static final String FIND_BY_USER_ID =
+            "select id, user_id, full_name, avatar_url, phone_number, address from user_info where user_id = ?";
+    private static final int ITERATIONS = Integer.getInteger("bench.iterations", 2000);
+
+    @Test
+    void findByUserIdLatency() throws Exception {
+        List<UUID> userIds = sampleUserIds();
+
+        report("default", run(defaultConfig(), false, userIds));
+        report("tuned", run(tunedConfig(), true, userIds));
+    }
+
+    private HikariConfig baseConfig() {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(System.getenv("BENCH_DB_URL"));
+        config.setUsername(System.getenv().getOrDefault("BENCH_DB_USER", "postgres"));
+        config.setPassword(System.getenv("BENCH_DB_PASSWORD"));
+        return config;
+    }
+
+    private HikariConfig defaultConfig() {
+        return baseConfig();
+    }
+
+    private HikariConfig tunedConfig() {
+        HikariConfig config = baseConfig();
+        config.setMaximumPoolSize(10);
+        config.setMinimumIdle(10);
+        config.addDataSourceProperty("prepareThreshold", "1");
+        config.addDataSourceProperty("preparedStatementCacheQueries", "256");
+        config.addDataSourceProperty("preparedStatementCacheSizeMiB", "5");
+        config.addDataSourceProperty("tcpKeepAlive", "true");
+        return config;
+    }
+
+    private long[] run(HikariConfig config, boolean warmUp, List<UUID> userIds) throws Exception {
+        try (HikariDataSource dataSource = new HikariDataSource(config)) {
+            if (warmUp) {
+                List<Connection> held = new ArrayList<>();
+                for (int i = 0; i < config.getMinimumIdle(); i++) {
+                    held.add(dataSource.getConnection());
+                }
+                for (Connection connection : held) {
+                    connection.close();
+                }
+            }
+            long[] samples = new long[ITERATIONS];
+            for (int i = 0; i < ITERATIONS; i++) {
+                UUID userId = userIds.get(i % userIds.size());
+                long start = System.nanoTime();
+                try (Connection connection = dataSource.getConnection();
+                     PreparedStatement statement = connection.prepareStatement(FIND_BY_USER_ID)) {
+                    statement.setObject(1, userId);
+                    try (ResultSet resultSet = statement.executeQuery()) {
+                        while (resultSet.next()) {
+                            resultSet.getString(3);
+                        }
+                    }
+                }
+                samples[i] = System.nanoTime() - start;
+            }
+            return samples;
+        }
+    }
+
+    private List<UUID> sampleUserIds() throws Exception {
+        List<UUID> ids = new ArrayList<>();
+        try (HikariDataSource dataSource = new HikariDataSource(baseConfig());
+             Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("select user_id from user_info limit 1000");
+             ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                ids.add(resultSet.getObject(1, UUID.class));
+            }
+        }
+        if (ids.isEmpty()) {
+            ids.add(UUID.randomUUID());
+        }
+        return ids;
+    }
+
+    private void report(String label, long[] samples) {
+        long first = samples[0];
+        long[] sorted = samples.clone();
+        Arrays.sort(sorted);
+        System.out.printf("%-8s first=%7.2fms p50=%6.2fms p90=%6.2fms p99=%6.2fms max=%7.2fms%n",
+                label,
+                first / 1e6,
+                sorted[sorted.length / 2] / 1e6,
+                sorted[(int) (sorted.length * 0.90)] / 1e6,
+                sorted[(int) (sorted.length * 0.99)] / 1e6,
+                sorted[sorted.length - 1] / 1e6);
+    }
+}
@@ -0,0 +1,162 @@
+package FCJ.user.benchmark;
+
+import FCJ.user.dto.UserInfoCreation;
+import FCJ.user.grpc.GetUserInfoByIdRequest;
+import FCJ.user.grpc.GrpcTransportProperties;
+import FCJ.user.grpc.GrpcTransportSupport;
+import FCJ.user.grpc.UserInfoGrpcService;
+import FCJ.user.grpc.UserInfoResponse;
+import FCJ.user.grpc.UserInfoServiceGrpc;
+import FCJ.user.ledger.InMemoryPaymentLedger;
+import FCJ.user.service.InMemoryUserInfoService;
+import FCJ.user.service.LookupBatchProperties;
+import FCJ.user.service.UserInfoLookupBatcher;
+import FCJ.user.stats.InMemoryMembershipStatisticsStore;
+import FCJ.user.stats.MembershipStatistics;
+import ch.qos.logback.classic.Level;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.MoreExecutors;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop load on {@code GetUserInfoById} over a real Netty server (loopback), comparing
+ * grpc-java's defaults with the {@code user.grpc.transport} profile. Requests are issued on a fixed
+ * schedule and latency is measured from each request's intended start, so a stalled server shows
+ * up in the percentiles instead of silently lowering the offered rate.
+ * <pre>
+ * mvn test -Dtest=GrpcTransportBenchmark -Dsurefire.failIfNoSpecifiedTests=false -Dbench.rps=20000
+ * </pre>
+ */
+class GrpcTransportBenchmark {
+
+    private static final int RPS = Integer.getInteger("bench.rps", 20_000);
+    private static final int SECONDS = Integer.getInteger("bench.seconds", 10);
+    private static final int WARMUP_SECONDS = Integer.getInteger("bench.warmup-seconds", 3);
+    private static final int USERS = 10_000;
+
+    @Test
+    void getUserInfoByIdLatency() throws Exception {
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger("FCJ.user")).setLevel(Level.WARN);
+        InMemoryUserInfoService service = new InMemoryUserInfoService(64, "",
+                new MembershipStatistics(new InMemoryMembershipStatisticsStore()), new InMemoryPaymentLedger());
+        // GetUserInfoById looks profiles up by userId
+        List<String> ids = new ArrayList<>(USERS);
+        for (int i = 0; i < USERS; i++) {
+            UserInfoCreation creation = new UserInfoCreation();
+            creation.setFullName("user " + i);
+            UUID userId = UUID.randomUUID();
+            service.createUserInfo(userId, creation);
+            ids.add(userId.toString());
+        }
+        UserInfoGrpcService grpcService = new UserInfoGrpcService(service,
+                new UserInfoLookupBatcher(service, new LookupBatchProperties()));
+
+        Server defaults = NettyServerBuilder.forPort(0).addService(grpcService).build().start();
+        try {
+            report("default", run(defaults.getPort(), ids));
+        } finally {
+            defaults.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        }
+
+        GrpcTransportProperties properties = new GrpcTransportProperties();
+        try (GrpcTransportSupport transport = GrpcTransportSupport.create(properties)) {
+            NettyServerBuilder builder = NettyServerBuilder.forPort(0).addService(grpcService);
+            transport.applyTo(builder, properties);
+            Server tuned = builder.build().start();
+            try {
+                report("tuned", run(tuned.getPort(), ids));
+            } finally {
+                tuned.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+            }
+        }
+    }
+
+    private Result run(int port, List<String> ids) throws InterruptedException {
+        ManagedChannel channel = NettyChannelBuilder.forAddress("localhost", port)
+                .usePlaintext()
+                .directExecutor()
+                .build();
+        try {
+            UserInfoServiceGrpc.UserInfoServiceFutureStub stub = UserInfoServiceGrpc.newFutureStub(channel);
+            drive(stub, ids, WARMUP_SECONDS, new ConcurrentHistogram(3));
+            Histogram histogram = new ConcurrentHistogram(3);
+            long start = System.nanoTime();
+            AtomicLong failures = drive(stub, ids, SECONDS, histogram);
+            long elapsed = System.nanoTime() - start;
+            return new Result(histogram, failures.get(), histogram.getTotalCount() * 1e9 / elapsed);
+        } finally {
+            channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Issues {@code RPS} calls per second for {@code seconds}, then waits for the stragglers.
+     */
+    private AtomicLong drive(UserInfoServiceGrpc.UserInfoServiceFutureStub stub, List<String> ids,
+                             int seconds, Histogram histogram) throws InterruptedException {
+        AtomicLong failures = new AtomicLong();
+        AtomicLong outstanding = new AtomicLong();
+        long interval = 1_000_000_000L / RPS;
+        long total = (long) RPS * seconds;
+        long start = System.nanoTime();
+        for (long i = 0; i < total; i++) {
+            long intended = start + i * interval;
+            long now;
+            while ((now = System.nanoTime()) < intended) {
+                if (intended - now > 20_000) {
+                    LockSupport.parkNanos(intended - now - 10_000);
+                }
+            }
+            GetUserInfoByIdRequest request = GetUserInfoByIdRequest.newBuilder()
+                    .setId(ids.get((int) (i % ids.size())))
+                    .build();
+            outstanding.incrementAndGet();
+            Futures.addCallback(stub.getUserInfoById(request), new FutureCallback<>() {
+                @Override
+                public void onSuccess(UserInfoResponse result) {
+                    histogram.recordValue(System.nanoTime() - intended);
+                    outstanding.decrementAndGet();
+                }
+
+                @Override
+                public void onFailure(Throwable t) {
+                    failures.incrementAndGet();
+                    outstanding.decrementAndGet();
+                }
+            }, MoreExecutors.directExecutor());
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (outstanding.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        return failures;
+    }
+
+    private void report(String label, Result result) {
+        Histogram h = result.histogram();
+        System.out.printf("%-8s rps=%.0f/%d p50=%.3fms p90=%.3fms p99=%.3fms p999=%.3fms max=%.3fms failures=%d%n",
+                label, result.achievedRps(), RPS,
+                h.getValueAtPercentile(50) / 1e6, h.getValueAtPercentile(90) / 1e6,
+                h.getValueAtPercentile(99) / 1e6, h.getValueAtPercentile(99.9) / 1e6,
+                h.getMaxValue() / 1e6, result.failures());
+    }
+
+    private record Result(Histogram histogram, long failures, double achievedRps) {
+    }
+}
@@ -0,0 +1,189 @@
+package FCJ.user.cache;
+
+import FCJ.user.dto.UserInfoDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OffHeapProfileCacheTest {
+
+    private final List<OffHeapProfileCache> caches = new ArrayList<>();
+
+    private OffHeapProfileCache cache(long maximumSize, long maxMemoryBytes) {
+        OffHeapProfileCache cache = new OffHeapProfileCache(maximumSize, maxMemoryBytes, Duration.ofMinutes(2));
+        caches.add(cache);
+        return cache;
+    }
+
+    @AfterEach
+    void closeCaches() {
+        caches.forEach(OffHeapProfileCache::close);
+    }
+
+    private static UserInfoDTO profile(UUID userId, String fullName) {
+        UserInfoDTO dto = new UserInfoDTO();
+        dto.setId(UUID.randomUUID());
+        dto.setUserId(userId);
+        dto.setFullName(fullName);
+        dto.setSubscriptionTier("PREMIUM");
+        dto.setNextBillingDate(Instant.parse("2025-12-30T23:59:59Z"));
+        dto.setAutoRenewal(true);
+        return dto;
+    }
+
+    @Test
+    void storesReplacesAndEvicts() {
+        OffHeapProfileCache cache = cache(1_000, 64L << 20);
+        UUID userId = UUID.randomUUID();
+
+        cache.put(profile(userId, "first"));
+        cache.put(profile(userId, "second"));
+
+        UserInfoDTO hit = cache.get(userId).orElseThrow();
+        assertThat(hit.getFullName()).isEqualTo("second");
+        assertThat(hit.getNextBillingDate()).isEqualTo(Instant.parse("2025-12-30T23:59:59Z"));
+        assertThat(cache.size()).isEqualTo(1);
+
+        cache.evict(userId);
+        assertThat(cache.get(userId)).isEmpty();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void matchesReferenceMapUnderRandomOperations() {
+        OffHeapProfileCache cache = cache(100_000, 256L << 20);
+        Map<UUID, String> reference = new HashMap<>();
+        List<UUID> keys = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            keys.add(UUID.randomUUID());
+        }
+        Random random = new Random(42);
+
+        for (int i = 0; i < 50_000; i++) {
+            UUID key = keys.get(random.nextInt(keys.size()));
+            if (random.nextInt(4) == 0) {
+                cache.evict(key);
+                reference.remove(key);
+            } else {
+                // Vary the length so records move between size classes
+                String name = "n".repeat(random.nextInt(300)) + i;
+                cache.put(profile(key, name));
+                reference.put(key, name);
+            }
+        }
+
+        assertThat(cache.size()).isEqualTo(reference.size());
+        for (UUID key : keys) {
+            assertThat(cache.get(key).map(UserInfoDTO::getFullName)).isEqualTo(Optional.ofNullable(reference.get(key)));
+        }
+    }
+
+    @Test
+    void evictsWhenFullAndKeepsRecentlyReadEntries() {
+        OffHeapProfileCache cache = cache(16 * 16, 64L << 20);
+        UUID hot = UUID.randomUUID();
+        cache.put(profile(hot, "hot"));
+
+        for (int i = 0; i < 5_000; i++) {
+            cache.get(hot);
+            cache.put(profile(UUID.randomUUID(), "cold-" + i));
+        }
+
+        assertThat(cache.size()).isLessThanOrEqualTo(16 * 16);
+        assertThat(cache.get(hot)).isPresent();
+    }
+
+    @Test
+    void staysWithinMemoryBudget() {
+        long budget = 4L << 20;
+        OffHeapProfileCache cache = cache(10_000, budget);
+
+        for (int i = 0; i < 50_000; i++) {
+            cache.put(profile(UUID.randomUUID(), "x".repeat(900)));
+        }
+
+        assertThat(cache.reservedBytes()).isLessThanOrEqualTo(budget);
+        assertThat(cache.size()).isPositive();
+    }
+
+    @Test
+    void aNewSizeClassAtTheMemoryCapTakesOnePageInsteadOfEmptyingTheShard() {
+        OffHeapProfileCache cache = cache(10_000, 4L << 20);
+        for (int i = 0; i < 20_000; i++) {
+            cache.put(profile(UUID.randomUUID(), "x".repeat(900)));
+        }
+        long full = cache.size();
+
+        UUID userId = UUID.randomUUID();
+        cache.put(profile(userId, "small"));
+
+        assertThat(cache.get(userId)).map(UserInfoDTO::getFullName).hasValue("small");
+        // At most one page of 1 KiB records (64 of them) was given up
+        assertThat(cache.size()).isGreaterThanOrEqualTo(full - 64 + 1);
+    }
+
+    @Test
+    void emptiedPagesAreReusedBySmallerRecords() {
+        long budget = 4L << 20;
+        OffHeapProfileCache cache = cache(10_000, budget);
+        List<UUID> large = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            UUID userId = UUID.randomUUID();
+            large.add(userId);
+            cache.put(profile(userId, "x".repeat(900)));
+        }
+        long reserved = cache.reservedBytes();
+        large.forEach(cache::evict);
+
+        for (int i = 0; i < 5_000; i++) {
+            cache.put(profile(UUID.randomUUID(), "small-" + i));
+        }
+
+        assertThat(cache.size()).isEqualTo(5_000);
+        assertThat(cache.reservedBytes()).isEqualTo(reserved).isLessThanOrEqualTo(budget);
+    }
+
+    @Test
+    void rejectsBudgetTooSmallForTheIndex() {
+        assertThatThrownBy(() -> new OffHeapProfileCache(1_000_000, 4L << 20, Duration.ofMinutes(2)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void skipsRecordsLargerThanTheBiggestSlab() {
+        OffHeapProfileCache cache = cache(1_000, 64L << 20);
+        UUID userId = UUID.randomUUID();
+        cache.put(profile(userId, "small"));
+
+        cache.put(profile(userId, "y".repeat(10_000)));
+
+        assertThat(cache.get(userId)).isEmpty();
+    }
+
+    @Test
+    void warmEntriesRoundTripThroughHottest() {
+        OffHeapProfileCache source = cache(1_000, 64L << 20);
+        UUID userId = UUID.randomUUID();
+        source.put(profile(userId, "warm"));
+        source.get(userId);
+
+        OffHeapProfileCache target = cache(1_000, 64L << 20);
+        for (byte[] record : source.hottest(10)) {
+            target.warm(userId, record, Duration.ofSeconds(30));
+        }
+
+        assertThat(target.get(userId).map(UserInfoDTO::getFullName)).contains("warm");
+    }
+}
@@ -0,0 +1,93 @@
+package FCJ.user.cache;
+
+import FCJ.user.dto.UserInfoDTO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProfileCacheSnapshotterTest {
+
+    private static final Instant NOW = Instant.parse("2025-01-01T00:00:00Z");
+
+    @TempDir
+    Path dir;
+
+    private ProfileCacheProperties properties(Path snapshot) {
+        ProfileCacheProperties properties = new ProfileCacheProperties();
+        properties.getSnapshot().setPath(snapshot.toString());
+        properties.getSnapshot().setMaxAge(Duration.ofMinutes(2));
+        return properties;
+    }
+
+    private static UserInfoDTO profile(String fullName) {
+        UserInfoDTO dto = new UserInfoDTO();
+        dto.setId(UUID.randomUUID());
+        dto.setUserId(UUID.randomUUID());
+        dto.setFullName(fullName);
+        dto.setSubscriptionTier("VIP");
+        return dto;
+    }
+
+    @Test
+    void warmsNewCacheFromSnapshot() {
+        Path snapshot = dir.resolve("profile-cache.snapshot");
+        ProfileCache source = new CaffeineProfileCache(100, Duration.ofMinutes(2));
+        UserInfoDTO alice = profile("alice");
+        source.put(alice);
+        source.put(profile("bob"));
+        new ProfileCacheSnapshotter(source, properties(snapshot), Clock.fixed(NOW, ZoneOffset.UTC)).write();
+
+        ProfileCache target = new CaffeineProfileCache(100, Duration.ofMinutes(2));
+        int loaded = new ProfileCacheSnapshotter(target, properties(snapshot),
+                Clock.fixed(NOW.plusSeconds(30), ZoneOffset.UTC)).load();
+
+        assertThat(loaded).isEqualTo(2);
+        UserInfoDTO warmed = target.get(alice.getUserId()).orElseThrow();
+        assertThat(warmed.getId()).isEqualTo(alice.getId());
+        assertThat(warmed.getFullName()).isEqualTo("alice");
+        assertThat(warmed.getSubscriptionTier()).isEqualTo("VIP");
+    }
+
+    @Test
+    void ignoresSnapshotOlderThanMaxAge() {
+        Path snapshot = dir.resolve("profile-cache.snapshot");
+        ProfileCache source = new CaffeineProfileCache(100, Duration.ofMinutes(2));
+        source.put(profile("alice"));
+        new ProfileCacheSnapshotter(source, properties(snapshot), Clock.fixed(NOW, ZoneOffset.UTC)).write();
+
+        ProfileCache target = new CaffeineProfileCache(100, Duration.ofMinutes(2));
+        int loaded = new ProfileCacheSnapshotter(target, properties(snapshot),
+                Clock.fixed(NOW.plus(Duration.ofHours(1)), ZoneOffset.UTC)).load();
+
+        assertThat(loaded).isZero();
+        assertThat(target.size()).isZero();
+    }
+
+    @Test
+    void ignoresCorruptedSnapshot() throws IOException {
+        Path snapshot = dir.resolve("profile-cache.snapshot");
+        ProfileCache source = new CaffeineProfileCache(100, Duration.ofMinutes(2));
+        source.put(profile("alice"));
+        new ProfileCacheSnapshotter(source, properties(snapshot), Clock.fixed(NOW, ZoneOffset.UTC)).write();
+        byte[] bytes = Files.readAllBytes(snapshot);
+        bytes[bytes.length / 2] ^= 0x5A;
+        Files.write(snapshot, bytes);
+
+        ProfileCache target = new CaffeineProfileCache(100, Duration.ofMinutes(2));
+        int loaded = new ProfileCacheSnapshotter(target, properties(snapshot),
+                Clock.fixed(NOW.plusSeconds(10), ZoneOffset.UTC)).load();
+
+        assertThat(loaded).isZero();
+        assertThat(target.size()).isZero();
+    }
+}
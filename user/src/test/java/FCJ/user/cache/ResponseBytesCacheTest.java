@@ -0,0 +1,57 @@
+package FCJ.user.cache;
+
+import FCJ.user.dto.UserInfoDTO;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponseBytesCacheTest {
+
+    private static final String METHOD = "userinfo.UserInfoService/GetUserInfoById";
+
+    private final ResponseBytesCache responses = new ResponseBytesCache(1_000, Duration.ofMinutes(1));
+    private final ProfileCache profileCache = new ResponseInvalidatingProfileCache(
+            new CaffeineProfileCache(1_000, Duration.ofMinutes(1)), responses);
+
+    private static UserInfoDTO profile(UUID userId) {
+        UserInfoDTO userInfo = new UserInfoDTO();
+        userInfo.setId(UUID.randomUUID());
+        userInfo.setUserId(userId);
+        return userInfo;
+    }
+
+    @Test
+    void profileChangesDropTheUsersResponses() {
+        UUID alice = UUID.randomUUID();
+        UUID bob = UUID.randomUUID();
+        responses.put(METHOD, alice, new byte[]{1}, responses.stamp(alice));
+        responses.put(METHOD, bob, new byte[]{2}, responses.stamp(bob));
+
+        profileCache.putWritten(profile(alice));
+
+        assertThat(responses.get(METHOD, alice)).isNull();
+        assertThat(responses.get(METHOD, bob)).containsExactly(2);
+
+        profileCache.evict(bob);
+        assertThat(responses.get(METHOD, bob)).isNull();
+    }
+
+    @Test
+    void responseOfALookupThatRacedAWriteIsNotStored() {
+        UUID alice = UUID.randomUUID();
+        long stamp = responses.stamp(alice);
+        // The lookup's own read-through fill does not cancel it...
+        profileCache.put(profile(alice));
+        responses.put(METHOD, alice, new byte[]{1}, stamp);
+        assertThat(responses.get(METHOD, alice)).containsExactly(1);
+
+        // ...but a write between its read and its put does
+        long staleStamp = responses.stamp(alice);
+        profileCache.putWritten(profile(alice));
+        responses.put(METHOD, alice, new byte[]{2}, staleStamp);
+        assertThat(responses.get(METHOD, alice)).isNull();
+    }
+}
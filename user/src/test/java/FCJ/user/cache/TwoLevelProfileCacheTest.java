@@ -0,0 +1,186 @@
+package FCJ.user.cache;
+
+import FCJ.user.dto.UserInfoDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TwoLevelProfileCacheTest {
+
+    private static final Duration TTL = Duration.ofMinutes(2);
+    private static final Duration BACKOFF = Duration.ofSeconds(5);
+
+    private final FakeSharedTier tier = new FakeSharedTier();
+    private final AtomicLong nanos = new AtomicLong();
+    private final TwoLevelProfileCache replicaA = replica();
+    private final TwoLevelProfileCache replicaB = replica();
+
+    private TwoLevelProfileCache replica() {
+        TwoLevelProfileCache cache = new TwoLevelProfileCache(
+                new CaffeineProfileCache(1_000, Duration.ofSeconds(30)), tier, TTL, BACKOFF, nanos::get);
+        tier.subscribers.add(cache);
+        return cache;
+    }
+
+    private static UserInfoDTO profile(UUID userId, String fullName) {
+        UserInfoDTO dto = new UserInfoDTO();
+        dto.setId(UUID.randomUUID());
+        dto.setUserId(userId);
+        dto.setFullName(fullName);
+        return dto;
+    }
+
+    @Test
+    void missOnOneReplicaIsServedFromSharedTierAndKeptNear() {
+        UUID userId = UUID.randomUUID();
+        replicaA.put(profile(userId, "Alice"));
+
+        assertThat(replicaB.get(userId)).map(UserInfoDTO::getFullName).contains("Alice");
+        assertThat(replicaB.size()).isEqualTo(1);
+
+        tier.values.clear();
+        assertThat(replicaB.get(userId)).map(UserInfoDTO::getFullName).contains("Alice");
+    }
+
+    @Test
+    void writeOnOneReplicaInvalidatesNearCopiesElsewhere() {
+        UUID userId = UUID.randomUUID();
+        replicaA.put(profile(userId, "Alice"));
+        replicaB.get(userId);
+
+        replicaA.putWritten(profile(userId, "Alicia"));
+
+        assertThat(replicaB.get(userId)).map(UserInfoDTO::getFullName).contains("Alicia");
+        assertThat(replicaA.get(userId)).map(UserInfoDTO::getFullName).contains("Alicia");
+    }
+
+    @Test
+    void aSlowReadThroughFillDoesNotOverwriteANewerWrite() {
+        UUID userId = UUID.randomUUID();
+        // Replica B read the old row from the database before replica A's write, and fills after it
+        UserInfoDTO staleRead = profile(userId, "Alice");
+        replicaA.putWritten(profile(userId, "Alicia"));
+        replicaB.put(staleRead);
+        TwoLevelProfileCache replicaC = replica();
+
+        assertThat(replicaC.get(userId)).map(UserInfoDTO::getFullName).contains("Alicia");
+    }
+
+    @Test
+    void evictRemovesEntryFromEveryLevel() {
+        UUID userId = UUID.randomUUID();
+        replicaA.put(profile(userId, "Alice"));
+        replicaB.get(userId);
+
+        replicaA.evict(userId);
+
+        assertThat(replicaA.get(userId)).isEmpty();
+        assertThat(replicaB.get(userId)).isEmpty();
+    }
+
+    @Test
+    void eachLevelReportsItsOwnMetrics() {
+        SimpleMeterRegistry registryA = new SimpleMeterRegistry();
+        SimpleMeterRegistry registryB = new SimpleMeterRegistry();
+        replicaA.bindTo(registryA);
+        replicaB.bindTo(registryB);
+        UUID userId = UUID.randomUUID();
+
+        replicaB.get(userId);
+        replicaA.putWritten(profile(userId, "Alice"));
+        replicaB.get(userId);
+        replicaB.get(userId);
+
+        assertThat(registryB.get("cache.gets").tags("cache", "user.profile", "result", "hit").functionCounter().count())
+                .isEqualTo(1);
+        assertThat(registryB.get("cache.gets").tags("cache", "user.profile.shared", "result", "hit").functionCounter().count())
+                .isEqualTo(1);
+        assertThat(registryB.get("cache.gets").tags("cache", "user.profile.shared", "result", "miss").functionCounter().count())
+                .isEqualTo(1);
+        assertThat(registryA.get("user.profile.invalidations").tags("direction", "sent").functionCounter().count())
+                .isEqualTo(1);
+        assertThat(registryA.get("user.profile.invalidations").tags("direction", "received").functionCounter().count())
+                .isZero();
+        assertThat(registryB.get("user.profile.invalidations").tags("direction", "received").functionCounter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void sharedTierOutageFallsBackToNearCacheAndBacksOff() {
+        UUID userId = UUID.randomUUID();
+        replicaA.put(profile(userId, "Alice"));
+        tier.down = true;
+        int calls = tier.calls.get();
+
+        replicaA.putWritten(profile(userId, "Alicia"));
+        assertThat(replicaA.get(userId)).map(UserInfoDTO::getFullName).contains("Alicia");
+        assertThat(replicaA.get(UUID.randomUUID())).isEmpty();
+        assertThat(tier.calls).hasValue(calls + 1);
+
+        nanos.addAndGet(BACKOFF.toNanos());
+        tier.down = false;
+        replicaA.get(UUID.randomUUID());
+        assertThat(tier.calls).hasValue(calls + 2);
+    }
+
+    /**
+     * Shared store plus a synchronous broadcast to every replica, including the publisher, like
+     * Redis pub/sub.
+     */
+    private static final class FakeSharedTier implements SharedProfileTier {
+        private final Map<UUID, byte[]> values = new ConcurrentHashMap<>();
+        private final List<TwoLevelProfileCache> subscribers = new ArrayList<>();
+        private final AtomicInteger calls = new AtomicInteger();
+        private volatile boolean down;
+
+        @Override
+        public Optional<byte[]> get(UUID userId) {
+            check();
+            return Optional.ofNullable(values.get(userId));
+        }
+
+        @Override
+        public void put(UUID userId, byte[] record, Duration timeToLive) {
+            check();
+            values.put(userId, record);
+        }
+
+        @Override
+        public void putIfAbsent(UUID userId, byte[] record, Duration timeToLive) {
+            check();
+            values.putIfAbsent(userId, record);
+        }
+
+        @Override
+        public void evict(UUID userId) {
+            check();
+            values.remove(userId);
+        }
+
+        @Override
+        public void publish(String message) {
+            if (down) {
+                throw new IllegalStateException("shared tier down");
+            }
+            subscribers.forEach(subscriber -> subscriber.onInvalidation(message));
+        }
+
+        private void check() {
+            calls.incrementAndGet();
+            if (down) {
+                throw new IllegalStateException("shared tier down");
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package FCJ.user.config;
+
+import FCJ.user.dto.UserInfoDTO;
+import FCJ.user.grpc.UserInfoResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserInfoProtobufHttpMessageConverterTest {
+
+    private final UserInfoProtobufHttpMessageConverter converter = new UserInfoProtobufHttpMessageConverter();
+
+    @Test
+    void writesOnlyForProtobufAcceptHeader() {
+        assertThat(converter.canWrite(UserInfoDTO.class, UserInfoProtobufHttpMessageConverter.APPLICATION_X_PROTOBUF)).isTrue();
+        assertThat(converter.canWrite(UserInfoDTO.class, MediaType.APPLICATION_JSON)).isFalse();
+        assertThat(converter.canRead(UserInfoDTO.class, UserInfoProtobufHttpMessageConverter.APPLICATION_X_PROTOBUF)).isFalse();
+    }
+
+    @Test
+    void writesUserInfoResponseMessage() throws Exception {
+        UserInfoDTO dto = new UserInfoDTO();
+        dto.setId(UUID.randomUUID());
+        dto.setUserId(UUID.randomUUID());
+        dto.setFullName("Alice");
+        dto.setSubscriptionTier("VIP");
+        dto.setNextBillingDate(Instant.parse("2025-12-30T23:59:59Z"));
+        dto.setLastPaymentAmount(50000.0);
+        dto.setAutoRenewal(false);
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+
+        converter.write(dto, UserInfoProtobufHttpMessageConverter.APPLICATION_X_PROTOBUF, output);
+
+        UserInfoResponse response = UserInfoResponse.parseFrom(output.getBodyAsBytes());
+        assertThat(output.getHeaders().getContentType()).isEqualTo(UserInfoProtobufHttpMessageConverter.APPLICATION_X_PROTOBUF);
+        assertThat(response.getId()).isEqualTo(dto.getId().toString());
+        assertThat(response.getFullName()).isEqualTo("Alice");
+        assertThat(response.getSubscriptionTier()).isEqualTo("VIP");
+        assertThat(response.hasSubscriptionStatus()).isFalse();
+        assertThat(response.getNextBillingDate().getSeconds()).isEqualTo(dto.getNextBillingDate().getEpochSecond());
+        assertThat(response.getLastPaymentAmount()).isEqualTo(50000.0);
+        assertThat(response.hasAutoRenewal()).isTrue();
+        assertThat(response.hasLastPaymentDate()).isFalse();
+    }
+}
@@ -0,0 +1,112 @@
+package FCJ.user.grpc;
+
+import FCJ.user.cache.ResponseBytesCache;
+import FCJ.user.dto.UserInfoCreation;
+import FCJ.user.ledger.InMemoryPaymentLedger;
+import FCJ.user.service.InMemoryUserInfoService;
+import FCJ.user.service.LookupBatchProperties;
+import FCJ.user.service.UserInfoLookupBatcher;
+import FCJ.user.stats.InMemoryMembershipStatisticsStore;
+import FCJ.user.stats.MembershipStatistics;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class CachedResponseMethodsTest {
+
+    private final InMemoryUserInfoService userInfoService = spy(new InMemoryUserInfoService(16, "",
+            new MembershipStatistics(new InMemoryMembershipStatisticsStore()), new InMemoryPaymentLedger()));
+    private final ResponseBytesCache responseBytesCache = new ResponseBytesCache(1_000, Duration.ofMinutes(1));
+    private UserInfoLookupBatcher batcher;
+    private Server server;
+    private ManagedChannel channel;
+    private UserInfoServiceGrpc.UserInfoServiceBlockingStub stub;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        batcher = new UserInfoLookupBatcher(userInfoService, new LookupBatchProperties());
+        String name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(name)
+                .addService(new UserInfoGrpcService(userInfoService, batcher, responseBytesCache))
+                .build()
+                .start();
+        channel = InProcessChannelBuilder.forName(name).build();
+        stub = UserInfoServiceGrpc.newBlockingStub(channel);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        batcher.shutdown();
+    }
+
+    private UUID createUser(String fullName) {
+        UserInfoCreation creation = new UserInfoCreation();
+        creation.setFullName(fullName);
+        creation.setAvatarUrl("https://cdn.example.com/" + fullName + ".png");
+        UUID userId = UUID.randomUUID();
+        userInfoService.createUserInfo(userId, creation);
+        return userId;
+    }
+
+    @Test
+    void repeatedLookupsAreServedFromEncodedBytesPerMethod() {
+        UUID alice = createUser("alice");
+        GetUserInfoByIdRequest byId = GetUserInfoByIdRequest.newBuilder().setId(alice.toString()).build();
+        BlogUserInfoRequest blog = BlogUserInfoRequest.newBuilder().setId(alice.toString()).build();
+
+        UserInfoResponse first = stub.getUserInfoById(byId);
+        UserInfoResponse second = stub.getUserInfoById(byId);
+        BlogUserInfoResponse blogFirst = stub.blogUserInfo(blog);
+        BlogUserInfoResponse blogSecond = stub.blogUserInfo(blog);
+
+        assertThat(second).isEqualTo(first);
+        assertThat(second.getFullName()).isEqualTo("alice");
+        assertThat(blogSecond).isEqualTo(blogFirst);
+        assertThat(blogSecond.getAvatar()).isEqualTo("https://cdn.example.com/alice.png");
+        verify(userInfoService, times(2)).getUserInfoByUserId(alice);
+        assertThat(responseBytesCache.size()).isEqualTo(2);
+    }
+
+    @Test
+    void invalidationAndErrorsFallBackToTheService() {
+        UUID alice = createUser("alice");
+        GetUserInfoByIdRequest byId = GetUserInfoByIdRequest.newBuilder().setId(alice.toString()).build();
+        stub.getUserInfoById(byId);
+
+        responseBytesCache.invalidate(alice);
+        assertThat(stub.getUserInfoById(byId).getFullName()).isEqualTo("alice");
+
+        GetUserInfoByIdRequest unknown = GetUserInfoByIdRequest.newBuilder().setId(UUID.randomUUID().toString()).build();
+        for (int i = 0; i < 2; i++) {
+            assertThatThrownBy(() -> stub.getUserInfoById(unknown))
+                    .isInstanceOf(StatusRuntimeException.class)
+                    .extracting(e -> ((StatusRuntimeException) e).getStatus().getCode())
+                    .isEqualTo(Status.Code.NOT_FOUND);
+        }
+        assertThatThrownBy(() -> stub.getUserInfoById(GetUserInfoByIdRequest.newBuilder().setId("not-a-uuid").build()))
+                .extracting(e -> ((StatusRuntimeException) e).getStatus().getCode())
+                .isEqualTo(Status.Code.INVALID_ARGUMENT);
+
+        // alice twice (initial and after invalidation), the unknown user on both calls
+        verify(userInfoService, times(4)).getUserInfoByUserId(any());
+    }
+}
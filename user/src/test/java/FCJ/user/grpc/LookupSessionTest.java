@@ -0,0 +1,161 @@
+package FCJ.user.grpc;
+
+import FCJ.user.dto.UserInfoCreation;
+import FCJ.user.ledger.InMemoryPaymentLedger;
+import FCJ.user.service.InMemoryUserInfoService;
+import FCJ.user.service.LookupBatchProperties;
+import FCJ.user.service.UserInfoLookupBatcher;
+import FCJ.user.stats.InMemoryMembershipStatisticsStore;
+import FCJ.user.stats.MembershipStatistics;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.atMost;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+class LookupSessionTest {
+
+    private final InMemoryUserInfoService userInfoService = spy(new InMemoryUserInfoService(16, "",
+            new MembershipStatistics(new InMemoryMembershipStatisticsStore()), new InMemoryPaymentLedger()));
+    private UserInfoLookupBatcher batcher;
+    private Server server;
+    private ManagedChannel channel;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        LookupBatchProperties properties = new LookupBatchProperties();
+        properties.setWindow(Duration.ofMillis(50));
+        properties.setMaxBatchSize(64);
+        properties.setMaxInFlightPerSession(16);
+        batcher = new UserInfoLookupBatcher(userInfoService, properties);
+        String name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(name)
+                .addService(new UserInfoGrpcService(userInfoService, batcher))
+                .build()
+                .start();
+        channel = InProcessChannelBuilder.forName(name).build();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        batcher.shutdown();
+    }
+
+    private UUID createUser(String fullName) {
+        UserInfoCreation creation = new UserInfoCreation();
+        creation.setFullName(fullName);
+        creation.setAvatarUrl("https://cdn.example.com/" + fullName + ".png");
+        UUID userId = UUID.randomUUID();
+        userInfoService.createUserInfo(userId, creation);
+        return userId;
+    }
+
+    private Map<Long, LookupResponse> run(List<LookupRequest> requests) throws InterruptedException {
+        Map<Long, LookupResponse> responses = new ConcurrentHashMap<>();
+        CountDownLatch completed = new CountDownLatch(1);
+        StreamObserver<LookupRequest> session = UserInfoServiceGrpc.newStub(channel)
+                .lookupSession(new StreamObserver<>() {
+                    @Override
+                    public void onNext(LookupResponse response) {
+                        responses.put(response.getCorrelationId(), response);
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                        completed.countDown();
+                    }
+                });
+        requests.forEach(session::onNext);
+        session.onCompleted();
+        assertThat(completed.await(10, TimeUnit.SECONDS)).as("session completed").isTrue();
+        return responses;
+    }
+
+    @Test
+    void answersEveryRequestByCorrelationIdAndEndsAfterTheLast() throws Exception {
+        UUID alice = createUser("alice");
+        UUID bob = createUser("bob");
+
+        Map<Long, LookupResponse> responses = run(List.of(
+                LookupRequest.newBuilder().setCorrelationId(1).setUserId(alice.toString()).build(),
+                LookupRequest.newBuilder().setCorrelationId(2).setUserId(bob.toString())
+                        .setKind(LookupRequest.Kind.BLOG_USER_INFO).build(),
+                LookupRequest.newBuilder().setCorrelationId(3).setUserId(UUID.randomUUID().toString()).build(),
+                LookupRequest.newBuilder().setCorrelationId(4).setUserId("not-a-uuid").build()));
+
+        assertThat(responses).hasSize(4);
+        assertThat(responses.get(1L).getUserInfo().getFullName()).isEqualTo("alice");
+        assertThat(responses.get(1L).getUserInfo().getUserId()).isEqualTo(alice.toString());
+        assertThat(responses.get(2L).getBlogUserInfo().getName()).isEqualTo("bob");
+        assertThat(responses.get(2L).getBlogUserInfo().getAvatar()).isEqualTo("https://cdn.example.com/bob.png");
+        assertThat(responses.get(3L).getError().getCode()).isEqualTo(Status.Code.NOT_FOUND.value());
+        assertThat(responses.get(4L).getError().getCode()).isEqualTo(Status.Code.INVALID_ARGUMENT.value());
+    }
+
+    @Test
+    void pipelinedLookupsShareBatchQueries() throws Exception {
+        List<UUID> users = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            users.add(createUser("user" + i));
+        }
+        List<LookupRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            requests.add(LookupRequest.newBuilder()
+                    .setCorrelationId(i)
+                    .setUserId(users.get(i % users.size()).toString())
+                    .build());
+        }
+
+        Map<Long, LookupResponse> responses = run(requests);
+
+        assertThat(responses).hasSize(200);
+        for (int i = 0; i < 200; i++) {
+            assertThat(responses.get((long) i).getUserInfo().getFullName()).isEqualTo("user" + (i % users.size()));
+        }
+        // At most 16 lookups are read ahead per session, so 200 requests need at least 13 batches but far fewer than 200
+        verify(userInfoService, atMost(100)).getUserInfosByUserIds(anyCollection());
+    }
+
+    @Test
+    void batcherCoalescesConcurrentLookupsIntoOneQuery() throws Exception {
+        UUID alice = createUser("alice");
+        UUID bob = createUser("bob");
+
+        List<CompletableFuture<?>> lookups = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            lookups.add(batcher.lookup(i % 2 == 0 ? alice : bob));
+        }
+        CompletableFuture.allOf(lookups.toArray(new CompletableFuture[0]))
+                .get(5, TimeUnit.SECONDS);
+
+        verify(userInfoService, atMost(1)).getUserInfosByUserIds(anyCollection());
+        verify(userInfoService).getUserInfosByUserIds(argThat(ids -> ids.size() == 2));
+    }
+}
@@ -0,0 +1,188 @@
+package FCJ.user.grpc;
+
+import FCJ.user.ledger.InMemoryPaymentLedger;
+import FCJ.user.ledger.PaymentLedger;
+import FCJ.user.ledger.PaymentLedgerEntry;
+import FCJ.user.ledger.PaymentLedgerProperties;
+import FCJ.user.ledger.PaymentLedgerQuery;
+import FCJ.user.ledger.PaymentLedgerStreamLimit;
+import com.google.protobuf.Timestamp;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PaymentLedgerGrpcServiceTest {
+
+    private static final Instant START = Instant.parse("2026-01-01T00:00:00Z");
+
+    private final InMemoryPaymentLedger ledger = new InMemoryPaymentLedger();
+    // Entries handed to the service by the query, sent or not
+    private final AtomicInteger read = new AtomicInteger();
+    private final CountDownLatch queryEnded = new CountDownLatch(1);
+    private final PaymentLedgerStreamLimit streamLimit = new PaymentLedgerStreamLimit(new PaymentLedgerProperties());
+    private PaymentLedgerGrpcService service;
+    private Server server;
+    private ManagedChannel channel;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        PaymentLedger counting = new PaymentLedger() {
+            @Override
+            public void append(PaymentLedgerEntry entry) {
+                ledger.append(entry);
+            }
+
+            @Override
+            public void stream(PaymentLedgerQuery query, Consumer<PaymentLedgerEntry> sink) {
+                try {
+                    ledger.stream(query, entry -> {
+                        read.incrementAndGet();
+                        sink.accept(entry);
+                    });
+                } finally {
+                    queryEnded.countDown();
+                }
+            }
+        };
+        service = new PaymentLedgerGrpcService(counting, streamLimit);
+        String name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(name).addService(service).build().start();
+        channel = InProcessChannelBuilder.forName(name).build();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        service.shutdown();
+    }
+
+    private UUID recordPayments(int count) {
+        UUID userId = UUID.randomUUID();
+        for (int i = 0; i < count; i++) {
+            ledger.append(new PaymentLedgerEntry(userId, "payment-" + i, START.plusSeconds(i), 9.99, "MOMO",
+                    "VIP", "ACTIVE", START.plusSeconds(i)));
+        }
+        return userId;
+    }
+
+    private static Timestamp timestamp(Instant instant) {
+        return Timestamp.newBuilder().setSeconds(instant.getEpochSecond()).build();
+    }
+
+    @Test
+    void streamsAUsersPaymentsInOrder() {
+        UUID userId = recordPayments(300);
+        recordPayments(5);
+
+        List<LedgerPayment> payments = new ArrayList<>();
+        Iterator<LedgerPayment> stream = PaymentLedgerServiceGrpc.newBlockingStub(channel)
+                .streamUserPayments(UserPaymentsRequest.newBuilder()
+                        .setUserId(userId.toString())
+                        .setFrom(timestamp(START.plusSeconds(100)))
+                        .build());
+        stream.forEachRemaining(payments::add);
+
+        assertThat(payments).hasSize(200);
+        assertThat(payments.get(0).getPaymentId()).isEqualTo("payment-100");
+        assertThat(payments.get(199).getPaymentId()).isEqualTo("payment-299");
+        assertThat(payments.get(0).getAmount()).isEqualTo(9.99);
+        assertThat(UserInfoProtoMapper.instant(payments.get(0).getPaidAt())).isEqualTo(START.plusSeconds(100));
+    }
+
+    @Test
+    void aSlowClientPausesTheQueryAndCancellingStopsIt() throws Exception {
+        UUID userId = recordPayments(20_000);
+        CountDownLatch firstBatch = new CountDownLatch(5);
+        ClientCallStreamObserver<?>[] call = new ClientCallStreamObserver<?>[1];
+
+        PaymentLedgerServiceGrpc.newStub(channel).streamUserPayments(
+                UserPaymentsRequest.newBuilder().setUserId(userId.toString()).build(),
+                new ClientResponseObserver<UserPaymentsRequest, LedgerPayment>() {
+                    @Override
+                    public void beforeStart(ClientCallStreamObserver<UserPaymentsRequest> requestStream) {
+                        call[0] = requestStream;
+                        requestStream.disableAutoRequestWithInitial(5);
+                    }
+
+                    @Override
+                    public void onNext(LedgerPayment payment) {
+                        firstBatch.countDown();
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                    }
+                });
+        assertThat(firstBatch.await(5, TimeUnit.SECONDS)).isTrue();
+        // Give the server time to run ahead if it were not paced by the client
+        Thread.sleep(300);
+        int readWhileStalled = read.get();
+
+        call[0].cancel("done", null);
+
+        assertThat(queryEnded.await(5, TimeUnit.SECONDS)).as("query stopped").isTrue();
+        assertThat(readWhileStalled).isLessThan(20_000);
+        assertThat(read.get()).isLessThan(20_000);
+    }
+
+    @Test
+    void streamsBeyondTheSharedLimitAreRejected() {
+        UUID userId = recordPayments(3);
+        // Taken by REST streams
+        for (int i = 0; i < streamLimit.getMaxConcurrentStreams(); i++) {
+            assertThat(streamLimit.tryAcquire()).isTrue();
+        }
+        UserPaymentsRequest request = UserPaymentsRequest.newBuilder().setUserId(userId.toString()).build();
+
+        assertThatThrownBy(() -> PaymentLedgerServiceGrpc.newBlockingStub(channel).streamUserPayments(request).hasNext())
+                .isInstanceOfSatisfying(StatusRuntimeException.class, e ->
+                        assertThat(e.getStatus().getCode()).isEqualTo(Status.Code.RESOURCE_EXHAUSTED));
+
+        streamLimit.release();
+        List<LedgerPayment> payments = new ArrayList<>();
+        PaymentLedgerServiceGrpc.newBlockingStub(channel).streamUserPayments(request).forEachRemaining(payments::add);
+        assertThat(payments).hasSize(3);
+        // The permit is returned just after the call completes
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!streamLimit.tryAcquire()) {
+            assertThat(System.nanoTime()).as("the finished stream returned its permit").isLessThan(deadline);
+            Thread.onSpinWait();
+        }
+    }
+
+    @Test
+    void periodQueriesNeedBothBounds() {
+        Iterator<LedgerPayment> stream = PaymentLedgerServiceGrpc.newBlockingStub(channel)
+                .streamPayments(PaymentPeriodRequest.newBuilder().setFrom(timestamp(START)).build());
+
+        assertThatThrownBy(stream::hasNext)
+                .isInstanceOfSatisfying(StatusRuntimeException.class, e ->
+                        assertThat(e.getStatus().getCode()).isEqualTo(Status.Code.INVALID_ARGUMENT));
+    }
+}
@@ -0,0 +1,79 @@
+package FCJ.user.jdbc;
+
+import io.grpc.Context;
+import io.grpc.Deadline;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLTimeoutException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DeadlineAwareDataSourceTest {
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final DataSource target = mock(DataSource.class);
+    private final Connection connection = mock(Connection.class);
+    private final PreparedStatement statement = mock(PreparedStatement.class);
+    private final DeadlineAwareDataSource dataSource = new DeadlineAwareDataSource(target);
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(target.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+    }
+
+    @Test
+    void withoutScopeConnectionsAreUntouched() throws Exception {
+        dataSource.getConnection().prepareStatement("select 1");
+
+        verify(statement, never()).setQueryTimeout(anyInt());
+    }
+
+    @Test
+    void capsQueryTimeoutAtRemainingDeadline() throws Exception {
+        Context.CancellableContext context = Context.current()
+                .withDeadline(Deadline.after(2500, TimeUnit.MILLISECONDS), scheduler);
+        try (QueryDeadline.Scope ignored = QueryDeadline.open(context)) {
+            dataSource.getConnection().prepareStatement("select 1");
+        } finally {
+            context.cancel(null);
+        }
+
+        verify(statement).setQueryTimeout(3);
+    }
+
+    @Test
+    void cancelsRunningStatementWhenCallIsCancelled() throws Exception {
+        Context.CancellableContext context = Context.current().withCancellation();
+        try (QueryDeadline.Scope ignored = QueryDeadline.open(context)) {
+            dataSource.getConnection().prepareStatement("select 1");
+            context.cancel(null);
+        }
+
+        verify(statement).cancel();
+    }
+
+    @Test
+    void refusesConnectionsOnceDeadlineHasPassed() throws Exception {
+        Context.CancellableContext context = Context.current().withCancellation();
+        context.cancel(null);
+        try (QueryDeadline.Scope ignored = QueryDeadline.open(context)) {
+            assertThatThrownBy(dataSource::getConnection).isInstanceOf(SQLTimeoutException.class);
+        }
+
+        verify(connection).close();
+    }
+}
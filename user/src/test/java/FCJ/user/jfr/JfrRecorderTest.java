@@ -0,0 +1,106 @@
+package FCJ.user.jfr;
+
+import FCJ.user.dto.UserInfoCreation;
+import FCJ.user.exception.UserInfoNotFoundException;
+import FCJ.user.grpc.GetUserInfoByIdRequest;
+import FCJ.user.grpc.UserInfoGrpcService;
+import FCJ.user.grpc.UserInfoServiceGrpc;
+import FCJ.user.ledger.InMemoryPaymentLedger;
+import FCJ.user.service.InMemoryUserInfoService;
+import FCJ.user.service.LookupBatchProperties;
+import FCJ.user.service.UserInfoLookupBatcher;
+import FCJ.user.service.UserInfoService;
+import FCJ.user.stats.InMemoryMembershipStatisticsStore;
+import FCJ.user.stats.MembershipStatistics;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.ServerInterceptors;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.support.AopUtils;
+
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JfrRecorderTest {
+
+    private final JfrRecorder recorder = new JfrRecorder(new JfrProperties());
+
+    @AfterEach
+    void tearDown() {
+        recorder.close();
+    }
+
+    @Test
+    void summarizesServiceAndGrpcEventsOfAFinishedRecording() throws Exception {
+        InMemoryUserInfoService target = new InMemoryUserInfoService(16, "",
+                new MembershipStatistics(new InMemoryMembershipStatisticsStore()), new InMemoryPaymentLedger());
+        UserInfoService service = (UserInfoService) OperationEventPostProcessor.service()
+                .postProcessAfterInitialization(target, "userInfoService");
+        assertThat(AopUtils.isAopProxy(service)).isTrue();
+        UUID userId = UUID.randomUUID();
+        UserInfoCreation creation = new UserInfoCreation();
+        creation.setFullName("alice");
+        service.createUserInfo(userId, creation);
+
+        LookupBatchProperties properties = new LookupBatchProperties();
+        UserInfoLookupBatcher batcher = new UserInfoLookupBatcher(service, properties);
+        String name = InProcessServerBuilder.generateName();
+        Server server = InProcessServerBuilder.forName(name)
+                .addService(ServerInterceptors.intercept(new UserInfoGrpcService(service, batcher),
+                        new GrpcCallEventInterceptor()))
+                .build()
+                .start();
+        ManagedChannel channel = InProcessChannelBuilder.forName(name).build();
+        try {
+            assertThat(recorder.start(Duration.ofMinutes(1), Duration.ZERO).state()).isEqualTo("RUNNING");
+            assertThat(recorder.start(null, null)).as("second recording refused").isNull();
+
+            for (int i = 0; i < 5; i++) {
+                service.getUserInfoByUserId(userId);
+            }
+            assertThatThrownBy(() -> service.getUserInfoByUserId(UUID.randomUUID()))
+                    .isInstanceOf(UserInfoNotFoundException.class);
+            UserInfoServiceGrpc.UserInfoServiceBlockingStub stub = UserInfoServiceGrpc.newBlockingStub(channel);
+            stub.getUserInfoById(GetUserInfoByIdRequest.newBuilder().setId(userId.toString()).build());
+            assertThatThrownBy(() -> stub.getUserInfoById(GetUserInfoByIdRequest.newBuilder().setId("nope").build()))
+                    .isInstanceOf(StatusRuntimeException.class);
+
+            JfrRecorder.Status status = recorder.stop();
+
+            assertThat(status.state()).isEqualTo("FINISHED");
+            assertThat(Files.size(recorder.recordingFile())).isPositive();
+            assertThat(status.slowestOperations())
+                    .anySatisfy(operation -> {
+                        assertThat(operation.event()).isEqualTo("FCJ.user.ServiceOperation");
+                        assertThat(operation.operation()).isEqualTo("getUserInfoByUserId");
+                        assertThat(operation.count()).isGreaterThanOrEqualTo(6);
+                        assertThat(operation.failed()).isEqualTo(1);
+                    })
+                    .anySatisfy(operation -> {
+                        assertThat(operation.event()).isEqualTo("FCJ.user.GrpcCall");
+                        assertThat(operation.operation()).isEqualTo("userinfo.UserInfoService/GetUserInfoById");
+                        assertThat(operation.count()).isEqualTo(2);
+                        assertThat(operation.failed()).isEqualTo(1);
+                    });
+        } finally {
+            channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+            server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+            batcher.shutdown();
+        }
+    }
+
+    @Test
+    void reportsNoneBeforeAnyRecording() {
+        assertThat(recorder.status().state()).isEqualTo("NONE");
+        assertThat(recorder.recordingFile()).isNull();
+    }
+}
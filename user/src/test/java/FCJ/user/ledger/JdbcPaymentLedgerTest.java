@@ -0,0 +1,222 @@
+package FCJ.user.ledger;
+
+import FCJ.user.cache.LastKnownProfiles;
+import FCJ.user.cache.ProfileCache;
+import FCJ.user.dto.UserInfoCreation;
+import FCJ.user.repository.UserInfoRepository;
+import FCJ.user.service.ProfileWriteBehindBuffer;
+import FCJ.user.service.UserInfoService;
+import FCJ.user.service.UserInfoServiceImpl;
+import FCJ.user.service.WriteBehindProperties;
+import FCJ.user.stats.InMemoryMembershipStatisticsStore;
+import FCJ.user.stats.MembershipStatistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Runs against H2, which gets the plain (unpartitioned) table. Not transactional, so every stream
+ * starts its own read-only transaction as it does in production.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class JdbcPaymentLedgerTest {
+
+    private static final Instant MARCH = Instant.parse("2026-03-01T00:00:00Z");
+    private static final Instant APRIL = Instant.parse("2026-04-01T00:00:00Z");
+    private static final Instant MAY = Instant.parse("2026-05-01T00:00:00Z");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private UserInfoRepository userInfoRepository;
+
+    private JdbcPaymentLedger ledger;
+
+    @BeforeEach
+    void setUp() {
+        PaymentLedgerProperties properties = new PaymentLedgerProperties();
+        properties.setFetchSize(2);
+        new PaymentLedgerSchema(jdbcTemplate, properties).initialize();
+        jdbcTemplate.execute("DELETE FROM payment_ledger");
+        jdbcTemplate.execute("DELETE FROM payment_ledger_ids");
+        ledger = new JdbcPaymentLedger(jdbcTemplate, transactionManager, properties);
+    }
+
+    private static PaymentLedgerEntry payment(UUID userId, String paymentId, Instant paidAt, Double amount) {
+        return new PaymentLedgerEntry(userId, paymentId, paidAt, amount, "MOMO", "VIP", "ACTIVE", paidAt);
+    }
+
+    private List<PaymentLedgerEntry> stream(PaymentLedgerQuery query) {
+        List<PaymentLedgerEntry> entries = new ArrayList<>();
+        ledger.stream(query, entries::add);
+        return entries;
+    }
+
+    @Test
+    void streamsAUsersPaymentsInPaidAtOrderWithinTheBounds() {
+        UUID alice = UUID.randomUUID();
+        UUID bob = UUID.randomUUID();
+        ledger.append(payment(alice, "p3", MAY, 30.0));
+        ledger.append(payment(alice, "p1", MARCH, 10.0));
+        ledger.append(payment(bob, "p2", APRIL, 20.0));
+        ledger.append(payment(alice, "p2b", APRIL, null));
+
+        assertThat(stream(PaymentLedgerQuery.forUser(alice, null, null)))
+                .extracting(PaymentLedgerEntry::paymentId)
+                .containsExactly("p1", "p2b", "p3");
+        assertThat(stream(PaymentLedgerQuery.forUser(alice, APRIL, MAY)))
+                .singleElement()
+                .satisfies(entry -> {
+                    assertThat(entry.paidAt()).isEqualTo(APRIL);
+                    assertThat(entry.amount()).isNull();
+                    assertThat(entry.userId()).isEqualTo(alice);
+                });
+    }
+
+    @Test
+    void streamsEveryUsersPaymentsInAPeriod() {
+        ledger.append(payment(UUID.randomUUID(), "before", MARCH, 1.0));
+        ledger.append(payment(UUID.randomUUID(), "a", APRIL, 2.0));
+        ledger.append(payment(UUID.randomUUID(), "b", APRIL.plusSeconds(60), 3.0));
+        ledger.append(payment(UUID.randomUUID(), "after", MAY, 4.0));
+
+        assertThat(stream(PaymentLedgerQuery.forPeriod(APRIL, MAY)))
+                .extracting(PaymentLedgerEntry::paymentId)
+                .containsExactly("a", "b");
+        assertThatThrownBy(() -> PaymentLedgerQuery.forPeriod(APRIL, null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void appendingTheSamePaymentAgainIsANoOp() {
+        UUID userId = UUID.randomUUID();
+        ledger.append(payment(userId, "p1", MARCH, 10.0));
+        ledger.append(payment(userId, "p1", MARCH, 10.0));
+        // A retry without lastPaymentDate defaults paidAt to the time of the retry
+        ledger.append(payment(userId, "p1", APRIL, 10.0));
+
+        assertThat(stream(PaymentLedgerQuery.forUser(userId, null, null)))
+                .extracting(PaymentLedgerEntry::paidAt)
+                .containsExactly(MARCH);
+    }
+
+    @Test
+    void concurrentRetriesWithDifferentPaidAtAppendOnce() throws Exception {
+        UUID userId = UUID.randomUUID();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> attempts = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                Instant paidAt = MARCH.plusSeconds(i);
+                attempts.add(executor.submit(() -> {
+                    start.await();
+                    ledger.append(payment(userId, "p1", paidAt, 10.0));
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> attempt : attempts) {
+                attempt.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(stream(PaymentLedgerQuery.forUser(userId, null, null))).hasSize(1);
+    }
+
+    @Test
+    void usersSharingAPaymentIdAndPaidAtAreBothRecorded() {
+        UUID alice = UUID.randomUUID();
+        UUID bob = UUID.randomUUID();
+        ledger.append(payment(alice, "gateway-42", MARCH, 10.0));
+        ledger.append(payment(bob, "gateway-42", MARCH, 20.0));
+
+        assertThat(stream(PaymentLedgerQuery.forPeriod(MARCH, APRIL)))
+                .extracting(PaymentLedgerEntry::userId)
+                .containsExactlyInAnyOrder(alice, bob);
+    }
+
+    @Test
+    void anExceptionFromTheSinkStopsTheQuery() {
+        UUID userId = UUID.randomUUID();
+        for (int i = 0; i < 10; i++) {
+            ledger.append(payment(userId, "p" + i, MARCH.plusSeconds(i), 1.0));
+        }
+        List<PaymentLedgerEntry> received = new ArrayList<>();
+
+        assertThatThrownBy(() -> ledger.stream(PaymentLedgerQuery.forUser(userId, null, null), entry -> {
+            received.add(entry);
+            if (received.size() == 3) {
+                throw new IllegalStateException("client gone");
+            }
+        })).isInstanceOf(IllegalStateException.class);
+        assertThat(received).hasSize(3);
+    }
+
+    @Test
+    void profileWritesThatCarryAPaymentAreRecorded() {
+        UserInfoService service = new UserInfoServiceImpl(userInfoRepository, ProfileCache.disabled(),
+                new ProfileWriteBehindBuffer(jdbcTemplate, new WriteBehindProperties()),
+                new MembershipStatistics(new InMemoryMembershipStatisticsStore()), LastKnownProfiles.disabled(), ledger);
+        UUID userId = UUID.randomUUID();
+        service.createUserInfo(userId, paid("first", MARCH, 10.0));
+
+        UserInfoCreation rename = new UserInfoCreation();
+        rename.setFullName("renamed");
+        service.patchUserInfoByUserId(userId, rename);
+        service.patchUserInfoByUserId(userId, paid("second", APRIL, 20.0));
+        // A retried payment write
+        service.patchUserInfoByUserId(userId, paid("second", APRIL, 20.0));
+
+        assertThat(stream(PaymentLedgerQuery.forUser(userId, null, null)))
+                .extracting(PaymentLedgerEntry::paymentId, PaymentLedgerEntry::amount)
+                .containsExactly(
+                        tuple("first", 10.0),
+                        tuple("second", 20.0));
+    }
+
+    @Test
+    void partitionsCoverOneCalendarMonth() {
+        assertThat(PaymentLedgerSchema.partitionStatement(YearMonth.of(2026, 12)))
+                .isEqualTo("CREATE TABLE IF NOT EXISTS payment_ledger_2026_12 PARTITION OF payment_ledger "
+                        + "FOR VALUES FROM ('2026-12-01T00:00Z') TO ('2027-01-01T00:00Z')");
+    }
+
+    private static UserInfoCreation paid(String paymentId, Instant paidAt, double amount) {
+        UserInfoCreation creation = new UserInfoCreation();
+        creation.setSubscriptionTier("VIP");
+        creation.setSubscriptionStatus("ACTIVE");
+        creation.setPaymentMethod("MOMO");
+        creation.setLastPaymentId(paymentId);
+        creation.setLastPaymentDate(paidAt);
+        creation.setLastPaymentAmount(amount);
+        return creation;
+    }
+}
@@ -0,0 +1,61 @@
+package FCJ.user.loadtest;
+
+import FCJ.user.grpc.UserInfoServiceGrpc;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Clients and seeded users shared by all workers of a run.
+ */
+final class LoadClient {
+
+    /** Users the patch workload concentrates on. */
+    private static final int HOT_USERS = 32;
+
+    private final UserInfoServiceGrpc.UserInfoServiceBlockingStub grpc;
+    private final HttpClient http;
+    private final String baseUrl;
+    private final List<SeededUser> users;
+
+    LoadClient(UserInfoServiceGrpc.UserInfoServiceBlockingStub grpc, HttpClient http, String baseUrl,
+               List<SeededUser> users) {
+        this.grpc = grpc;
+        this.http = http;
+        this.baseUrl = baseUrl;
+        this.users = users;
+    }
+
+    UserInfoServiceGrpc.UserInfoServiceBlockingStub grpc() {
+        return grpc;
+    }
+
+    URI uri(String path) {
+        return URI.create(baseUrl + path);
+    }
+
+    void send(HttpRequest.Builder request, int expectedStatus) throws Exception {
+        HttpResponse<Void> response = http.send(request.build(), HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != expectedStatus) {
+            throw new IllegalStateException(response.request().method() + " " + response.uri()
+                    + " returned " + response.statusCode());
+        }
+    }
+
+    SeededUser popularUser(SplittableRandom random) {
+        double u = random.nextDouble();
+        return users.get((int) (u * u * u * users.size()));
+    }
+
+    SeededUser hotUser(SplittableRandom random) {
+        return users.get(random.nextInt(Math.min(HOT_USERS, users.size())));
+    }
+
+    record SeededUser(UUID id, UUID userId) {
+    }
+}
@@ -0,0 +1,83 @@
+package FCJ.user.loadtest;
+
+import FCJ.user.grpc.BlogUserInfoRequest;
+import FCJ.user.grpc.CreateEmptyUserInfoRequest;
+import FCJ.user.grpc.GetUserInfoByIdRequest;
+import FCJ.user.grpc.PatchUserInfoRequest;
+
+import java.net.http.HttpRequest;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Single calls the workload profiles are built from. Popular-user reads are skewed (cube of a
+ * uniform draw) so a few users take most of the traffic, like a feed does.
+ */
+enum LoadOperation {
+
+    GRPC_BLOG_USER_INFO {
+        @Override
+        void execute(LoadClient client, SplittableRandom random) {
+            client.grpc().blogUserInfo(BlogUserInfoRequest.newBuilder()
+                    .setId(client.popularUser(random).userId().toString())
+                    .build());
+        }
+    },
+    GRPC_GET_BY_USER_ID {
+        @Override
+        void execute(LoadClient client, SplittableRandom random) {
+            client.grpc().getUserInfoById(GetUserInfoByIdRequest.newBuilder()
+                    .setId(client.popularUser(random).userId().toString())
+                    .build());
+        }
+    },
+    REST_GET_BY_USER_ID {
+        @Override
+        void execute(LoadClient client, SplittableRandom random) throws Exception {
+            client.send(HttpRequest.newBuilder(client.uri("/api/user-info/by-user-id"))
+                    .header("X-User-Id", client.popularUser(random).userId().toString())
+                    .GET(), 200);
+        }
+    },
+    GRPC_CREATE_EMPTY {
+        @Override
+        void execute(LoadClient client, SplittableRandom random) {
+            client.grpc().createEmptyUserInfo(CreateEmptyUserInfoRequest.newBuilder()
+                    .setUserId(freshUserId(random).toString())
+                    .build());
+        }
+    },
+    REST_CREATE_EMPTY {
+        @Override
+        void execute(LoadClient client, SplittableRandom random) throws Exception {
+            client.send(HttpRequest.newBuilder(client.uri("/api/user-info/empty"))
+                    .header("X-User-Id", freshUserId(random).toString())
+                    .POST(HttpRequest.BodyPublishers.noBody()), 201);
+        }
+    },
+    REST_PATCH_BY_USER_ID {
+        @Override
+        void execute(LoadClient client, SplittableRandom random) throws Exception {
+            client.send(HttpRequest.newBuilder(client.uri("/api/user-info"))
+                    .header("X-User-Id", client.hotUser(random).userId().toString())
+                    .header("Content-Type", "application/json")
+                    .method("PATCH", HttpRequest.BodyPublishers.ofString(
+                            "{\"fullName\":\"Patched " + random.nextInt(1_000) + "\"}")), 200);
+        }
+    },
+    GRPC_PATCH_BY_ID {
+        @Override
+        void execute(LoadClient client, SplittableRandom random) {
+            client.grpc().patchUserInfo(PatchUserInfoRequest.newBuilder()
+                    .setId(client.hotUser(random).id().toString())
+                    .setAvatarUrl("https://cdn.example.com/avatars/" + random.nextInt(1_000) + ".png")
+                    .build());
+        }
+    };
+
+    abstract void execute(LoadClient client, SplittableRandom random) throws Exception;
+
+    private static UUID freshUserId(SplittableRandom random) {
+        return new UUID(random.nextLong(), random.nextLong());
+    }
+}
@@ -0,0 +1,167 @@
+package FCJ.user.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Formatter;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop driver: {@code concurrency} workers each run a fixed, seeded sequence of operations
+ * and record per-call latency. Allocation is the JVM-wide allocated-bytes delta (client and server
+ * share the JVM), so it is a regression signal rather than an absolute server cost.
+ */
+final class LoadRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadRunner.class);
+
+    private static final long SEED = Long.getLong("loadtest.seed", 42L);
+
+    private final LoadClient client;
+
+    LoadRunner(LoadClient client) {
+        this.client = client;
+    }
+
+    Result run(WorkloadProfile profile) throws Exception {
+        // Warm-up uses a different seed so its writes do not collide with the measured run
+        execute(profile, SEED ^ 0x5DEECE66DL, Math.max(1, profile.operationsPerWorker() / 5));
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long allocatedBefore = threads.getTotalThreadAllocatedBytes();
+        long start = System.nanoTime();
+        Recording recording = execute(profile, SEED, profile.operationsPerWorker());
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getTotalThreadAllocatedBytes() - allocatedBefore;
+        return new Result(profile, recording.total, recording.byOperation, recording.errors.get(), elapsed, allocated);
+    }
+
+    private Recording execute(WorkloadProfile profile, long seed, int operationsPerWorker) throws Exception {
+        Recording recording = new Recording();
+        int concurrency = profile.concurrency();
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int worker = 0; worker < concurrency; worker++) {
+                SplittableRandom random = new SplittableRandom(seed * 31 + profile.ordinal() * 1_000L + worker);
+                futures.add(workers.submit(() -> {
+                    for (int i = 0; i < operationsPerWorker; i++) {
+                        LoadOperation operation = profile.pick(random.nextInt(100));
+                        long begin = System.nanoTime();
+                        try {
+                            operation.execute(client, random);
+                            recording.record(operation, System.nanoTime() - begin);
+                        } catch (Exception e) {
+                            if (recording.errors.incrementAndGet() == 1) {
+                                logger.warn("{}: first error in {}", profile.id(), operation, e);
+                            }
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            workers.shutdown();
+        }
+        return recording;
+    }
+
+    private static final class Recording {
+        private final Histogram total = new ConcurrentHistogram(3);
+        private final Map<LoadOperation, Histogram> byOperation = new EnumMap<>(LoadOperation.class);
+        private final AtomicLong errors = new AtomicLong();
+
+        Recording() {
+            for (LoadOperation operation : LoadOperation.values()) {
+                byOperation.put(operation, new ConcurrentHistogram(3));
+            }
+        }
+
+        void record(LoadOperation operation, long nanos) {
+            total.recordValue(nanos);
+            byOperation.get(operation).recordValue(nanos);
+        }
+    }
+
+    record Result(WorkloadProfile profile, Histogram total, Map<LoadOperation, Histogram> byOperation,
+                  long errors, long elapsedNanos, long allocatedBytes) {
+
+        double throughput() {
+            return total.getTotalCount() * 1e9 / elapsedNanos;
+        }
+
+        double p99Millis() {
+            return total.getValueAtPercentile(99) / 1e6;
+        }
+
+        long allocatedBytesPerOp() {
+            return total.getTotalCount() == 0 ? 0 : allocatedBytes / total.getTotalCount();
+        }
+
+        List<String> violations() {
+            List<String> violations = new ArrayList<>();
+            if (errors > 0) {
+                violations.add(errors + " failed operations");
+            }
+            if (p99Millis() > profile.maxP99Millis()) {
+                violations.add(String.format("p99 %.2fms > %.2fms", p99Millis(), profile.maxP99Millis()));
+            }
+            if (throughput() < profile.minThroughput()) {
+                violations.add(String.format("throughput %.0f/s < %.0f/s", throughput(), profile.minThroughput()));
+            }
+            if (allocatedBytesPerOp() > profile.maxAllocatedBytesPerOp()) {
+                violations.add(String.format("allocation %d B/op > %d B/op", allocatedBytesPerOp(), profile.maxAllocatedBytesPerOp()));
+            }
+            return violations;
+        }
+
+        String report() {
+            Formatter out = new Formatter();
+            out.format("%-13s ops=%d errors=%d throughput=%.0f/s alloc=%dB/op%n",
+                    profile.id(), total.getTotalCount(), errors, throughput(), allocatedBytesPerOp());
+            line(out, "  all", total);
+            byOperation.forEach((operation, histogram) -> {
+                if (histogram.getTotalCount() > 0) {
+                    line(out, "  " + operation.name().toLowerCase(), histogram);
+                }
+            });
+            return out.toString();
+        }
+
+        /**
+         * Full percentile distribution, plottable with HdrHistogram's plotter to compare runs.
+         */
+        void writeHistogram(Path directory) throws IOException {
+            Files.createDirectories(directory);
+            try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve(profile.id() + ".hgrm")))) {
+                total.outputPercentileDistribution(out, 1e6);
+            }
+        }
+
+        private static void line(Formatter out, String label, Histogram h) {
+            out.format("%-26s n=%-6d p50=%.3fms p90=%.3fms p99=%.3fms p999=%.3fms max=%.3fms%n",
+                    label, h.getTotalCount(),
+                    h.getValueAtPercentile(50) / 1e6, h.getValueAtPercentile(90) / 1e6,
+                    h.getValueAtPercentile(99) / 1e6, h.getValueAtPercentile(99.9) / 1e6,
+                    h.getMaxValue() / 1e6);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package FCJ.user.loadtest;
+
+import FCJ.user.dto.UserInfoCreation;
+import FCJ.user.dto.UserInfoDTO;
+import FCJ.user.grpc.UserInfoServiceGrpc;
+import FCJ.user.service.UserInfoService;
+import io.grpc.ManagedChannel;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drives the full application (REST on a random port, gRPC over an in-process channel, embedded H2)
+ * with each {@link WorkloadProfile} and fails when a profile breaks its latency, throughput or
+ * allocation thresholds. Not part of the default test run:
+ * <pre>
+ * mvn -Ploadtest test
+ * mvn -Ploadtest test -Dloadtest.seed=7 -Dloadtest.blog-feed.max-p99-ms=20
+ * </pre>
+ * Percentile distributions are written to {@code target/loadtest/<profile>.hgrm}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:loadtest;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;IGNORE_UNKNOWN_SETTINGS=TRUE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "grpc.server.port=-1",
+        "grpc.server.in-process-name=loadtest",
+        "grpc.server.enable-keep-alive=false",
+        // A single process has no other replica to go stale against; blog-feed's thresholds assume the cache
+        "user.cache.enabled=true",
+        "user.cache.snapshot.path=",
+        "user.rate-limit.enabled=false",
+        "logging.level.FCJ.user=WARN",
+        "logging.level.FCJ.user.grpc.UserInfoGrpcService=WARN",
+        "logging.level.FCJ.user.loadtest=INFO"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class UserInfoLoadScenarios {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserInfoLoadScenarios.class);
+
+    private static final int SEEDED_USERS = Integer.getInteger("loadtest.users", 2_000);
+
+    @Autowired
+    private UserInfoService userInfoService;
+
+    @LocalServerPort
+    private int port;
+
+    private ManagedChannel channel;
+    private ExecutorService httpExecutor;
+    private LoadRunner runner;
+
+    @BeforeAll
+    void seed() {
+        SplittableRandom random = new SplittableRandom(Long.getLong("loadtest.seed", 42L));
+        List<LoadClient.SeededUser> users = new ArrayList<>(SEEDED_USERS);
+        for (int i = 0; i < SEEDED_USERS; i++) {
+            UUID userId = new UUID(random.nextLong(), random.nextLong());
+            UserInfoCreation creation = new UserInfoCreation();
+            creation.setFullName("Load User " + i);
+            creation.setAvatarUrl("https://cdn.example.com/avatars/" + i + ".png");
+            UserInfoDTO created = userInfoService.createUserInfo(userId, creation);
+            users.add(new LoadClient.SeededUser(created.getId(), userId));
+        }
+
+        channel = InProcessChannelBuilder.forName("loadtest").directExecutor().build();
+        httpExecutor = Executors.newFixedThreadPool(4);
+        HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(httpExecutor)
+                .build();
+        runner = new LoadRunner(new LoadClient(UserInfoServiceGrpc.newBlockingStub(channel), http,
+                "http://localhost:" + port, users));
+    }
+
+    @AfterAll
+    void closeClients() {
+        channel.shutdownNow();
+        httpExecutor.shutdownNow();
+    }
+
+    @ParameterizedTest
+    @EnumSource(WorkloadProfile.class)
+    void meetsThresholds(WorkloadProfile profile) throws Exception {
+        LoadRunner.Result result = runner.run(profile);
+        logger.info("{}", result.report());
+        result.writeHistogram(Path.of("target", "loadtest"));
+
+        assertThat(result.violations()).as(profile.id()).isEmpty();
+    }
+}
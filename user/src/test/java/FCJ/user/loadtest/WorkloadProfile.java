@@ -0,0 +1,98 @@
+package FCJ.user.loadtest;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Reproducible traffic mixes. Each profile runs a fixed number of operations per worker, drawn
+ * from a seeded generator, so two runs with the same {@code loadtest.seed} issue the same calls
+ * against the same users. Default thresholds leave headroom for a small CI runner; tighten them per
+ * run on dedicated hardware, e.g. {@code -Dloadtest.blog-feed.max-p99-ms=25}.
+ */
+enum WorkloadProfile {
+
+    /** Feed rendering: author cards over gRPC, skewed towards a small set of popular users. */
+    BLOG_FEED("blog-feed", 16, 1_500, weights(
+            LoadOperation.GRPC_BLOG_USER_INFO, 70,
+            LoadOperation.GRPC_GET_BY_USER_ID, 20,
+            LoadOperation.REST_GET_BY_USER_ID, 10),
+            250, 500, 64 * 1024),
+
+    /** Launch-day signups: empty profiles created for fresh user ids, mostly over gRPC. */
+    SIGNUP_STORM("signup-storm", 8, 500, weights(
+            LoadOperation.GRPC_CREATE_EMPTY, 80,
+            LoadOperation.REST_CREATE_EMPTY, 20),
+            150, 200, 128 * 1024),
+
+    /** Profile editor bursts: repeated patches concentrated on a hot set of users. */
+    PATCH_BURST("patch-burst", 8, 500, weights(
+            LoadOperation.REST_PATCH_BY_USER_ID, 60,
+            LoadOperation.GRPC_PATCH_BY_ID, 30,
+            LoadOperation.REST_GET_BY_USER_ID, 10),
+            200, 100, 256 * 1024);
+
+    private final String id;
+    private final int concurrency;
+    private final int operationsPerWorker;
+    private final Map<LoadOperation, Integer> weights;
+    private final int maxP99Millis;
+    private final int minThroughput;
+    private final int maxAllocatedBytesPerOp;
+
+    WorkloadProfile(String id, int concurrency, int operationsPerWorker, Map<LoadOperation, Integer> weights,
+                    int maxP99Millis, int minThroughput, int maxAllocatedBytesPerOp) {
+        this.id = id;
+        this.concurrency = concurrency;
+        this.operationsPerWorker = operationsPerWorker;
+        this.weights = weights;
+        this.maxP99Millis = maxP99Millis;
+        this.minThroughput = minThroughput;
+        this.maxAllocatedBytesPerOp = maxAllocatedBytesPerOp;
+    }
+
+    String id() {
+        return id;
+    }
+
+    int concurrency() {
+        return Integer.getInteger("loadtest." + id + ".concurrency", concurrency);
+    }
+
+    int operationsPerWorker() {
+        return Integer.getInteger("loadtest." + id + ".operations", operationsPerWorker);
+    }
+
+    /**
+     * Picks an operation for a uniform draw in {@code [0, 100)}.
+     */
+    LoadOperation pick(int draw) {
+        int cumulative = 0;
+        for (Map.Entry<LoadOperation, Integer> entry : weights.entrySet()) {
+            cumulative += entry.getValue();
+            if (draw < cumulative) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Weights of " + id + " do not add up to 100");
+    }
+
+    double maxP99Millis() {
+        return Double.parseDouble(System.getProperty("loadtest." + id + ".max-p99-ms", String.valueOf(maxP99Millis)));
+    }
+
+    double minThroughput() {
+        return Double.parseDouble(System.getProperty("loadtest." + id + ".min-throughput", String.valueOf(minThroughput)));
+    }
+
+    long maxAllocatedBytesPerOp() {
+        return Long.getLong("loadtest." + id + ".max-alloc-per-op", maxAllocatedBytesPerOp);
+    }
+
+    private static Map<LoadOperation, Integer> weights(Object... pairs) {
+        Map<LoadOperation, Integer> weights = new EnumMap<>(LoadOperation.class);
+        for (int i = 0; i < pairs.length; i += 2) {
+            weights.put((LoadOperation) pairs[i], (Integer) pairs[i + 1]);
+        }
+        return weights;
+    }
+}
@@ -0,0 +1,101 @@
+package FCJ.user.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AimdConcurrencyLimiterTest {
+
+    private static ConcurrencyLimitProperties.Budget budget(int initial, int min, int max, Duration threshold) {
+        ConcurrencyLimitProperties.Budget budget = new ConcurrencyLimitProperties.Budget(initial, min, max, threshold);
+        budget.setBackoffRatio(0.5);
+        return budget;
+    }
+
+    @Test
+    void rejectsWhenLimitReached() {
+        AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter("test", budget(2, 1, 10, Duration.ofSeconds(1)));
+
+        AimdConcurrencyLimiter.Permit first = limiter.tryAcquire();
+        AimdConcurrencyLimiter.Permit second = limiter.tryAcquire();
+
+        assertThat(first).isNotNull();
+        assertThat(second).isNotNull();
+        assertThat(limiter.tryAcquire()).isNull();
+
+        first.onIgnore();
+        assertThat(limiter.tryAcquire()).isNotNull();
+    }
+
+    @Test
+    void growsAdditivelyWhileUtilisedAndFast() {
+        AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter("test", budget(4, 1, 10, Duration.ofSeconds(1)));
+
+        for (int round = 0; round < 3; round++) {
+            List<AimdConcurrencyLimiter.Permit> permits = new ArrayList<>();
+            for (int i = 0; i < limiter.getLimit(); i++) {
+                permits.add(limiter.tryAcquire());
+            }
+            permits.forEach(AimdConcurrencyLimiter.Permit::onSuccess);
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(10);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    void backsOffMultiplicativelyOnDropsButNotBelowMinimum() {
+        AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter("test", budget(16, 3, 32, Duration.ofSeconds(1)));
+
+        limiter.tryAcquire().onDropped();
+        assertThat(limiter.getLimit()).isEqualTo(8);
+
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire().onDropped();
+        }
+        assertThat(limiter.getLimit()).isEqualTo(3);
+    }
+
+    @Test
+    void backsOffOnceForRequestsAlreadyInFlight() {
+        AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter("test", budget(16, 1, 32, Duration.ofSeconds(1)));
+
+        List<AimdConcurrencyLimiter.Permit> permits = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            permits.add(limiter.tryAcquire());
+        }
+        permits.forEach(AimdConcurrencyLimiter.Permit::onDropped);
+        assertThat(limiter.getLimit()).isEqualTo(8);
+
+        // Admitted after the backoff, so its drop is new evidence
+        limiter.tryAcquire().onDropped();
+        assertThat(limiter.getLimit()).isEqualTo(4);
+    }
+
+    @Test
+    void slowCompletionsCountAsCongestion() throws InterruptedException {
+        AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter("test", budget(10, 1, 20, Duration.ofMillis(1)));
+
+        AimdConcurrencyLimiter.Permit permit = limiter.tryAcquire();
+        Thread.sleep(5);
+        permit.onSuccess();
+
+        assertThat(limiter.getLimit()).isEqualTo(5);
+    }
+
+    @Test
+    void permitReleasesOnlyOnce() {
+        AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter("test", budget(4, 1, 10, Duration.ofSeconds(1)));
+
+        AimdConcurrencyLimiter.Permit permit = limiter.tryAcquire();
+        permit.onSuccess();
+        permit.onDropped();
+
+        assertThat(limiter.getInFlight()).isZero();
+        assertThat(limiter.getLimit()).isEqualTo(4);
+    }
+}
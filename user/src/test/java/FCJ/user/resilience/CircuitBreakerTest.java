@@ -0,0 +1,95 @@
+package FCJ.user.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CircuitBreakerTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    private CircuitBreaker breaker() {
+        DatabaseResilienceProperties properties = new DatabaseResilienceProperties();
+        properties.setWindowSize(10);
+        properties.setMinimumCalls(4);
+        properties.setFailureRateThreshold(0.5);
+        properties.setSlowCallThreshold(Duration.ofMillis(100));
+        properties.setOpenDuration(Duration.ofSeconds(10));
+        properties.setHalfOpenCalls(2);
+        return new CircuitBreaker("test", properties, now::get);
+    }
+
+    private static void call(CircuitBreaker breaker, boolean fails) {
+        assertThat(breaker.tryAcquire()).isTrue();
+        if (fails) {
+            breaker.onFailure();
+        } else {
+            breaker.onSuccess(Duration.ofMillis(1).toNanos());
+        }
+    }
+
+    @Test
+    void opensOnceTheFailureRateReachesTheThreshold() {
+        CircuitBreaker breaker = breaker();
+
+        call(breaker, true);
+        call(breaker, true);
+        call(breaker, false);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+
+        call(breaker, true);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void slowCallsCountAsFailures() {
+        CircuitBreaker breaker = breaker();
+
+        for (int i = 0; i < 4; i++) {
+            assertThat(breaker.tryAcquire()).isTrue();
+            breaker.onSuccess(Duration.ofMillis(500).toNanos());
+        }
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void closesAfterTheTrialCallsSucceed() {
+        CircuitBreaker breaker = breaker();
+        for (int i = 0; i < 4; i++) {
+            call(breaker, true);
+        }
+
+        now.addAndGet(Duration.ofSeconds(10).toNanos());
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.tryAcquire()).isTrue();
+        // Both trial permits are taken
+        assertThat(breaker.tryAcquire()).isFalse();
+        breaker.onSuccess(0);
+        breaker.onSuccess(0);
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        call(breaker, true);
+        assertThat(breaker.getState()).as("the window starts empty").isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void reopensWhenATrialCallFails() {
+        CircuitBreaker breaker = breaker();
+        for (int i = 0; i < 4; i++) {
+            call(breaker, true);
+        }
+
+        now.addAndGet(Duration.ofSeconds(10).toNanos());
+        call(breaker, true);
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        now.addAndGet(Duration.ofSeconds(5).toNanos());
+        assertThat(breaker.tryAcquire()).isFalse();
+    }
+}
@@ -0,0 +1,67 @@
+package FCJ.user.resilience;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConcurrencyLimitFilterTest {
+
+    private AimdConcurrencyLimiter apiLimiter;
+    private ConcurrencyLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        ConcurrencyLimitProperties properties = new ConcurrencyLimitProperties();
+        ConcurrencyLimitProperties.Budget budget = new ConcurrencyLimitProperties.Budget(4, 1, 10, Duration.ofSeconds(1));
+        budget.setBackoffRatio(0.5);
+        apiLimiter = new AimdConcurrencyLimiter("api", budget);
+        filter = new ConcurrencyLimitFilter(apiLimiter, new AimdConcurrencyLimiter("health", budget),
+                new ObjectMapper(), properties);
+    }
+
+    @Test
+    void releasesThePermitWhenTheRequestReturns() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/user-info/user/1");
+
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> { });
+
+        assertThat(apiLimiter.getInFlight()).isZero();
+    }
+
+    @Test
+    void holdsThePermitUntilAsyncProcessingCompletes() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/payments/user/1/stream");
+        request.setAsyncSupported(true);
+
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> req.startAsync());
+        assertThat(apiLimiter.getInFlight()).isEqualTo(1);
+
+        ((MockAsyncContext) request.getAsyncContext()).complete();
+        assertThat(apiLimiter.getInFlight()).isZero();
+        assertThat(apiLimiter.getLimit()).isEqualTo(4);
+    }
+
+    @Test
+    void aTimedOutAsyncRequestCountsAsDropped() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/payments/user/1/stream");
+        request.setAsyncSupported(true);
+
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> req.startAsync());
+        MockAsyncContext asyncContext = (MockAsyncContext) request.getAsyncContext();
+        for (AsyncListener listener : asyncContext.getListeners()) {
+            listener.onTimeout(new AsyncEvent(asyncContext));
+        }
+
+        assertThat(apiLimiter.getInFlight()).isZero();
+        assertThat(apiLimiter.getLimit()).isEqualTo(2);
+    }
+}
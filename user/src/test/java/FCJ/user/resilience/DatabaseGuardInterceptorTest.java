@@ -0,0 +1,107 @@
+package FCJ.user.resilience;
+
+import FCJ.user.exception.DatabaseUnavailableException;
+import FCJ.user.jdbc.QueryDeadline;
+import io.grpc.Context;
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+
+import java.sql.SQLTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DatabaseGuardInterceptorTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final DatabaseResilienceProperties properties = new DatabaseResilienceProperties();
+    private final CircuitBreaker breaker;
+    private final DatabaseGuardInterceptor guard;
+
+    DatabaseGuardInterceptorTest() {
+        properties.setWindowSize(10);
+        properties.setMinimumCalls(4);
+        properties.setOpenDuration(Duration.ofSeconds(10));
+        properties.setHalfOpenCalls(1);
+        breaker = new CircuitBreaker("test", properties, now::get);
+        guard = new DatabaseGuardInterceptor(breaker, properties);
+    }
+
+    private static MethodInvocation failingWith(Throwable failure) throws Throwable {
+        MethodInvocation invocation = mock(MethodInvocation.class);
+        when(invocation.proceed()).thenThrow(failure);
+        return invocation;
+    }
+
+    @Test
+    void lockConflictsAreRethrownAndDoNotOpenTheBreaker() throws Throwable {
+        MethodInvocation conflict = failingWith(new CannotAcquireLockException("deadlock detected"));
+        for (int i = 0; i < 4; i++) {
+            assertThatThrownBy(() -> guard.invoke(conflict)).isInstanceOf(CannotAcquireLockException.class);
+        }
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+
+        MethodInvocation noConnection = failingWith(new CannotGetJdbcConnectionException("connection refused"));
+        for (int i = 0; i < 4; i++) {
+            assertThatThrownBy(() -> guard.invoke(noConnection)).isInstanceOf(DatabaseUnavailableException.class);
+        }
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void timeoutsCausedByTheCallersDeadlineAreNotCounted() throws Throwable {
+        MethodInvocation timeout = failingWith(new QueryTimeoutException("timed out",
+                new SQLTimeoutException("Caller deadline exceeded before the query was started")));
+        Context.CancellableContext call = Context.current().withCancellation();
+        call.cancel(null);
+        try (QueryDeadline.Scope scope = QueryDeadline.open(call)) {
+            for (int i = 0; i < 4; i++) {
+                assertThatThrownBy(() -> guard.invoke(timeout)).isInstanceOf(QueryTimeoutException.class);
+            }
+        }
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+
+        // The same timeout without an expired caller is the database being slow
+        for (int i = 0; i < 4; i++) {
+            assertThatThrownBy(() -> guard.invoke(timeout)).isInstanceOf(DatabaseUnavailableException.class);
+        }
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void anInterruptedBulkheadWaitHandsBackTheTrialPermit() throws Throwable {
+        MethodInvocation noConnection = failingWith(new CannotGetJdbcConnectionException("connection refused"));
+        for (int i = 0; i < 4; i++) {
+            assertThatThrownBy(() -> guard.invoke(noConnection)).isInstanceOf(DatabaseUnavailableException.class);
+        }
+        now.addAndGet(Duration.ofSeconds(11).toNanos());
+
+        Thread.currentThread().interrupt();
+        assertThatThrownBy(() -> guard.invoke(mock(MethodInvocation.class))).isInstanceOf(InterruptedException.class);
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.tryAcquire()).as("the single trial permit is free again").isTrue();
+    }
+
+    @Test
+    void aLockConflictDuringHalfOpenNeitherClosesTheBreakerNorUsesUpTheTrial() throws Throwable {
+        MethodInvocation noConnection = failingWith(new CannotGetJdbcConnectionException("connection refused"));
+        for (int i = 0; i < 4; i++) {
+            assertThatThrownBy(() -> guard.invoke(noConnection)).isInstanceOf(DatabaseUnavailableException.class);
+        }
+        now.addAndGet(Duration.ofSeconds(11).toNanos());
+
+        MethodInvocation conflict = failingWith(new CannotAcquireLockException("could not obtain lock"));
+        assertThatThrownBy(() -> guard.invoke(conflict)).isInstanceOf(CannotAcquireLockException.class);
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.tryAcquire()).as("the single trial permit is free again").isTrue();
+    }
+}
@@ -0,0 +1,132 @@
+package FCJ.user.resilience;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UserRateLimiterTest {
+
+    private final AtomicLong now = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+
+    private UserRateLimiter limiter() {
+        UserRateLimitProperties properties = new UserRateLimitProperties();
+        properties.setDefaults(new UserRateLimitProperties.Quota(3, 1));
+        properties.setIdleTimeout(Duration.ofMinutes(1));
+        UserRateLimitProperties.Endpoint writes = new UserRateLimitProperties.Endpoint();
+        writes.setCapacity(1);
+        writes.setRefillPerSecond(0.5);
+        writes.setRest(List.of("PATCH /api/user-info/**"));
+        writes.setGrpc(List.of("userinfo.UserInfoService/PatchUserInfo"));
+        properties.getEndpoints().put("writes", writes);
+        return new UserRateLimiter(properties, now::get);
+    }
+
+    @Test
+    void allowsBurstThenRefillsAtTheConfiguredRate() {
+        UserRateLimiter limiter = limiter();
+        UserRateLimiter.Endpoint reads = limiter.restEndpoint("GET", "/api/user-info/by-user-id");
+        UUID user = UUID.randomUUID();
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.tryAcquire(reads, user)).isZero();
+        }
+        assertThat(limiter.tryAcquire(reads, user)).isEqualTo(TimeUnit.SECONDS.toNanos(1));
+        assertThat(limiter.tryAcquire(reads, UUID.randomUUID())).as("other users have their own bucket").isZero();
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertThat(limiter.tryAcquire(reads, user)).isZero();
+        assertThat(limiter.tryAcquire(reads, user)).isPositive();
+    }
+
+    @Test
+    void endpointGroupsHaveSeparateQuotas() {
+        UserRateLimiter limiter = limiter();
+        UUID user = UUID.randomUUID();
+        UserRateLimiter.Endpoint writes = limiter.restEndpoint("PATCH", "/api/user-info");
+
+        assertThat(writes.getName()).isEqualTo("writes");
+        assertThat(limiter.grpcEndpoint("userinfo.UserInfoService/PatchUserInfo")).isSameAs(writes);
+        assertThat(limiter.restEndpoint("GET", "/api/user-info").getName()).isEqualTo("default");
+
+        assertThat(limiter.tryAcquire(writes, user)).isZero();
+        assertThat(limiter.tryAcquire(writes, user)).isEqualTo(TimeUnit.SECONDS.toNanos(2));
+        assertThat(limiter.tryAcquire(limiter.grpcEndpoint("userinfo.UserInfoService/GetUserInfoById"), user)).isZero();
+    }
+
+    @Test
+    void evictsBucketsUntouchedForTheIdleTimeout() {
+        UserRateLimiter limiter = limiter();
+        UserRateLimiter.Endpoint reads = limiter.grpcEndpoint("userinfo.UserInfoService/GetUserInfoById");
+        UUID idle = UUID.randomUUID();
+        UUID active = UUID.randomUUID();
+        limiter.tryAcquire(reads, idle);
+        now.addAndGet(TimeUnit.SECONDS.toNanos(50));
+        limiter.tryAcquire(reads, active);
+        now.addAndGet(TimeUnit.SECONDS.toNanos(20));
+
+        assertThat(limiter.evictIdle()).isEqualTo(1);
+        assertThat(limiter.getBucketCount()).isEqualTo(1);
+    }
+
+    @Test
+    void keepsLimitingAtMaxBuckets() {
+        UserRateLimitProperties properties = new UserRateLimitProperties();
+        properties.setDefaults(new UserRateLimitProperties.Quota(1, 1));
+        properties.setMaxBuckets(2);
+        UserRateLimiter limiter = new UserRateLimiter(properties, now::get);
+        UserRateLimiter.Endpoint reads = limiter.restEndpoint("GET", "/api/user-info");
+
+        for (int i = 0; i < 100; i++) {
+            UUID user = UUID.randomUUID();
+            assertThat(limiter.tryAcquire(reads, user)).isZero();
+            assertThat(limiter.tryAcquire(reads, user)).as("a new user beyond the cap is still limited").isPositive();
+        }
+        limiter.evictIdle();
+        assertThat(limiter.getBucketCount()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void rejectsANonPositiveRefillRate() {
+        UserRateLimitProperties properties = new UserRateLimitProperties();
+        properties.setDefaults(new UserRateLimitProperties.Quota(5, 0));
+
+        assertThatThrownBy(() -> new UserRateLimiter(properties, now::get))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("default");
+    }
+
+    @Test
+    void filterRejectsOverQuotaUsersWith429() throws Exception {
+        UserRateLimitFilter filter = new UserRateLimitFilter(limiter(),
+                new ObjectMapper().registerModule(new JavaTimeModule()));
+        String user = UUID.randomUUID().toString();
+
+        MockHttpServletResponse first = patch(filter, user);
+        MockHttpServletResponse second = patch(filter, user);
+
+        assertThat(first.getStatus()).isEqualTo(200);
+        assertThat(second.getStatus()).isEqualTo(429);
+        assertThat(second.getHeader("Retry-After")).isEqualTo("2");
+        assertThat(patch(filter, "not-a-uuid").getStatus()).as("left to the controller").isEqualTo(200);
+    }
+
+    private static MockHttpServletResponse patch(UserRateLimitFilter filter, String userId) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("PATCH", "/api/user-info");
+        request.addHeader("X-User-Id", userId);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
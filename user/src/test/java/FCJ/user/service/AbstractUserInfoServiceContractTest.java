@@ -0,0 +1,175 @@
+package FCJ.user.service;
+
+import FCJ.user.dto.UserInfoCreation;
+import FCJ.user.dto.UserInfoDTO;
+import FCJ.user.exception.UserInfoNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.NestedExceptionUtils;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Behaviour every {@link UserInfoService} backend must share. Subclasses supply the implementation.
+ */
+abstract class AbstractUserInfoServiceContractTest {
+
+    protected abstract UserInfoService service();
+
+    private static UserInfoCreation creation(String fullName) {
+        UserInfoCreation creation = new UserInfoCreation();
+        creation.setFullName(fullName);
+        creation.setAvatarUrl("https://example.com/" + fullName + ".png");
+        creation.setPhoneNumber("+84000000000");
+        creation.setAddress("1 Main St");
+        return creation;
+    }
+
+    @Test
+    void createsAndReadsBackByIdAndUserId() {
+        UUID userId = UUID.randomUUID();
+        UserInfoCreation creation = creation("alice");
+        creation.setSubscriptionTier("PREMIUM");
+        creation.setSubscriptionStatus("ACTIVE");
+        creation.setNextBillingDate(Instant.parse("2025-12-30T23:59:59Z"));
+        creation.setLastPaymentAmount(50000.0);
+
+        UserInfoDTO created = service().createUserInfo(userId, creation);
+
+        assertThat(created.getId()).isNotNull();
+        assertThat(created.getUserId()).isEqualTo(userId);
+        UserInfoDTO byId = service().getUserInfoById(created.getId());
+        UserInfoDTO byUserId = service().getUserInfoByUserId(userId);
+        for (UserInfoDTO dto : new UserInfoDTO[]{byId, byUserId}) {
+            assertThat(dto.getId()).isEqualTo(created.getId());
+            assertThat(dto.getFullName()).isEqualTo("alice");
+            assertThat(dto.getAddress()).isEqualTo("1 Main St");
+            assertThat(dto.getSubscriptionTier()).isEqualTo("PREMIUM");
+            assertThat(dto.getSubscriptionStatus()).isEqualTo("ACTIVE");
+            assertThat(dto.getNextBillingDate()).isEqualTo(Instant.parse("2025-12-30T23:59:59Z"));
+            assertThat(dto.getLastPaymentAmount()).isEqualTo(50000.0);
+        }
+    }
+
+    @Test
+    void createsEmptyRecord() {
+        UUID userId = UUID.randomUUID();
+
+        UserInfoDTO created = service().createEmptyUserInfo(userId);
+
+        UserInfoDTO read = service().getUserInfoByUserId(userId);
+        assertThat(read.getId()).isEqualTo(created.getId());
+        assertThat(read.getFullName()).isNull();
+        assertThat(read.getSubscriptionTier()).isNull();
+        assertThat(read.getAutoRenewal()).isFalse();
+    }
+
+    @Test
+    void unknownIdsAreNotFound() {
+        UUID unknown = UUID.randomUUID();
+
+        assertThatThrownBy(() -> service().getUserInfoById(unknown)).isInstanceOf(UserInfoNotFoundException.class);
+        assertThatThrownBy(() -> service().getUserInfoByUserId(unknown)).isInstanceOf(UserInfoNotFoundException.class);
+        assertThatThrownBy(() -> service().updateUserInfo(unknown, creation("x"))).isInstanceOf(UserInfoNotFoundException.class);
+        assertThatThrownBy(() -> service().patchUserInfo(unknown, creation("x"))).isInstanceOf(UserInfoNotFoundException.class);
+        assertThatThrownBy(() -> service().patchUserInfoByUserId(unknown, creation("x"))).isInstanceOf(UserInfoNotFoundException.class);
+        assertThatThrownBy(() -> service().deleteUserInfo(unknown)).isInstanceOf(UserInfoNotFoundException.class);
+    }
+
+    @Test
+    void updateReplacesProfileButKeepsSubscriptionWhenAbsent() {
+        UserInfoCreation initial = creation("bob");
+        initial.setSubscriptionTier("VIP");
+        UserInfoDTO created = service().createUserInfo(UUID.randomUUID(), initial);
+
+        UserInfoCreation update = new UserInfoCreation();
+        update.setFullName("Bob Updated");
+        UserInfoDTO updated = service().updateUserInfo(created.getId(), update);
+
+        assertThat(updated.getFullName()).isEqualTo("Bob Updated");
+        assertThat(updated.getAddress()).isNull();
+        assertThat(updated.getSubscriptionTier()).isEqualTo("VIP");
+        assertThat(service().getUserInfoById(created.getId()).getAddress()).isNull();
+    }
+
+    @Test
+    void patchOnlyTouchesProvidedFields() {
+        UserInfoDTO created = service().createUserInfo(UUID.randomUUID(), creation("carol"));
+
+        UserInfoCreation patch = new UserInfoCreation();
+        patch.setPhoneNumber("+84999999999");
+        patch.setAutoRenewal(true);
+        service().patchUserInfo(created.getId(), patch);
+
+        UserInfoDTO read = service().getUserInfoById(created.getId());
+        assertThat(read.getFullName()).isEqualTo("carol");
+        assertThat(read.getPhoneNumber()).isEqualTo("+84999999999");
+        assertThat(read.getAutoRenewal()).isTrue();
+    }
+
+    @Test
+    void patchByUserId() {
+        UUID userId = UUID.randomUUID();
+        service().createUserInfo(userId, creation("dave"));
+
+        UserInfoCreation patch = new UserInfoCreation();
+        patch.setSubscriptionStatus("GRACE");
+        UserInfoDTO patched = service().patchUserInfoByUserId(userId, patch);
+
+        assertThat(patched.getSubscriptionStatus()).isEqualTo("GRACE");
+        assertThat(service().getUserInfoByUserId(userId).getFullName()).isEqualTo("dave");
+    }
+
+    @Test
+    void deleteRemovesRecordFromBothLookups() {
+        UUID userId = UUID.randomUUID();
+        UserInfoDTO created = service().createUserInfo(userId, creation("erin"));
+
+        service().deleteUserInfo(created.getId());
+
+        assertThatThrownBy(() -> service().getUserInfoById(created.getId())).isInstanceOf(UserInfoNotFoundException.class);
+        assertThatThrownBy(() -> service().getUserInfoByUserId(userId)).isInstanceOf(UserInfoNotFoundException.class);
+    }
+
+    @Test
+    void batchLookupSkipsUnknownAndDeletedUsers() {
+        UUID kept = UUID.randomUUID();
+        UUID deleted = UUID.randomUUID();
+        UUID unknown = UUID.randomUUID();
+        service().createUserInfo(kept, creation("hana"));
+        service().deleteUserInfo(service().createUserInfo(deleted, creation("ivan")).getId());
+
+        Map<UUID, UserInfoDTO> found = service().getUserInfosByUserIds(List.of(kept, deleted, unknown));
+
+        assertThat(found).containsOnlyKeys(kept);
+        assertThat(found.get(kept).getFullName()).isEqualTo("hana");
+    }
+
+    @Test
+    void userIdCanBeRegisteredAgainAfterDelete() {
+        UUID userId = UUID.randomUUID();
+        UserInfoDTO first = service().createUserInfo(userId, creation("gina"));
+        service().deleteUserInfo(first.getId());
+
+        UserInfoDTO second = service().createEmptyUserInfo(userId);
+
+        assertThat(second.getId()).isNotEqualTo(first.getId());
+        assertThat(service().getUserInfoByUserId(userId).getFullName()).isNull();
+        assertThatThrownBy(() -> service().getUserInfoById(first.getId())).isInstanceOf(UserInfoNotFoundException.class);
+    }
+
+    @Test
+    void rejectsTrialSubscriptions() {
+        UserInfoCreation trial = creation("frank");
+        trial.setSubscriptionTier("TRIAL");
+
+        assertThatThrownBy(() -> service().createUserInfo(UUID.randomUUID(), trial))
+                .satisfies(e -> assertThat(NestedExceptionUtils.getMostSpecificCause(e))
+                        .isInstanceOf(IllegalArgumentException.class));
+    }
+}
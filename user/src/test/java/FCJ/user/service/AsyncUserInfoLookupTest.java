@@ -0,0 +1,165 @@
+package FCJ.user.service;
+
+import FCJ.user.cache.CaffeineProfileCache;
+import FCJ.user.cache.LastKnownProfiles;
+import FCJ.user.cache.ProfileCache;
+import FCJ.user.dto.UserInfoCreation;
+import FCJ.user.dto.UserInfoDTO;
+import FCJ.user.exception.DatabaseUnavailableException;
+import FCJ.user.exception.UserInfoNotFoundException;
+import FCJ.user.ledger.PaymentLedger;
+import FCJ.user.r2dbc.R2dbcLookupProperties;
+import FCJ.user.r2dbc.R2dbcUserInfoRepository;
+import FCJ.user.repository.UserInfoRepository;
+import FCJ.user.resilience.CircuitBreaker;
+import FCJ.user.resilience.DatabaseGuardInterceptor;
+import FCJ.user.resilience.DatabaseResilienceProperties;
+import FCJ.user.stats.InMemoryMembershipStatisticsStore;
+import FCJ.user.stats.MembershipStatistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Writes go through JPA and reads through R2DBC on the same in-memory H2 database, so the test is not
+ * transactional: the R2DBC connection only sees committed rows.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:async-lookup;DB_CLOSE_DELAY=-1;IGNORE_UNKNOWN_SETTINGS=TRUE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password="
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AsyncUserInfoLookupTest {
+
+    @Autowired
+    private UserInfoRepository userInfoRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ProfileCache profileCache = new CaffeineProfileCache(1_000, Duration.ofMinutes(1));
+    private final LastKnownProfiles lastKnownProfiles = new LastKnownProfiles(1_000, Duration.ofHours(1));
+    private CircuitBreaker breaker;
+    private ProfileWriteBehindBuffer writeBehindBuffer;
+    private UserInfoService service;
+    private R2dbcUserInfoRepository r2dbcRepository;
+    private AsyncUserInfoLookup lookup;
+
+    @BeforeEach
+    void setUp() {
+        writeBehindBuffer = new ProfileWriteBehindBuffer(jdbcTemplate, new WriteBehindProperties());
+        service = new UserInfoServiceImpl(userInfoRepository, profileCache, writeBehindBuffer,
+                new MembershipStatistics(new InMemoryMembershipStatisticsStore()), LastKnownProfiles.disabled(),
+                PaymentLedger.disabled());
+        r2dbcRepository = R2dbcUserInfoRepository.create(h2());
+        DatabaseResilienceProperties resilience = new DatabaseResilienceProperties();
+        resilience.setMinimumCalls(1);
+        breaker = new CircuitBreaker("test", resilience);
+        lookup = new AsyncUserInfoLookup(r2dbcRepository, profileCache, writeBehindBuffer, service,
+                new DatabaseGuardInterceptor(breaker, resilience), lastKnownProfiles, Schedulers.immediate());
+    }
+
+    @AfterEach
+    void tearDown() {
+        r2dbcRepository.close();
+    }
+
+    private static R2dbcLookupProperties h2() {
+        R2dbcLookupProperties properties = new R2dbcLookupProperties();
+        properties.setUrl("r2dbc:h2:mem:///async-lookup?options=DB_CLOSE_DELAY=-1");
+        properties.setUsername("sa");
+        properties.setInitialSize(1);
+        return properties;
+    }
+
+    private UserInfoDTO subscriber() {
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        UserInfoCreation creation = new UserInfoCreation();
+        creation.setFullName("Alice");
+        creation.setAvatarUrl("https://cdn.example.com/alice.png");
+        creation.setPhoneNumber("+84901234567");
+        creation.setAddress("Hanoi");
+        creation.setSubscriptionTier("PREMIUM");
+        creation.setSubscriptionStatus("ACTIVE");
+        creation.setSubscriptionExpiresAt(now.plus(Duration.ofDays(30)));
+        creation.setPaymentMethod("MOMO");
+        creation.setLastPaymentId("pay-1");
+        creation.setLastPaymentDate(now);
+        creation.setLastPaymentAmount(99_000.0);
+        creation.setNextBillingDate(now.plus(Duration.ofDays(30)));
+        creation.setAutoRenewal(true);
+        UserInfoDTO created = service.createUserInfo(UUID.randomUUID(), creation);
+        profileCache.evict(created.getUserId());
+        return created;
+    }
+
+    @Test
+    void readsCommittedRowThroughR2dbcAndCachesIt() {
+        UserInfoDTO created = subscriber();
+
+        UserInfoDTO found = lookup.getUserInfoByUserId(created.getUserId()).block();
+
+        assertThat(found).usingRecursiveComparison().isEqualTo(created);
+        assertThat(profileCache.get(created.getUserId())).isPresent();
+    }
+
+    @Test
+    void overlaysPendingWriteBehindPatchButCachesDatabaseState() {
+        UserInfoDTO created = subscriber();
+        UserInfoCreation patch = new UserInfoCreation();
+        patch.setFullName("Alicia");
+        writeBehindBuffer.enqueue(created.getUserId(), patch);
+
+        UserInfoDTO found = lookup.getUserInfoByUserId(created.getUserId()).block();
+
+        assertThat(found.getFullName()).isEqualTo("Alicia");
+        assertThat(profileCache.get(created.getUserId())).map(UserInfoDTO::getFullName).contains("Alice");
+    }
+
+    @Test
+    void deletedAndUnknownUsersFallBackToBlockingService() {
+        UserInfoDTO created = subscriber();
+        service.deleteUserInfo(created.getId());
+
+        assertThatThrownBy(() -> lookup.getUserInfoByUserId(created.getUserId()).block())
+                .isInstanceOf(UserInfoNotFoundException.class);
+        assertThatThrownBy(() -> lookup.getUserInfoByUserId(UUID.randomUUID()).block())
+                .isInstanceOf(UserInfoNotFoundException.class);
+    }
+
+    @Test
+    void answersFromLastKnownProfilesWhileTheBreakerIsOpen() {
+        UserInfoDTO created = subscriber();
+        lookup.getUserInfoByUserId(created.getUserId()).block();
+        profileCache.evict(created.getUserId());
+        UserInfoDTO unseen = subscriber();
+
+        assertThat(breaker.tryAcquire()).isTrue();
+        breaker.onFailure();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+
+        UserInfoDTO stale = lookup.getUserInfoByUserId(created.getUserId()).block();
+        assertThat(stale.isStale()).isTrue();
+        assertThat(stale.getFullName()).isEqualTo("Alice");
+        assertThatThrownBy(() -> lookup.getUserInfoByUserId(unseen.getUserId()).block())
+                .isInstanceOf(DatabaseUnavailableException.class);
+    }
+}
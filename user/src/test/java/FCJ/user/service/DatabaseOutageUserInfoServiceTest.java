@@ -0,0 +1,158 @@
+package FCJ.user.service;
+
+import FCJ.user.cache.LastKnownProfiles;
+import FCJ.user.cache.ProfileCache;
+import FCJ.user.dto.UserInfoCreation;
+import FCJ.user.dto.UserInfoDTO;
+import FCJ.user.exception.DatabaseUnavailableException;
+import FCJ.user.ledger.PaymentLedger;
+import FCJ.user.repository.UserInfoRepository;
+import FCJ.user.resilience.CircuitBreaker;
+import FCJ.user.resilience.DatabaseGuardInterceptor;
+import FCJ.user.resilience.DatabaseResilienceProperties;
+import FCJ.user.stats.InMemoryMembershipStatisticsStore;
+import FCJ.user.stats.MembershipStatistics;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Fault injection: while {@link #outage} is set every repository call hangs for 200 ms and then fails
+ * to get a connection, as it would with the database down and a short connection timeout.
+ */
+@DataJpaTest
+class DatabaseOutageUserInfoServiceTest {
+
+    private static final long OUTAGE_LATENCY_MILLIS = 200;
+
+    @Autowired
+    private UserInfoRepository userInfoRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final AtomicBoolean outage = new AtomicBoolean();
+    private CircuitBreaker breaker;
+    private UserInfoService service;
+
+    @BeforeEach
+    void setUp() {
+        DatabaseResilienceProperties properties = new DatabaseResilienceProperties();
+        properties.setWindowSize(10);
+        properties.setMinimumCalls(4);
+        properties.setOpenDuration(Duration.ofMillis(300));
+        properties.setHalfOpenCalls(1);
+        breaker = new CircuitBreaker("database", properties);
+
+        MethodInterceptor faults = invocation -> {
+            if (outage.get()) {
+                Thread.sleep(OUTAGE_LATENCY_MILLIS);
+                throw new CannotGetJdbcConnectionException("Injected outage");
+            }
+            return invocation.proceed();
+        };
+        ProxyFactory proxyFactory = new ProxyFactory(userInfoRepository);
+        proxyFactory.addInterface(UserInfoRepository.class);
+        proxyFactory.addAdvice(new DatabaseGuardInterceptor(breaker, properties));
+        proxyFactory.addAdvice(faults);
+        UserInfoRepository guarded = (UserInfoRepository) proxyFactory.getProxy();
+
+        service = new UserInfoServiceImpl(guarded, ProfileCache.disabled(),
+                new ProfileWriteBehindBuffer(jdbcTemplate, new WriteBehindProperties()),
+                new MembershipStatistics(new InMemoryMembershipStatisticsStore()),
+                new LastKnownProfiles(1_000, Duration.ofMinutes(1)), PaymentLedger.disabled());
+    }
+
+    private List<UUID> createUsers(int count) {
+        List<UUID> userIds = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            UserInfoCreation creation = new UserInfoCreation();
+            creation.setFullName("user" + i);
+            UUID userId = UUID.randomUUID();
+            service.createUserInfo(userId, creation);
+            userIds.add(userId);
+        }
+        return userIds;
+    }
+
+    private static UserInfoCreation rename(String fullName) {
+        UserInfoCreation patch = new UserInfoCreation();
+        patch.setFullName(fullName);
+        return patch;
+    }
+
+    @Test
+    void servesLastKnownCopiesWithBoundedLatencyDuringAnOutage() {
+        List<UUID> users = createUsers(20);
+        outage.set(true);
+
+        long[] latencies = new long[1_000];
+        for (int i = 0; i < latencies.length; i++) {
+            UUID userId = users.get(i % users.size());
+            long start = System.nanoTime();
+            UserInfoDTO userInfo = service.getUserInfoByUserId(userId);
+            latencies[i] = System.nanoTime() - start;
+
+            assertThat(userInfo.isStale()).isTrue();
+            assertThat(userInfo.getFullName()).isEqualTo("user" + (i % users.size()));
+        }
+
+        // Only the calls that opened the breaker waited for the injected latency
+        Arrays.sort(latencies);
+        long p99 = latencies[(int) Math.ceil(latencies.length * 0.99) - 1];
+        assertThat(Duration.ofNanos(p99)).isLessThan(Duration.ofMillis(50));
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(service.getUserInfosByUserIds(users.subList(0, 5)).values())
+                .hasSize(5)
+                .allMatch(UserInfoDTO::isStale);
+    }
+
+    @Test
+    void writesAndUnknownLookupsFailFastWhileTheBreakerIsOpen() {
+        UUID userId = createUsers(1).get(0);
+        outage.set(true);
+        for (int i = 0; i < 4; i++) {
+            service.getUserInfoByUserId(userId);
+        }
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> service.patchUserInfoByUserId(userId, rename("renamed")))
+                .isInstanceOf(DatabaseUnavailableException.class);
+        assertThatThrownBy(() -> service.getUserInfoByUserId(UUID.randomUUID()))
+                .isInstanceOf(DatabaseUnavailableException.class);
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(OUTAGE_LATENCY_MILLIS));
+    }
+
+    @Test
+    void readsAreFreshAgainOnceTheDatabaseRecovers() throws InterruptedException {
+        UUID userId = createUsers(1).get(0);
+        outage.set(true);
+        for (int i = 0; i < 4; i++) {
+            service.getUserInfoByUserId(userId);
+        }
+        outage.set(false);
+
+        Thread.sleep(350);
+        UserInfoDTO userInfo = service.getUserInfoByUserId(userId);
+
+        assertThat(userInfo.isStale()).isFalse();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(service.patchUserInfoByUserId(userId, rename("renamed")).getFullName()).isEqualTo("renamed");
+    }
+}
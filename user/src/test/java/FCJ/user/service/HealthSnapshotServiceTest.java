@@ -0,0 +1,120 @@
+package FCJ.user.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.CompositeHealth;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthComponent;
+import org.springframework.boot.actuate.health.HealthEndpoint;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.LivenessState;
+import org.springframework.boot.availability.ReadinessState;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class HealthSnapshotServiceTest {
+
+    private final HealthEndpoint healthEndpoint = mock(HealthEndpoint.class);
+    private final ApplicationAvailability availability = mock(ApplicationAvailability.class);
+    private final MutableClock clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+    private HealthSnapshotService service;
+
+    @BeforeEach
+    void setUp() {
+        when(availability.getLivenessState()).thenReturn(LivenessState.CORRECT);
+        when(availability.getReadinessState()).thenReturn(ReadinessState.ACCEPTING_TRAFFIC);
+        service = new HealthSnapshotService(healthEndpoint, availability, Duration.ofSeconds(60), clock);
+    }
+
+    @Test
+    void probesReadSnapshotWithoutRunningIndicators() {
+        when(healthEndpoint.health()).thenReturn(Health.up().build());
+        service.refresh();
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(service.readiness()).isEqualTo(Status.UP);
+            assertThat(service.liveness()).isEqualTo(Status.UP);
+            assertThat(service.current().getStatus()).isEqualTo(Status.UP);
+        }
+        verify(healthEndpoint, times(1)).health();
+    }
+
+    @Test
+    void livenessIgnoresDependencyHealth() {
+        when(healthEndpoint.health()).thenReturn(Health.down().withDetail("db", "unreachable").build());
+        service.refresh();
+
+        assertThat(service.liveness()).isEqualTo(Status.UP);
+        assertThat(service.readiness()).isEqualTo(Status.DOWN);
+    }
+
+    @Test
+    void notReadyBeforeFirstRefreshOrWhenSnapshotIsStale() {
+        assertThat(service.readiness()).isEqualTo(Status.UNKNOWN);
+
+        when(healthEndpoint.health()).thenReturn(Health.up().build());
+        service.refresh();
+        clock.advance(Duration.ofSeconds(61));
+
+        assertThat(service.readiness()).isEqualTo(Status.UNKNOWN);
+    }
+
+    @Test
+    void failedRefreshReportsDown() {
+        when(healthEndpoint.health()).thenThrow(new IllegalStateException("boom"));
+        service.refresh();
+
+        assertThat(service.current().getStatus()).isEqualTo(Status.DOWN);
+    }
+
+    @Test
+    void capturesComponentStatuses() {
+        HealthComponent composite = mock(CompositeHealth.class);
+        when(composite.getStatus()).thenReturn(Status.UP);
+        when(((CompositeHealth) composite).getComponents())
+                .thenReturn(Map.of("db", Health.up().withDetail("database", "PostgreSQL").build()));
+        when(healthEndpoint.health()).thenReturn(composite);
+        service.refresh();
+
+        assertThat(service.current().getComponents()).containsKey("db");
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package FCJ.user.service;
+
+import FCJ.user.dto.UserInfoCreation;
+import FCJ.user.dto.UserInfoDTO;
+import FCJ.user.ledger.InMemoryPaymentLedger;
+import FCJ.user.stats.InMemoryMembershipStatisticsStore;
+import FCJ.user.stats.MembershipStatistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InMemoryUserInfoServiceTest extends AbstractUserInfoServiceContractTest {
+
+    private final InMemoryUserInfoService service = inMemoryService("");
+
+    private static InMemoryUserInfoService inMemoryService(String snapshotPath) {
+        return new InMemoryUserInfoService(16, snapshotPath,
+                new MembershipStatistics(new InMemoryMembershipStatisticsStore()), new InMemoryPaymentLedger());
+    }
+
+    @Override
+    protected UserInfoService service() {
+        return service;
+    }
+
+    @Test
+    void snapshotSurvivesRestart(@TempDir Path dir) {
+        String snapshot = dir.resolve("user-info.snapshot").toString();
+        InMemoryUserInfoService first = inMemoryService(snapshot);
+        UUID userId = UUID.randomUUID();
+        UserInfoCreation creation = new UserInfoCreation();
+        creation.setFullName("persisted");
+        creation.setAutoRenewal(true);
+        UserInfoDTO created = first.createUserInfo(userId, creation);
+        first.writeSnapshot();
+
+        InMemoryUserInfoService second = inMemoryService(snapshot);
+        second.restoreSnapshot();
+
+        UserInfoDTO restored = second.getUserInfoByUserId(userId);
+        assertThat(restored.getId()).isEqualTo(created.getId());
+        assertThat(restored.getFullName()).isEqualTo("persisted");
+        assertThat(restored.getAutoRenewal()).isTrue();
+    }
+}
@@ -0,0 +1,177 @@
+package FCJ.user.service;
+
+import FCJ.user.cache.CaffeineProfileCache;
+import FCJ.user.cache.LastKnownProfiles;
+import FCJ.user.dto.UserInfoCreation;
+import FCJ.user.dto.UserInfoDTO;
+import FCJ.user.ledger.PaymentLedger;
+import FCJ.user.model.UserInfo;
+import FCJ.user.repository.UserInfoRepository;
+import FCJ.user.shard.ShardRebalancer;
+import FCJ.user.shard.ShardRouter;
+import FCJ.user.shard.ShardingConfig;
+import FCJ.user.stats.InMemoryMembershipStatisticsStore;
+import FCJ.user.stats.MembershipStatistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The contract over three H2 shards, in the middle of adding shard 2 to the ring. Not transactional:
+ * a test transaction would pin shard 0.
+ */
+@DataJpaTest(properties = {
+        "user.sharding.enabled=true",
+        "user.sharding.shards[0].url=jdbc:h2:mem:user-shard-1;DB_CLOSE_DELAY=-1",
+        "user.sharding.shards[1].url=jdbc:h2:mem:user-shard-2;DB_CLOSE_DELAY=-1",
+        "user.sharding.ring=0,1,2",
+        "user.sharding.previous-ring=0,1",
+        "spring.jpa.open-in-view=false"})
+@Import(ShardingConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ShardedUserInfoServiceImplTest extends AbstractUserInfoServiceContractTest {
+
+    @Autowired
+    private UserInfoRepository userInfoRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ShardRouter router;
+
+    @Autowired
+    private ShardRebalancer rebalancer;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private UserInfoService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new UserInfoServiceImpl(userInfoRepository, new CaffeineProfileCache(1_000, Duration.ofMinutes(1)),
+                new ProfileWriteBehindBuffer(jdbcTemplate, new WriteBehindProperties(), router),
+                new MembershipStatistics(new InMemoryMembershipStatisticsStore()), LastKnownProfiles.disabled(),
+                PaymentLedger.disabled());
+    }
+
+    @Override
+    protected UserInfoService service() {
+        return service;
+    }
+
+    private int rows(int shard, UUID userId) {
+        return router.onShard(shard, () ->
+                jdbcTemplate.queryForObject("SELECT count(*) FROM user_info WHERE user_id = ?", Integer.class, userId));
+    }
+
+    private UUID userOwnedBy(int shard) {
+        UUID userId = UUID.randomUUID();
+        while (router.ownerOf(userId) != shard) {
+            userId = UUID.randomUUID();
+        }
+        return userId;
+    }
+
+    @Test
+    void eachProfileIsStoredOnlyOnItsOwnerAndFoundById() {
+        assertThat(router.shardCount()).isEqualTo(3);
+        for (int owner = 0; owner < 3; owner++) {
+            UUID userId = userOwnedBy(owner);
+            UserInfoDTO created = service.createEmptyUserInfo(userId);
+
+            for (int shard = 0; shard < 3; shard++) {
+                assertThat(rows(shard, userId)).as("rows on shard %d", shard).isEqualTo(shard == owner ? 1 : 0);
+            }
+            assertThat(router.candidatesForId(created.getId())).first().isEqualTo(owner);
+            assertThat(router.candidatesForId(created.getId())).isEqualTo(router.candidatesForUserId(userId));
+            assertThat(service.getUserInfoById(created.getId()).getUserId()).isEqualTo(userId);
+        }
+    }
+
+    @Test
+    void searchesGatherFromEveryShard() {
+        String name = "scatter-" + UUID.randomUUID();
+        UserInfoCreation creation = new UserInfoCreation();
+        creation.setFullName(name);
+        service.createUserInfo(userOwnedBy(2), creation);
+        service.createEmptyUserInfo(userOwnedBy(1));
+
+        assertThat(userInfoRepository.findByFullNameIsContainingIgnoreCase(name)).isPresent();
+        assertThat(userInfoRepository.findAll()).extracting(UserInfo::getUserId)
+                .extracting(router::ownerOf).contains(0, 1, 2);
+    }
+
+    @Test
+    void usersNotYetMovedAreServedFromTheirPreviousShardUntilTheRebalancerMovesThem() {
+        UUID userId = userOwnedBy(2);
+        int previous = router.candidatesForUserId(userId).getLast();
+        // Written before shard 2 joined the ring
+        UserInfo written = router.onShard(previous, () ->
+                userInfoRepository.save(UserInfo.builder().userId(userId).fullName("before").build()));
+
+        UserInfoCreation update = new UserInfoCreation();
+        update.setFullName("updated");
+        service.updateUserInfo(written.getId(), update);
+        assertThat(service.getUserInfoByUserId(userId).getFullName()).isEqualTo("updated");
+        assertThat(rows(previous, userId)).isEqualTo(1);
+        assertThat(rows(2, userId)).isZero();
+
+        assertThat(rebalancer.run()).isGreaterThanOrEqualTo(1);
+
+        assertThat(rows(previous, userId)).isZero();
+        assertThat(rows(2, userId)).isEqualTo(1);
+        assertThat(service.getUserInfoById(written.getId()).getFullName()).isEqualTo("updated");
+    }
+
+    @Test
+    void aWriteToARowBeingMovedIsCarriedOver() throws Exception {
+        UUID userId = userOwnedBy(2);
+        int previous = router.candidatesForUserId(userId).getLast();
+        UserInfo written = router.onShard(previous, () ->
+                userInfoRepository.save(UserInfo.builder().userId(userId).fullName("before").build()));
+        CountDownLatch updated = new CountDownLatch(1);
+        ExecutorService writer = Executors.newSingleThreadExecutor();
+        try {
+            // Holds the row lock for a while, as a write that overlaps the move would
+            Future<?> write = writer.submit(() -> router.onShard(previous, () ->
+                    new TransactionTemplate(transactionManager).execute(status -> {
+                        jdbcTemplate.update("UPDATE user_info SET full_name = 'updated' WHERE id = ?", written.getId());
+                        updated.countDown();
+                        try {
+                            Thread.sleep(300);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return null;
+                    })));
+            assertThat(updated.await(5, TimeUnit.SECONDS)).isTrue();
+
+            rebalancer.run();
+            write.get(5, TimeUnit.SECONDS);
+        } finally {
+            writer.shutdownNow();
+        }
+
+        assertThat(rows(previous, userId)).isZero();
+        assertThat(service.getUserInfoByUserId(userId).getFullName()).isEqualTo("updated");
+    }
+}
@@ -0,0 +1,197 @@
+package FCJ.user.service;
+
+import FCJ.user.cache.CaffeineProfileCache;
+import FCJ.user.cache.LastKnownProfiles;
+import FCJ.user.cache.ProfileCache;
+import FCJ.user.dto.UserInfoCreation;
+import FCJ.user.dto.UserInfoDTO;
+import FCJ.user.exception.UserInfoNotFoundException;
+import FCJ.user.jdbc.UserInfoArchiveSchema;
+import FCJ.user.ledger.PaymentLedger;
+import FCJ.user.model.ArchivedUserInfo;
+import FCJ.user.repository.UserInfoRepository;
+import FCJ.user.stats.InMemoryMembershipStatisticsStore;
+import FCJ.user.stats.MembershipStatistics;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Not transactional: the archiver commits its own batches.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserInfoArchiverTest {
+
+    @Autowired
+    private UserInfoRepository userInfoRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private ProfileCache profileCache;
+    private UserInfoService service;
+
+    @BeforeEach
+    void setUp() {
+        new UserInfoArchiveSchema(jdbcTemplate, entityManagerFactory).initialize();
+        profileCache = new CaffeineProfileCache(1_000, Duration.ofMinutes(1));
+        service = new UserInfoServiceImpl(userInfoRepository, profileCache,
+                new ProfileWriteBehindBuffer(jdbcTemplate, new WriteBehindProperties()),
+                new MembershipStatistics(new InMemoryMembershipStatisticsStore()), LastKnownProfiles.disabled(),
+                PaymentLedger.disabled());
+    }
+
+    private UserInfoArchiver archiverAt(Instant now) {
+        ArchiveProperties properties = new ArchiveProperties();
+        properties.setBatchSize(1);
+        // Committed rows from other tests share the database; drain all of them
+        properties.setMaxBatchesPerRun(Integer.MAX_VALUE);
+        return new UserInfoArchiver(jdbcTemplate, transactionManager, profileCache, properties,
+                Clock.fixed(now, ZoneOffset.UTC));
+    }
+
+    private UserInfoDTO subscriber(String status, Instant expiresAt) {
+        UserInfoCreation creation = new UserInfoCreation();
+        creation.setFullName(status);
+        creation.setSubscriptionStatus(status);
+        creation.setSubscriptionExpiresAt(expiresAt);
+        return service.createUserInfo(UUID.randomUUID(), creation);
+    }
+
+    private int rows(String table, UUID id) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM " + table + " WHERE id = ?", Integer.class, id);
+    }
+
+    @Test
+    void movesOldTombstonesAndEndedSubscriptionsInBatches() {
+        Instant now = Instant.now();
+        UserInfoDTO active = subscriber("ACTIVE", now.plus(Duration.ofDays(30)));
+        UserInfoDTO recentlyExpired = subscriber("EXPIRED", now.minus(Duration.ofDays(10)));
+        UserInfoDTO longExpired = subscriber("CANCELLED", now.minus(Duration.ofDays(400)));
+        UserInfoDTO deleted = subscriber("ACTIVE", now.plus(Duration.ofDays(30)));
+        service.deleteUserInfo(deleted.getId());
+
+        assertThat(archiverAt(now).archive()).isGreaterThanOrEqualTo(1);
+        assertThat(rows("user_info", longExpired.getId())).isZero();
+        assertThat(rows("user_info", deleted.getId())).as("tombstone within retention").isEqualTo(1);
+
+        archiverAt(now.plus(Duration.ofDays(8))).archive();
+
+        assertThat(rows("user_info", deleted.getId())).isZero();
+        assertThat(rows("user_info_archive", deleted.getId())).isEqualTo(1);
+        assertThat(rows("user_info", active.getId())).isEqualTo(1);
+        assertThat(rows("user_info", recentlyExpired.getId())).isEqualTo(1);
+    }
+
+    @Test
+    void archivedSubscriberIsRestoredOnLookupButDeletedOneIsNot() {
+        Instant now = Instant.now();
+        UserInfoDTO lapsed = subscriber("EXPIRED", now.minus(Duration.ofDays(400)));
+        UserInfoDTO deleted = subscriber("ACTIVE", now);
+        service.deleteUserInfo(deleted.getId());
+        archiverAt(now.plus(Duration.ofDays(8))).archive();
+        assertThat(rows("user_info_archive", lapsed.getId())).isEqualTo(1);
+
+        UserInfoDTO restored = service.getUserInfoByUserId(lapsed.getUserId());
+
+        assertThat(restored.getId()).isEqualTo(lapsed.getId());
+        assertThat(restored.getSubscriptionStatus()).isEqualTo("EXPIRED");
+        assertThat(rows("user_info", lapsed.getId())).isEqualTo(1);
+        assertThat(rows("user_info_archive", lapsed.getId())).isZero();
+        assertThatThrownBy(() -> service.getUserInfoById(deleted.getId())).isInstanceOf(UserInfoNotFoundException.class);
+        assertThat(service.createEmptyUserInfo(deleted.getUserId()).getId()).isNotEqualTo(deleted.getId());
+    }
+
+    @Test
+    void registeringADeletedUserIdAgainLeavesTheTombstoneToTheArchiver() {
+        Instant now = Instant.now();
+        UserInfoDTO deleted = subscriber("ACTIVE", now);
+        service.deleteUserInfo(deleted.getId());
+
+        UserInfoDTO second = service.createEmptyUserInfo(deleted.getUserId());
+
+        assertThat(rows("user_info", deleted.getId())).isEqualTo(1);
+        assertThat(rows("user_info_archive", deleted.getId())).isZero();
+        assertThat(service.getUserInfoByUserId(deleted.getUserId()).getId()).isEqualTo(second.getId());
+        assertThat(service.getUserInfosByUserIds(List.of(deleted.getUserId())))
+                .containsOnlyKeys(deleted.getUserId());
+
+        archiverAt(now.plus(Duration.ofDays(8))).archive();
+        assertThat(rows("user_info_archive", deleted.getId())).isEqualTo(1);
+        assertThat(rows("user_info", second.getId())).isEqualTo(1);
+    }
+
+    @Test
+    void userIdIsUniqueAmongLiveRows() {
+        UserInfoDTO live = subscriber("ACTIVE", Instant.now());
+
+        assertThatThrownBy(() -> service.createEmptyUserInfo(live.getUserId()))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    @Test
+    void aUserIdWithAnArchivedProfileCannotRegisterAgain() {
+        Instant now = Instant.now();
+        UserInfoDTO lapsed = subscriber("EXPIRED", now.minus(Duration.ofDays(400)));
+        archiverAt(now).archive();
+
+        assertThatThrownBy(() -> service.createEmptyUserInfo(lapsed.getUserId()))
+                .isInstanceOf(DataIntegrityViolationException.class);
+        assertThat(service.getUserInfoByUserId(lapsed.getUserId()).getId()).isEqualTo(lapsed.getId());
+    }
+
+    @Test
+    void nothingIsRestoredWhileUserInfoHoldsARowForTheUserId() {
+        Instant now = Instant.now();
+        UserInfoDTO lapsed = subscriber("EXPIRED", now.minus(Duration.ofDays(400)));
+        archiverAt(now).archive();
+        jdbcTemplate.update("INSERT INTO user_info (id, user_id, deleted_at) VALUES (?, ?, ?)",
+                UUID.randomUUID(), lapsed.getUserId(), Timestamp.from(now));
+
+        assertThatThrownBy(() -> service.getUserInfoByUserId(lapsed.getUserId()))
+                .isInstanceOf(UserInfoNotFoundException.class);
+        assertThat(rows("user_info_archive", lapsed.getId())).isEqualTo(1);
+    }
+
+    @Test
+    void aRestoreThatLostTheRaceIsANoOp() {
+        Instant now = Instant.now();
+        UserInfoDTO lapsed = subscriber("EXPIRED", now.minus(Duration.ofDays(400)));
+        archiverAt(now).archive();
+        service.getUserInfoById(lapsed.getId());
+        // The archived row as a second restore that waited on its lock would see it: already copied back
+        jdbcTemplate.update("INSERT INTO user_info_archive (" + ArchivedUserInfo.COLUMNS + ", archived_at) SELECT "
+                + ArchivedUserInfo.COLUMNS + ", ? FROM user_info WHERE id = ?", Timestamp.from(now), lapsed.getId());
+
+        assertThat(userInfoRepository.restoreArchivedByUserId(lapsed.getUserId())).isFalse();
+        assertThat(userInfoRepository.restoreArchivedById(lapsed.getId())).isFalse();
+        assertThat(rows("user_info", lapsed.getId())).isEqualTo(1);
+        // The same id in both tables would fail every later archiver batch that picks it
+        jdbcTemplate.update("DELETE FROM user_info_archive WHERE id = ?", lapsed.getId());
+    }
+}
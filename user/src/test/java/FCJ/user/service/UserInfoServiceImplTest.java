@@ -0,0 +1,39 @@
+package FCJ.user.service;
+
+import FCJ.user.cache.CaffeineProfileCache;
+import FCJ.user.cache.LastKnownProfiles;
+import FCJ.user.ledger.PaymentLedger;
+import FCJ.user.repository.UserInfoRepository;
+import FCJ.user.stats.InMemoryMembershipStatisticsStore;
+import FCJ.user.stats.MembershipStatistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+
+@DataJpaTest
+class UserInfoServiceImplTest extends AbstractUserInfoServiceContractTest {
+
+    @Autowired
+    private UserInfoRepository userInfoRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private UserInfoService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new UserInfoServiceImpl(userInfoRepository, new CaffeineProfileCache(1_000, Duration.ofMinutes(1)),
+                new ProfileWriteBehindBuffer(jdbcTemplate, new WriteBehindProperties()),
+                new MembershipStatistics(new InMemoryMembershipStatisticsStore()), LastKnownProfiles.disabled(),
+                PaymentLedger.disabled());
+    }
+
+    @Override
+    protected UserInfoService service() {
+        return service;
+    }
+}
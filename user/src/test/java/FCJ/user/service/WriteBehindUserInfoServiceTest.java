@@ -0,0 +1,117 @@
+package FCJ.user.service;
+
+import FCJ.user.cache.CaffeineProfileCache;
+import FCJ.user.cache.LastKnownProfiles;
+import FCJ.user.dto.UserInfoCreation;
+import FCJ.user.dto.UserInfoDTO;
+import FCJ.user.ledger.PaymentLedger;
+import FCJ.user.model.UserInfo;
+import FCJ.user.repository.UserInfoRepository;
+import FCJ.user.stats.InMemoryMembershipStatisticsStore;
+import FCJ.user.stats.MembershipStatistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the contract suite with write-behind enabled, plus flush behaviour. Not transactional, so
+ * the JDBC flush sees rows written through JPA.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class WriteBehindUserInfoServiceTest extends AbstractUserInfoServiceContractTest {
+
+    @Autowired
+    private UserInfoRepository userInfoRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private ProfileWriteBehindBuffer buffer;
+    private UserInfoService service;
+
+    @BeforeEach
+    void setUp() {
+        WriteBehindProperties properties = new WriteBehindProperties();
+        properties.setEnabled(true);
+        buffer = new ProfileWriteBehindBuffer(jdbcTemplate, properties);
+        service = new UserInfoServiceImpl(userInfoRepository, new CaffeineProfileCache(1_000, Duration.ofMinutes(1)), buffer,
+                new MembershipStatistics(new InMemoryMembershipStatisticsStore()), LastKnownProfiles.disabled(),
+                PaymentLedger.disabled());
+    }
+
+    @Override
+    protected UserInfoService service() {
+        return service;
+    }
+
+    private static UserInfoCreation patch(String fullName, String avatarUrl, String phoneNumber) {
+        UserInfoCreation patch = new UserInfoCreation();
+        patch.setFullName(fullName);
+        patch.setAvatarUrl(avatarUrl);
+        patch.setPhoneNumber(phoneNumber);
+        return patch;
+    }
+
+    @Test
+    void mergesBurstIntoOneUpdateAndReadsOwnWrites() {
+        UUID userId = UUID.randomUUID();
+        service.createEmptyUserInfo(userId);
+
+        service.patchUserInfoByUserId(userId, patch(null, "https://cdn/avatar-10.png", null));
+        service.patchUserInfoByUserId(userId, patch(null, "https://cdn/avatar-100.png", null));
+        service.patchUserInfoByUserId(userId, patch("Alice", null, null));
+        UserInfoDTO last = service.patchUserInfoByUserId(userId, patch(null, null, "+84111"));
+
+        assertThat(last.getFullName()).isEqualTo("Alice");
+        assertThat(last.getAvatarUrl()).isEqualTo("https://cdn/avatar-100.png");
+        assertThat(userInfoRepository.findByUserId(userId).orElseThrow().getFullName()).isNull();
+        assertThat(buffer.pendingCount()).isEqualTo(1);
+
+        assertThat(buffer.flush()).isEqualTo(1);
+
+        UserInfo stored = userInfoRepository.findByUserId(userId).orElseThrow();
+        assertThat(stored.getFullName()).isEqualTo("Alice");
+        assertThat(stored.getAvatarUrl()).isEqualTo("https://cdn/avatar-100.png");
+        assertThat(stored.getPhoneNumber()).isEqualTo("+84111");
+        assertThat(buffer.pendingCount()).isZero();
+    }
+
+    @Test
+    void synchronousWriteTakesOverPendingPatch() {
+        UUID userId = UUID.randomUUID();
+        UserInfoDTO created = service.createEmptyUserInfo(userId);
+        service.patchUserInfoByUserId(userId, patch("Buffered", null, null));
+
+        UserInfoCreation subscription = new UserInfoCreation();
+        subscription.setSubscriptionTier("VIP");
+        service.patchUserInfo(created.getId(), subscription);
+        buffer.flush();
+
+        UserInfo stored = userInfoRepository.findById(created.getId()).orElseThrow();
+        assertThat(stored.getFullName()).isEqualTo("Buffered");
+        assertThat(stored.getSubscriptionTier()).isEqualTo("VIP");
+        assertThat(buffer.pendingCount()).isZero();
+    }
+
+    @Test
+    void stopFlushesPendingPatches() {
+        UUID userId = UUID.randomUUID();
+        service.createEmptyUserInfo(userId);
+        buffer.start();
+        service.patchUserInfoByUserId(userId, patch("Shutdown", null, null));
+
+        buffer.stop();
+
+        assertThat(userInfoRepository.findByUserId(userId).orElseThrow().getFullName()).isEqualTo("Shutdown");
+    }
+}
@@ -0,0 +1,65 @@
+package FCJ.user.shard;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ShardRingTest {
+
+    @Test
+    void spreadsSlotsEvenlyOverShards() {
+        ShardRing ring = new ShardRing(List.of(0, 1, 2, 3), 256);
+        int[] owned = new int[4];
+        for (int slot = 0; slot < ShardedIds.SLOTS; slot++) {
+            owned[ring.ownerOfSlot(slot)]++;
+        }
+        for (int count : owned) {
+            assertThat((double) count / ShardedIds.SLOTS).isBetween(0.18, 0.32);
+        }
+    }
+
+    @Test
+    void addingAShardOnlyMovesSlotsToIt() {
+        ShardRing before = new ShardRing(List.of(0, 1, 2), 256);
+        ShardRing after = new ShardRing(List.of(0, 1, 2, 3), 256);
+        int moved = 0;
+        for (int slot = 0; slot < ShardedIds.SLOTS; slot++) {
+            if (before.ownerOfSlot(slot) != after.ownerOfSlot(slot)) {
+                assertThat(after.ownerOfSlot(slot)).isEqualTo(3);
+                moved++;
+            }
+        }
+        assertThat((double) moved / ShardedIds.SLOTS).isBetween(0.18, 0.32);
+    }
+
+    @Test
+    void generatedIdsCarryTheirUsersSlot() {
+        UUID userId = UUID.randomUUID();
+        UUID id = ShardedIds.newId(userId);
+
+        assertThat(id.version()).isEqualTo(8);
+        assertThat(ShardedIds.slotOf(id)).isEqualTo(ShardedIds.slot(userId));
+        assertThat(ShardedIds.slotOf(UUID.randomUUID())).isEqualTo(-1);
+    }
+
+    @Test
+    void readsFallBackToThePreviousOwnerWhileResharding() {
+        ShardRing previous = new ShardRing(List.of(0, 1), 256);
+        ShardRouter router = new ShardRouter(3, new ShardRing(List.of(0, 1, 2), 256), previous);
+        UUID moved = UUID.randomUUID();
+        while (router.ownerOf(moved) != 2) {
+            moved = UUID.randomUUID();
+        }
+        int previousOwner = previous.ownerOfSlot(ShardedIds.slot(moved));
+
+        assertThat(router.candidatesForUserId(moved)).containsExactly(2, previousOwner);
+        assertThat(router.candidatesForId(ShardedIds.newId(moved))).containsExactly(2, previousOwner);
+        assertThat(router.candidatesForId(UUID.randomUUID())).containsExactly(0, 1, 2);
+        assertThatThrownBy(() -> new ShardRouter(2, new ShardRing(List.of(0, 1, 2), 16), null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
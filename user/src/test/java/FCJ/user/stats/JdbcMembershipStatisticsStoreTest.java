@@ -0,0 +1,130 @@
+package FCJ.user.stats;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Not transactional: the store commits its own seed and deltas.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class JdbcMembershipStatisticsStoreTest {
+
+    // Tier names no other test uses, inserted with plain SQL to get past the entity's validation
+    private final String tier = "STATS-" + UUID.randomUUID();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private JdbcMembershipStatisticsStore store;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS user_membership_stats");
+        store = new JdbcMembershipStatisticsStore(jdbcTemplate, transactionManager, entityManagerFactory);
+    }
+
+    private void live(String status, double amount, Instant deletedAt) {
+        jdbcTemplate.update("INSERT INTO user_info (id, user_id, subscription_tier, subscription_status, "
+                        + "last_payment_amount, deleted_at) VALUES (?, ?, ?, ?, ?, ?)",
+                UUID.randomUUID(), UUID.randomUUID(), tier, status, amount, timestamp(deletedAt));
+    }
+
+    private void archived(String status, double amount, Instant deletedAt) {
+        jdbcTemplate.update("INSERT INTO user_info_archive (id, user_id, subscription_tier, subscription_status, "
+                        + "last_payment_amount, deleted_at, archived_at) VALUES (?, ?, ?, ?, ?, ?, ?)",
+                UUID.randomUUID(), UUID.randomUUID(), tier, status, amount, timestamp(deletedAt),
+                Timestamp.from(Instant.now()));
+    }
+
+    private static Timestamp timestamp(Instant instant) {
+        return instant != null ? Timestamp.from(instant) : null;
+    }
+
+    private SegmentTotals segment(List<SegmentTotals> totals, String status) {
+        return totals.stream()
+                .filter(segment -> segment.segment().equals(new MembershipSegment(tier, status)))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    @Test
+    void seedsFromLiveAndArchivedProfilesOnceThenAddsDeltas() {
+        live("ACTIVE", 10.0, null);
+        live("ACTIVE", 10.0, Instant.now());
+        archived("ACTIVE", 5.0, null);
+        archived("ACTIVE", 5.0, Instant.now());
+
+        List<SegmentTotals> seeded = store.apply(List.of());
+
+        assertThat(segment(seeded, "ACTIVE").users()).as("tombstones are not counted").isEqualTo(2);
+        assertThat(segment(seeded, "ACTIVE").revenue()).isEqualTo(15.0);
+
+        List<SegmentTotals> updated = store.apply(List.of(
+                new SegmentTotals(new MembershipSegment(tier, "ACTIVE"), -1, -10.0),
+                new SegmentTotals(new MembershipSegment(tier, "EXPIRED"), 1, 10.0)));
+
+        assertThat(segment(updated, "ACTIVE").users()).isEqualTo(1);
+        assertThat(segment(updated, "EXPIRED").users()).isEqualTo(1);
+
+        // A second instance finds the table seeded and only adds its own deltas
+        JdbcMembershipStatisticsStore other = new JdbcMembershipStatisticsStore(jdbcTemplate, transactionManager,
+                entityManagerFactory);
+        assertThat(segment(other.apply(List.of()), "ACTIVE").users()).isEqualTo(1);
+    }
+
+    private JdbcMembershipStatisticsStore newStore() {
+        return new JdbcMembershipStatisticsStore(jdbcTemplate, transactionManager, entityManagerFactory);
+    }
+
+    private long users(MembershipStatistics statistics, String status) {
+        return segment(statistics.snapshot().segments(), status).users();
+    }
+
+    @Test
+    void writesCommittedBeforeTheSeedAreCountedOnce() {
+        MembershipState active = new MembershipState(new MembershipSegment(tier, "ACTIVE"), 10.0);
+        // Started before the table was seeded, by this instance or another one
+        MembershipStatistics seeding = new MembershipStatistics(newStore());
+        MembershipStatistics other = new MembershipStatistics(newStore(),
+                Clock.fixed(Instant.now().minusSeconds(1), ZoneOffset.UTC));
+        live("ACTIVE", 10.0, null);
+        seeding.recordChange(null, active);
+        live("ACTIVE", 10.0, null);
+        other.recordChange(null, active);
+
+        assertThat(seeding.flush()).isTrue();
+        assertThat(other.flush()).isTrue();
+
+        assertThat(users(seeding, "ACTIVE")).isEqualTo(2);
+        assertThat(users(other, "ACTIVE")).isEqualTo(2);
+
+        // Writes after the seed are added
+        live("ACTIVE", 10.0, null);
+        other.recordChange(null, active);
+        assertThat(other.flush()).isTrue();
+        assertThat(users(other, "ACTIVE")).isEqualTo(3);
+    }
+}
@@ -0,0 +1,96 @@
+package FCJ.user.stats;
+
+import FCJ.user.dto.UserInfoCreation;
+import FCJ.user.dto.UserInfoDTO;
+import FCJ.user.ledger.InMemoryPaymentLedger;
+import FCJ.user.service.InMemoryUserInfoService;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MembershipStatisticsTest {
+
+    private final MembershipStatistics statistics = new MembershipStatistics(new InMemoryMembershipStatisticsStore());
+    private final InMemoryUserInfoService service = new InMemoryUserInfoService(16, "", statistics,
+            new InMemoryPaymentLedger());
+
+    private UserInfoDTO subscriber(String tier, String status, double amount) {
+        UserInfoCreation creation = new UserInfoCreation();
+        creation.setFullName(tier);
+        creation.setSubscriptionTier(tier);
+        creation.setSubscriptionStatus(status);
+        creation.setLastPaymentAmount(amount);
+        return service.createUserInfo(UUID.randomUUID(), creation);
+    }
+
+    private SegmentTotals segment(String tier, String status) {
+        return statistics.snapshot().segments().stream()
+                .filter(totals -> totals.segment().equals(MembershipSegment.of(tier, status)))
+                .findFirst()
+                .orElse(new SegmentTotals(MembershipSegment.of(tier, status), 0, 0));
+    }
+
+    @Test
+    void writesAreAggregatedPerSegmentOnFlush() {
+        UserInfoDTO vip = subscriber("VIP", "ACTIVE", 99.0);
+        subscriber("VIP", "ACTIVE", 99.0);
+        UserInfoDTO basic = subscriber("BASIC", "ACTIVE", 10.0);
+        service.createEmptyUserInfo(UUID.randomUUID());
+
+        assertThat(statistics.snapshot().totalUsers()).as("nothing published before the flush").isZero();
+        assertThat(statistics.flush()).isTrue();
+
+        assertThat(segment("VIP", "ACTIVE").users()).isEqualTo(2);
+        assertThat(segment("VIP", "ACTIVE").revenue()).isEqualTo(198.0);
+        assertThat(segment(null, null).users()).isEqualTo(1);
+        assertThat(statistics.snapshot().totalUsers()).isEqualTo(4);
+        assertThat(statistics.snapshot().totalRevenue()).isEqualTo(208.0);
+
+        UserInfoCreation lapse = new UserInfoCreation();
+        lapse.setSubscriptionStatus("EXPIRED");
+        service.patchUserInfo(vip.getId(), lapse);
+        UserInfoCreation rename = new UserInfoCreation();
+        rename.setFullName("renamed");
+        service.patchUserInfo(basic.getId(), rename);
+        service.deleteUserInfo(basic.getId());
+        statistics.flush();
+
+        assertThat(segment("VIP", "ACTIVE").users()).isEqualTo(1);
+        assertThat(segment("VIP", "EXPIRED").users()).isEqualTo(1);
+        assertThat(segment("VIP", "EXPIRED").revenue()).isEqualTo(99.0);
+        assertThat(segment("BASIC", "ACTIVE").users()).isZero();
+        assertThat(statistics.snapshot().totalUsers()).isEqualTo(3);
+        assertThat(statistics.snapshot().asOf()).isNotNull();
+    }
+
+    @Test
+    void deltasOfAFailedFlushAreRetried() {
+        AtomicBoolean failing = new AtomicBoolean(true);
+        List<Collection<SegmentTotals>> applied = new ArrayList<>();
+        InMemoryMembershipStatisticsStore delegate = new InMemoryMembershipStatisticsStore();
+        MembershipStatistics flaky = new MembershipStatistics(deltas -> {
+            if (failing.get()) {
+                throw new IllegalStateException("database unavailable");
+            }
+            applied.add(List.copyOf(deltas));
+            return delegate.apply(deltas);
+        });
+        MembershipState vip = new MembershipState(MembershipSegment.of("VIP", "ACTIVE"), 99.0);
+
+        flaky.recordChange(null, vip);
+        assertThat(flaky.flush()).isFalse();
+        flaky.recordChange(null, vip);
+        failing.set(false);
+
+        assertThat(flaky.flush()).isTrue();
+        assertThat(applied).hasSize(1);
+        assertThat(flaky.snapshot().totalUsers()).isEqualTo(2);
+        assertThat(flaky.snapshot().totalRevenue()).isEqualTo(198.0);
+    }
+}
@@ -0,0 +1,54 @@
+package FCJ.user.store;
+
+import FCJ.user.dto.UserInfoDTO;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserInfoRecordCodecTest {
+
+    @Test
+    void roundTripsAllFields() {
+        UserInfoDTO dto = new UserInfoDTO();
+        dto.setId(UUID.randomUUID());
+        dto.setUserId(UUID.randomUUID());
+        dto.setFullName("Nguyễn Văn A");
+        dto.setAvatarUrl("https://example.com/a.png");
+        dto.setPhoneNumber("+84123456789");
+        dto.setAddress("Hà Nội");
+        dto.setSubscriptionTier("VIP");
+        dto.setSubscriptionStatus("ACTIVE");
+        dto.setSubscriptionExpiresAt(Instant.parse("2025-12-31T23:59:59.123456Z"));
+        dto.setPaymentMethod("MOMO");
+        dto.setLastPaymentId("PAY-2025-001");
+        dto.setLastPaymentDate(Instant.parse("2025-11-30T10:30:00Z"));
+        dto.setLastPaymentAmount(50000.0);
+        dto.setNextBillingDate(Instant.parse("2025-12-30T23:59:59Z"));
+        dto.setAutoRenewal(true);
+
+        byte[] encoded = UserInfoRecordCodec.encode(dto);
+        UserInfoDTO decoded = UserInfoRecordCodec.read(ByteBuffer.wrap(encoded));
+
+        assertThat(encoded).hasSize(UserInfoRecordCodec.encodedSize(dto));
+        assertThat(decoded).usingRecursiveComparison().isEqualTo(dto);
+    }
+
+    @Test
+    void keepsNullsDistinctFromEmptyValues() {
+        UserInfoDTO dto = new UserInfoDTO();
+        dto.setId(UUID.randomUUID());
+        dto.setUserId(UUID.randomUUID());
+        dto.setFullName("");
+
+        UserInfoDTO decoded = UserInfoRecordCodec.read(ByteBuffer.wrap(UserInfoRecordCodec.encode(dto)));
+
+        assertThat(decoded.getFullName()).isEmpty();
+        assertThat(decoded.getAddress()).isNull();
+        assertThat(decoded.getLastPaymentAmount()).isNull();
+        assertThat(decoded.getAutoRenewal()).isNull();
+    }
+}
@@ -0,0 +1,88 @@
+package FCJ.user.tracing;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TailSamplingSpanProcessorTest {
+
+    private final InMemorySpanExporter exporter = InMemorySpanExporter.create();
+    private final SdkTracerProvider provider;
+    private final Tracer tracer;
+
+    TailSamplingSpanProcessorTest() {
+        UserTracingProperties properties = new UserTracingProperties();
+        properties.setSlowThreshold(Duration.ofMillis(500));
+        properties.setBaselineRatio(0);
+        provider = SdkTracerProvider.builder()
+                .addSpanProcessor(new TailSamplingSpanProcessor(SimpleSpanProcessor.create(exporter), properties))
+                .build();
+        tracer = provider.get("test");
+    }
+
+    @AfterEach
+    void tearDown() {
+        provider.close();
+    }
+
+    // A root taking rootMillis, with one child ending before it
+    private Span trace(String name, long rootMillis, boolean childFails) {
+        long start = System.currentTimeMillis();
+        Span root = tracer.spanBuilder(name).setStartTimestamp(start, TimeUnit.MILLISECONDS).startSpan();
+        Span child = tracer.spanBuilder(name + "-child").setParent(Context.root().with(root))
+                .setStartTimestamp(start + 1, TimeUnit.MILLISECONDS).startSpan();
+        if (childFails) {
+            child.setStatus(StatusCode.ERROR);
+        }
+        child.end(start + 2, TimeUnit.MILLISECONDS);
+        root.end(start + rootMillis, TimeUnit.MILLISECONDS);
+        return root;
+    }
+
+    @Test
+    void exportsSlowAndFailedTracesWholeAndDropsTheRest() {
+        trace("fast", 20, false);
+        trace("slow", 800, false);
+        trace("failed", 20, true);
+
+        assertThat(exporter.getFinishedSpanItems()).extracting(SpanData::getName)
+                .containsExactlyInAnyOrder("slow-child", "slow", "failed-child", "failed");
+    }
+
+    @Test
+    void spansEndingAfterTheDecisionFollowIt() {
+        Span slow = trace("slow", 800, false);
+        Span fast = trace("fast", 20, false);
+
+        tracer.spanBuilder("slow-late").setParent(Context.root().with(slow)).startSpan().end();
+        tracer.spanBuilder("fast-late").setParent(Context.root().with(fast)).startSpan().end();
+
+        assertThat(exporter.getFinishedSpanItems()).extracting(SpanData::getName)
+                .containsExactlyInAnyOrder("slow-child", "slow", "slow-late");
+    }
+
+    @Test
+    void serverSideGrpcAndHttpStatusesCountAsFailures() {
+        Span grpc = tracer.spanBuilder("grpc").setAttribute("grpc.status_code", "UNAVAILABLE").startSpan();
+        grpc.end();
+        Span notFound = tracer.spanBuilder("not-found").setAttribute("grpc.status_code", "NOT_FOUND").startSpan();
+        notFound.end();
+        Span http = tracer.spanBuilder("http").setAttribute("status", "503").startSpan();
+        http.end();
+
+        assertThat(exporter.getFinishedSpanItems()).extracting(SpanData::getName)
+                .containsExactlyInAnyOrder("grpc", "http");
+    }
+}
@@ -0,0 +1,160 @@
+package FCJ.user.tracing;
+
+import FCJ.user.dto.UserInfoCreation;
+import FCJ.user.grpc.BlogUserInfoRequest;
+import FCJ.user.grpc.UserInfoGrpcService;
+import FCJ.user.grpc.UserInfoServiceGrpc;
+import FCJ.user.ledger.InMemoryPaymentLedger;
+import FCJ.user.service.InMemoryUserInfoService;
+import FCJ.user.service.LookupBatchProperties;
+import FCJ.user.service.UserInfoLookupBatcher;
+import FCJ.user.service.UserInfoService;
+import FCJ.user.stats.InMemoryMembershipStatisticsStore;
+import FCJ.user.stats.MembershipStatistics;
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.Server;
+import io.grpc.ServerInterceptors;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.MetadataUtils;
+import io.micrometer.core.instrument.binder.grpc.ObservationGrpcServerInterceptor;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.tracing.handler.DefaultTracingObservationHandler;
+import io.micrometer.tracing.handler.PropagatingReceiverTracingObservationHandler;
+import io.micrometer.tracing.handler.PropagatingSenderTracingObservationHandler;
+import io.micrometer.tracing.otel.bridge.OtelCurrentTraceContext;
+import io.micrometer.tracing.otel.bridge.OtelPropagator;
+import io.micrometer.tracing.otel.bridge.OtelTracer;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.propagation.ContextPropagators;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TracingInstrumentationTest {
+
+    private static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+    private static final String PARENT_SPAN_ID = "00f067aa0ba902b7";
+
+    private final InMemorySpanExporter exporter = InMemorySpanExporter.create();
+    private final SdkTracerProvider tracerProvider = SdkTracerProvider.builder()
+            .addSpanProcessor(SimpleSpanProcessor.create(exporter))
+            .build();
+    private final ObservationRegistry registry = ObservationRegistry.create();
+
+    TracingInstrumentationTest() {
+        io.opentelemetry.api.trace.Tracer otelTracer = tracerProvider.get("test");
+        OtelTracer tracer = new OtelTracer(otelTracer, new OtelCurrentTraceContext(), event -> {
+        });
+        OtelPropagator propagator = new OtelPropagator(
+                ContextPropagators.create(W3CTraceContextPropagator.getInstance()), otelTracer);
+        registry.observationConfig().observationHandler(new ObservationHandler.FirstMatchingCompositeObservationHandler(
+                new PropagatingReceiverTracingObservationHandler<>(tracer, propagator),
+                new PropagatingSenderTracingObservationHandler<>(tracer, propagator),
+                new DefaultTracingObservationHandler(tracer)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        tracerProvider.close();
+    }
+
+    private Map<String, SpanData> spansByName() {
+        return exporter.getFinishedSpanItems().stream()
+                .collect(Collectors.toMap(SpanData::getName, Function.identity(), (first, second) -> first));
+    }
+
+    @Test
+    void grpcCallContinuesTheCallersTraceThroughTheServiceLayer() throws Exception {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("observationRegistry", registry);
+        UserInfoService service = (UserInfoService) new ObservedServicePostProcessor(
+                beanFactory.getBeanProvider(ObservationRegistry.class))
+                .postProcessAfterInitialization(new InMemoryUserInfoService(16, "",
+                        new MembershipStatistics(new InMemoryMembershipStatisticsStore()), new InMemoryPaymentLedger()),
+                        "userInfoService");
+        UUID userId = UUID.randomUUID();
+        UserInfoCreation creation = new UserInfoCreation();
+        creation.setFullName("alice");
+        service.createUserInfo(userId, creation);
+        exporter.reset();
+
+        UserInfoLookupBatcher batcher = new UserInfoLookupBatcher(service, new LookupBatchProperties());
+        String name = InProcessServerBuilder.generateName();
+        Server server = InProcessServerBuilder.forName(name)
+                .addService(ServerInterceptors.intercept(new UserInfoGrpcService(service, batcher),
+                        new ObservationGrpcServerInterceptor(registry)))
+                .build()
+                .start();
+        ManagedChannel channel = InProcessChannelBuilder.forName(name).build();
+        try {
+            Metadata headers = new Metadata();
+            headers.put(Metadata.Key.of("traceparent", Metadata.ASCII_STRING_MARSHALLER),
+                    "00-" + TRACE_ID + "-" + PARENT_SPAN_ID + "-01");
+            UserInfoServiceGrpc.newBlockingStub(channel)
+                    .withInterceptors(MetadataUtils.newAttachHeadersInterceptor(headers))
+                    .blogUserInfo(BlogUserInfoRequest.newBuilder().setId(userId.toString()).build());
+        } finally {
+            channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+            server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+            batcher.shutdown();
+        }
+
+        Map<String, SpanData> spans = spansByName();
+        SpanData grpc = spans.get("userinfo.UserInfoService/BlogUserInfo");
+        SpanData serviceCall = spans.get("user-info-service.get-user-info-by-user-id");
+        assertThat(grpc).isNotNull();
+        assertThat(serviceCall).isNotNull();
+        assertThat(grpc.getTraceId()).isEqualTo(TRACE_ID);
+        assertThat(grpc.getParentSpanId()).isEqualTo(PARENT_SPAN_ID);
+        assertThat(serviceCall.getTraceId()).isEqualTo(TRACE_ID);
+        assertThat(serviceCall.getParentSpanId()).isEqualTo(grpc.getSpanId());
+    }
+
+    @Test
+    void jdbcSpansSeparatePoolWaitFromQueries() {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:tracing;DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new TracingDataSource(h2, registry));
+
+        Observation.createNotStarted("request", registry).observe(() -> {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS t (id int)");
+            jdbcTemplate.update("INSERT INTO t (id) VALUES (?)", 1);
+        });
+
+        List<SpanData> finished = exporter.getFinishedSpanItems();
+        SpanData request = spansByName().get("request");
+        assertThat(finished).extracting(SpanData::getName)
+                .contains("jdbc connection", "jdbc create", "jdbc insert");
+        assertThat(finished).filteredOn(span -> span.getName().startsWith("jdbc"))
+                .allSatisfy(span -> assertThat(span.getParentSpanId()).isEqualTo(request.getSpanId()));
+        assertThat(finished).filteredOn(span -> span.getName().equals("jdbc insert")).singleElement()
+                .satisfies(span -> assertThat(span.getAttributes().asMap().values())
+                        .contains("INSERT INTO t (id) VALUES (?)"));
+    }
+
+    @Test
+    void operationIsTheLeadingSqlKeyword() {
+        assertThat(TracingDataSource.operation("  SELECT * FROM user_info")).isEqualTo("select");
+        assertThat(TracingDataSource.operation("(SELECT 1)")).isEqualTo("other");
+        assertThat(TracingDataSource.operation(null)).isEqualTo("batch");
+    }
+}